@@ -1,15 +1,19 @@
 package org.examplea.uitoolkit.client;
 
 import org.fish.uitoolkit.utils.Regions;
+import org.fish.uitoolkit.v2.HudCompositor;
 import org.fish.uitoolkit.v2.RenderType;
 import org.fish.uitoolkit.v2.UIManager;
 import org.fish.uitoolkit.v2.components.BackgroundComponent;
 import org.fish.uitoolkit.v2.components.PositionComponent;
 import org.fish.uitoolkit.v2.controls.Label;
 import org.fish.uitoolkit.v2.controls.ProgressBar;
+import org.fish.uitoolkit.v2.layout.LayoutLoader;
+import org.fish.uitoolkit.v2.net.ServerUiReceiver;
 
 import net.fabricmc.api.ClientModInitializer;
-import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.minecraft.resource.ResourceType;
 
 /**
  * 简单的初始化测试：在客户端初始化时创建 Canvas/Panel/Label 并打印它们的位置与尺寸。
@@ -18,13 +22,12 @@ public class UitoolkitClient implements ClientModInitializer {
     @Override
     public void onInitializeClient() {
         UIManager ui = new UIManager();
-        // 注册 HUD 渲染回调，转发到 v2 UIManager 根控件渲染
-        HudRenderCallback.EVENT.register((context, tickDelta) -> {
-            try {
-                ui.render(context, tickDelta);
-            } catch (Throwable ignored) {
-            }
-        });
+        // 布局文件（assets/<ns>/layouts/*.json）随资源重载编译并热更新已创建的实例
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(LayoutLoader.getInstance());
+        // 作为图层注册到共享的 HUD 合成器（所有模组的图层在同一个 HUD 回调中按 z 顺序绘制）
+        HudCompositor.getInstance().register("uitoolkit:demo", ui, 0);
+        // 接收服务端下发的界面（每个界面作为一个图层）
+        ServerUiReceiver.getInstance().install();
 
         // 初始化一个最小 demo：向根面板添加一个 Label（仅用于验证渲染管线）
         ui.initDemo(() -> {
@@ -0,0 +1,122 @@
+package org.fish.uitoolkit.utils;
+
+/**
+ * 固定容量的 float 采样环形缓冲区，保留最近 capacity 个采样。
+ * <p>
+ * 追加为 O(1)，并增量维护窗口内的最小值 / 最大值（单调队列，队列中存放采样序号）与平均值（滑动求和），
+ * 查询也是 O(1)。构造后不再分配内存。非有限值（NaN / 无穷）按 0 记录。
+ */
+public final class SampleRing {
+    private final float[] values;
+    private final int capacity;
+    // total number of samples ever appended; sample with sequence s lives at values[s % capacity]
+    private long seq = 0;
+
+    // monotonic deques of sequence numbers: values are non-increasing (max) / non-decreasing (min) from head to tail
+    private final long[] maxDeque;
+    private int maxHead = 0, maxSize = 0;
+    private final long[] minDeque;
+    private int minHead = 0, minSize = 0;
+
+    private double sum = 0;
+    private int sinceResum = 0;
+
+    public SampleRing(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.values = new float[capacity];
+        this.maxDeque = new long[capacity];
+        this.minDeque = new long[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** 当前保留的采样数（不超过容量）。 */
+    public int size() {
+        return (int) Math.min(seq, capacity);
+    }
+
+    /** 累计追加过的采样数；可用来判断自上次读取后是否有新采样。 */
+    public long getSequence() {
+        return seq;
+    }
+
+    public void clear() {
+        seq = 0;
+        maxHead = maxSize = 0;
+        minHead = minSize = 0;
+        sum = 0;
+        sinceResum = 0;
+    }
+
+    /** 追加一个采样；缓冲区已满时覆盖最旧的采样。 */
+    public void add(float v) {
+        if (!Float.isFinite(v))
+            v = 0f;
+        long s = seq;
+        int slot = (int) (s % capacity);
+        if (s >= capacity)
+            sum -= values[slot];
+        values[slot] = v;
+        sum += v;
+        seq = s + 1;
+
+        long oldest = seq - capacity;
+        // max deque: drop expired head, then every tail entry not greater than v
+        if (maxSize > 0 && maxDeque[maxHead] < oldest) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        while (maxSize > 0 && values[(int) (maxDeque[(maxHead + maxSize - 1) % capacity] % capacity)] <= v)
+            maxSize--;
+        maxDeque[(maxHead + maxSize++) % capacity] = s;
+        // min deque
+        if (minSize > 0 && minDeque[minHead] < oldest) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        while (minSize > 0 && values[(int) (minDeque[(minHead + minSize - 1) % capacity] % capacity)] >= v)
+            minSize--;
+        minDeque[(minHead + minSize++) % capacity] = s;
+
+        // periodically recompute the running sum so rounding errors cannot accumulate
+        if (++sinceResum >= capacity) {
+            sinceResum = 0;
+            double exact = 0;
+            for (int i = 0, n = size(); i < n; i++)
+                exact += values[i];
+            sum = exact;
+        }
+    }
+
+    /** 第 i 个保留的采样，0 为最旧，size()-1 为最新。 */
+    public float get(int i) {
+        if (i < 0 || i >= size())
+            throw new IndexOutOfBoundsException(i);
+        return values[(int) ((seq - size() + i) % capacity)];
+    }
+
+    /** 最新的采样；为空时返回 0。 */
+    public float latest() {
+        return seq == 0 ? 0f : values[(int) ((seq - 1) % capacity)];
+    }
+
+    /** 窗口内最小值；为空时返回 0。 */
+    public float min() {
+        return minSize == 0 ? 0f : values[(int) (minDeque[minHead] % capacity)];
+    }
+
+    /** 窗口内最大值；为空时返回 0。 */
+    public float max() {
+        return maxSize == 0 ? 0f : values[(int) (maxDeque[maxHead] % capacity)];
+    }
+
+    /** 窗口内平均值；为空时返回 0。 */
+    public float average() {
+        int n = size();
+        return n == 0 ? 0f : (float) (sum / n);
+    }
+}
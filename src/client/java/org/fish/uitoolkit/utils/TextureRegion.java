@@ -26,6 +26,8 @@ public class TextureRegion {
     private int insetTop = 0;
     private int insetRight = 0;
     private int insetBottom = 0;
+    // 每次 insets 变化时递增，供几何缓存判断是否失效
+    private int revision = 0;
 
     public TextureRegion(Identifier id, int u, int v, int w, int h) {
         this(id, u, v, w, h, 0, 0);
@@ -98,6 +100,11 @@ public class TextureRegion {
         return insetBottom;
     }
 
+    /** 返回 insets 的修改计数，用于判断缓存的九宫格几何是否需要重建。 */
+    public int getRevision() {
+        return revision;
+    }
+
 
     /**
      * 设置九宫格内边距（insets），用于九宫格拉伸。
@@ -107,6 +114,7 @@ public class TextureRegion {
         this.insetTop = Math.max(0, top);
         this.insetRight = Math.max(0, right);
         this.insetBottom = Math.max(0, bottom);
+        this.revision++;
         return this;
     }
 
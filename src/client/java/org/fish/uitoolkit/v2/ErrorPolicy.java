@@ -0,0 +1,145 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.interfaces.IComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 控件、组件与 HUD 图层抛出异常时的处理策略：记录失败次数，达到上限后隔离（不再调用）并只记录一次日志，
+ * 日志包含目标、所在控件路径、阶段与累计失败数。
+ * <p>
+ * 隔离由调用方执行：组件从拥有者的分发列表中移除，控件被标记为跳过（{@link ControlObject#quarantine()}），
+ * 图层不再绘制。失败计数只在异常路径上访问，正常帧不经过这里。
+ * {@link #setRethrow(boolean) 开发模式} 下异常直接抛出，便于调试。
+ */
+public final class ErrorPolicy {
+    private static final ErrorPolicy INSTANCE = new ErrorPolicy();
+    private static final Logger LOGGER = LoggerFactory.getLogger("uitoolkit");
+
+    private final Map<Object, int[]> counts = new WeakHashMap<>();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong quarantines = new AtomicLong();
+    private volatile int maxFailures = 3;
+    private volatile boolean rethrow = false;
+
+    public static ErrorPolicy getInstance() {
+        return INSTANCE;
+    }
+
+    private ErrorPolicy() {
+    }
+
+    /** 同一目标失败多少次后被隔离（默认 3，最小 1）。 */
+    public ErrorPolicy setMaxFailures(int n) {
+        this.maxFailures = Math.max(1, n);
+        return this;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /** 为 true 时不计数也不隔离，异常直接抛出（开发时使用）。 */
+    public ErrorPolicy setRethrow(boolean rethrow) {
+        this.rethrow = rethrow;
+        return this;
+    }
+
+    public boolean isRethrow() {
+        return rethrow;
+    }
+
+    /**
+     * 记录一次失败。
+     *
+     * @param owner  发生失败的控件（用于日志中的路径，可为 null）
+     * @param target 失败的组件、控件或图层（计数按它的身份进行）
+     * @param phase  阶段，如 "update"、"render"
+     * @return 是否应隔离 target（只在达到上限的那一次返回 true）
+     */
+    public boolean failed(ControlObject owner, Object target, String phase, Throwable t) {
+        rethrowIfNeeded(t);
+        long total = failures.incrementAndGet();
+        int n;
+        synchronized (counts) {
+            int[] c = counts.computeIfAbsent(target, k -> new int[1]);
+            n = ++c[0];
+        }
+        if (n != maxFailures)
+            return n > maxFailures;
+        quarantines.incrementAndGet();
+        LOGGER.error("Quarantined {} after {} failures during {} at {} ({} UI failures so far)",
+                describe(target), n, phase, path(owner), total, t);
+        return true;
+    }
+
+    /**
+     * 记录一次没有处理方的一次性失败（例如没有设置失败回调的后台任务）：每次都记录日志，不参与隔离计数。
+     */
+    public void unhandled(Object target, String phase, Throwable t) {
+        rethrowIfNeeded(t);
+        long total = failures.incrementAndGet();
+        LOGGER.error("Unhandled failure in {} during {} ({} UI failures so far)", describe(target), phase, total, t);
+    }
+
+    private void rethrowIfNeeded(Throwable t) {
+        if (t instanceof VirtualMachineError e)
+            throw e;
+        if (rethrow) {
+            if (t instanceof RuntimeException e)
+                throw e;
+            if (t instanceof Error e)
+                throw e;
+            throw new RuntimeException(t);
+        }
+    }
+
+    /** 清除 target 的失败计数（解除隔离时调用）。 */
+    public void forget(Object target) {
+        synchronized (counts) {
+            counts.remove(target);
+        }
+    }
+
+    /** target 当前的失败次数。 */
+    public int getFailureCount(Object target) {
+        synchronized (counts) {
+            int[] c = counts.get(target);
+            return c == null ? 0 : c[0];
+        }
+    }
+
+    /** 全部失败次数。 */
+    public long getTotalFailures() {
+        return failures.get();
+    }
+
+    /** 已隔离的目标数。 */
+    public long getQuarantineCount() {
+        return quarantines.get();
+    }
+
+    private static String describe(Object target) {
+        if (target instanceof IComponent || target instanceof ControlObject)
+            return target.getClass().getSimpleName();
+        return String.valueOf(target);
+    }
+
+    /** 从根到控件的类名路径，例如 "ControlObject/ScrollView/Label"。 */
+    private static String path(ControlObject c) {
+        if (c == null)
+            return "-";
+        StringBuilder sb = new StringBuilder();
+        for (ControlObject o = c; o != null; o = o.getParent()) {
+            if (sb.length() > 0)
+                sb.insert(0, '/');
+            sb.insert(0, o.getClass().getSimpleName());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,255 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.minecraft.client.gui.DrawContext;
+
+/**
+ * 全局 HUD 合成器：多个模组的 {@link UIManager} 作为命名图层注册到这里，由同一个 {@link HudRenderCallback}
+ * 按 z 顺序（从小到大，后绘制的在上层）在一次遍历中绘制，而不是每个模组各自注册回调。
+ * <p>
+ * 混合状态与窗口尺寸每帧只设置 / 读取一次，之后逐个调用图层的 {@link UIManager#render(DrawContext, float, int, int)}；
+ * 每个图层仍各自执行后台任务、update 与输入帧，合成器不会把不同图层的绘制合并为更少的绘制调用。
+ * 每个图层记录绘制耗时与错误，一个图层抛出的异常不会影响其它图层；反复失败的图层按 {@link ErrorPolicy} 被隔离，不再绘制。
+ * <p>
+ * 注册与绘制都应在渲染线程上进行。
+ */
+public final class HudCompositor {
+    private static final HudCompositor INSTANCE = new HudCompositor();
+    private static final Comparator<Layer> ORDER = Comparator.<Layer>comparingInt(l -> l.z)
+            .thenComparingLong(l -> l.serial);
+
+    private Layer[] layers = new Layer[0];
+    // sorted snapshot used for drawing, rebuilt when layers or z values change
+    private Layer[] drawOrder = new Layer[0];
+    private boolean orderDirty = false;
+    private boolean installed = false;
+    private long serials = 0;
+    private long lastFrameNanos = 0;
+
+    public static HudCompositor getInstance() {
+        return INSTANCE;
+    }
+
+    private HudCompositor() {
+    }
+
+    /** 注册 HUD 渲染回调（只注册一次，重复调用无效）。 */
+    public synchronized void install() {
+        if (installed)
+            return;
+        installed = true;
+        HudRenderCallback.EVENT.register(this::render);
+    }
+
+    /**
+     * 注册一个图层并确保回调已安装。同名图层会被替换。
+     *
+     * @param name 图层名，建议使用 "modid:name" 形式
+     * @param z    绘制顺序，大的在上层
+     */
+    public Layer register(String name, UIManager ui, int z) {
+        if (name == null || ui == null)
+            throw new IllegalArgumentException("name and ui must not be null");
+        install();
+        Layer old = getLayer(name);
+        if (old != null)
+            old.unregister();
+        Layer layer = new Layer(this, name, ui, z, serials++);
+        Layer[] next = Arrays.copyOf(layers, layers.length + 1);
+        next[layers.length] = layer;
+        layers = next;
+        orderDirty = true;
+        return layer;
+    }
+
+    public Layer getLayer(String name) {
+        for (Layer l : layers) {
+            if (l.name.equals(name))
+                return l;
+        }
+        return null;
+    }
+
+    /** 当前注册的图层（按注册顺序的副本）。 */
+    public Layer[] getLayers() {
+        return layers.clone();
+    }
+
+    /** 上一帧全部图层的总耗时（纳秒）。 */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    void remove(Layer layer) {
+        int i = Arrays.asList(layers).indexOf(layer);
+        if (i < 0)
+            return;
+        Layer[] next = new Layer[layers.length - 1];
+        System.arraycopy(layers, 0, next, 0, i);
+        System.arraycopy(layers, i + 1, next, i, layers.length - i - 1);
+        layers = next;
+        orderDirty = true;
+    }
+
+    /** 按 z 顺序绘制所有启用的图层（由 HUD 回调调用）。 */
+    public void render(DrawContext context, float tickDelta) {
+        if (orderDirty) {
+            Layer[] sorted = layers.clone();
+            Arrays.sort(sorted, ORDER);
+            drawOrder = sorted;
+            orderDirty = false;
+        }
+        Layer[] order = drawOrder;
+        if (order.length == 0)
+            return;
+        long frameStart = System.nanoTime();
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+        int width = context.getScaledWindowWidth();
+        int height = context.getScaledWindowHeight();
+        for (Layer layer : order) {
+            if (!layer.enabled || layer.quarantined || layer.compositor == null)
+                continue;
+            long t0 = System.nanoTime();
+            try {
+                layer.ui.render(context, tickDelta, width, height);
+            } catch (Throwable t) {
+                layer.errorCount++;
+                layer.lastError = t;
+                // a layer that keeps failing is reported once and no longer drawn
+                if (ErrorPolicy.getInstance().failed(layer.ui.getRoot(), layer, "hud render", t))
+                    layer.quarantined = true;
+            } finally {
+                // a layer must not leak tint state into the layers drawn after it
+                context.setShaderColor(1f, 1f, 1f, 1f);
+            }
+            layer.record(System.nanoTime() - t0);
+        }
+        lastFrameNanos = System.nanoTime() - frameStart;
+    }
+
+    /** 合成器中的一个图层。 */
+    public static final class Layer {
+        private HudCompositor compositor;
+        private final String name;
+        private final UIManager ui;
+        private final long serial;
+        private int z;
+        private boolean enabled = true;
+        private boolean quarantined = false;
+
+        private long lastNanos = 0;
+        private double averageNanos = 0;
+        private long maxNanos = 0;
+        private int errorCount = 0;
+        private Throwable lastError;
+
+        private Layer(HudCompositor compositor, String name, UIManager ui, int z, long serial) {
+            this.compositor = compositor;
+            this.name = name;
+            this.ui = ui;
+            this.z = z;
+            this.serial = serial;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UIManager getManager() {
+            return ui;
+        }
+
+        public int getZ() {
+            return z;
+        }
+
+        public Layer setZ(int z) {
+            if (z != this.z) {
+                this.z = z;
+                if (compositor != null)
+                    compositor.orderDirty = true;
+            }
+            return this;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /** 禁用的图层不绘制也不更新。 */
+        public Layer setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /** 是否因反复抛出异常而被隔离（不再绘制）。 */
+        public boolean isQuarantined() {
+            return quarantined;
+        }
+
+        /** 解除隔离并清除失败计数。 */
+        public Layer releaseQuarantine() {
+            quarantined = false;
+            ErrorPolicy.getInstance().forget(this);
+            return this;
+        }
+
+        /** 从合成器中移除。 */
+        public void unregister() {
+            if (compositor != null) {
+                compositor.remove(this);
+                compositor = null;
+            }
+        }
+
+        public boolean isRegistered() {
+            return compositor != null;
+        }
+
+        private void record(long nanos) {
+            lastNanos = nanos;
+            // exponential moving average over roughly the last 32 frames
+            averageNanos = averageNanos == 0 ? nanos : averageNanos + (nanos - averageNanos) / 32d;
+            if (nanos > maxNanos)
+                maxNanos = nanos;
+        }
+
+        /** 上一帧的绘制耗时（纳秒，包含该图层的更新与布局）。 */
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        /** 最近约 32 帧的平均耗时（纳秒）。 */
+        public double getAverageNanos() {
+            return averageNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public void resetStats() {
+            lastNanos = maxNanos = 0;
+            averageNanos = 0;
+        }
+
+        /** 绘制时抛出异常的次数。 */
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        public Throwable getLastError() {
+            return lastError;
+        }
+
+        @Override
+        public String toString() {
+            return "HUD layer '" + name + "'";
+        }
+    }
+}
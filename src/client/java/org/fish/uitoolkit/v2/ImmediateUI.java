@@ -0,0 +1,314 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.input.InputComponent;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+import org.fish.uitoolkit.v2.style.StyleState;
+
+/**
+ * 立即模式外观：每帧以相同的 id 调用控件方法，内部把 id 映射到保留模式的 {@link ControlObject}。
+ * <p>
+ * 首次使用某个 id 时创建控件，之后的帧原地更新（值未变化时不做任何事），{@link #end()} 时移除本帧未使用的 id。
+ * 稳态帧不分配对象：id 查找使用字符串自身缓存的哈希，每个分组的顺序只在与上一帧不同时才调整。
+ * <pre>
+ * ui.begin();
+ * ui.label("fps", fpsText);
+ * if (ui.button("reload", "Reload"))
+ *     reload();
+ * ui.end();
+ * </pre>
+ * id 在整个外观内必须唯一。应在渲染线程、{@link UIManager#render} 之前调用。
+ */
+public final class ImmediateUI {
+    // shared widget styles; hover colors come from the HOVER variant, so no per-frame color updates
+    private static final Style BUTTON = new Style("imgui_button").set(StyleProperty.TEXT_COLOR, 0xFFFFFF);
+    private static final Style TOGGLE_OFF = new Style("imgui_toggle_off").set(StyleProperty.TEXT_COLOR, 0xAAAAAA);
+    private static final Style TOGGLE_ON = new Style("imgui_toggle_on").set(StyleProperty.TEXT_COLOR, 0x55FF55);
+
+    static {
+        BUTTON.variant(StyleState.HOVER).set(StyleProperty.TEXT_COLOR, 0xFFFF55);
+        TOGGLE_OFF.variant(StyleState.HOVER).set(StyleProperty.TEXT_COLOR, 0xFFFF55);
+    }
+
+    private final ControlObject container;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Entry> all = new ArrayList<>();
+    // group stack: the control children are placed in and the next child slot
+    private final List<Group> groups = new ArrayList<>();
+    private final Group rootGroup;
+    private int depth = 0;
+    private long frame = 0;
+    private boolean inFrame = false;
+
+    private int lastCreated = 0;
+    private int lastRemoved = 0;
+
+    /** 在 manager 的根控件下创建一个纵向排列的容器。 */
+    public ImmediateUI(UIManager manager) {
+        this(manager.getRoot());
+    }
+
+    public ImmediateUI(ControlObject parent) {
+        container = new ControlObject();
+        PanelComponent panel = (PanelComponent) container.addComponent(new PanelComponent());
+        panel.setOrientation(PanelComponent.Orientation.VERTICAL);
+        panel.setAutoSizeWidth(true);
+        panel.setAutoSizeHeight(true);
+        if (parent != null)
+            parent.addChild(container);
+        rootGroup = new Group();
+        rootGroup.control = container;
+        groups.add(rootGroup);
+    }
+
+    /** 外观的容器控件（可设置位置、锚点、间距等）。 */
+    public ControlObject getContainer() {
+        return container;
+    }
+
+    public void begin() {
+        frame++;
+        depth = 0;
+        rootGroup.cursor = 0;
+        lastCreated = 0;
+        inFrame = true;
+    }
+
+    /** 结束本帧：关闭未结束的分组并移除本帧未使用的控件。 */
+    public void end() {
+        while (depth > 0)
+            endGroup();
+        trimGroup(rootGroup);
+        int removed = 0;
+        for (int i = all.size() - 1; i >= 0; i--) {
+            Entry e = all.get(i);
+            if (e.frame == frame)
+                continue;
+            ControlObject parent = e.control.getParent();
+            if (parent != null)
+                parent.removeChild(e.control);
+            entries.remove(e.id);
+            int last = all.size() - 1;
+            all.set(i, all.get(last));
+            all.remove(last);
+            removed++;
+        }
+        lastRemoved = removed;
+        inFrame = false;
+    }
+
+    // --- widgets ---
+
+    /** 文本标签。 */
+    public Label label(String id, String text) {
+        Entry e = touch(id, Kind.LABEL);
+        Label l = (Label) e.control;
+        l.setText(text);
+        return l;
+    }
+
+    /** 按钮：上一帧以来被点击过时返回 true（每次点击只返回一次）。 */
+    public boolean button(String id, String text) {
+        Entry e = touch(id, Kind.BUTTON);
+        Label l = (Label) e.control;
+        l.setText(text);
+        l.setStyle(BUTTON);
+        boolean clicked = e.clicks > 0;
+        e.clicks = 0;
+        return clicked;
+    }
+
+    /** 开关：点击时翻转 value 并返回新值。 */
+    public boolean toggle(String id, String text, boolean value) {
+        Entry e = touch(id, Kind.BUTTON);
+        Label l = (Label) e.control;
+        l.setText(text);
+        boolean v = value;
+        if (e.clicks > 0) {
+            if ((e.clicks & 1) == 1)
+                v = !v;
+            e.clicks = 0;
+        }
+        l.setStyle(v ? TOGGLE_ON : TOGGLE_OFF);
+        return v;
+    }
+
+    /**
+     * 自定义控件：首次使用时由 factory 创建，之后返回同一实例供调用方原地更新。
+     * factory 应为不捕获变量的 lambda 或方法引用，以免每帧分配。
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ControlObject> T control(String id, Supplier<T> factory) {
+        checkFrame();
+        Entry e = entries.get(id);
+        if (e == null || e.kind != Kind.CUSTOM) {
+            if (e != null)
+                drop(e);
+            e = create(id, Kind.CUSTOM, factory.get());
+        }
+        place(e);
+        return (T) e.control;
+    }
+
+    /** 开始一个分组，后续控件放入其中直到 {@link #endGroup()}。 */
+    public ControlObject beginGroup(String id, PanelComponent.Orientation orientation) {
+        Entry e = touch(id, Kind.GROUP);
+        PanelComponent p = e.control.getComponent(PanelComponent.class);
+        p.setOrientation(orientation);
+        depth++;
+        Group g;
+        if (depth < groups.size()) {
+            g = groups.get(depth);
+        } else {
+            g = new Group();
+            groups.add(g);
+        }
+        g.control = e.control;
+        g.cursor = 0;
+        return e.control;
+    }
+
+    public void endGroup() {
+        if (depth <= 0)
+            return;
+        Group g = groups.get(depth);
+        trimGroup(g);
+        g.control = null;
+        depth--;
+    }
+
+    // --- stats ---
+
+    public int getWidgetCount() {
+        return all.size();
+    }
+
+    /** 上一帧新建的控件数量。 */
+    public int getLastCreatedCount() {
+        return lastCreated;
+    }
+
+    /** 上一帧回收的控件数量。 */
+    public int getLastRemovedCount() {
+        return lastRemoved;
+    }
+
+    // --- internals ---
+
+    private void checkFrame() {
+        if (!inFrame)
+            throw new IllegalStateException("ImmediateUI widget called outside begin()/end()");
+    }
+
+    private Entry touch(String id, Kind kind) {
+        checkFrame();
+        Entry e = entries.get(id);
+        if (e == null || e.kind != kind) {
+            if (e != null)
+                drop(e);
+            e = create(id, kind, newControl(kind));
+        }
+        place(e);
+        return e;
+    }
+
+    private ControlObject newControl(Kind kind) {
+        switch (kind) {
+            case LABEL:
+            case BUTTON:
+                return new Label("");
+            default: {
+                ControlObject c = new ControlObject();
+                PanelComponent p = (PanelComponent) c.addComponent(new PanelComponent());
+                p.setAutoSizeWidth(true);
+                p.setAutoSizeHeight(true);
+                return c;
+            }
+        }
+    }
+
+    private Entry create(String id, Kind kind, ControlObject control) {
+        Entry e = new Entry(id, kind, control);
+        if (kind == Kind.BUTTON) {
+            e.input = (InputComponent) control.addComponent(new InputComponent());
+            final Entry entry = e;
+            e.input.onClick(ev -> {
+                entry.clicks++;
+                ev.consume();
+            });
+        }
+        entries.put(id, e);
+        all.add(e);
+        lastCreated++;
+        return e;
+    }
+
+    private void drop(Entry e) {
+        ControlObject parent = e.control.getParent();
+        if (parent != null)
+            parent.removeChild(e.control);
+        entries.remove(e.id);
+        all.remove(e);
+    }
+
+    /** 把控件放到当前分组的下一个位置；已在该位置时不做任何事。 */
+    private void place(Entry e) {
+        if (e.frame == frame)
+            throw new IllegalStateException("duplicate ImmediateUI id: " + e.id);
+        e.frame = frame;
+        Group g = groups.get(depth);
+        ControlObject parent = g.control;
+        List<ControlObject> children = parent.getChildren();
+        int slot = g.cursor++;
+        if (slot < children.size() && children.get(slot) == e.control)
+            return;
+        if (e.control.getParent() == parent) {
+            parent.moveChild(e.control, slot);
+        } else {
+            ControlObject old = e.control.getParent();
+            if (old != null)
+                old.removeChild(e.control);
+            parent.insertChild(slot, e.control);
+        }
+    }
+
+    /** 移除分组中位于本帧最后一个控件之后的子控件（它们本帧未被使用）。 */
+    private void trimGroup(Group g) {
+        List<ControlObject> children = g.control.getChildren();
+        for (int i = children.size() - 1; i >= g.cursor; i--)
+            g.control.removeChild(children.get(i));
+    }
+
+    private enum Kind {
+        LABEL, BUTTON, GROUP, CUSTOM
+    }
+
+    private static final class Entry {
+        final String id;
+        final Kind kind;
+        final ControlObject control;
+        InputComponent input;
+        long frame = -1;
+        int clicks = 0;
+
+        Entry(String id, Kind kind, ControlObject control) {
+            this.id = id;
+            this.kind = kind;
+            this.control = control;
+        }
+    }
+
+    private static final class Group {
+        ControlObject control;
+        int cursor;
+    }
+}
@@ -0,0 +1,328 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.fish.uitoolkit.v2.components.PositionComponent;
+import org.fish.uitoolkit.v2.components.ScaleComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 可选的数据导向布局后端：把控件树的定位数据（位置、偏移、锚点、轴心、缩放后尺寸、父槽位）保存在并行的基本类型数组中，
+ * 用一次顺序遍历计算所有绝对坐标。
+ * <p>
+ * 槽位按拓扑顺序分配（父槽位总是小于子槽位），因此 {@link #layout()} 只需从前到后扫描数组一次，
+ * 读取父节点结果时不会遇到未计算的槽位。被绑定的 {@link PositionComponent} / {@link ScaleComponent} 成为数组的薄视图：
+ * setter 写入对应槽位，{@code getAbsX/getAbsY} 读取计算结果，组件自身的 update 不再计算位置。
+ * <p>
+ * 结构变化（{@link ControlObject#setParent}）增量处理：新子树追加到数组末尾，移除的子树只标记槽位为空闲；
+ * 空闲槽位过多时按先序重新编号。调用方在 update 之后、render 之前调用 {@link #layout()}
+ * （{@link UIManager#setLayoutArenaEnabled} 会自动完成），因此 update 期间读取到的绝对坐标是上一次 layout 的结果。
+ * <p>
+ * 只应在渲染线程上使用。
+ */
+public final class LayoutArena {
+    private static final int FREE = -2;
+    private static final int NO_PARENT = -1;
+    // placement flags
+    private static final byte PARENT_NORMALIZED = 1;
+    private static final byte PIVOT_NORMALIZED = 2;
+
+    private int count = 0;
+    private int freeCount = 0;
+    private int[] parent = new int[0];
+    private int[] baseX = new int[0];
+    private int[] baseY = new int[0];
+    private int[] offsetX = new int[0];
+    private int[] offsetY = new int[0];
+    private float[] anchorX = new float[0];
+    private float[] anchorY = new float[0];
+    private float[] pivotX = new float[0];
+    private float[] pivotY = new float[0];
+    private byte[] flags = new byte[0];
+    private int[] width = new int[0];
+    private int[] height = new int[0];
+    private int[] absX = new int[0];
+    private int[] absY = new int[0];
+    private ControlObject[] controls = new ControlObject[0];
+
+    private final List<ControlObject> roots = new ArrayList<>();
+    // explicit traversal stack (deep trees must not overflow the call stack) with parallel parent slots
+    private final ArrayDeque<ControlObject> walk = new ArrayDeque<>();
+    private int[] walkParents = new int[16];
+
+    private int compactions = 0;
+
+    /** 把 root 及其整棵子树放入数组。root 按顶层控件布局（不参考它在数组外的父控件）。 */
+    public LayoutArena attach(ControlObject root) {
+        if (root == null || slotOf(root) >= 0)
+            return this;
+        LayoutArena other = of(root);
+        if (other != null)
+            other.detach(root);
+        roots.add(root);
+        bindSubtree(root, NO_PARENT);
+        return this;
+    }
+
+    /** 从数组中移除 root（或任意已绑定的子树）；组件恢复为对象模型的计算方式。 */
+    public void detach(ControlObject c) {
+        if (c == null || slotOf(c) < 0)
+            return;
+        roots.remove(c);
+        freeSubtree(c);
+        maybeCompact();
+    }
+
+    /** 按拓扑顺序计算所有绝对坐标。 */
+    public void layout() {
+        final int n = count;
+        final int[] parent = this.parent, baseX = this.baseX, baseY = this.baseY;
+        final int[] offsetX = this.offsetX, offsetY = this.offsetY, width = this.width, height = this.height;
+        final float[] anchorX = this.anchorX, anchorY = this.anchorY, pivotX = this.pivotX, pivotY = this.pivotY;
+        final byte[] flags = this.flags;
+        final int[] absX = this.absX, absY = this.absY;
+        for (int i = 0; i < n; i++) {
+            int p = parent[i];
+            if (p == FREE)
+                continue;
+            if (p == NO_PARENT) {
+                absX[i] = baseX[i];
+                absY[i] = baseY[i];
+                continue;
+            }
+            int f = flags[i];
+            int pw = width[p], ph = height[p];
+            int cw = width[i], ch = height[i];
+            int px, py, ox, oy;
+            if ((f & PARENT_NORMALIZED) != 0) {
+                px = Math.round(anchorX[i] * pw);
+                py = Math.round(anchorY[i] * ph);
+            } else {
+                px = fraction(anchorX[i], pw);
+                py = fraction(anchorY[i], ph);
+            }
+            if ((f & PIVOT_NORMALIZED) != 0) {
+                ox = Math.round(pivotX[i] * cw);
+                oy = Math.round(pivotY[i] * ch);
+            } else {
+                ox = fraction(pivotX[i], cw);
+                oy = fraction(pivotY[i], ch);
+            }
+            absX[i] = absX[p] + px + baseX[i] - ox + offsetX[i];
+            absY[i] = absY[p] + py + baseY[i] - oy + offsetY[i];
+        }
+    }
+
+    // enum anchors use integer halving, matching PositionComponent
+    private static int fraction(float f, int size) {
+        return f == 0f ? 0 : (f == 1f ? size : size / 2);
+    }
+
+    // --- slot access used by the bound components ---
+
+    public int getAbsX(int slot) {
+        return absX[slot];
+    }
+
+    public int getAbsY(int slot) {
+        return absY[slot];
+    }
+
+    /**
+     * 写入一个槽位的定位数据。parentAnchor / pivot 为 0..1 的比例；对应的 normalized 为 false 时按预设锚点的整数规则取整。
+     */
+    public void setPlacement(int slot, int bx, int by, int ox, int oy, float ax, float ay, boolean anchorNormalized,
+            float pvx, float pvy, boolean pivotNormalized) {
+        baseX[slot] = bx;
+        baseY[slot] = by;
+        offsetX[slot] = ox;
+        offsetY[slot] = oy;
+        anchorX[slot] = ax;
+        anchorY[slot] = ay;
+        pivotX[slot] = pvx;
+        pivotY[slot] = pvy;
+        flags[slot] = (byte) ((anchorNormalized ? PARENT_NORMALIZED : 0) | (pivotNormalized ? PIVOT_NORMALIZED : 0));
+    }
+
+    /** 绑定时写入组件上一次计算的绝对坐标，使下一次 layout 之前的读取保持不变。 */
+    public void seedAbs(int slot, int x, int y) {
+        absX[slot] = x;
+        absY[slot] = y;
+    }
+
+    /** 写入一个槽位的缩放后尺寸。 */
+    public void setSize(int slot, int w, int h) {
+        width[slot] = w;
+        height[slot] = h;
+    }
+
+    // --- structure ---
+
+    /** 由 {@link ControlObject#setParent} 调用：在旧数组中释放子树，并在新父控件所在的数组中追加子树。 */
+    public static void onParentChanged(ControlObject c, ControlObject newParent) {
+        LayoutArena old = of(c);
+        if (old != null && !old.roots.contains(c))
+            old.detach(c);
+        LayoutArena next = of(newParent);
+        if (next != null && of(c) == null)
+            next.bindSubtree(c, next.slotOf(newParent));
+    }
+
+    /** 由 {@link ControlObject#addComponent} 调用：控件替换了位置或尺寸组件时重新绑定其槽位。 */
+    public static void onComponentReplaced(ControlObject c, Object oldComponent) {
+        LayoutArena a = null;
+        int slot = -1;
+        if (oldComponent instanceof PositionComponent) {
+            PositionComponent p = (PositionComponent) oldComponent;
+            a = p.getArena();
+            slot = p.getArenaSlot();
+            p.unbindArena();
+        } else if (oldComponent instanceof ScaleComponent) {
+            ScaleComponent s = (ScaleComponent) oldComponent;
+            a = s.getArena();
+            slot = s.getArenaSlot();
+            s.unbindArena();
+        }
+        if (a != null && slot >= 0)
+            a.bindSlot(c, slot);
+    }
+
+    /** 控件所在的数组；未绑定时返回 null。 */
+    public static LayoutArena of(ControlObject c) {
+        if (c == null)
+            return null;
+        PositionComponent p = c.getComponent(PositionComponent.class);
+        return p != null ? p.getArena() : null;
+    }
+
+    private int slotOf(ControlObject c) {
+        PositionComponent p = c.getComponent(PositionComponent.class);
+        return p != null && p.getArena() == this ? p.getArenaSlot() : -1;
+    }
+
+    private void bindSubtree(ControlObject root, int parentSlot) {
+        walk.clear();
+        walk.push(root);
+        walkParents[0] = parentSlot;
+        while (!walk.isEmpty()) {
+            ControlObject c = walk.pop();
+            int p = walkParents[walk.size()];
+            int slot = allocate(p);
+            bindSlot(c, slot);
+            List<ControlObject> children = c.getChildren();
+            // push in reverse so children keep their sibling order in the arrays
+            for (int i = children.size() - 1; i >= 0; i--) {
+                ControlObject child = children.get(i);
+                if (child != null) {
+                    if (walk.size() == walkParents.length)
+                        walkParents = Arrays.copyOf(walkParents, walkParents.length * 2);
+                    walkParents[walk.size()] = slot;
+                    walk.push(child);
+                }
+            }
+        }
+    }
+
+    private void bindSlot(ControlObject c, int slot) {
+        controls[slot] = c;
+        PositionComponent pos = c.getComponent(PositionComponent.class);
+        if (pos != null)
+            pos.bindArena(this, slot);
+        ScaleComponent sc = c.getComponent(ScaleComponent.class);
+        if (sc != null)
+            sc.bindArena(this, slot);
+    }
+
+    private void freeSubtree(ControlObject root) {
+        walk.clear();
+        walk.push(root);
+        while (!walk.isEmpty()) {
+            ControlObject c = walk.pop();
+            int slot = slotOf(c);
+            if (slot < 0)
+                continue;
+            PositionComponent pos = c.getComponent(PositionComponent.class);
+            if (pos != null)
+                pos.unbindArena();
+            ScaleComponent sc = c.getComponent(ScaleComponent.class);
+            if (sc != null && sc.getArena() == this)
+                sc.unbindArena();
+            parent[slot] = FREE;
+            controls[slot] = null;
+            freeCount++;
+            List<ControlObject> children = c.getChildren();
+            for (int i = 0, n = children.size(); i < n; i++) {
+                ControlObject child = children.get(i);
+                if (child != null)
+                    walk.push(child);
+            }
+        }
+    }
+
+    private int allocate(int parentSlot) {
+        if (count == parent.length)
+            grow(Math.max(64, count * 2));
+        int slot = count++;
+        parent[slot] = parentSlot;
+        return slot;
+    }
+
+    private void grow(int n) {
+        parent = Arrays.copyOf(parent, n);
+        baseX = Arrays.copyOf(baseX, n);
+        baseY = Arrays.copyOf(baseY, n);
+        offsetX = Arrays.copyOf(offsetX, n);
+        offsetY = Arrays.copyOf(offsetY, n);
+        anchorX = Arrays.copyOf(anchorX, n);
+        anchorY = Arrays.copyOf(anchorY, n);
+        pivotX = Arrays.copyOf(pivotX, n);
+        pivotY = Arrays.copyOf(pivotY, n);
+        flags = Arrays.copyOf(flags, n);
+        width = Arrays.copyOf(width, n);
+        height = Arrays.copyOf(height, n);
+        absX = Arrays.copyOf(absX, n);
+        absY = Arrays.copyOf(absY, n);
+        controls = Arrays.copyOf(controls, n);
+    }
+
+    /** 空闲槽位超过一半时按先序重新编号（结果保留在组件中，因此重新绑定后坐标不变）。 */
+    private void maybeCompact() {
+        if (freeCount < 64 || freeCount * 2 < count)
+            return;
+        for (int i = 0; i < count; i++) {
+            ControlObject c = controls[i];
+            if (c == null)
+                continue;
+            PositionComponent pos = c.getComponent(PositionComponent.class);
+            if (pos != null)
+                pos.unbindArena();
+            ScaleComponent sc = c.getComponent(ScaleComponent.class);
+            if (sc != null)
+                sc.unbindArena();
+        }
+        Arrays.fill(controls, 0, count, null);
+        count = 0;
+        freeCount = 0;
+        for (int i = 0, n = roots.size(); i < n; i++)
+            bindSubtree(roots.get(i), NO_PARENT);
+        compactions++;
+    }
+
+    // --- stats ---
+
+    /** 已分配的槽位数（含空闲槽位）。 */
+    public int getSlotCount() {
+        return count;
+    }
+
+    public int getLiveCount() {
+        return count - freeCount;
+    }
+
+    public int getCompactionCount() {
+        return compactions;
+    }
+}
@@ -0,0 +1,146 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 可选的并行布局预处理：在 update 遍历之前，按先序对整棵树执行 {@link PanelComponent#layout}（测量与排列），
+ * 并把较大的兄弟子树拆分到 {@link ForkJoinPool} 上执行。随后的 update 遍历跳过已完成的布局，渲染仍在渲染线程上单线程进行。
+ * <p>
+ * 结果是确定的，并与顺序执行相同：每个面板的布局写入拥有者的尺寸与直接子控件的局部位置，
+ * 且子树任务总是在父面板读取完子控件尺寸之后才开始，因此并发任务写入的控件集合互不相交，也不读取对方写入的布局数据。
+ * <p>
+ * 布局之外，工作线程还会填充两类惰性缓存：读取可见性时填充控件的有效不透明度缓存（{@link ControlObject#getEffectiveOpacity}），
+ * 读取间距与内边距时填充共享样式的解析缓存（{@link org.fish.uitoolkit.v2.style.Style#resolve}）。
+ * 被多个子树共用的样式可能被几个任务同时填充；这些竞争是良性的：同一项由相同的输入算出相同的值，
+ * 解析结果是只含 final 字段的不可变对象，最坏情况只是重复计算。这一点依赖于布局期间不修改不透明度与样式。
+ * <p>
+ * 与 update 遍历一致：不可见或有效透明度为 0 的控件、被折叠的子控件以及被节流（非每帧更新）的控件子树不会被提前布局，
+ * 它们在自己的 update 中照常布局。是否拆分由子树上一次的节点数决定（第一次运行时全部顺序执行）。
+ * <p>
+ * 只应从渲染线程调用 {@link #run}；布局期间不应修改控件树。
+ */
+public final class ParallelLayout {
+    /** 默认拆分阈值（子树节点数）。 */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private final ForkJoinPool pool;
+    private int threshold;
+    private boolean parallel = true;
+
+    private int lastNodes = 0;
+    private int lastForks = 0;
+    // forks are counted by workers; only read after the pass has joined
+    private final AtomicInteger forks = new AtomicInteger();
+
+    public ParallelLayout() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ParallelLayout(ForkJoinPool pool, int threshold) {
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+        this.threshold = Math.max(1, threshold);
+    }
+
+    /** 子树节点数不小于该值时拆分为独立任务。 */
+    public ParallelLayout setThreshold(int n) {
+        this.threshold = Math.max(1, n);
+        return this;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /** 关闭后在调用线程上顺序执行同样的预处理（结果相同，用于对比与调试）。 */
+    public ParallelLayout setParallel(boolean v) {
+        this.parallel = v;
+        return this;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /** 对 root 的整棵子树执行一次布局预处理。 */
+    public void run(ControlObject root) {
+        if (root == null)
+            return;
+        forks.set(0);
+        if (parallel && pool.getParallelism() > 1)
+            lastNodes = pool.invoke(new SubtreeTask(root));
+        else
+            lastNodes = layoutSubtree(root, false);
+        lastForks = forks.get();
+    }
+
+    /** 上一次预处理访问的节点数。 */
+    public int getLastNodeCount() {
+        return lastNodes;
+    }
+
+    /** 上一次预处理拆分出的任务数。 */
+    public int getLastForkCount() {
+        return lastForks;
+    }
+
+    /** 布局 c（若有面板）后处理其子控件；fork 为 true 时较大的子树作为独立任务执行。返回访问的节点数。 */
+    private int layoutSubtree(ControlObject c, boolean fork) {
+        if (!c.getVisible() || c.getEffectiveOpacity() <= 0f || !c.getUpdatePolicy().isEveryFrame())
+            return 1;
+        PanelComponent panel = c.getComponent(PanelComponent.class);
+        if (panel != null)
+            panel.layoutAhead(c);
+        List<ControlObject> children = c.getChildren();
+        int n = children.size();
+        int total = 1;
+        SubtreeTask first = null;
+        SubtreeTask last = null;
+        for (int i = 0; i < n; i++) {
+            ControlObject child = children.get(i);
+            if (child == null || child.isCollapsed())
+                continue;
+            if (fork && lastSize(child) >= threshold) {
+                SubtreeTask t = new SubtreeTask(child);
+                t.fork();
+                forks.incrementAndGet();
+                if (last == null)
+                    first = t;
+                else
+                    last.next = t;
+                last = t;
+            } else {
+                total += layoutSubtree(child, fork);
+            }
+        }
+        for (SubtreeTask t = first; t != null; t = t.next)
+            total += t.join();
+        if (panel != null)
+            panel.setLastSubtreeSize(total);
+        return total;
+    }
+
+    private static int lastSize(ControlObject c) {
+        PanelComponent p = c.getComponent(PanelComponent.class);
+        return p != null ? p.getLastSubtreeSize() : 0;
+    }
+
+    private final class SubtreeTask extends RecursiveTask<Integer> {
+        private final ControlObject root;
+        SubtreeTask next;
+
+        SubtreeTask(ControlObject root) {
+            this.root = root;
+        }
+
+        @Override
+        protected Integer compute() {
+            return layoutSubtree(root, true);
+        }
+    }
+}
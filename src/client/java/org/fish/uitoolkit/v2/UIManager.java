@@ -1,12 +1,21 @@
 package org.fish.uitoolkit.v2;
 
 import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.LazyControl;
+import org.fish.uitoolkit.v2.input.InputDispatcher;
+import org.fish.uitoolkit.v2.interfaces.IWorkUnit;
 
 import net.minecraft.client.gui.DrawContext;
 
 /** Minimal UIManager that holds a root ControlObject and renders it. */
 public class UIManager {
     private final ControlObject root = new ControlObject();
+    private final InputDispatcher input = new InputDispatcher();
+    private final UpdateScheduler scheduler = new UpdateScheduler();
+    private final WorkQueue work = new WorkQueue();
+    private long workBudgetNanos = 1_000_000L;
+    private LayoutArena arena = null;
+    private ParallelLayout parallelLayout = null;
 
     /**
      * 构造一个新的 UIManager 实例（不再使用单例模式）。
@@ -27,15 +36,157 @@ public class UIManager {
 
     public void render(DrawContext context, float tickDelta) {
         // ensure root matches current game window size so UI follows the game window
+        render(context, tickDelta, context.getScaledWindowWidth(), context.getScaledWindowHeight());
+    }
+
+    /**
+     * 按给定的窗口尺寸（缩放后的 GUI 像素）执行一帧，供同一帧绘制多个管理器的调用方（{@link HudCompositor}）只读取一次窗口尺寸。
+     */
+    public void render(DrawContext context, float tickDelta, int width, int height) {
+        resize(width, height);
+
+        // budgeted background work runs before update so finished content is laid out this frame
+        work.run(workBudgetNanos);
+
+        update(tickDelta);
+        input.beginFrame(root.getWidth(), root.getHeight());
+        try {
+            root.render(context, tickDelta);
+        } finally {
+            input.endFrame();
+        }
+    }
+
+    /**
+     * 不绘制，只按给定尺寸执行一次更新与布局，用于在首次显示之前预热布局缓存（例如后台预构建界面）。
+     */
+    public void prepare(int width, int height) {
+        resize(width, height);
+        update(0f);
+    }
+
+    private void resize(int w, int h) {
+        // throttled controls must relayout right away when the window changes size
+        if (w != root.getWidth() || h != root.getHeight())
+            scheduler.requestAll();
+        root.setSize(w, h);
+        root.setPosition(0, 0);
+    }
+
+    private void update(float tickDelta) {
+        // optional measure/arrange pre-pass that splits large sibling subtrees across worker threads
+        if (parallelLayout != null)
+            parallelLayout.run(root);
+
+        UpdateScheduler.push(scheduler);
         try {
-            int w = context.getScaledWindowWidth();
-            int h = context.getScaledWindowHeight();
-            root.setSize(w, h);
-            root.setPosition(0, 0);
-        } catch (Throwable ignored) {
+            scheduler.beginFrame();
+            root.dispatchUpdate(tickDelta);
+            // throttled controls skipped by the traversal above run here when they are due
+            scheduler.runDue(root, tickDelta);
+        } finally {
+            UpdateScheduler.pop();
+        }
+        // with the data-oriented backend, absolute positions are computed here in one pass
+        if (arena != null)
+            arena.layout();
+        // lazy subtrees that stayed hidden are released here, since hidden controls are never updated
+        LazyControl.sweep();
+    }
+
+    /** 更新调度器（被节流控件的到期队列与统计）。 */
+    public UpdateScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /** 按帧预算执行的任务队列。 */
+    public WorkQueue getWork() {
+        return work;
+    }
+
+    public WorkQueue.Task submit(IWorkUnit unit) {
+        return work.submit(unit);
+    }
+
+    public WorkQueue.Task submit(IWorkUnit unit, int priority) {
+        return work.submit(unit, priority);
+    }
+
+    /** 每帧用于任务队列的时间预算（毫秒，默认 1ms）。 */
+    public void setWorkBudgetMillis(float ms) {
+        this.workBudgetNanos = Math.max(0L, (long) (ms * 1_000_000d));
+    }
+
+    public float getWorkBudgetMillis() {
+        return workBudgetNanos / 1_000_000f;
+    }
+
+    /**
+     * 启用或关闭数据导向的布局后端（{@link LayoutArena}）。启用后整棵控件树的定位数据保存在基本类型数组中，
+     * 绝对坐标在 update 之后一次性计算；适合上万个控件的大型界面。
+     */
+    public void setLayoutArenaEnabled(boolean enabled) {
+        if (enabled && arena == null) {
+            arena = new LayoutArena().attach(root);
+            arena.layout();
+        } else if (!enabled && arena != null) {
+            arena.detach(root);
+            arena = null;
         }
+    }
+
+    /**
+     * 设置并行布局预处理（null 关闭）。启用后每帧 update 之前先执行面板的测量与排列，较大的兄弟子树在工作线程上并行处理；
+     * 结果与顺序布局相同。
+     */
+    public void setParallelLayout(ParallelLayout layout) {
+        this.parallelLayout = layout;
+    }
+
+    public ParallelLayout getParallelLayout() {
+        return parallelLayout;
+    }
+
+    /** 当前的布局数组；未启用时返回 null。 */
+    public LayoutArena getLayoutArena() {
+        return arena;
+    }
+
+    /** 输入分发器（命中测试索引、悬停与焦点状态）。 */
+    public InputDispatcher getInput() {
+        return input;
+    }
+
+    // --- input forwarding (coordinates in scaled GUI pixels, e.g. from a Screen) ---
+    public boolean mouseMoved(double x, double y) {
+        return input.mouseMoved(x, y);
+    }
+
+    public boolean mouseClicked(double x, double y, int button) {
+        return input.mouseClicked(x, y, button);
+    }
+
+    public boolean mouseReleased(double x, double y, int button) {
+        return input.mouseReleased(x, y, button);
+    }
+
+    public boolean mouseDragged(double x, double y, int button, double dx, double dy) {
+        return input.mouseDragged(x, y, button, dx, dy);
+    }
+
+    public boolean mouseScrolled(double x, double y, double amount) {
+        return input.mouseScrolled(x, y, amount);
+    }
+
+    public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+        return input.keyPressed(keyCode, scanCode, modifiers);
+    }
+
+    public boolean keyReleased(int keyCode, int scanCode, int modifiers) {
+        return input.keyReleased(keyCode, scanCode, modifiers);
+    }
 
-        root.update(tickDelta);
-        root.render(context, tickDelta);
+    public boolean charTyped(char chr, int modifiers) {
+        return input.charTyped(chr, modifiers);
     }
 }
@@ -0,0 +1,72 @@
+package org.fish.uitoolkit.v2;
+
+/**
+ * 控件 / 组件的更新频率策略。
+ * <ul>
+ * <li>{@link #EVERY_FRAME}：每帧更新（默认）</li>
+ * <li>{@link #everyFrames(int)}：每 N 帧更新一次</li>
+ * <li>{@link #hz(float)}：按固定频率（每秒次数）更新</li>
+ * <li>{@link #ON_DEMAND}：仅在调用 requestUpdate() 后的下一帧更新</li>
+ * </ul>
+ * 未到期的控件仍按上一次更新的状态绘制。
+ */
+public final class UpdatePolicy {
+    public enum Mode {
+        EVERY_FRAME, FRAMES, FIXED_RATE, ON_DEMAND
+    }
+
+    public static final UpdatePolicy EVERY_FRAME = new UpdatePolicy(Mode.EVERY_FRAME, 1, 0L);
+    public static final UpdatePolicy ON_DEMAND = new UpdatePolicy(Mode.ON_DEMAND, 0, 0L);
+
+    private final Mode mode;
+    private final int frames;
+    private final long intervalNanos;
+
+    private UpdatePolicy(Mode mode, int frames, long intervalNanos) {
+        this.mode = mode;
+        this.frames = frames;
+        this.intervalNanos = intervalNanos;
+    }
+
+    /** 每 n 帧更新一次；n <= 1 等价于 EVERY_FRAME。 */
+    public static UpdatePolicy everyFrames(int n) {
+        if (n <= 1)
+            return EVERY_FRAME;
+        return new UpdatePolicy(Mode.FRAMES, n, 0L);
+    }
+
+    /** 每秒更新 hz 次；hz <= 0 等价于 ON_DEMAND。 */
+    public static UpdatePolicy hz(float hz) {
+        if (hz <= 0f)
+            return ON_DEMAND;
+        return new UpdatePolicy(Mode.FIXED_RATE, 0, Math.max(1L, Math.round(1_000_000_000d / hz)));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isEveryFrame() {
+        return mode == Mode.EVERY_FRAME;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case FRAMES:
+                return "UpdatePolicy(every " + frames + " frames)";
+            case FIXED_RATE:
+                return "UpdatePolicy(" + (1_000_000_000d / intervalNanos) + " Hz)";
+            default:
+                return "UpdatePolicy(" + mode + ")";
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 按到期时间分桶的控件更新调度器。
+ * <p>
+ * 更新策略不是 {@link UpdatePolicy#EVERY_FRAME} 的控件在父控件遍历时不会被更新，而是登记到调度器：
+ * 按帧计数的控件进入以到期帧排序的队列，按频率的控件进入以到期时间排序的队列，按需更新的控件只在
+ * requestUpdate() 后进入待处理列表。每帧只弹出已到期的控件，因此这部分的开销与到期数量成正比，而与树的大小无关。
+ * <p>
+ * 被节流的控件以整棵子树为单位更新：未到期时其子树保持上一次的状态继续绘制，
+ * 但布局阶段（{@link ControlObject#updateLayout}）仍每帧执行，位置与尺寸跟随父控件。
+ * <p>
+ * 到期控件抛出的异常交给 {@link ErrorPolicy} 计数（达到上限后隔离该控件），不会中断本帧其余控件的更新，
+ * 也不会传到所在的管理器或图层。
+ */
+public final class UpdateScheduler {
+    private static final UpdateScheduler[] STACK = new UpdateScheduler[8];
+    private static int depth = 0;
+
+    private final PriorityQueue<Entry> frameQueue = new PriorityQueue<>(
+            Comparator.comparingLong((Entry e) -> e.dueFrame));
+    private final PriorityQueue<Entry> timeQueue = new PriorityQueue<>(
+            Comparator.comparingLong((Entry e) -> e.dueNanos));
+    private final List<Entry> pending = new ArrayList<>();
+    private final List<Entry> running = new ArrayList<>();
+
+    private long frame = 0;
+    private long frameNanos = 0;
+    private int registered = 0;
+
+    // stats
+    private int lastRun = 0;
+    private int lastDeferred = 0;
+    private int lastDropped = 0;
+    private long lastRunNanos = 0;
+    private long totalRuns = 0;
+
+    /** 当前帧正在作用的调度器（可能为 null）。 */
+    public static UpdateScheduler current() {
+        return depth > 0 ? STACK[depth - 1] : null;
+    }
+
+    public static void push(UpdateScheduler s) {
+        if (depth < STACK.length)
+            STACK[depth] = s;
+        depth++;
+    }
+
+    public static void pop() {
+        if (depth <= 0)
+            return;
+        depth--;
+        if (depth < STACK.length)
+            STACK[depth] = null;
+    }
+
+    /** 开始新的一帧：推进帧号并记录本帧时间戳（本帧内所有到期判断使用同一时间）。 */
+    public void beginFrame() {
+        frame++;
+        frameNanos = System.nanoTime();
+        lastDeferred = 0;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    /**
+     * 登记一个被节流的控件（由 {@link ControlObject#dispatchUpdate} 在首次遍历到时调用）。
+     * 新登记的控件在本帧立即更新一次。
+     */
+    public Entry register(ControlObject control) {
+        Entry e = new Entry(this, control);
+        registered++;
+        e.request();
+        return e;
+    }
+
+    /** 由父控件遍历在跳过一个未到期的控件时调用，仅用于统计。 */
+    public void noteDeferred() {
+        lastDeferred++;
+    }
+
+    /**
+     * 运行本帧所有到期的控件。root 用于判断控件是否仍在本管理器的树中且可见；
+     * 已脱离的控件会被移出调度器，重新挂上后在首次遍历时重新登记。
+     */
+    public void runDue(ControlObject root, float tickDelta) {
+        long start = System.nanoTime();
+        int ran = 0;
+        int dropped = 0;
+        running.clear();
+        while (!frameQueue.isEmpty() && frameQueue.peek().dueFrame <= frame)
+            collect(frameQueue.poll());
+        while (!timeQueue.isEmpty() && timeQueue.peek().dueNanos <= frameNanos)
+            collect(timeQueue.poll());
+        for (int i = 0, n = pending.size(); i < n; i++)
+            collect(pending.get(i));
+        pending.clear();
+
+        // one handler around the whole loop, as in PanelComponent: a failing control is counted by the
+        // ErrorPolicy (and quarantined at the limit) and the loop resumes with the next entry
+        int i = 0;
+        final int n = running.size();
+        try {
+            while (i < n) {
+                try {
+                    for (; i < n; i++) {
+                        Entry e = running.get(i);
+                        ControlObject c = e.control;
+                        int state = attachment(c, root);
+                        if (state < 0) {
+                            e.cancel();
+                            dropped++;
+                            continue;
+                        }
+                        if (state > 0) {
+                            ran++;
+                            c.update(tickDelta);
+                        }
+                        e.reschedule();
+                    }
+                } catch (Throwable t) {
+                    Entry e = running.get(i++);
+                    e.reschedule();
+                    if (ErrorPolicy.getInstance().failed(e.control, e.control, "update", t))
+                        e.control.quarantine();
+                }
+            }
+        } finally {
+            // the failure was rethrown (ErrorPolicy in rethrow mode, or a VM error): collected entries
+            // no longer sit in any queue, so put the ones not reached back or they would never run again
+            for (; i < n; i++)
+                running.get(i).reschedule();
+            running.clear();
+        }
+
+        lastRun = ran;
+        lastDropped = dropped;
+        totalRuns += ran;
+        lastRunNanos = System.nanoTime() - start;
+    }
+
+    /** 要求所有已登记的控件在下一帧更新（例如窗口尺寸变化后）。 */
+    public void requestAll() {
+        drainInto(frameQueue);
+        drainInto(timeQueue);
+    }
+
+    private void drainInto(PriorityQueue<Entry> queue) {
+        while (!queue.isEmpty()) {
+            Entry e = queue.poll();
+            e.queued = false;
+            e.request();
+        }
+    }
+
+    private void collect(Entry e) {
+        e.queued = false;
+        e.requested = false;
+        // an entry can be both due in a queue and requested; run it once
+        if (e.active && e.collectedFrame != frame) {
+            e.collectedFrame = frame;
+            running.add(e);
+        }
+    }
+
+    /**
+     * 1 = 在树中且可见，0 = 在树中但被隐藏（保持登记），-1 = 已不在该树中。
+     */
+    private static int attachment(ControlObject c, ControlObject root) {
+        boolean visible = true;
+        for (ControlObject p = c; p != null; p = p.getParent()) {
+            if (!p.getVisible() || p.getEffectiveOpacity() <= 0f)
+                visible = false;
+            if (p == root)
+                return visible ? 1 : 0;
+        }
+        return -1;
+    }
+
+    // --- stats ---
+
+    /** 当前仍处于登记状态的控件数量。 */
+    public int getRegisteredCount() {
+        return registered;
+    }
+
+    /** 等待中的条目数量（帧队列 + 时间队列 + 按需列表）。 */
+    public int getQueuedCount() {
+        return frameQueue.size() + timeQueue.size() + pending.size();
+    }
+
+    /** 上一帧实际执行 update 的控件数量。 */
+    public int getLastRunCount() {
+        return lastRun;
+    }
+
+    /** 上一帧在遍历中被跳过（未到期）的控件数量。 */
+    public int getLastDeferredCount() {
+        return lastDeferred;
+    }
+
+    /** 上一帧因脱离树而移出调度器的控件数量。 */
+    public int getLastDroppedCount() {
+        return lastDropped;
+    }
+
+    /** 上一帧执行到期更新所花费的时间（纳秒）。 */
+    public long getLastRunNanos() {
+        return lastRunNanos;
+    }
+
+    public long getTotalRuns() {
+        return totalRuns;
+    }
+
+    /** 单个控件在调度器中的登记。 */
+    public static final class Entry {
+        private final UpdateScheduler scheduler;
+        private final ControlObject control;
+        private long dueFrame;
+        private long dueNanos;
+        private long collectedFrame = -1;
+        private boolean active = true;
+        private boolean queued = false;
+        private boolean requested = false;
+
+        private Entry(UpdateScheduler scheduler, ControlObject control) {
+            this.scheduler = scheduler;
+            this.control = control;
+        }
+
+        public UpdateScheduler getScheduler() {
+            return scheduler;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        /** 要求在下一次 runDue 时更新（与策略无关）。 */
+        public void request() {
+            if (!active || requested)
+                return;
+            requested = true;
+            scheduler.pending.add(this);
+        }
+
+        /** 取消登记；仍在队列中的条目会在弹出时被丢弃。 */
+        public void cancel() {
+            if (!active)
+                return;
+            active = false;
+            scheduler.registered--;
+        }
+
+        private void reschedule() {
+            if (!active || queued || requested)
+                return;
+            UpdatePolicy policy = control.getUpdatePolicy();
+            switch (policy.getMode()) {
+                case FRAMES:
+                    dueFrame = scheduler.frame + policy.getFrames();
+                    queued = true;
+                    scheduler.frameQueue.add(this);
+                    break;
+                case FIXED_RATE:
+                    // keep a steady cadence, but never schedule into the past after a stall
+                    dueNanos = Math.max(scheduler.frameNanos, dueNanos) + policy.getIntervalNanos();
+                    queued = true;
+                    scheduler.timeQueue.add(this);
+                    break;
+                case ON_DEMAND:
+                    break;
+                default:
+                    // policy switched back to every frame: leave the scheduler
+                    cancel();
+                    break;
+            }
+        }
+    }
+}
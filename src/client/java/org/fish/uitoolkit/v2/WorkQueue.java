@@ -0,0 +1,255 @@
+package org.fish.uitoolkit.v2;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import org.fish.uitoolkit.v2.interfaces.IWorkUnit;
+
+/**
+ * 按帧时间预算执行的协作式任务队列。
+ * <p>
+ * 任务按优先级（数值越大越先执行，同优先级按提交顺序）排列；{@link #run(long)} 反复执行队首任务的
+ * {@link IWorkUnit#step()}，直到任务完成或本帧预算耗尽，未完成的任务在下一帧继续。
+ * 每个任务每帧最多触发一次进度回调。所有回调都在调用 run 的线程（渲染线程）上执行。
+ */
+public final class WorkQueue {
+    public static final int PRIORITY_LOW = -10;
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_HIGH = 10;
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(
+            Comparator.comparingInt((Task t) -> -t.priority).thenComparingLong(t -> t.seq));
+    private long seq = 0;
+
+    // stats
+    private int lastSteps = 0;
+    private int lastCompleted = 0;
+    private long lastNanos = 0;
+    private long totalCompleted = 0;
+
+    /** 提交一个工作单元。 */
+    public Task submit(IWorkUnit work) {
+        return submit(work, PRIORITY_NORMAL);
+    }
+
+    public Task submit(IWorkUnit work, int priority) {
+        Task t = new Task(this, work, priority, seq++);
+        if (work == null) {
+            t.finish(null);
+            return t;
+        }
+        queue.add(t);
+        return t;
+    }
+
+    /** 将对列表中每个元素的处理拆成逐元素的步骤提交，进度为已处理的比例。 */
+    public <T> Task submitEach(List<T> items, Consumer<? super T> action, int priority) {
+        if (items == null || action == null)
+            return submit(null, priority);
+        return submit(new IWorkUnit() {
+            private int i = 0;
+
+            @Override
+            public boolean step() {
+                if (i < items.size())
+                    action.accept(items.get(i++));
+                return i >= items.size();
+            }
+
+            @Override
+            public float getProgress() {
+                return items.isEmpty() ? 1f : i / (float) items.size();
+            }
+        }, priority);
+    }
+
+    /**
+     * 在 budgetNanos 纳秒内执行排队的任务。每次 step 后检查预算，因此单步耗时会让本帧略超出预算。
+     * 每帧至少执行一步，保证队列在极小的预算下也能前进。
+     */
+    public void run(long budgetNanos) {
+        long start = System.nanoTime();
+        long deadline = start + Math.max(0L, budgetNanos);
+        int steps = 0;
+        int completed = 0;
+        Task progressed = null;
+        while (!queue.isEmpty()) {
+            Task t = queue.peek();
+            if (t.cancelled) {
+                queue.poll();
+                continue;
+            }
+            boolean done;
+            try {
+                done = t.work.step();
+            } catch (VirtualMachineError ex) {
+                // nothing sensible can run after this; drop the task and let it propagate
+                queue.poll();
+                t.cancelled = true;
+                throw ex;
+            } catch (Throwable ex) {
+                queue.poll();
+                t.finish(ex);
+                completed++;
+                continue;
+            } finally {
+                steps++;
+            }
+            if (done) {
+                queue.poll();
+                if (progressed == t)
+                    progressed = null;
+                t.finish(null);
+                completed++;
+            } else if (progressed != t) {
+                // report progress once for the task we leave behind (or when switching tasks)
+                if (progressed != null)
+                    progressed.reportProgress();
+                progressed = t;
+            }
+            if (System.nanoTime() >= deadline)
+                break;
+        }
+        if (progressed != null && !progressed.isDone())
+            progressed.reportProgress();
+        lastSteps = steps;
+        lastCompleted = completed;
+        totalCompleted += completed;
+        lastNanos = System.nanoTime() - start;
+    }
+
+    /** 取消所有排队中的任务（不触发完成回调）。 */
+    public void clear() {
+        while (!queue.isEmpty())
+            queue.poll().cancelled = true;
+    }
+
+    public boolean isIdle() {
+        return queue.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /** 上一帧执行的 step 次数。 */
+    public int getLastStepCount() {
+        return lastSteps;
+    }
+
+    /** 上一帧完成的任务数。 */
+    public int getLastCompletedCount() {
+        return lastCompleted;
+    }
+
+    /** 上一帧在任务上花费的时间（纳秒）。 */
+    public long getLastRunNanos() {
+        return lastNanos;
+    }
+
+    public long getTotalCompleted() {
+        return totalCompleted;
+    }
+
+    /** 已提交的任务句柄。 */
+    public static final class Task {
+        private final WorkQueue queue;
+        private final IWorkUnit work;
+        private final int priority;
+        private final long seq;
+        private boolean done = false;
+        private boolean cancelled = false;
+        private Throwable error = null;
+        private Consumer<Float> onProgress;
+        private Runnable onComplete;
+        private Consumer<Throwable> onError;
+
+        private Task(WorkQueue queue, IWorkUnit work, int priority, long seq) {
+            this.queue = queue;
+            this.work = work;
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        /** 进度回调（每帧最多一次，参数为 {@link IWorkUnit#getProgress()}）。 */
+        public Task onProgress(Consumer<Float> c) {
+            this.onProgress = c;
+            return this;
+        }
+
+        /** 完成回调；任务已完成时立即执行。 */
+        public Task onComplete(Runnable r) {
+            this.onComplete = r;
+            if (done && error == null && r != null)
+                r.run();
+            return this;
+        }
+
+        /**
+         * 失败回调（step 抛出异常）；任务已失败时立即执行。没有设置失败回调的任务失败时交给
+         * {@link ErrorPolicy#unhandled} 记录日志。{@link VirtualMachineError} 不会被捕获，直接从 {@link WorkQueue#run} 抛出。
+         */
+        public Task onError(Consumer<Throwable> c) {
+            this.onError = c;
+            if (done && error != null && c != null)
+                c.accept(error);
+            return this;
+        }
+
+        /** 取消任务。已开始的工作不会回滚，完成回调不会执行。 */
+        public void cancel() {
+            if (done || cancelled)
+                return;
+            cancelled = true;
+            queue.queue.remove(this);
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public float getProgress() {
+            return done ? 1f : (work != null ? work.getProgress() : 0f);
+        }
+
+        private void reportProgress() {
+            if (onProgress != null)
+                onProgress.accept(work.getProgress());
+        }
+
+        private void finish(Throwable ex) {
+            this.done = true;
+            this.error = ex;
+            if (ex == null) {
+                if (onProgress != null)
+                    onProgress.accept(1f);
+                if (onComplete != null)
+                    onComplete.run();
+            } else if (onError != null) {
+                onError.accept(ex);
+            } else {
+                // nobody is listening: report it instead of dropping it silently
+                ErrorPolicy.getInstance().unhandled(this, "work step", ex);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "WorkQueue.Task[" + (work != null ? work.getClass().getName() : "null") + ", priority=" + priority + "]";
+        }
+    }
+}
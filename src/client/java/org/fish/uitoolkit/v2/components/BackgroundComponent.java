@@ -6,17 +6,32 @@ import org.fish.uitoolkit.utils.TextureRegion;
 import org.fish.uitoolkit.v2.RenderType;
 import org.fish.uitoolkit.v2.controls.ControlObject;
 import org.fish.uitoolkit.v2.interfaces.IComponent;
-
-/** Minimal background component that can draw a TextureRegion. */
+import org.fish.uitoolkit.v2.render.BackgroundGeometry;
+import org.fish.uitoolkit.v2.render.QuadList;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+
+/**
+ * Minimal background component that can draw a TextureRegion.
+ * <p>
+ * 纹理、渲染标志与着色默认取自拥有者的样式（{@link StyleProperty#BACKGROUND} 等）；
+ * {@link #setTexture} / {@link #setColor} 写入组件自身的覆盖值，优先于样式。
+ */
 public class BackgroundComponent extends IComponent {
-    private TextureRegion region;
-    private int renderFlags = RenderType.STRETCH;
-    private int tintColor = 0xFFFFFF;
+    // per-component overrides; created on first setTexture/setColor
+    private Style local;
     // clip state
     private boolean clipEnabled = false;
     private float clipXPercent = 0f;
     private float clipYPercent = 0f;
     private ClipType clipType = ClipType.FORWARD;
+    // cached geometry (relative to owner origin), rebuilt only when size/region/flags change
+    private QuadList geometry;
+    private TextureRegion geometryRegion;
+    private int geometryRevision;
+    private int geometryW = -1;
+    private int geometryH = -1;
+    private int geometryFlags;
 
     public enum ClipType {
         FORWARD, BACKWARD
@@ -27,8 +42,8 @@ public class BackgroundComponent extends IComponent {
     }
 
     public IComponent setTexture(TextureRegion region, int renderFlags) {
-        this.region = region;
-        this.renderFlags = renderFlags;
+        local().set(StyleProperty.BACKGROUND, region);
+        local().set(StyleProperty.BACKGROUND_MODE, renderFlags);
         return this;
     }
 
@@ -39,11 +54,18 @@ public class BackgroundComponent extends IComponent {
 
     /** ARGB color (0xRRGGBB) */
     public IComponent setColor(int color) {
-        this.tintColor = color & 0xFFFFFF;
+        local().set(StyleProperty.BACKGROUND_TINT, color & 0xFFFFFF);
+        return this;
+    }
+
+    /** 移除 setTexture / setColor 设置的覆盖值，恢复使用拥有者的样式。 */
+    public IComponent clearOverrides() {
+        local = null;
         return this;
     }
 
     public IComponent setAlpha(float a) {
+        TextureRegion region = getRegion();
         if (region != null)
             region.setAlpha(a);
         return this;
@@ -61,10 +83,42 @@ public class BackgroundComponent extends IComponent {
         return this;
     }
 
+    /** 当前生效的纹理区域（覆盖值优先，其次为拥有者样式）。 */
+    public TextureRegion getRegion() {
+        if (local != null && local.has(StyleProperty.BACKGROUND))
+            return local.getOwn(StyleProperty.BACKGROUND);
+        ControlObject o = getOwner();
+        return o != null ? o.getStyleValue(StyleProperty.BACKGROUND) : null;
+    }
+
+    public int getRenderFlags() {
+        return resolveInt(StyleProperty.BACKGROUND_MODE);
+    }
+
+    public int getColor() {
+        return resolveInt(StyleProperty.BACKGROUND_TINT);
+    }
+
+    private int resolveInt(StyleProperty<Integer> prop) {
+        Integer v = local != null ? local.getOwn(prop) : null;
+        if (v == null) {
+            ControlObject o = getOwner();
+            v = o != null ? o.getStyleValue(prop) : prop.getDefault();
+        }
+        return v != null ? v : 0;
+    }
+
+    private Style local() {
+        if (local == null)
+            local = new Style(null);
+        return local;
+    }
+
     /**
      * 更新背景组件的拥有者大小
      */
     public void updateOwnerSize() {
+        TextureRegion region = getRegion();
         if (region == null)
             return;
         ControlObject o = getOwner();
@@ -73,7 +127,25 @@ public class BackgroundComponent extends IComponent {
         o.setSize(region.getW(), region.getH());
     }
 
+    /**
+     * 返回当前尺寸下的背景几何。控件尺寸、纹理区域或渲染标志不变时直接复用上次的结果，
+     * 否则从 {@link BackgroundGeometry} 的共享缓存中获取。
+     */
+    private QuadList obtainGeometry(TextureRegion region, int renderFlags, int w, int h) {
+        if (geometry == null || geometryRegion != region || geometryRevision != region.getRevision()
+                || geometryW != w || geometryH != h || geometryFlags != renderFlags) {
+            geometry = BackgroundGeometry.obtain(region, w, h, renderFlags);
+            geometryRegion = region;
+            geometryRevision = region.getRevision();
+            geometryW = w;
+            geometryH = h;
+            geometryFlags = renderFlags;
+        }
+        return geometry;
+    }
+
     private void renderBackground(DrawContext context, ControlObject owner) {
+        TextureRegion region = getRegion();
         if (region == null)
             return;
         if (!owner.getVisible())
@@ -83,18 +155,22 @@ public class BackgroundComponent extends IComponent {
         int w = owner.getWidth();
         int h = owner.getHeight();
         boolean scissored = false;
+        boolean tinted = false;
         try {
             // apply tint by setting shader color on context and ensure blending is enabled
+            int tintColor = getColor();
             float r = ((tintColor >> 16) & 0xFF) / 255f;
             float g = ((tintColor >> 8) & 0xFF) / 255f;
             float b = (tintColor & 0xFF) / 255f;
-            context.setShaderColor(r, g, b, region.getAlpha());
+            // texture alpha multiplied by the owner's inherited opacity
+            float alpha = region.getAlpha() * owner.getEffectiveOpacity();
+            if (alpha <= 0f)
+                return;
+            context.setShaderColor(r, g, b, alpha);
+            tinted = true;
             // ensure correct blending state so semi-transparent textures render properly
-            try {
-                RenderSystem.enableBlend();
-                RenderSystem.defaultBlendFunc();
-            } catch (Throwable ignored) {
-            }
+            RenderSystem.enableBlend();
+            RenderSystem.defaultBlendFunc();
             // apply scissor if requested
             if (this.clipEnabled && (this.clipXPercent > 0f || this.clipYPercent > 0f)) {
                 int clipW = Math.max(0, Math.round(w * this.clipXPercent));
@@ -124,102 +200,20 @@ public class BackgroundComponent extends IComponent {
                 scissored = true;
             }
 
-            if ((renderFlags & RenderType.NINESLICE) != 0 && region.hasInsets()) {
-                // Fallback to manual nine-slice rendering using drawTexture so we don't
-                // depend on a specific DrawContext.drawNineSlicedTexture signature.
-                int left = region.getInsetLeft();
-                int top = region.getInsetTop();
-                int right = region.getInsetRight();
-                int bottom = region.getInsetBottom();
-
-                int srcTotalW = region.getW();
-                int srcTotalH = region.getH();
-
-                // destination (on-screen) sizes for corners/edges, clamp to available size
-                int dstLeft = Math.min(left, w);
-                int dstTop = Math.min(top, h);
-                int dstRight = Math.min(right, Math.max(0, w - dstLeft));
-                int dstBottom = Math.min(bottom, Math.max(0, h - dstTop));
-
-                int dstCenterW = Math.max(0, w - dstLeft - dstRight);
-                int dstCenterH = Math.max(0, h - dstTop - dstBottom);
-
-                int sx0 = region.getU();
-                int sy0 = region.getV();
-                int sx1 = sx0 + left;
-                int sx2 = sx0 + srcTotalW - right;
-                int sy1 = sy0 + top;
-                int sy2 = sy0 + srcTotalH - bottom;
-
-                // corners
-                if (dstLeft > 0 && dstTop > 0)
-                    context.drawTexture(region.getIdentifier(), x, y, dstLeft, dstTop, sx0, sy0, left, top,
-                            region.getTextureWidth(), region.getTextureHeight());
-                if (dstRight > 0 && dstTop > 0)
-                    context.drawTexture(region.getIdentifier(), x + dstLeft + dstCenterW, y, dstRight, dstTop, sx2, sy0,
-                            right, top, region.getTextureWidth(), region.getTextureHeight());
-                if (dstLeft > 0 && dstBottom > 0)
-                    context.drawTexture(region.getIdentifier(), x, y + dstTop + dstCenterH, dstLeft, dstBottom, sx0,
-                            sy2,
-                            left, bottom, region.getTextureWidth(), region.getTextureHeight());
-                if (dstRight > 0 && dstBottom > 0)
-                    context.drawTexture(region.getIdentifier(), x + dstLeft + dstCenterW, y + dstTop + dstCenterH,
-                            dstRight,
-                            dstBottom, sx2, sy2, right, bottom, region.getTextureWidth(), region.getTextureHeight());
-
-                // edges and center
-                if (dstCenterW > 0 && dstTop > 0)
-                    context.drawTexture(region.getIdentifier(), x + dstLeft, y, dstCenterW, dstTop, sx1, sy0,
-                            srcTotalW - left - right, top, region.getTextureWidth(), region.getTextureHeight());
-                if (dstCenterW > 0 && dstBottom > 0)
-                    context.drawTexture(region.getIdentifier(), x + dstLeft, y + dstTop + dstCenterH, dstCenterW,
-                            dstBottom,
-                            sx1, sy2, srcTotalW - left - right, bottom, region.getTextureWidth(),
-                            region.getTextureHeight());
-                if (dstCenterH > 0 && dstLeft > 0)
-                    context.drawTexture(region.getIdentifier(), x, y + dstTop, dstLeft, dstCenterH, sx0, sy1, left,
-                            srcTotalH - top - bottom, region.getTextureWidth(), region.getTextureHeight());
-                if (dstCenterH > 0 && dstRight > 0)
-                    context.drawTexture(region.getIdentifier(), x + dstLeft + dstCenterW, y + dstTop, dstRight,
-                            dstCenterH,
-                            sx2, sy1, right, srcTotalH - top - bottom, region.getTextureWidth(),
-                            region.getTextureHeight());
-                if (dstCenterW > 0 && dstCenterH > 0)
-                    context.drawTexture(region.getIdentifier(), x + dstLeft, y + dstTop, dstCenterW, dstCenterH, sx1,
-                            sy1,
-                            srcTotalW - left - right, srcTotalH - top - bottom, region.getTextureWidth(),
-                            region.getTextureHeight());
-            } else if ((renderFlags & RenderType.REPEAT) != 0) {
-                context.drawRepeatingTexture(region.getIdentifier(), x, y, w, h, region.getU(), region.getV(),
-                        region.getTextureWidth(), region.getTextureHeight());
-            } else {
-                // default: stretch
-                context.drawTexture(region.getIdentifier(), x, y, w, h, region.getU(), region.getV(), region.getW(),
-                        region.getH(), region.getTextureWidth(), region.getTextureHeight());
-            }
-            context.setShaderColor(1f, 1f, 1f, 1f);
-        } catch (Throwable ignored) {
+            QuadList quads = obtainGeometry(region, getRenderFlags(), w, h);
+            quads.draw(context, region.getIdentifier(), x, y, region.getTextureWidth(), region.getTextureHeight());
         } finally {
-            if (scissored) {
-                try {
-                    context.disableScissor();
-                } catch (Throwable ignored) {
-                }
-            }
+            // failures propagate to the owner (see ErrorPolicy), but must not leak tint or scissor state
+            if (tinted)
+                context.setShaderColor(1f, 1f, 1f, 1f);
+            if (scissored)
+                context.disableScissor();
         }
     }
 
-    @Override
-    public void update(ControlObject owner, float tickDelta) {
-        // background does not need per-frame logic for now
-    }
-
     @Override
     public void render(ControlObject owner, net.minecraft.client.gui.DrawContext context, float tickDelta) {
-        try {
-            renderBackground(context, owner);
-        } catch (Throwable ignored) {
-        }
+        renderBackground(context, owner);
     }
 
     @Override
@@ -1,6 +1,5 @@
 package org.fish.uitoolkit.v2.components;
 
-import org.fish.uitoolkit.v2.controls.ControlObject;
 import org.fish.uitoolkit.v2.interfaces.IComponent;
 
 /**
@@ -8,11 +7,6 @@ import org.fish.uitoolkit.v2.interfaces.IComponent;
  */
 @Deprecated
 public final class CommonComponent extends IComponent {
-    @Override
-    public void update(ControlObject owner, float tickDelta) {
-        // intentionally no-op
-    }
-
     @Override
     public int getPriority() { return Integer.MAX_VALUE; }
 }
@@ -4,11 +4,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.fish.uitoolkit.v2.ErrorPolicy;
 import org.fish.uitoolkit.v2.controls.ControlObject;
 import org.fish.uitoolkit.v2.interfaces.IComponent;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+import org.fish.uitoolkit.v2.vtree.Props;
 
+/**
+ * 子控件容器与简单的线性布局。间距与内边距默认取自拥有者的样式（{@link StyleProperty#SPACING}、
+ * {@link StyleProperty#PANEL_PADDING}），{@link #setSpacing} / {@link #setPadding} 写入组件自身的覆盖值。
+ */
 public class PanelComponent extends IComponent {
     private final List<ControlObject> children = new ArrayList<>();
+    private final List<ControlObject> childrenView = Collections.unmodifiableList(children);
+    // compacted non-collapsed children, rebuilt only when the child list or a collapse state changes
+    private ControlObject[] active = new ControlObject[0];
+    private int activeCount = 0;
+    private boolean activeDirty = true;
+    private int activeStamp = 0;
 
     public enum Orientation {
         VERTICAL, HORIZONTAL, NONE
@@ -20,10 +34,16 @@ public class PanelComponent extends IComponent {
 
     private Orientation orientation = Orientation.NONE;
     private Align crossAlign = Align.START; // alignment on the cross axis
-    private int spacing = 2; // pixels between children
-    private int paddingLeft = 0, paddingTop = 0, paddingRight = 0, paddingBottom = 0;
+    // per-component spacing/padding overrides; created on first setSpacing/setPadding
+    private Style local;
+    // set when ParallelLayout already laid this panel out for the coming update
+    private boolean laidOutAhead = false;
+    private int lastSubtreeSize = 0;
     private boolean autoSizeWidth = false;
     private boolean autoSizeHeight = false;
+    // optional render cull rectangle (absolute coordinates); children entirely outside are not drawn
+    private boolean cullEnabled = false;
+    private int cullX0, cullY0, cullX1, cullY1;
 
     public PanelComponent() {
     }
@@ -32,6 +52,7 @@ public class PanelComponent extends IComponent {
         if (c == null)
             return;
         children.add(c);
+        activeDirty = true;
         // if this panel is already attached to a ControlObject, set the child's parent
         ControlObject owner = getOwner();
         if (owner != null) {
@@ -39,8 +60,34 @@ public class PanelComponent extends IComponent {
         }
     }
 
+    /** 在 index 处插入子控件（index 越界时追加到末尾）。 */
+    public void insertChild(int index, ControlObject c) {
+        if (c == null)
+            return;
+        if (index < 0 || index > children.size())
+            index = children.size();
+        children.add(index, c);
+        activeDirty = true;
+        ControlObject owner = getOwner();
+        if (owner != null)
+            c.setParent(owner);
+    }
+
+    /** 把已有的子控件移动到 index 处（按移除后的列表计算）。 */
+    public void moveChild(ControlObject c, int index) {
+        int from = children.indexOf(c);
+        if (from < 0)
+            return;
+        children.remove(from);
+        if (index < 0 || index > children.size())
+            index = children.size();
+        children.add(index, c);
+        activeDirty = true;
+    }
+
     public void removeChild(ControlObject c) {
         if (children.remove(c)) {
+            activeDirty = true;
             if (c != null)
                 c.setParent(null);
         }
@@ -59,7 +106,29 @@ public class PanelComponent extends IComponent {
     }
 
     public List<ControlObject> getChildren() {
-        return Collections.unmodifiableList(children);
+        return childrenView;
+    }
+
+    /**
+     * 重建活动子控件数组（排除 COLLAPSED 的子控件）。仅在子控件列表变化或 owner 报告折叠状态变化时执行。
+     */
+    private void ensureActiveChildren(ControlObject owner) {
+        int stamp = owner != null ? owner.getChildLayoutStamp() : 0;
+        if (!activeDirty && stamp == activeStamp)
+            return;
+        if (active.length < children.size())
+            active = new ControlObject[children.size()];
+        int n = 0;
+        for (int i = 0, size = children.size(); i < size; i++) {
+            ControlObject c = children.get(i);
+            if (c != null && !c.isCollapsed())
+                active[n++] = c;
+        }
+        for (int i = n; i < activeCount; i++)
+            active[i] = null;
+        activeCount = n;
+        activeStamp = stamp;
+        activeDirty = false;
     }
 
     // layout configuration
@@ -82,18 +151,35 @@ public class PanelComponent extends IComponent {
     }
 
     public void setSpacing(int s) {
-        this.spacing = Math.max(0, s);
+        local().set(StyleProperty.SPACING, Math.max(0, s));
     }
 
+    /** 当前生效的间距（覆盖值优先，其次为拥有者样式）。 */
     public int getSpacing() {
-        return spacing;
+        Integer v = local != null ? local.getOwn(StyleProperty.SPACING) : null;
+        if (v == null)
+            v = getOwner() != null ? getOwner().getStyleValue(StyleProperty.SPACING) : StyleProperty.SPACING.getDefault();
+        return v != null ? v : 0;
     }
 
+    /** 设置内边距；负值让子控件伸出拥有者的边界（每边限制在 16 位有符号数的范围内，见 {@link Props#pack4}）。 */
     public void setPadding(int left, int top, int right, int bottom) {
-        this.paddingLeft = left;
-        this.paddingTop = top;
-        this.paddingRight = right;
-        this.paddingBottom = bottom;
+        local().set(StyleProperty.PANEL_PADDING, Props.pack4(left, top, right, bottom));
+    }
+
+    /** 当前生效的内边距（{@link Props#pack4} 打包：左、上、右、下）。 */
+    public long getPadding() {
+        Long v = local != null ? local.getOwn(StyleProperty.PANEL_PADDING) : null;
+        if (v == null)
+            v = getOwner() != null ? getOwner().getStyleValue(StyleProperty.PANEL_PADDING)
+                    : StyleProperty.PANEL_PADDING.getDefault();
+        return v != null ? v : 0L;
+    }
+
+    private Style local() {
+        if (local == null)
+            local = new Style(null);
+        return local;
     }
 
     public void setAutoSizeWidth(boolean v) {
@@ -112,11 +198,96 @@ public class PanelComponent extends IComponent {
         return this.autoSizeHeight;
     }
 
+    /**
+     * 设置渲染裁剪矩形（绝对坐标）。完全位于矩形之外的子控件不会被绘制（仍然参与布局与 update）。
+     * 判断只使用子控件自身的边界，超出父控件边界绘制的后代可能被一并跳过。
+     */
+    public void setCullRect(int x, int y, int w, int h) {
+        this.cullEnabled = true;
+        this.cullX0 = x;
+        this.cullY0 = y;
+        this.cullX1 = x + w;
+        this.cullY1 = y + h;
+    }
+
+    public void clearCullRect() {
+        this.cullEnabled = false;
+    }
+
     @Override
     public void update(ControlObject owner, float tickDelta) {
         // perform simple layout of children relative to the owner control, then update
-        // them
+        // them; collapsed children take no part in measure, arrange or traversal
+        layoutIfNeeded(owner);
+        final ControlObject[] active = this.active;
+        final int activeCount = this.activeCount;
+        // one handler around the whole loop: after a failure the loop resumes with the next child
+        int i = 0;
+        while (i < activeCount) {
+            try {
+                for (; i < activeCount; i++) {
+                    // children with no update or layout work (e.g. arena-positioned leaves) are not visited
+                    ControlObject c = active[i];
+                    if (c.needsUpdate())
+                        c.dispatchUpdate(tickDelta);
+                }
+            } catch (Throwable t) {
+                childFailed(active[i++], "update", t);
+            }
+        }
+    }
+
+    /** 只排列子控件并递归执行它们的布局阶段（所在子树的 update 被节流时每帧调用）。 */
+    @Override
+    public void updateLayout(ControlObject owner, float tickDelta) {
+        layoutIfNeeded(owner);
+        final ControlObject[] active = this.active;
+        final int activeCount = this.activeCount;
+        int i = 0;
+        while (i < activeCount) {
+            try {
+                for (; i < activeCount; i++) {
+                    ControlObject c = active[i];
+                    if (c.needsUpdate())
+                        c.updateLayout(tickDelta);
+                }
+            } catch (Throwable t) {
+                childFailed(active[i++], "layout", t);
+            }
+        }
+    }
+
+    private void layoutIfNeeded(ControlObject owner) {
+        // skip the layout done ahead by ParallelLayout unless the child list changed since then
+        boolean ahead = laidOutAhead && !activeDirty
+                && (owner == null || owner.getChildLayoutStamp() == activeStamp);
+        laidOutAhead = false;
+        if (!ahead)
+            layout(owner);
+    }
+
+    /** 子控件抛出异常：交给 {@link ErrorPolicy} 计数，达到上限后隔离该子控件。 */
+    private static void childFailed(ControlObject child, String phase, Throwable t) {
+        if (ErrorPolicy.getInstance().failed(child, child, phase, t))
+            child.quarantine();
+    }
+
+    /**
+     * 测量与排列：autosize 时按子控件当前尺寸设置拥有者尺寸，再设置子控件的局部位置。
+     * 只写入拥有者的尺寸与直接子控件的位置，因此互不重叠的子树可以并行执行（见 {@link org.fish.uitoolkit.v2.ParallelLayout}）。
+     */
+    public void layout(ControlObject owner) {
+        ensureActiveChildren(owner);
+        final ControlObject[] active = this.active;
+        final int activeCount = this.activeCount;
         if (owner != null) {
+            // spacing and padding are resolved once per layout pass
+            final int spacing = getSpacing();
+            final long padding = getPadding();
+            final int paddingLeft = Props.unpack4(padding, 0);
+            final int paddingTop = Props.unpack4(padding, 1);
+            final int paddingRight = Props.unpack4(padding, 2);
+            final int paddingBottom = Props.unpack4(padding, 3);
             // compute required size based on children when autosize is enabled
             int requiredW = owner.getWidth();
             int requiredH = owner.getHeight();
@@ -124,16 +295,13 @@ public class PanelComponent extends IComponent {
                 if (orientation == Orientation.VERTICAL) {
                     int totalH = paddingTop + paddingBottom;
                     int maxW = 0;
-                    int count = 0;
-                    for (ControlObject c : children) {
-                        if (c == null)
-                            continue;
+                    for (int i = 0; i < activeCount; i++) {
+                        ControlObject c = active[i];
                         totalH += c.getHeight();
                         maxW = Math.max(maxW, c.getWidth());
-                        count++;
                     }
-                    if (count > 1)
-                        totalH += spacing * (count - 1);
+                    if (activeCount > 1)
+                        totalH += spacing * (activeCount - 1);
                     if (autoSizeWidth)
                         requiredW = paddingLeft + paddingRight + maxW;
                     if (autoSizeHeight)
@@ -141,35 +309,28 @@ public class PanelComponent extends IComponent {
                 } else { // HORIZONTAL
                     int totalW = paddingLeft + paddingRight;
                     int maxH = 0;
-                    int count = 0;
-                    for (ControlObject c : children) {
-                        if (c == null)
-                            continue;
+                    for (int i = 0; i < activeCount; i++) {
+                        ControlObject c = active[i];
                         totalW += c.getWidth();
                         maxH = Math.max(maxH, c.getHeight());
-                        count++;
                     }
-                    if (count > 1)
-                        totalW += spacing * (count - 1);
+                    if (activeCount > 1)
+                        totalW += spacing * (activeCount - 1);
                     if (autoSizeWidth)
                         requiredW = totalW;
                     if (autoSizeHeight)
                         requiredH = paddingTop + paddingBottom + maxH;
                 }
                 // apply the computed size to owner
-                try {
-                    owner.setSize(requiredW, requiredH);
-                } catch (Throwable ignored) {
-                }
+                owner.setSize(requiredW, requiredH);
             }
             if (orientation == Orientation.NONE) {
                 // Handle NONE orientation case
             } else if (orientation == Orientation.VERTICAL) {
                 int y = paddingTop;
                 int availW = owner.getWidth() - paddingLeft - paddingRight;
-                for (ControlObject c : children) {
-                    if (c == null)
-                        continue;
+                for (int i = 0; i < activeCount; i++) {
+                    ControlObject c = active[i];
                     int cw = c.getWidth();
                     int cx;
                     switch (crossAlign) {
@@ -189,9 +350,8 @@ public class PanelComponent extends IComponent {
             } else { // HORIZONTAL
                 int x = paddingLeft;
                 int availH = owner.getHeight() - paddingTop - paddingBottom;
-                for (ControlObject c : children) {
-                    if (c == null)
-                        continue;
+                for (int i = 0; i < activeCount; i++) {
+                    ControlObject c = active[i];
                     int ch = c.getHeight();
                     int cy;
                     switch (crossAlign) {
@@ -210,29 +370,57 @@ public class PanelComponent extends IComponent {
                 }
             }
         }
+    }
 
-        for (ControlObject c : children) {
-            try {
-                if (c != null)
-                    c.update(tickDelta);
-            } catch (Throwable ignored) {
-            }
-        }
+    /** 提前布局（由 ParallelLayout 调用）：执行 {@link #layout}，并让接下来的一次 update 跳过布局。 */
+    public void layoutAhead(ControlObject owner) {
+        layout(owner);
+        laidOutAhead = true;
+    }
+
+    /** 上一次并行布局中以拥有者为根的子树节点数（用于决定是否拆分任务）。 */
+    public int getLastSubtreeSize() {
+        return lastSubtreeSize;
+    }
+
+    public void setLastSubtreeSize(int n) {
+        this.lastSubtreeSize = n;
     }
 
     @Override
     public void render(ControlObject owner, net.minecraft.client.gui.DrawContext context, float tickDelta) {
         if (owner.getVisible() == false)
             return;
-        for (ControlObject c : children) {
+        ensureActiveChildren(owner);
+        final ControlObject[] active = this.active;
+        final boolean cull = cullEnabled;
+        final int n = activeCount;
+        int i = 0;
+        while (i < n) {
             try {
-                if (c != null)
+                for (; i < n; i++) {
+                    ControlObject c = active[i];
+                    if (!c.needsRender())
+                        continue;
+                    if (cull) {
+                        int cx = c.getX();
+                        int cy = c.getY();
+                        if (cx >= cullX1 || cy >= cullY1 || cx + c.getWidth() <= cullX0 || cy + c.getHeight() <= cullY0)
+                            continue;
+                    }
                     c.render(context, tickDelta);
-            } catch (Throwable ignored) {
+                }
+            } catch (Throwable t) {
+                childFailed(active[i++], "render", t);
             }
         }
     }
 
+    @Override
+    public int getPhases() {
+        return PHASE_LAYOUT | PHASE_UPDATE | PHASE_RENDER;
+    }
+
     @Override
     public int getPriority() {
         return 50;
@@ -1,5 +1,6 @@
 package org.fish.uitoolkit.v2.components;
 
+import org.fish.uitoolkit.v2.LayoutArena;
 import org.fish.uitoolkit.v2.controls.ControlObject;
 import org.fish.uitoolkit.v2.interfaces.IComponent;
 
@@ -15,6 +16,8 @@ import org.fish.uitoolkit.v2.interfaces.IComponent;
  * - setParentAnchorNormalized(0.5f, 1.0f); // parent bottom-center
  * - setPivotNormalized(0.5f, 0.5f); // child center pivot
  * - setAlignment(Anchor.BOTTOM_CENTER, Anchor.CENTER); // convenience preset
+ *
+ * 绑定到 {@link LayoutArena} 后，setter 同时写入数组槽位，绝对坐标由数组的 layout 统一计算，update 不再计算位置。
  */
 public class PositionComponent extends IComponent {
     private int x = 0;
@@ -47,22 +50,30 @@ public class PositionComponent extends IComponent {
     private float pivotX = 0f, pivotY = 0f;
     private boolean usePivotNormalized = false;
 
+    // optional data-oriented backend; slot is -1 when not bound
+    private LayoutArena arena = null;
+    private int arenaSlot = -1;
+
     public PositionComponent() {
     }
 
     public void setPosition(int x, int y) {
         this.x = x;
         this.y = y;
+        syncArena();
     }
 
     public void setLocalPosition(int lx, int ly) {
         this.localX = lx;
         this.localY = ly;
+        syncArena();
     }
 
     public void setAnchor(Anchor a) {
-        if (a != null)
+        if (a != null) {
             this.anchor = a;
+            syncArena();
+        }
     }
 
     public Anchor getAnchor() {
@@ -70,8 +81,10 @@ public class PositionComponent extends IComponent {
     }
 
     public void setParentAnchor(Anchor a) {
-        if (a != null)
+        if (a != null) {
             this.parentAnchor = a;
+            syncArena();
+        }
     }
 
     public Anchor getParentAnchor() {
@@ -83,20 +96,24 @@ public class PositionComponent extends IComponent {
         this.parentAnchorX = ax;
         this.parentAnchorY = ay;
         this.useParentAnchorNormalized = true;
+        syncArena();
     }
 
     public void clearParentAnchorNormalized() {
         this.useParentAnchorNormalized = false;
+        syncArena();
     }
 
     public void setPivotNormalized(float px, float py) {
         this.pivotX = px;
         this.pivotY = py;
         this.usePivotNormalized = true;
+        syncArena();
     }
 
     public void clearPivotNormalized() {
         this.usePivotNormalized = false;
+        syncArena();
     }
 
     /**
@@ -165,11 +182,76 @@ public class PositionComponent extends IComponent {
     }
 
     public int getAbsX() {
-        return computedX;
+        return arena != null ? arena.getAbsX(arenaSlot) : computedX;
     }
 
     public int getAbsY() {
-        return computedY;
+        return arena != null ? arena.getAbsY(arenaSlot) : computedY;
+    }
+
+    // --- LayoutArena binding ---
+
+    public LayoutArena getArena() {
+        return arena;
+    }
+
+    public int getArenaSlot() {
+        return arenaSlot;
+    }
+
+    /** 绑定到数组槽位并写入当前的定位数据（由 {@link LayoutArena} 调用）。 */
+    public void bindArena(LayoutArena a, int slot) {
+        this.arena = a;
+        this.arenaSlot = slot;
+        syncArena();
+        a.seedAbs(slot, computedX, computedY);
+        phasesChanged();
+    }
+
+    /** 解除绑定，保留最后一次计算的绝对坐标（由 {@link LayoutArena} 调用）。 */
+    public void unbindArena() {
+        if (arena == null)
+            return;
+        computedX = arena.getAbsX(arenaSlot);
+        computedY = arena.getAbsY(arenaSlot);
+        arena = null;
+        arenaSlot = -1;
+        phasesChanged();
+    }
+
+    private void syncArena() {
+        if (arena == null)
+            return;
+        float ax, ay, px, py;
+        if (useParentAnchorNormalized) {
+            ax = parentAnchorX;
+            ay = parentAnchorY;
+        } else {
+            ax = anchorFraction(anchorColumn(parentAnchor));
+            ay = anchorFraction(anchorRow(parentAnchor));
+        }
+        if (usePivotNormalized) {
+            px = pivotX;
+            py = pivotY;
+        } else {
+            px = anchorFraction(anchorColumn(anchor));
+            py = anchorFraction(anchorRow(anchor));
+        }
+        arena.setPlacement(arenaSlot, x + localX, y + localY, offsetX, offsetY, ax, ay, useParentAnchorNormalized,
+                px, py, usePivotNormalized);
+    }
+
+    // column / row of an anchor preset in the 3x3 grid (0, 1 or 2)
+    private static int anchorColumn(Anchor a) {
+        return a.ordinal() % 3;
+    }
+
+    private static int anchorRow(Anchor a) {
+        return a.ordinal() / 3;
+    }
+
+    private static float anchorFraction(int cell) {
+        return cell * 0.5f;
     }
 
     /**
@@ -181,18 +263,21 @@ public class PositionComponent extends IComponent {
     public void setOffset(int ox, int oy) {
         this.offsetX = ox;
         this.offsetY = oy;
+        syncArena();
     }
 
     /** Add a delta to the current offset (useful for nudging). */
     public void addOffset(int dx, int dy) {
         this.offsetX += dx;
         this.offsetY += dy;
+        syncArena();
     }
 
     /** Clear the offset (set to zero). */
     public void clearOffset() {
         this.offsetX = 0;
         this.offsetY = 0;
+        syncArena();
     }
 
     public int getOffsetX() {
@@ -205,6 +290,9 @@ public class PositionComponent extends IComponent {
 
     @Override
     public void update(ControlObject owner, float tickDelta) {
+        // bound controls are positioned by LayoutArena.layout in one pass over all slots
+        if (arena != null)
+            return;
         // compute final absolute position, taking anchors and parent into account
         ControlObject parent = owner.getParent();
         int baseX = x + localX;
@@ -221,50 +309,40 @@ public class PositionComponent extends IComponent {
         // prefer scaled sizes when available
         int parentW = parent.getWidth();
         int parentH = parent.getHeight();
-        try {
-            org.fish.uitoolkit.v2.components.ScaleComponent ps = parent
-                    .getComponent(org.fish.uitoolkit.v2.components.ScaleComponent.class);
-            if (ps != null) {
-                int[] psz = ps.getScaledControlSize();
-                parentW = psz[0];
-                parentH = psz[1];
-            }
-        } catch (Throwable ignored) {
+        ScaleComponent ps = parent.getComponent(ScaleComponent.class);
+        if (ps != null) {
+            parentW = ps.getScaledWidth();
+            parentH = ps.getScaledHeight();
         }
 
-        int[] parentPt;
+        int parentPtX, parentPtY;
         if (useParentAnchorNormalized) {
-            int px = parentX + Math.round(parentAnchorX * parentW);
-            int py = parentY + Math.round(parentAnchorY * parentH);
-            parentPt = new int[] { px, py };
+            parentPtX = parentX + Math.round(parentAnchorX * parentW);
+            parentPtY = parentY + Math.round(parentAnchorY * parentH);
         } else {
-            parentPt = anchorToPoint(parentAnchor, parentX, parentY, parentW, parentH);
+            parentPtX = parentX + anchorFractionX(parentAnchor, parentW);
+            parentPtY = parentY + anchorFractionY(parentAnchor, parentH);
         }
 
         int childW = owner.getWidth();
         int childH = owner.getHeight();
-        try {
-            org.fish.uitoolkit.v2.components.ScaleComponent cs = owner
-                    .getComponent(org.fish.uitoolkit.v2.components.ScaleComponent.class);
-            if (cs != null) {
-                int[] csz = cs.getScaledControlSize();
-                childW = csz[0];
-                childH = csz[1];
-            }
-        } catch (Throwable ignored) {
+        ScaleComponent cs = owner.getComponent(ScaleComponent.class);
+        if (cs != null) {
+            childW = cs.getScaledWidth();
+            childH = cs.getScaledHeight();
         }
-        int[] childOff;
+        int childOffX, childOffY;
         if (usePivotNormalized) {
-            int ox = Math.round(pivotX * childW);
-            int oy = Math.round(pivotY * childH);
-            childOff = new int[] { ox, oy };
+            childOffX = Math.round(pivotX * childW);
+            childOffY = Math.round(pivotY * childH);
         } else {
-            childOff = anchorOffset(anchor, childW, childH);
+            childOffX = anchorFractionX(anchor, childW);
+            childOffY = anchorFractionY(anchor, childH);
         }
 
         // align child anchor (pivot) to parent anchor, then apply base offsets
-        computedX = parentPt[0] + baseX - childOff[0];
-        computedY = parentPt[1] + baseY - childOff[1];
+        computedX = parentPtX + baseX - childOffX;
+        computedY = parentPtY + baseY - childOffY;
 
         // finally apply the coordinate offset (offset is applied to the final
         // absolute position, not relative to parent)
@@ -272,56 +350,44 @@ public class PositionComponent extends IComponent {
         computedY += offsetY;
     }
 
-    private int[] anchorToPoint(Anchor a, int px, int py, int pw, int ph) {
+    // anchor point along each axis as a pixel offset from the top-left corner; computed per
+    // axis so the per-frame layout pass does not allocate
+    private static int anchorFractionX(Anchor a, int w) {
         switch (a) {
-            case TOP_LEFT:
-                return new int[] { px, py };
             case TOP_CENTER:
-                return new int[] { px + pw / 2, py };
-            case TOP_RIGHT:
-                return new int[] { px + pw, py };
-            case CENTER_LEFT:
-                return new int[] { px, py + ph / 2 };
             case CENTER:
-                return new int[] { px + pw / 2, py + ph / 2 };
-            case CENTER_RIGHT:
-                return new int[] { px + pw, py + ph / 2 };
-            case BOTTOM_LEFT:
-                return new int[] { px, py + ph };
             case BOTTOM_CENTER:
-                return new int[] { px + pw / 2, py + ph };
+                return w / 2;
+            case TOP_RIGHT:
+            case CENTER_RIGHT:
             case BOTTOM_RIGHT:
-                return new int[] { px + pw, py + ph };
+                return w;
             default:
-                return new int[] { px, py };
+                return 0;
         }
     }
 
-    private int[] anchorOffset(Anchor a, int w, int h) {
+    private static int anchorFractionY(Anchor a, int h) {
         switch (a) {
-            case TOP_LEFT:
-                return new int[] { 0, 0 };
-            case TOP_CENTER:
-                return new int[] { w / 2, 0 };
-            case TOP_RIGHT:
-                return new int[] { w, 0 };
             case CENTER_LEFT:
-                return new int[] { 0, h / 2 };
             case CENTER:
-                return new int[] { w / 2, h / 2 };
             case CENTER_RIGHT:
-                return new int[] { w, h / 2 };
+                return h / 2;
             case BOTTOM_LEFT:
-                return new int[] { 0, h };
             case BOTTOM_CENTER:
-                return new int[] { w / 2, h };
             case BOTTOM_RIGHT:
-                return new int[] { w, h };
+                return h;
             default:
-                return new int[] { 0, 0 };
+                return 0;
         }
     }
 
+    /** 计算位置属于布局阶段；绑定到 {@link LayoutArena} 后由其统一计算，不再需要逐个 update。 */
+    @Override
+    public int getPhases() {
+        return arena != null ? 0 : PHASE_LAYOUT;
+    }
+
     @Override
     public int getPriority() {
         return 10;
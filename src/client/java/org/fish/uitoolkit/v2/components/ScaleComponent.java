@@ -1,20 +1,31 @@
 package org.fish.uitoolkit.v2.components;
 
-import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.LayoutArena;
 import org.fish.uitoolkit.v2.interfaces.IComponent;
 
-/** Scale component now owns size and scale factor. */
+/** Scale component now owns size and scale factor. 绑定到 {@link LayoutArena} 后同时把缩放后尺寸写入数组槽位。 */
 public class ScaleComponent extends IComponent {
     private float scale = 1f;
     private int width = 0;
     private int height = 0;
+    private LayoutArena arena = null;
+    private int arenaSlot = -1;
 
     public ScaleComponent() {}
 
-    public void setScale(float s) { if (s > 0) this.scale = s; }
+    public void setScale(float s) {
+        if (s > 0) {
+            this.scale = s;
+            syncArena();
+        }
+    }
     public float getScaleFactor() { return this.scale; }
 
-    public void setSize(int w, int h) { this.width = w; this.height = h; }
+    public void setSize(int w, int h) {
+        this.width = w;
+        this.height = h;
+        syncArena();
+    }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
 
@@ -22,15 +33,34 @@ public class ScaleComponent extends IComponent {
         return new int[] { width, height };
     }
 
+    /** Scaled width without allocating (same rounding as getScaledControlSize). */
+    public int getScaledWidth() { return scale == 1f ? width : Math.round(width * scale); }
+    public int getScaledHeight() { return scale == 1f ? height : Math.round(height * scale); }
+
     public int[] getScaledControlSize() {
         int w = Math.round(width * scale);
         int h = Math.round(height * scale);
         return new int[] { w, h };
     }
 
-    @Override
-    public void update(ControlObject owner, float tickDelta) {
-        // size adjustments could be applied here if needed
+    public LayoutArena getArena() { return arena; }
+    public int getArenaSlot() { return arenaSlot; }
+
+    /** 绑定到数组槽位（由 {@link LayoutArena} 调用）。 */
+    public void bindArena(LayoutArena a, int slot) {
+        this.arena = a;
+        this.arenaSlot = slot;
+        syncArena();
+    }
+
+    public void unbindArena() {
+        this.arena = null;
+        this.arenaSlot = -1;
+    }
+
+    private void syncArena() {
+        if (arena != null)
+            arena.setSize(arenaSlot, getScaledWidth(), getScaledHeight());
     }
 
     @Override
@@ -1,10 +1,18 @@
 package org.fish.uitoolkit.v2.controls;
 
 import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.ErrorPolicy;
+import org.fish.uitoolkit.v2.LayoutArena;
+import org.fish.uitoolkit.v2.UpdatePolicy;
+import org.fish.uitoolkit.v2.UpdateScheduler;
 import org.fish.uitoolkit.v2.components.PanelComponent;
 import org.fish.uitoolkit.v2.components.PositionComponent;
 import org.fish.uitoolkit.v2.components.ScaleComponent;
+import org.fish.uitoolkit.v2.input.InputComponent;
 import org.fish.uitoolkit.v2.interfaces.IComponent;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+import org.fish.uitoolkit.v2.style.StyleState;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,11 +23,47 @@ import java.util.ArrayList;
  * Minimal ControlObject: can hold components and basic layout properties.
  */
 public class ControlObject {
+    /**
+     * 可见性状态：
+     * VISIBLE 正常参与布局与绘制；HIDDEN 保留布局位置但不 update/render；
+     * COLLAPSED 从父面板的测量、排列与遍历中完全移除。
+     */
+    public enum Visibility {
+        VISIBLE, HIDDEN, COLLAPSED
+    }
+
     private final Map<Class<?>, IComponent> components = new LinkedHashMap<>();
-    private final List<IComponent> cachedComponents = new ArrayList<>();
+    // per-phase dispatch arrays, pre-sorted by priority and rebuilt when components change
+    private static final IComponent[] NO_COMPONENTS = new IComponent[0];
+    private IComponent[] updateComponents = NO_COMPONENTS;
+    private IComponent[] renderComponents = NO_COMPONENTS;
+    // components with PHASE_LAYOUT, run every frame even while this control's update is throttled
+    private IComponent[] layoutComponents = NO_COMPONENTS;
+    // union of the components' phases and the phases this class adds by overriding update/render
+    private int phaseMask = 0;
     private boolean componentsDirty = true;
     protected boolean visible = true;
+    private Visibility visibility = Visibility.VISIBLE;
+    // bumped whenever a child collapses or un-collapses; panels rebuild their active list on change
+    private int childLayoutStamp = 0;
     private ControlObject parent = null;
+    // own opacity and the cached product of all ancestors' opacity
+    private float opacity = 1f;
+    private float effectiveOpacity = 1f;
+    private boolean opacityDirty = true;
+    // update throttling; controls that are not EVERY_FRAME are driven by the UpdateScheduler
+    private UpdatePolicy updatePolicy = UpdatePolicy.EVERY_FRAME;
+    private UpdateScheduler.Entry scheduleEntry = null;
+    // shared style and lazily created per-control overrides (derived from the shared style)
+    private Style style = null;
+    private Style localStyle = null;
+    private boolean enabled = true;
+    // set by the ErrorPolicy after repeated failures; a quarantined control is skipped like a hidden one
+    private boolean quarantined = false;
+    private List<IComponent> quarantinedComponents = null;
+    // the ControlPool this instance was created by, and whether it is currently idle in that pool
+    ControlPool<?> pool = null;
+    boolean pooledIdle = false;
 
     public ControlObject() {
         this.addComponent(new PositionComponent());
@@ -29,8 +73,10 @@ public class ControlObject {
     public IComponent addComponent(IComponent comp) {
         if (comp != null)
             comp.setOwner(this);
-        components.put(comp.getClass(), comp);
+        IComponent old = components.put(comp.getClass(), comp);
         componentsDirty = true;
+        if (old != null && old != comp)
+            LayoutArena.onComponentReplaced(this, old);
         return comp;
     }
 
@@ -44,44 +90,256 @@ public class ControlObject {
         componentsDirty = true;
     }
 
+    /** 通知控件其组件集合或某个组件的阶段已改变（下一次使用前重建分发数组）。 */
+    public void componentsChanged() {
+        componentsDirty = true;
+    }
+
     /**
-     * 组件更新缓存
+     * 按阶段重建分发数组：组件按优先级排序后，只有声明了相应阶段的组件进入该阶段的数组（布局在 update 中执行）。
      */
     private void ensureCachedComponents() {
         if (!componentsDirty)
             return;
-        cachedComponents.clear();
-        cachedComponents.addAll(components.values());
-        cachedComponents.sort((a, b) -> Integer.compare(a.getPriority(), b.getPriority()));
+        List<IComponent> sorted = new ArrayList<>(components.values());
+        if (quarantinedComponents != null)
+            sorted.removeAll(quarantinedComponents);
+        sorted.sort((a, b) -> Integer.compare(a.getPriority(), b.getPriority()));
+        int mask = OWN_PHASES.get(getClass());
+        int nu = 0, nr = 0, nl = 0;
+        int[] phases = new int[sorted.size()];
+        for (int i = 0; i < phases.length; i++) {
+            int p = sorted.get(i).getPhases();
+            phases[i] = p;
+            mask |= p;
+            if ((p & (IComponent.PHASE_UPDATE | IComponent.PHASE_LAYOUT)) != 0)
+                nu++;
+            if ((p & IComponent.PHASE_RENDER) != 0)
+                nr++;
+            if ((p & IComponent.PHASE_LAYOUT) != 0)
+                nl++;
+        }
+        IComponent[] u = nu == 0 ? NO_COMPONENTS : new IComponent[nu];
+        IComponent[] r = nr == 0 ? NO_COMPONENTS : new IComponent[nr];
+        IComponent[] l = nl == 0 ? NO_COMPONENTS : new IComponent[nl];
+        nu = nr = nl = 0;
+        for (int i = 0; i < phases.length; i++) {
+            if ((phases[i] & (IComponent.PHASE_UPDATE | IComponent.PHASE_LAYOUT)) != 0)
+                u[nu++] = sorted.get(i);
+            if ((phases[i] & IComponent.PHASE_RENDER) != 0)
+                r[nr++] = sorted.get(i);
+            if ((phases[i] & IComponent.PHASE_LAYOUT) != 0)
+                l[nl++] = sorted.get(i);
+        }
+        updateComponents = u;
+        renderComponents = r;
+        layoutComponents = l;
+        phaseMask = mask;
         componentsDirty = false;
     }
 
+    // phases a ControlObject subclass adds by overriding update/render itself, detected once per class
+    private static final ClassValue<Integer> OWN_PHASES = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int phases = 0;
+            for (Class<?> c = type; c != ControlObject.class && c != null; c = c.getSuperclass()) {
+                if (declares(c, "update", float.class))
+                    phases |= IComponent.PHASE_UPDATE;
+                if (declares(c, "render", DrawContext.class, float.class))
+                    phases |= IComponent.PHASE_RENDER;
+            }
+            return phases;
+        }
+    };
+
+    private static boolean declares(Class<?> c, String name, Class<?>... params) {
+        try {
+            c.getDeclaredMethod(name, params);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 本控件参与的阶段（{@code IComponent.PHASE_*}）：组件声明的阶段加上子类重写 update / render 带来的阶段。
+     * 父面板跳过在某阶段无事可做的子控件，不调用它。
+     */
+    public int getPhaseMask() {
+        ensureCachedComponents();
+        return phaseMask;
+    }
+
+    /** 是否需要在 update 遍历中被调用（有更新或布局工作）。 */
+    public boolean needsUpdate() {
+        ensureCachedComponents();
+        return (phaseMask & (IComponent.PHASE_UPDATE | IComponent.PHASE_LAYOUT)) != 0;
+    }
+
+    /** 是否需要在 render 遍历中被调用。 */
+    public boolean needsRender() {
+        ensureCachedComponents();
+        return (phaseMask & IComponent.PHASE_RENDER) != 0;
+    }
+
+    /**
+     * 返回本帧是否应跳过该控件（及其子树）的 update/render：不可见、有效透明度为 0 或已被隔离。
+     */
+    protected boolean isSkipped() {
+        return quarantined || !visible || getEffectiveOpacity() <= 0f;
+    }
+
+    /** 隔离本控件：之后不再 update/render（由父面板在它反复抛出异常后调用，见 {@link ErrorPolicy}）。 */
+    public void quarantine() {
+        this.quarantined = true;
+    }
+
+    public boolean isQuarantined() {
+        return quarantined;
+    }
+
+    /** 是否有组件因反复抛出异常而被隔离。 */
+    public boolean hasQuarantinedComponents() {
+        return quarantinedComponents != null && !quarantinedComponents.isEmpty();
+    }
+
+    /** 解除本控件及其组件的隔离并清除失败计数。 */
+    public void releaseQuarantine() {
+        ErrorPolicy policy = ErrorPolicy.getInstance();
+        quarantined = false;
+        policy.forget(this);
+        if (quarantinedComponents != null) {
+            for (IComponent c : quarantinedComponents)
+                policy.forget(c);
+            quarantinedComponents = null;
+            componentsDirty = true;
+        }
+    }
+
+    /**
+     * 由父控件遍历调用的更新入口。每帧更新的控件直接执行 {@link #update}；
+     * 其它策略的控件登记到当前的 {@link UpdateScheduler}，由调度器在到期时更新（包括其整棵子树）；
+     * 未到期的帧中整棵子树仍执行 {@link #updateLayout}，使位置与尺寸跟随父控件的移动与重新布局。
+     * 没有作用中的调度器时（例如控件不受 UIManager 管理）总是直接更新。
+     */
+    public final void dispatchUpdate(float tickDelta) {
+        if (updatePolicy.isEveryFrame()) {
+            update(tickDelta);
+            return;
+        }
+        UpdateScheduler s = UpdateScheduler.current();
+        if (s == null) {
+            update(tickDelta);
+            return;
+        }
+        if (scheduleEntry == null || !scheduleEntry.isActive() || scheduleEntry.getScheduler() != s)
+            scheduleEntry = s.register(this);
+        else
+            s.noteDeferred();
+        // only refresh work is throttled; positioning follows the parent every frame
+        updateLayout(tickDelta);
+    }
+
+    /**
+     * 只执行布局阶段：运行声明了 {@link IComponent#PHASE_LAYOUT} 的组件（计算位置、排列子控件），
+     * 不运行其它 update 工作。被节流的控件在未到期的帧中以此代替 {@link #update}，并递归到整棵子树。
+     */
+    public void updateLayout(float tickDelta) {
+        if (isSkipped())
+            return;
+        ensureCachedComponents();
+        final IComponent[] list = layoutComponents;
+        final int n = list.length;
+        int i = 0;
+        while (i < n) {
+            try {
+                for (; i < n; i++)
+                    list[i].updateLayout(this, tickDelta);
+            } catch (Throwable t) {
+                componentFailed(list[i++], "layout", t);
+            }
+        }
+    }
+
+    /**
+     * 设置控件的更新策略（默认每帧更新）。被节流的控件在未到期的帧中不会 update，
+     * 其子树保持上一次更新的状态继续绘制；布局（位置与排列）仍每帧执行。
+     */
+    public ControlObject setUpdatePolicy(UpdatePolicy policy) {
+        if (policy == null)
+            policy = UpdatePolicy.EVERY_FRAME;
+        if (policy == this.updatePolicy)
+            return this;
+        this.updatePolicy = policy;
+        // re-register on the next traversal so the new cadence takes effect immediately
+        if (scheduleEntry != null) {
+            scheduleEntry.cancel();
+            scheduleEntry = null;
+        }
+        return this;
+    }
+
+    public UpdatePolicy getUpdatePolicy() {
+        return this.updatePolicy;
+    }
+
+    /** 要求被节流的控件在下一帧更新一次（对每帧更新的控件无影响）。 */
+    public void requestUpdate() {
+        if (scheduleEntry != null)
+            scheduleEntry.request();
+    }
+
     public void update(float tickDelta) {
-        if (!visible)
+        if (isSkipped())
             return;
         ensureCachedComponents();
-        for (int i = 0, n = cachedComponents.size(); i < n; i++) {
-            IComponent c = cachedComponents.get(i);
+        UpdateScheduler s = UpdateScheduler.current();
+        final IComponent[] list = updateComponents;
+        final int n = list.length;
+        // one handler around the whole loop: after a failure the loop resumes with the next component
+        int i = 0;
+        while (i < n) {
             try {
-                c.update(this, tickDelta);
-            } catch (Throwable ignored) {
+                for (; i < n; i++) {
+                    IComponent c = list[i];
+                    if (s == null || c.isUpdateDue(s.getFrame(), s.getFrameNanos()))
+                        c.update(this, tickDelta);
+                }
+            } catch (Throwable t) {
+                componentFailed(list[i++], "update", t);
             }
         }
     }
 
     public void render(DrawContext context, float tickDelta) {
-        if (!visible)
+        if (isSkipped())
             return;
         ensureCachedComponents();
-        for (int i = 0, n = cachedComponents.size(); i < n; i++) {
-            IComponent c = cachedComponents.get(i);
+        final IComponent[] list = renderComponents;
+        final int n = list.length;
+        int i = 0;
+        while (i < n) {
             try {
-                c.render(this, context, tickDelta);
-            } catch (Throwable ignored) {
+                for (; i < n; i++)
+                    list[i].render(this, context, tickDelta);
+            } catch (Throwable t) {
+                componentFailed(list[i++], "render", t);
             }
         }
     }
 
+    private void componentFailed(IComponent c, String phase, Throwable t) {
+        if (!ErrorPolicy.getInstance().failed(this, c, phase, t))
+            return;
+        if (quarantinedComponents == null)
+            quarantinedComponents = new ArrayList<>();
+        if (!quarantinedComponents.contains(c))
+            quarantinedComponents.add(c);
+        // the dispatch list is rebuilt without it on the next pass
+        componentsDirty = true;
+    }
+
     public boolean getVisible() {
         return this.visible;
     }
@@ -164,8 +422,148 @@ public class ControlObject {
             s.setSize(w, h);
     }
 
+    /** 等价于 setVisibility(v ? VISIBLE : HIDDEN)。 */
     public void setVisible(boolean v) {
-        this.visible = v;
+        setVisibility(v ? Visibility.VISIBLE : Visibility.HIDDEN);
+    }
+
+    /**
+     * 设置可见性。只有进入或离开 COLLAPSED 时才会通知父控件重建其活动子控件列表，
+     * 因此每帧重复设置相同的值不会产生额外开销。
+     */
+    public void setVisibility(Visibility v) {
+        if (v == null || v == this.visibility)
+            return;
+        boolean layoutChanged = (v == Visibility.COLLAPSED) != (this.visibility == Visibility.COLLAPSED);
+        this.visibility = v;
+        this.visible = v == Visibility.VISIBLE;
+        if (layoutChanged && parent != null)
+            parent.childLayoutStamp++;
+    }
+
+    public Visibility getVisibility() {
+        return this.visibility;
+    }
+
+    public boolean isCollapsed() {
+        return this.visibility == Visibility.COLLAPSED;
+    }
+
+    /**
+     * 子控件折叠状态的修改计数。{@link PanelComponent} 比较该值以决定是否重建活动子控件数组。
+     */
+    public int getChildLayoutStamp() {
+        return this.childLayoutStamp;
+    }
+
+    /**
+     * 设置控件自身的不透明度（0..1）。最终透明度会与所有祖先的不透明度相乘，
+     * 作用于背景与文本；有效透明度为 0 的子树将完全跳过 update/render。
+     */
+    public void setOpacity(float o) {
+        float v = Math.max(0f, Math.min(1f, o));
+        if (v == this.opacity)
+            return;
+        this.opacity = v;
+        invalidateOpacity();
+    }
+
+    public float getOpacity() {
+        return this.opacity;
+    }
+
+    /**
+     * 返回与祖先相乘后的有效不透明度。结果被缓存，仅在自身或祖先的不透明度（或父节点）变化后重新计算。
+     */
+    public float getEffectiveOpacity() {
+        if (opacityDirty) {
+            float inherited = parent != null ? parent.getEffectiveOpacity() : 1f;
+            effectiveOpacity = inherited * opacity;
+            opacityDirty = false;
+        }
+        return effectiveOpacity;
+    }
+
+    /**
+     * 将自身及子树的有效透明度缓存标记为失效。
+     * 一个节点失效时其子树必然已失效（重新计算总是自顶向下），因此遇到已失效的节点即可停止。
+     */
+    private void invalidateOpacity() {
+        if (opacityDirty)
+            return;
+        opacityDirty = true;
+        List<ControlObject> children = getChildren();
+        for (int i = 0, n = children.size(); i < n; i++) {
+            ControlObject c = children.get(i);
+            if (c != null)
+                c.invalidateOpacity();
+        }
+    }
+
+    /**
+     * 设置控件引用的共享样式。控件只保存引用，解析结果缓存在样式上并由所有引用它的控件共享。
+     */
+    public ControlObject setStyle(Style s) {
+        if (s == this.style)
+            return this;
+        this.style = s;
+        if (localStyle != null)
+            localStyle.setParent(s);
+        return this;
+    }
+
+    public Style getStyle() {
+        return this.style;
+    }
+
+    /**
+     * 返回控件的局部样式（首次调用时创建，继承自共享样式）。控件的样式类 setter（例如 Label.setTextColor）写入这里。
+     */
+    public Style getLocalStyle() {
+        if (localStyle == null)
+            localStyle = Style.derive(style);
+        return localStyle;
+    }
+
+    public boolean hasLocalStyle() {
+        return localStyle != null;
+    }
+
+    /** 当前状态下的解析样式。没有样式时所有属性取默认值。 */
+    public Style.Resolved getResolvedStyle() {
+        Style s = localStyle != null ? localStyle : style;
+        if (s == null)
+            return Style.Resolved.DEFAULTS;
+        return s.resolve(getStyleState());
+    }
+
+    public <V> V getStyleValue(StyleProperty<V> prop) {
+        return getResolvedStyle().get(prop);
+    }
+
+    /** 当前交互状态（{@link StyleState#bit()} 的按位或），来自 InputComponent 与启用状态。 */
+    public int getStyleState() {
+        int mask = enabled ? 0 : StyleState.DISABLED.bit();
+        InputComponent input = getComponent(InputComponent.class);
+        if (input != null) {
+            if (input.isHovered())
+                mask |= StyleState.HOVER.bit();
+            if (input.isFocused())
+                mask |= StyleState.FOCUSED.bit();
+            if (input.isPressed())
+                mask |= StyleState.PRESSED.bit();
+        }
+        return mask;
+    }
+
+    /** 启用状态。禁用的控件使用样式的 DISABLED 变体。 */
+    public ControlObject setEnabled(boolean v) {
+        this.enabled = v;
+        return this;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
     }
 
     public int getX() {
@@ -217,6 +615,27 @@ public class ControlObject {
         return this;
     }
 
+    /** 在 index 处插入子控件。 */
+    public void insertChild(int index, ControlObject child) {
+        PanelComponent p = getComponent(PanelComponent.class);
+        if (p == null)
+            p = (PanelComponent) addComponent(new PanelComponent());
+        p.insertChild(index, child);
+    }
+
+    /** 把已有的子控件移动到 index 处。 */
+    public void moveChild(ControlObject child, int index) {
+        PanelComponent p = getComponent(PanelComponent.class);
+        if (p != null)
+            p.moveChild(child, index);
+    }
+
+    public void removeChild(ControlObject child) {
+        PanelComponent p = getComponent(PanelComponent.class);
+        if (p != null)
+            p.removeChild(child);
+    }
+
     public List<ControlObject> getChildren() {
         PanelComponent p = getComponent(PanelComponent.class);
         if (p == null)
@@ -229,7 +648,11 @@ public class ControlObject {
     }
 
     public void setParent(ControlObject p) {
+        if (this.parent == p)
+            return;
         this.parent = p;
+        invalidateOpacity();
+        LayoutArena.onParentChanged(this, p);
     }
 
     /**
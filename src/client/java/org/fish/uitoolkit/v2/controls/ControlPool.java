@@ -0,0 +1,276 @@
+package org.fish.uitoolkit.v2.controls;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 控件对象池：为频繁创建与丢弃的控件（击杀信息、伤害数字、提示、列表行等）复用已构建好的实例。
+ * <p>
+ * 每个池持有一个工厂（创建并配置好一个模板实例）与一个可选的重置回调。{@link #acquire()} 优先取出空闲实例（命中），
+ * 没有空闲实例时调用工厂（未命中）；{@link #release} 把实例从父控件上移除、恢复通用的运行时状态
+ * （可见、不透明度 1、清除偏移）并调用重置回调后放回池中。模板在工厂中设置的锚点、尺寸、样式、子控件等配置不会被重置，
+ * 使用过程中修改的其它状态（文本、颜色、监听器等）应由重置回调恢复。
+ * <p>
+ * 空闲实例保存在预先分配的数组中，容量在 {@link #warm} 或达到峰值后不再增长，因此稳定状态下的取出与归还不分配内存。
+ * 被 {@link org.fish.uitoolkit.v2.ErrorPolicy} 隔离的实例归还时直接丢弃，不会再被取出。
+ * <p>
+ * 可按名称（模板）或控件类型登记共享的池，见 {@link #register} 与 {@link #of}。只应在渲染线程上使用。
+ */
+public class ControlPool<T extends ControlObject> {
+    private static final Map<String, ControlPool<?>> TEMPLATES = new HashMap<>();
+    private static final Map<Class<?>, ControlPool<?>> TYPES = new HashMap<>();
+
+    private final String name;
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> reset;
+    private ControlObject[] idle = new ControlObject[8];
+    private int idleCount = 0;
+    private int maxIdle = Integer.MAX_VALUE;
+    private int inUse = 0;
+    private int peakInUse = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long discarded = 0;
+
+    /**
+     * @param name    池的名称（只用于统计与日志）
+     * @param factory 创建一个已配置好的新实例
+     * @param reset   归还时恢复实例状态（可为 null）
+     */
+    public ControlPool(String name, Supplier<? extends T> factory, Consumer<? super T> reset) {
+        if (factory == null)
+            throw new IllegalArgumentException("factory must not be null");
+        this.name = name == null ? "" : name;
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    public ControlPool(String name, Supplier<? extends T> factory) {
+        this(name, factory, null);
+    }
+
+    /** 登记一个按名称取用的模板池；同名的旧池被替换。 */
+    public static <T extends ControlObject> ControlPool<T> register(String template, Supplier<? extends T> factory,
+            Consumer<? super T> reset) {
+        ControlPool<T> pool = new ControlPool<>(template, factory, reset);
+        TEMPLATES.put(template, pool);
+        return pool;
+    }
+
+    /** 按名称取得已登记的模板池；未登记时返回 null。 */
+    @SuppressWarnings("unchecked")
+    public static <T extends ControlObject> ControlPool<T> template(String template) {
+        return (ControlPool<T>) TEMPLATES.get(template);
+    }
+
+    /**
+     * 按类型取得共享的池，首次调用时创建（使用该类型的无参构造函数）。
+     *
+     * @throws IllegalArgumentException 该类型没有可访问的无参构造函数
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ControlObject> ControlPool<T> of(Class<T> type) {
+        ControlPool<?> pool = TYPES.get(type);
+        if (pool == null) {
+            Constructor<T> ctor;
+            try {
+                ctor = type.getConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " has no public no-arg constructor", e);
+            }
+            pool = new ControlPool<T>(type.getSimpleName(), () -> {
+                try {
+                    return ctor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("cannot create " + type.getName(), e);
+                }
+            });
+            TYPES.put(type, pool);
+        }
+        return (ControlPool<T>) pool;
+    }
+
+    /** 按名称取出一个实例。 */
+    public static <T extends ControlObject> T acquire(String template) {
+        ControlPool<T> pool = template(template);
+        if (pool == null)
+            throw new IllegalArgumentException("no control template named " + template);
+        return pool.acquire();
+    }
+
+    /**
+     * 把实例归还给取出它的池；不是从池中取出或已归还的实例返回 false（不做任何处理）。
+     */
+    public static boolean recycle(ControlObject c) {
+        if (c == null || c.pool == null)
+            return false;
+        return c.pool.releaseChecked(c);
+    }
+
+    /** 空闲实例数的上限（默认不限制）；超过上限的归还实例被丢弃。 */
+    public ControlPool<T> setMaxIdle(int max) {
+        this.maxIdle = Math.max(0, max);
+        while (idleCount > maxIdle)
+            discard(idle[--idleCount]);
+        return this;
+    }
+
+    /** 预先创建实例，使空闲数至少为 count（加载时调用，避免首次使用时的分配）。 */
+    public ControlPool<T> warm(int count) {
+        int target = Math.min(count, maxIdle);
+        ensureCapacity(target);
+        while (idleCount < target) {
+            T c = factory.get();
+            c.pool = this;
+            c.pooledIdle = true;
+            idle[idleCount++] = c;
+        }
+        return this;
+    }
+
+    /** 取出一个实例（已从任何父控件上移除、可见）。 */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        T c;
+        if (idleCount > 0) {
+            c = (T) idle[--idleCount];
+            idle[idleCount] = null;
+            hits++;
+        } else {
+            c = factory.get();
+            c.pool = this;
+            misses++;
+        }
+        c.pooledIdle = false;
+        inUse++;
+        if (inUse > peakInUse) {
+            peakInUse = inUse;
+            // size the idle stack for the peak now, so returning everything later does not grow it
+            ensureCapacity(Math.min(peakInUse, maxIdle));
+        }
+        return c;
+    }
+
+    /**
+     * 归还实例：从父控件上移除并重置后放回池中。
+     *
+     * @throws IllegalArgumentException 实例不是从本池取出的
+     * @throws IllegalStateException    实例已经归还
+     */
+    public void release(T c) {
+        if (c == null)
+            return;
+        if (c.pool != this)
+            throw new IllegalArgumentException("control was not acquired from pool " + name);
+        if (c.pooledIdle)
+            throw new IllegalStateException("control already released to pool " + name);
+        releaseChecked(c);
+    }
+
+    private boolean releaseChecked(ControlObject c) {
+        if (c.pooledIdle)
+            return false;
+        c.pooledIdle = true;
+        inUse--;
+        ControlObject parent = c.getParent();
+        if (parent != null)
+            parent.removeChild(c);
+        // a control that kept failing would fail again for the next user
+        if (c.isQuarantined() || c.hasQuarantinedComponents() || idleCount >= maxIdle) {
+            discard(c);
+            return true;
+        }
+        resetCommon(c);
+        if (reset != null) {
+            @SuppressWarnings("unchecked")
+            T t = (T) c;
+            reset.accept(t);
+        }
+        ensureCapacity(idleCount + 1);
+        idle[idleCount++] = c;
+        return true;
+    }
+
+    private static void resetCommon(ControlObject c) {
+        c.setVisibility(ControlObject.Visibility.VISIBLE);
+        c.setOpacity(1f);
+        c.clearOffset();
+        c.setEnabled(true);
+    }
+
+    private void discard(ControlObject c) {
+        c.pool = null;
+        c.pooledIdle = false;
+        discarded++;
+    }
+
+    private void ensureCapacity(int n) {
+        if (n > idle.length)
+            idle = Arrays.copyOf(idle, Math.max(n, idle.length * 2));
+    }
+
+    /** 清空空闲实例（在用的实例归还时照常放回）。 */
+    public void clear() {
+        while (idleCount > 0) {
+            discard(idle[--idleCount]);
+            idle[idleCount] = null;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** 从空闲实例中取出的次数。 */
+    public long getHits() {
+        return hits;
+    }
+
+    /** 因没有空闲实例而新建的次数（不含 {@link #warm} 创建的实例）。 */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** 命中率（0..1）；尚未取出过时为 1。 */
+    public float getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 1f : (float) hits / total;
+    }
+
+    /** 已取出、尚未归还的实例数。 */
+    public int getInUse() {
+        return inUse;
+    }
+
+    /** 同时在用实例数的峰值。 */
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+
+    public int getIdle() {
+        return idleCount;
+    }
+
+    /** 归还时因被隔离或超过空闲上限而丢弃的实例数。 */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    /** 清零命中、未命中、丢弃计数与峰值。 */
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        discarded = 0;
+        peakInUse = inUse;
+    }
+
+    @Override
+    public String toString() {
+        return "ControlPool[" + name + " inUse=" + inUse + " idle=" + idleCount + " peak=" + peakInUse
+                + " hits=" + hits + " misses=" + misses + " discarded=" + discarded + "]";
+    }
+}
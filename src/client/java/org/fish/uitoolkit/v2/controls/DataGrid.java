@@ -0,0 +1,369 @@
+package org.fish.uitoolkit.v2.controls;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.grid.GridColumn;
+import org.fish.uitoolkit.v2.grid.GridModel;
+import org.fish.uitoolkit.v2.grid.GridView;
+import org.fish.uitoolkit.v2.input.InputComponent;
+import org.fish.uitoolkit.v2.input.UIEvent;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+
+/**
+ * 表格控件：数据来自列式的 {@link GridModel}，显示顺序来自 {@link GridView}（增量维护的排序 / 过滤索引）。
+ * <p>
+ * 单元格不是控件：绘制时只遍历可见的行区间与列区间（列的 x 坐标前缀和上二分查找），
+ * 直接绘制缓存的单元格文本，每列使用一个 scissor 裁剪溢出的文本。因此绘制成本只与可见单元格数有关，与总行数无关。
+ * <p>
+ * 支持滚轮 / 拖拽滚动、点击表头切换排序（升序 → 降序）与点击行选中。文本颜色取自控件样式（{@link StyleProperty#TEXT_COLOR}）。
+ */
+public class DataGrid extends ControlObject {
+    private final GridModel model;
+    private final GridView view;
+
+    private int rowHeight = 11;
+    private int headerHeight = 13;
+    private int cellPadding = 3;
+    private int headerColor = 0xE0202020;
+    private int headerTextColor = 0xFFFFA0;
+    private int backgroundColor = 0xA0000000;
+    private int stripeColor = 0x20FFFFFF;
+    private int selectionColor = 0x805078C8;
+    private int scrollStepRows = 3;
+
+    private double scrollX = 0, scrollY = 0;
+    private int selectedRow = -1;
+    private IntConsumer onSelect;
+
+    // column x offsets (prefix sums), rebuilt when the model's columns change
+    private int[] columnX = new int[1];
+    private int totalWidth = 0;
+    private int columnsVersion = -1;
+    // header captions including the sort marker, rebuilt when columns or sort change
+    private String[] captions = new String[0];
+    private GridColumn captionSort;
+    private boolean captionDescending;
+
+    private int lastDrawnRows = 0;
+    private int lastDrawnColumns = 0;
+
+    public DataGrid(GridModel model) {
+        this.model = model;
+        this.view = model.createView();
+        InputComponent input = (InputComponent) addComponent(new InputComponent());
+        input.on(UIEvent.Type.MOUSE_SCROLL, e -> {
+            scrollBy(0, -e.getScrollAmount() * scrollStepRows * rowHeight);
+            e.consume();
+            e.stopPropagation();
+        });
+        input.on(UIEvent.Type.MOUSE_DRAG, e -> {
+            scrollBy(-e.getDeltaX(), -e.getDeltaY());
+            e.consume();
+        });
+        input.onClick(e -> {
+            handleClick(e.getX() - getX(), e.getY() - getY());
+            e.consume();
+        });
+    }
+
+    public GridModel getModel() {
+        return model;
+    }
+
+    /** 本表格使用的排序 / 过滤视图。 */
+    public GridView getView() {
+        return view;
+    }
+
+    /** 按列排序；column 为 null 时按行 id。 */
+    public DataGrid sortBy(GridColumn column, boolean descending) {
+        view.setSort(column, descending);
+        return this;
+    }
+
+    // --- appearance ---
+
+    public DataGrid setRowHeight(int h) {
+        if (h > 0)
+            this.rowHeight = h;
+        return this;
+    }
+
+    public int getRowHeight() {
+        return rowHeight;
+    }
+
+    public DataGrid setHeaderHeight(int h) {
+        if (h >= 0)
+            this.headerHeight = h;
+        return this;
+    }
+
+    public int getHeaderHeight() {
+        return headerHeight;
+    }
+
+    public DataGrid setCellPadding(int p) {
+        if (p >= 0)
+            this.cellPadding = p;
+        return this;
+    }
+
+    /** 颜色均为 ARGB。 */
+    public DataGrid setColors(int background, int header, int headerText, int stripe, int selection) {
+        this.backgroundColor = background;
+        this.headerColor = header;
+        this.headerTextColor = headerText & 0xFFFFFF;
+        this.stripeColor = stripe;
+        this.selectionColor = selection;
+        return this;
+    }
+
+    /** 每格滚轮滚动的行数。 */
+    public DataGrid setScrollStepRows(int rows) {
+        if (rows > 0)
+            this.scrollStepRows = rows;
+        return this;
+    }
+
+    // --- selection ---
+
+    /** 选中的行 id；-1 表示未选中。 */
+    public int getSelectedRow() {
+        return selectedRow;
+    }
+
+    public DataGrid setSelectedRow(int row) {
+        this.selectedRow = model.isAlive(row) ? row : -1;
+        return this;
+    }
+
+    /** 点击选中行时回调（参数为行 id）。 */
+    public DataGrid onSelect(IntConsumer listener) {
+        this.onSelect = listener;
+        return this;
+    }
+
+    // --- scrolling ---
+
+    public double getScrollX() {
+        return scrollX;
+    }
+
+    public double getScrollY() {
+        return scrollY;
+    }
+
+    public int getMaxScrollX() {
+        ensureColumns();
+        return Math.max(0, totalWidth - getWidth());
+    }
+
+    public int getMaxScrollY() {
+        return Math.max(0, view.size() * rowHeight - bodyHeight());
+    }
+
+    public void scrollTo(double x, double y) {
+        scrollX = clamp(x, getMaxScrollX());
+        scrollY = clamp(y, getMaxScrollY());
+    }
+
+    public void scrollBy(double dx, double dy) {
+        scrollTo(scrollX + dx, scrollY + dy);
+    }
+
+    /** 滚动使某一行可见。 */
+    public void scrollToRow(int row) {
+        int index = view.indexOf(row);
+        if (index < 0)
+            return;
+        int top = index * rowHeight;
+        int bodyH = bodyHeight();
+        if (top < scrollY)
+            scrollTo(scrollX, top);
+        else if (top + rowHeight > scrollY + bodyH)
+            scrollTo(scrollX, top + rowHeight - bodyH);
+    }
+
+    private static double clamp(double v, int max) {
+        return v < 0 ? 0 : (v > max ? max : v);
+    }
+
+    private int bodyHeight() {
+        return Math.max(0, getHeight() - headerHeight);
+    }
+
+    // --- stats ---
+
+    /** 上一帧绘制的行数。 */
+    public int getLastDrawnRowCount() {
+        return lastDrawnRows;
+    }
+
+    /** 上一帧绘制的列数。 */
+    public int getLastDrawnColumnCount() {
+        return lastDrawnColumns;
+    }
+
+    // --- internals ---
+
+    private void ensureColumns() {
+        List<GridColumn> cols = model.getColumns();
+        int n = cols.size();
+        if (columnsVersion != model.getColumnsVersion()) {
+            if (columnX.length < n + 1)
+                columnX = new int[n + 1];
+            int x = 0;
+            for (int i = 0; i < n; i++) {
+                columnX[i] = x;
+                x += cols.get(i).getWidth();
+            }
+            columnX[n] = x;
+            totalWidth = x;
+            captions = new String[n];
+            columnsVersion = model.getColumnsVersion();
+        }
+        if (captions.length == n && (captionSort != view.getSortColumn() || captionDescending != view.isDescending()
+                || (n > 0 && captions[0] == null))) {
+            for (int i = 0; i < n; i++) {
+                GridColumn c = cols.get(i);
+                String name = c.getName() != null ? c.getName() : "";
+                captions[i] = c == view.getSortColumn() ? name + (view.isDescending() ? " ▼" : " ▲") : name;
+            }
+            captionSort = view.getSortColumn();
+            captionDescending = view.isDescending();
+        }
+    }
+
+    /** x 处的列下标（相对内容的 x），不在任何列上时返回 -1。 */
+    private int columnAt(int contentX) {
+        int n = model.getColumnCount();
+        if (contentX < 0 || contentX >= totalWidth)
+            return -1;
+        int i = Arrays.binarySearch(columnX, 0, n + 1, contentX);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private void handleClick(double localX, double localY) {
+        ensureColumns();
+        if (localY < headerHeight) {
+            int c = columnAt((int) Math.floor(localX + scrollX));
+            if (c < 0)
+                return;
+            GridColumn col = model.getColumn(c);
+            boolean desc = view.getSortColumn() == col && !view.isDescending();
+            view.setSort(col, desc);
+            return;
+        }
+        int index = (int) Math.floor((localY - headerHeight + scrollY) / rowHeight);
+        if (index < 0 || index >= view.size())
+            return;
+        selectedRow = view.rowAt(index);
+        if (onSelect != null)
+            onSelect.accept(selectedRow);
+    }
+
+    @Override
+    public void update(float tickDelta) {
+        if (isSkipped())
+            return;
+        super.update(tickDelta);
+        // rows or columns may have been removed since the last frame
+        scrollTo(scrollX, scrollY);
+        if (selectedRow >= 0 && !model.isAlive(selectedRow))
+            selectedRow = -1;
+    }
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
+        super.render(context, tickDelta);
+        int x = getX();
+        int y = getY();
+        int w = getWidth();
+        int h = getHeight();
+        var client = MinecraftClient.getInstance();
+        if (w <= 0 || h <= 0 || client == null || client.textRenderer == null)
+            return;
+        TextRenderer tr = client.textRenderer;
+        ensureColumns();
+        float opacity = getEffectiveOpacity();
+        int textAlpha = Math.round(opacity * 255f);
+        if (textAlpha < 4)
+            return;
+        int textColor = (textAlpha << 24) | (getStyleValue(StyleProperty.TEXT_COLOR) & 0xFFFFFF);
+        int headerText = (textAlpha << 24) | headerTextColor;
+
+        // scissor rects are in screen space, so undo the translation of enclosing scroll views
+        int sx = (int) Math.floor(x - ScrollView.renderOffsetX());
+        int sy = (int) Math.floor(y - ScrollView.renderOffsetY());
+        context.enableScissor(sx, sy, sx + w, sy + h);
+        try {
+            context.fill(x, y, x + w, y + h, fade(backgroundColor, opacity));
+            context.fill(x, y, x + w, y + headerHeight, fade(headerColor, opacity));
+
+            // visible row range
+            int bodyY = y + headerHeight;
+            int bodyH = h - headerHeight;
+            int sY = (int) Math.floor(scrollY);
+            int firstRow = Math.max(0, sY / rowHeight);
+            int lastRow = Math.min(view.size() - 1, (sY + bodyH) / rowHeight);
+            for (int r = firstRow; r <= lastRow; r++) {
+                int ry = bodyY + r * rowHeight - sY;
+                int row = view.rowAt(r);
+                if (row == selectedRow)
+                    context.fill(x, ry, x + w, ry + rowHeight, fade(selectionColor, opacity));
+                else if ((r & 1) == 1)
+                    context.fill(x, ry, x + w, ry + rowHeight, fade(stripeColor, opacity));
+            }
+
+            // visible column range
+            int sX = (int) Math.floor(scrollX);
+            int firstCol = Math.max(0, columnAt(sX));
+            int n = model.getColumnCount();
+            int drawnCols = 0;
+            int textDy = (rowHeight - tr.fontHeight) / 2 + 1;
+            int headerDy = (headerHeight - tr.fontHeight) / 2 + 1;
+            for (int c = firstCol; c < n && columnX[c] < sX + w; c++) {
+                GridColumn col = model.getColumn(c);
+                int cx = x + columnX[c] - sX;
+                int cw = columnX[c + 1] - columnX[c];
+                int innerW = cw - 2 * cellPadding;
+                if (innerW <= 0)
+                    continue;
+                drawnCols++;
+                // one scissor per column clips overflowing cell text
+                context.enableScissor(cx - (x - sx) + cellPadding, sy, cx - (x - sx) + cw - cellPadding, sy + h);
+                try {
+                    context.drawText(tr, captions[c], cx + cellPadding, y + headerDy, headerText, false);
+                    boolean right = col.isRightAligned();
+                    for (int r = firstRow; r <= lastRow; r++) {
+                        String text = col.getText(view.rowAt(r));
+                        if (text.isEmpty())
+                            continue;
+                        int ry = bodyY + r * rowHeight - sY;
+                        int tx = right ? cx + cw - cellPadding - tr.getWidth(text) : cx + cellPadding;
+                        context.drawText(tr, text, tx, ry + textDy, textColor, false);
+                    }
+                } finally {
+                    context.disableScissor();
+                }
+            }
+            lastDrawnRows = Math.max(0, lastRow - firstRow + 1);
+            lastDrawnColumns = drawnCols;
+        } finally {
+            context.disableScissor();
+        }
+    }
+
+    private static int fade(int argb, float opacity) {
+        int a = Math.round(((argb >>> 24) & 0xFF) * opacity);
+        return (a << 24) | (argb & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,107 @@
+package org.fish.uitoolkit.v2.controls;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.fish.uitoolkit.v2.WorkQueue;
+import org.fish.uitoolkit.v2.interfaces.IWorkUnit;
+
+/**
+ * 延迟内容容器：在后台任务完成前显示占位控件，完成后替换为真正的内容。
+ * <p>
+ * {@link #buildChildren} 把大量子控件的构建拆成逐个的工作步骤，子控件被加入一个尚未挂到树上的容器中，
+ * 全部完成后一次性替换占位控件，因此构建过程不会触发中间状态的布局与绘制。
+ */
+public class Deferred extends ControlObject {
+    private ControlObject placeholder;
+    private ControlObject content;
+    private WorkQueue.Task task;
+
+    public Deferred() {
+    }
+
+    public Deferred(ControlObject placeholder) {
+        setPlaceholder(placeholder);
+    }
+
+    /** 设置占位控件（内容就绪后被移除）。 */
+    public Deferred setPlaceholder(ControlObject p) {
+        if (placeholder != null)
+            removeChild(placeholder);
+        this.placeholder = p;
+        if (p != null && content == null)
+            addChild(p);
+        return this;
+    }
+
+    public ControlObject getPlaceholder() {
+        return placeholder;
+    }
+
+    /** 内容控件（未就绪时为 null）。 */
+    public ControlObject getContent() {
+        return content;
+    }
+
+    public boolean isReady() {
+        return content != null;
+    }
+
+    /** 当前绑定的任务（可能为 null）。 */
+    public WorkQueue.Task getTask() {
+        return task;
+    }
+
+    /** 任务完成后把 result 提供的控件作为内容替换占位控件。已绑定的未完成任务会被取消。 */
+    public WorkQueue.Task bind(WorkQueue.Task t, Supplier<ControlObject> result) {
+        if (task != null && task != t)
+            task.cancel();
+        this.task = t;
+        if (t != null)
+            t.onComplete(() -> {
+                if (task == t)
+                    setContent(result != null ? result.get() : null);
+            });
+        return t;
+    }
+
+    /**
+     * 分片构建 count 个子控件到 container 中（每步调用一次 factory），完成后 container 成为内容。
+     */
+    public WorkQueue.Task buildChildren(WorkQueue queue, int priority, ControlObject container, int count,
+            IntFunction<ControlObject> factory) {
+        if (queue == null || container == null || factory == null)
+            return null;
+        WorkQueue.Task t = queue.submit(new IWorkUnit() {
+            private int i = 0;
+
+            @Override
+            public boolean step() {
+                if (i < count)
+                    container.addChild(factory.apply(i++));
+                return i >= count;
+            }
+
+            @Override
+            public float getProgress() {
+                return count <= 0 ? 1f : i / (float) count;
+            }
+        }, priority);
+        return bind(t, () -> container);
+    }
+
+    /** 立即替换为内容（null 时恢复占位控件）。 */
+    public void setContent(ControlObject c) {
+        if (content != null)
+            removeChild(content);
+        this.content = c;
+        if (c != null) {
+            if (placeholder != null)
+                removeChild(placeholder);
+            addChild(c);
+        } else if (placeholder != null && placeholder.getParent() != this) {
+            // the placeholder is still attached when no content was shown before
+            addChild(placeholder);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.fish.uitoolkit.v2.controls;
+
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.utils.SampleRing;
+import org.fish.uitoolkit.v2.render.ColorQuadList;
+
+/**
+ * 实时曲线 / 柱状图（帧时间、TPS、网络、内存等）。
+ * <p>
+ * 采样保存在 {@link SampleRing} 中（O(1) 追加，O(1) 查询最小 / 最大 / 平均值）。
+ * 绘制时把采样按控件的像素宽度抽取：每个像素列只生成一个 quad（曲线模式覆盖该列的最小值到最大值并连接上一列，
+ * 柱状模式从基线画到该列最大值），所有 quad 通过 {@link ColorQuadList} 一次提交。
+ * 几何只在有新采样、尺寸或外观变化时重建，且重用数组，稳态帧不分配内存。
+ * <p>
+ * 背景请像其它控件一样使用 {@code BackgroundComponent}；图形绘制在组件之上。
+ */
+public class Graph extends ControlObject {
+    public enum Mode {
+        LINE,
+        BAR
+    }
+
+    private final SampleRing samples;
+    private Mode mode = Mode.LINE;
+    private int color = 0xFF60E060;
+    private int warnColor = 0xFFE05050;
+    private float warnThreshold = Float.NaN;
+    private float lineWidth = 1f;
+    private boolean autoRange = true;
+    private boolean includeZero = true;
+    private float rangeMin = 0f, rangeMax = 1f;
+
+    private final ColorQuadList quads = new ColorQuadList(64);
+    // inputs of the cached geometry
+    private long builtSequence = -1;
+    private int builtW = -1, builtH = -1;
+    private float builtMin, builtMax;
+    private boolean geometryDirty = true;
+    private int rebuildCount = 0;
+
+    /** 创建带独立缓冲区的图表，保留最近 capacity 个采样。 */
+    public Graph(int capacity) {
+        this(new SampleRing(capacity));
+    }
+
+    /** 使用外部缓冲区（可由多个图表共享，或在控件之外写入）。 */
+    public Graph(SampleRing samples) {
+        if (samples == null)
+            throw new IllegalArgumentException("samples must not be null");
+        this.samples = samples;
+    }
+
+    public SampleRing getSamples() {
+        return samples;
+    }
+
+    /** 追加一个采样。 */
+    public Graph push(float value) {
+        samples.add(value);
+        return this;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Graph setMode(Mode mode) {
+        if (mode != null && mode != this.mode) {
+            this.mode = mode;
+            geometryDirty = true;
+        }
+        return this;
+    }
+
+    /** 曲线 / 柱的颜色（ARGB）。 */
+    public Graph setColor(int argb) {
+        if (argb != color) {
+            this.color = argb;
+            geometryDirty = true;
+        }
+        return this;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    /** 超过阈值的像素列使用 warnColor 绘制；threshold 为 NaN 时关闭。 */
+    public Graph setWarning(float threshold, int warnColor) {
+        this.warnThreshold = threshold;
+        this.warnColor = warnColor;
+        geometryDirty = true;
+        return this;
+    }
+
+    /** 曲线模式下线条的最小厚度（像素）。 */
+    public Graph setLineWidth(float w) {
+        if (w > 0f && w != lineWidth) {
+            this.lineWidth = w;
+            geometryDirty = true;
+        }
+        return this;
+    }
+
+    /** 固定纵轴范围（关闭自动范围）。 */
+    public Graph setRange(float min, float max) {
+        if (!(max > min))
+            return this;
+        this.autoRange = false;
+        this.rangeMin = min;
+        this.rangeMax = max;
+        return this;
+    }
+
+    /** 按窗口内的最小 / 最大值自动确定纵轴范围；includeZero 为 true 时范围总是包含 0。 */
+    public Graph setAutoRange(boolean includeZero) {
+        this.autoRange = true;
+        this.includeZero = includeZero;
+        return this;
+    }
+
+    public boolean isAutoRange() {
+        return autoRange;
+    }
+
+    /** 当前使用的纵轴下限。 */
+    public float getDisplayMin() {
+        if (!autoRange)
+            return rangeMin;
+        float lo = samples.min();
+        return includeZero ? Math.min(0f, lo) : lo;
+    }
+
+    /** 当前使用的纵轴上限。 */
+    public float getDisplayMax() {
+        if (!autoRange)
+            return rangeMax;
+        float lo = getDisplayMin();
+        float hi = includeZero ? Math.max(0f, samples.max()) : samples.max();
+        // flat data still needs a non-empty range
+        return hi - lo > 1e-6f ? hi : lo + 1f;
+    }
+
+    /** 几何重建次数（调试 / 统计用）。 */
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /** 上次绘制的 quad 数。 */
+    public int getQuadCount() {
+        return quads.size();
+    }
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
+        super.render(context, tickDelta);
+        int w = getWidth();
+        int h = getHeight();
+        if (w <= 0 || h <= 0)
+            return;
+        float lo = getDisplayMin();
+        float hi = getDisplayMax();
+        if (geometryDirty || builtSequence != samples.getSequence() || builtW != w || builtH != h
+                || builtMin != lo || builtMax != hi) {
+            rebuild(w, h, lo, hi);
+        }
+        if (quads.isEmpty())
+            return;
+        context.setShaderColor(1f, 1f, 1f, getEffectiveOpacity());
+        try {
+            quads.draw(context, getX(), getY());
+        } finally {
+            context.setShaderColor(1f, 1f, 1f, 1f);
+        }
+    }
+
+    /**
+     * 重建几何。采样槽位按时间从左到右排列，最新的采样在最右侧；未填满时左侧留空。
+     * 槽位被分成 min(容量, 宽度) 个桶，每个桶生成至多一个 quad。
+     */
+    private void rebuild(int w, int h, float lo, float hi) {
+        builtSequence = samples.getSequence();
+        builtW = w;
+        builtH = h;
+        builtMin = lo;
+        builtMax = hi;
+        geometryDirty = false;
+        rebuildCount++;
+
+        quads.clear();
+        int cap = samples.capacity();
+        int n = samples.size();
+        if (n == 0)
+            return;
+        int buckets = Math.min(cap, w);
+        quads.ensureCapacity(buckets);
+        int firstSlot = cap - n;
+        float scale = h / (hi - lo);
+        boolean warn = !Float.isNaN(warnThreshold);
+        float baseY = clampY(h - (Math.max(lo, Math.min(hi, 0f)) - lo) * scale, h);
+        float half = lineWidth * 0.5f;
+        float prev = Float.NaN;
+
+        for (int b = 0; b < buckets; b++) {
+            int s0 = (int) ((long) b * cap / buckets);
+            int s1 = (int) ((long) (b + 1) * cap / buckets);
+            if (s1 <= firstSlot)
+                continue;
+            s0 = Math.max(s0, firstSlot);
+            float bMin = Float.POSITIVE_INFINITY, bMax = Float.NEGATIVE_INFINITY, last = 0f;
+            for (int s = s0; s < s1; s++) {
+                float v = samples.get(s - firstSlot);
+                if (v < bMin)
+                    bMin = v;
+                if (v > bMax)
+                    bMax = v;
+                last = v;
+            }
+            float x1 = (float) b * w / buckets;
+            float x2 = (float) (b + 1) * w / buckets;
+            int c = warn && bMax > warnThreshold ? warnColor : color;
+            if (mode == Mode.BAR) {
+                float top = clampY(h - (bMax - lo) * scale, h);
+                quads.add(x1, Math.min(top, baseY), x2, Math.max(top, baseY), c);
+            } else {
+                // cover this bucket's range and the step from the previous bucket so the line stays connected
+                float vMin = Float.isNaN(prev) ? bMin : Math.min(bMin, prev);
+                float vMax = Float.isNaN(prev) ? bMax : Math.max(bMax, prev);
+                float top = h - (vMax - lo) * scale - half;
+                float bottom = h - (vMin - lo) * scale + half;
+                quads.add(x1, clampY(top, h), x2, clampY(bottom, h), c);
+            }
+            prev = last;
+        }
+    }
+
+    private static float clampY(float y, int h) {
+        return y < 0f ? 0f : (y > h ? h : y);
+    }
+}
@@ -2,13 +2,18 @@ package org.fish.uitoolkit.v2.controls;
 
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.MinecraftClient;
-
-/** 文本标签，用于显示文本 */
+import net.minecraft.client.font.TextRenderer;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+import org.fish.uitoolkit.v2.vtree.Props;
+
+/**
+ * 文本标签，用于显示文本。
+ * <p>
+ * 颜色、缩放、字号、对齐与内边距来自控件的样式（{@link #setStyle}）；对应的 setter 写入控件的局部样式。
+ */
 public class Label extends ControlObject {
     private String text;
-    private float textScale = 1.0f;
-    private int textColor = 0xFFFFFF;
-    private int fontSizePx = 0;
 
     public enum HAlign {
         LEFT, CENTER, RIGHT
@@ -17,30 +22,51 @@ public class Label extends ControlObject {
     public enum VAlign {
         TOP, CENTER, BOTTOM
     }
-
-    private HAlign horizontalAlign = HAlign.LEFT;
-    private VAlign verticalAlign = VAlign.TOP;
-    // padding in pixels
-    private int paddingLeft = 2;
-    private int paddingRight = 2;
-    private int paddingTop = 2;
-    private int paddingBottom = 2;
+    // split lines and widest line width, kept until the text or the text renderer changes
+    private String[] lines = new String[] { "" };
+    private int maxLineWidth = 0;
+    private String measuredText = null;
+    private TextRenderer measuredWith = null;
 
     public Label(String text) {
         this.text = text == null ? "" : text;
     }
 
+    /** 设置文本。与当前文本相同时不做任何事（保留已缓存的分行与测量结果）。 */
     public void setText(String text) {
-        this.text = text == null ? "" : text;
+        String t = text == null ? "" : text;
+        if (t.equals(this.text))
+            return;
+        this.text = t;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /** 分行并测量最宽一行；结果按文本与 TextRenderer 缓存。 */
+    private void ensureMeasured(TextRenderer tr) {
+        if (measuredText == text && measuredWith == tr)
+            return;
+        lines = text.split("\n", -1);
+        int maxWidth = 0;
+        for (String l : lines) {
+            int w = tr.getWidth(l);
+            if (w > maxWidth)
+                maxWidth = w;
+        }
+        maxLineWidth = maxWidth;
+        measuredText = text;
+        measuredWith = tr;
     }
 
     public void setTextScale(float s) {
         if (s > 0f)
-            this.textScale = s;
+            getLocalStyle().set(StyleProperty.TEXT_SCALE, s);
     }
 
     public float getTextScale() {
-        return this.textScale;
+        return getResolvedStyle().getFloat(StyleProperty.TEXT_SCALE);
     }
 
     /**
@@ -48,84 +74,72 @@ public class Label extends ControlObject {
      */
     public void setFontSizePx(int px) {
         if (px >= 0)
-            this.fontSizePx = px;
+            getLocalStyle().set(StyleProperty.FONT_SIZE, px);
     }
 
     /** 返回当前的像素字体高度（0 表示未设置，使用默认字体高度乘以 textScale）。 */
     public int getFontSizePx() {
-        return this.fontSizePx;
+        return getResolvedStyle().getInt(StyleProperty.FONT_SIZE);
     }
 
     public void setTextColor(int color) {
-        this.textColor = color & 0xFFFFFF;
+        getLocalStyle().set(StyleProperty.TEXT_COLOR, color & 0xFFFFFF);
     }
 
     public int getTextColor() {
-        return this.textColor;
+        return getResolvedStyle().getInt(StyleProperty.TEXT_COLOR);
     }
 
     public void setHorizontalAlign(HAlign a) {
         if (a != null)
-            this.horizontalAlign = a;
+            getLocalStyle().set(StyleProperty.H_ALIGN, a);
     }
 
     public HAlign getHorizontalAlign() {
-        return this.horizontalAlign;
+        return getResolvedStyle().get(StyleProperty.H_ALIGN);
     }
 
     public void setVerticalAlign(VAlign a) {
         if (a != null)
-            this.verticalAlign = a;
+            getLocalStyle().set(StyleProperty.V_ALIGN, a);
     }
 
     public VAlign getVerticalAlign() {
-        return this.verticalAlign;
+        return getResolvedStyle().get(StyleProperty.V_ALIGN);
     }
 
     /** 设置所有方向相同的内边距（像素）。 */
     public void setPadding(int p) {
-        if (p >= 0) {
-            this.paddingLeft = p;
-            this.paddingRight = p;
-            this.paddingTop = p;
-            this.paddingBottom = p;
-        }
+        if (p >= 0)
+            setPadding(p, p, p, p);
     }
 
     /** 分别设置水平和垂直的内边距。 */
     public void setPadding(int horizontal, int vertical) {
-        if (horizontal >= 0 && vertical >= 0) {
-            this.paddingLeft = horizontal;
-            this.paddingRight = horizontal;
-            this.paddingTop = vertical;
-            this.paddingBottom = vertical;
-        }
+        if (horizontal >= 0 && vertical >= 0)
+            setPadding(horizontal, vertical, horizontal, vertical);
     }
 
     /** 分别设置四个方向的内边距。 */
     public void setPadding(int left, int top, int right, int bottom) {
-        if (left >= 0 && top >= 0 && right >= 0 && bottom >= 0) {
-            this.paddingLeft = left;
-            this.paddingTop = top;
-            this.paddingRight = right;
-            this.paddingBottom = bottom;
-        }
+        if (left >= 0 && top >= 0 && right >= 0 && bottom >= 0)
+            getLocalStyle().set(StyleProperty.TEXT_PADDING, Props.pack4(left, top, right, bottom));
     }
 
     public int getPaddingLeft() {
-        return this.paddingLeft;
+        return Props.unpack4(getResolvedStyle().getLong(StyleProperty.TEXT_PADDING), 0);
     }
 
     public int getPaddingRight() {
-        return this.paddingRight;
+        return Props.unpack4(getResolvedStyle().getLong(StyleProperty.TEXT_PADDING), 2);
     }
 
     public int getPaddingTop() {
-        return this.paddingTop;
+        return Props.unpack4(getResolvedStyle().getLong(StyleProperty.TEXT_PADDING), 1);
     }
 
     public int getPaddingBottom() {
-        return this.paddingBottom;
+        return Props.unpack4(getResolvedStyle().getLong(StyleProperty.TEXT_PADDING), 3);
     }
 
     // --- 位置辅助方法（水平/垂直） ---
@@ -159,33 +173,37 @@ public class Label extends ControlObject {
         return this.getY() + this.getHeight() / 2;
     }
 
+    /** 基础缩放乘以字号调整（fontSizePx 相对渲染器字体高度的比例）。 */
+    private static float effectiveScale(Style.Resolved style, int baseFontHeight) {
+        float scale = style.getFloat(StyleProperty.TEXT_SCALE);
+        int fontSizePx = style.getInt(StyleProperty.FONT_SIZE);
+        if (fontSizePx > 0 && baseFontHeight > 0)
+            scale *= (fontSizePx / (float) baseFontHeight);
+        return scale;
+    }
+
     @Override
     public void update(float tickDelta) {
+        if (isSkipped())
+            return;
         super.update(tickDelta);
         // compute size from actual font metrics when available so multi-line text
         // and scaling are handled correctly
         var client = MinecraftClient.getInstance();
         if (client != null && client.textRenderer != null) {
             // split on literal newline to support multi-line labels
-            String[] lines = this.text.split("\n", -1);
+            ensureMeasured(client.textRenderer);
             int linesCount = Math.max(1, lines.length);
-            int maxWidth = 0;
+            int maxWidth = maxLineWidth;
             // compute effective scale: base textScale multiplied by font-size adjustment
-            int baseFontHeight = client.textRenderer.fontHeight;
-            float effectiveScale = this.textScale;
-            if (this.fontSizePx > 0 && baseFontHeight > 0) {
-                effectiveScale *= (this.fontSizePx / (float) baseFontHeight);
-            }
-            for (String l : lines) {
-                int w = client.textRenderer.getWidth(l);
-                if (w > maxWidth)
-                    maxWidth = w;
-            }
+            Style.Resolved style = getResolvedStyle();
             int fontHeight = client.textRenderer.fontHeight;
+            float effectiveScale = effectiveScale(style, fontHeight);
             // apply effectiveScale because rendering scales the text via matrices
             // account for padding (scale padding by effectiveScale)
-            int padH = Math.round((this.paddingLeft + this.paddingRight) * effectiveScale);
-            int padV = Math.round((this.paddingTop + this.paddingBottom) * effectiveScale);
+            long padding = style.getLong(StyleProperty.TEXT_PADDING);
+            int padH = Math.round((Props.unpack4(padding, 0) + Props.unpack4(padding, 2)) * effectiveScale);
+            int padV = Math.round((Props.unpack4(padding, 1) + Props.unpack4(padding, 3)) * effectiveScale);
             int width = Math.round(maxWidth * effectiveScale) + padH;
             int height = Math.round(fontHeight * linesCount * effectiveScale) + padV;
             this.setSize(width, height);
@@ -197,88 +215,91 @@ public class Label extends ControlObject {
 
     @Override
     public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
         super.render(context, tickDelta);
-        try {
-            var client = MinecraftClient.getInstance();
-            if (client != null && client.textRenderer != null) {
-                // compute effective scale the same way as in update
-                int baseFontHeight = client.textRenderer.fontHeight;
-                float effectiveScale = this.textScale;
-                if (this.fontSizePx > 0 && baseFontHeight > 0) {
-                    effectiveScale *= (this.fontSizePx / (float) baseFontHeight);
-                }
+        // text alpha follows the inherited opacity; the text renderer treats alpha < 4 as
+        // opaque, so such nearly transparent text is simply not drawn
+        int alpha = Math.round(getEffectiveOpacity() * 255f);
+        if (alpha < 4)
+            return;
+        Style.Resolved style = getResolvedStyle();
+        int color = (alpha << 24) | (style.getInt(StyleProperty.TEXT_COLOR) & 0xFFFFFF);
+        var client = MinecraftClient.getInstance();
+        if (client != null && client.textRenderer != null) {
+            // compute effective scale the same way as in update
+            float effectiveScale = effectiveScale(style, client.textRenderer.fontHeight);
 
-                // measure text (multi-line)
-                String[] lines = this.text.split("\n", -1);
-                int linesCount = Math.max(1, lines.length);
-                int maxWidth = 0;
-                for (String l : lines) {
-                    int w = client.textRenderer.getWidth(l);
-                    if (w > maxWidth)
-                        maxWidth = w;
-                }
-                int fontHeight = client.textRenderer.fontHeight;
-                float textWidthScaled = maxWidth * effectiveScale;
-                float textHeightScaled = fontHeight * linesCount * effectiveScale;
-
-                // compute offsets inside the control based on padding
-                float padLeft = this.paddingLeft;
-                float padRight = this.paddingRight;
-                float padTop = this.paddingTop;
-                float padBottom = this.paddingBottom;
-                // scale padding when applying effectiveScale to measurements
-                float scaledPadLeft = padLeft * effectiveScale;
-                float scaledPadRight = padRight * effectiveScale;
-                float scaledPadTop = padTop * effectiveScale;
-                float scaledPadBottom = padBottom * effectiveScale;
-                float offsetX;
-                switch (this.horizontalAlign) {
-                    case CENTER:
-                        offsetX = (this.getWidth() - textWidthScaled) / 2f;
-                        break;
-                    case RIGHT:
-                        offsetX = this.getWidth() - textWidthScaled - scaledPadRight;
-                        break;
-                    default:
-                        offsetX = scaledPadLeft;
-                        break;
-                }
+            // measure text (multi-line)
+            ensureMeasured(client.textRenderer);
+            final String[] lines = this.lines;
+            int linesCount = Math.max(1, lines.length);
+            int maxWidth = maxLineWidth;
+            int fontHeight = client.textRenderer.fontHeight;
+            float textWidthScaled = maxWidth * effectiveScale;
+            float textHeightScaled = fontHeight * linesCount * effectiveScale;
+
+            // compute offsets inside the control based on padding
+            long padding = style.getLong(StyleProperty.TEXT_PADDING);
+            float padLeft = Props.unpack4(padding, 0);
+            float padRight = Props.unpack4(padding, 2);
+            float padTop = Props.unpack4(padding, 1);
+            float padBottom = Props.unpack4(padding, 3);
+            // scale padding when applying effectiveScale to measurements
+            float scaledPadLeft = padLeft * effectiveScale;
+            float scaledPadRight = padRight * effectiveScale;
+            float scaledPadTop = padTop * effectiveScale;
+            float scaledPadBottom = padBottom * effectiveScale;
+            float offsetX;
+            switch (style.get(StyleProperty.H_ALIGN)) {
+                case CENTER:
+                    offsetX = (this.getWidth() - textWidthScaled) / 2f;
+                    break;
+                case RIGHT:
+                    offsetX = this.getWidth() - textWidthScaled - scaledPadRight;
+                    break;
+                default:
+                    offsetX = scaledPadLeft;
+                    break;
+            }
 
-                float offsetY;
-                switch (this.verticalAlign) {
-                    case CENTER:
-                        offsetY = (this.getHeight() - textHeightScaled + 1) / 2f;
-                        break;
-                    case BOTTOM:
-                        offsetY = this.getHeight() - textHeightScaled - scaledPadBottom;
-                        break;
-                    default:
-                        offsetY = scaledPadTop;
-                        break;
-                }
+            float offsetY;
+            switch (style.get(StyleProperty.V_ALIGN)) {
+                case CENTER:
+                    offsetY = (this.getHeight() - textHeightScaled + 1) / 2f;
+                    break;
+                case BOTTOM:
+                    offsetY = this.getHeight() - textHeightScaled - scaledPadBottom;
+                    break;
+                default:
+                    offsetY = scaledPadTop;
+                    break;
+            }
 
-                // render lines with scaling and per-line vertical spacing
-                if (effectiveScale != 1.0f) {
-                    context.getMatrices().push();
+            // render lines with scaling and per-line vertical spacing
+            if (effectiveScale != 1.0f) {
+                context.getMatrices().push();
+                try {
                     float s = effectiveScale;
                     context.getMatrices().scale(s, s, s);
                     for (int i = 0; i < linesCount; i++) {
                         String line = lines[i];
                         int dx = Math.round((this.getX() + offsetX) / s);
                         int dy = Math.round((this.getY() + offsetY) / s + i * fontHeight);
-                        context.drawTextWithShadow(client.textRenderer, line, dx, dy, this.textColor);
+                        context.drawTextWithShadow(client.textRenderer, line, dx, dy, color);
                     }
+                } finally {
+                    // a failure is reported by the parent panel, the matrix stack must stay balanced
                     context.getMatrices().pop();
-                } else {
-                    for (int i = 0; i < linesCount; i++) {
-                        String line = lines[i];
-                        int dx = this.getX() + Math.round(offsetX);
-                        int dy = this.getY() + Math.round(offsetY + i * fontHeight);
-                        context.drawTextWithShadow(client.textRenderer, line, dx, dy, this.textColor);
-                    }
+                }
+            } else {
+                for (int i = 0; i < linesCount; i++) {
+                    String line = lines[i];
+                    int dx = this.getX() + Math.round(offsetX);
+                    int dy = this.getY() + Math.round(offsetY + i * fontHeight);
+                    context.drawTextWithShadow(client.textRenderer, line, dx, dy, color);
                 }
             }
-        } catch (Throwable ignored) {
         }
     }
 }
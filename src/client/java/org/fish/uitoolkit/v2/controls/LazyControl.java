@@ -0,0 +1,214 @@
+package org.fish.uitoolkit.v2.controls;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.components.PanelComponent;
+
+/**
+ * 延迟构建的子树：持有一个构建回调，直到第一次真正可见（自身与所有祖先都可见并被更新）时才构建子控件。
+ * <p>
+ * 构建之前按声明的估计尺寸参与父面板的布局；构建之后可选择按内容自动调整尺寸。
+ * 设置了释放策略的实例在持续隐藏一段时间后、或内存紧张时释放子树（下次可见时重新构建），
+ * 释放时把当前尺寸作为新的估计，避免重新显示时布局跳动。
+ * <p>
+ * 隐藏的控件不会被更新或绘制，所以释放检查由 {@link #sweep()} 统一执行（{@code UIManager} 每帧调用，内部按间隔节流）。
+ * 只应在渲染线程上使用。
+ */
+public class LazyControl extends ControlObject {
+    // materialized instances with a release policy, checked by sweep()
+    private static final List<WeakReference<LazyControl>> RELEASABLE = new ArrayList<>();
+    private static final long SWEEP_INTERVAL_NANOS = 250_000_000L;
+    private static long lastSweepNanos = 0;
+    private static float memoryPressure = 0.85f;
+
+    private final Consumer<? super LazyControl> factory;
+    private int estimateW;
+    private int estimateH;
+    private boolean sizeToContent = false;
+    private boolean materialized = false;
+    private int buildCount = 0;
+    private long releaseAfterNanos = 0;
+    private boolean releaseOnMemoryPressure = false;
+    private boolean registered = false;
+    private long lastShownNanos = 0;
+
+    /**
+     * @param estimateW 构建之前的估计宽度
+     * @param estimateH 构建之前的估计高度
+     * @param factory   向本控件添加子控件（只在构建时调用）
+     */
+    public LazyControl(int estimateW, int estimateH, Consumer<? super LazyControl> factory) {
+        this.factory = factory;
+        setEstimate(estimateW, estimateH);
+    }
+
+    /** 设置估计尺寸；尚未构建时立即生效。 */
+    public LazyControl setEstimate(int w, int h) {
+        this.estimateW = Math.max(0, w);
+        this.estimateH = Math.max(0, h);
+        if (!materialized)
+            setSize(estimateW, estimateH);
+        return this;
+    }
+
+    public int getEstimateWidth() {
+        return estimateW;
+    }
+
+    public int getEstimateHeight() {
+        return estimateH;
+    }
+
+    /** 构建之后是否按子控件自动调整尺寸（默认否，保持估计尺寸）。 */
+    public LazyControl setSizeToContent(boolean v) {
+        this.sizeToContent = v;
+        if (materialized)
+            applyAutoSize(v);
+        return this;
+    }
+
+    /**
+     * 持续隐藏 millis 毫秒后释放子树（0 表示不按时间释放）。
+     */
+    public LazyControl setReleaseAfter(long millis) {
+        this.releaseAfterNanos = Math.max(0, millis) * 1_000_000L;
+        register();
+        return this;
+    }
+
+    /** 内存紧张（已用堆超过 {@link #setMemoryPressureThreshold} 的比例）时，若当前隐藏则释放子树。 */
+    public LazyControl setReleaseOnMemoryPressure(boolean v) {
+        this.releaseOnMemoryPressure = v;
+        register();
+        return this;
+    }
+
+    public boolean isMaterialized() {
+        return materialized;
+    }
+
+    /** 子树被构建的次数（释放后重新显示会再次构建）。 */
+    public int getBuildCount() {
+        return buildCount;
+    }
+
+    /** 立即构建（例如提前预热）；已构建时无效。 */
+    public void materialize() {
+        if (materialized)
+            return;
+        materialized = true;
+        buildCount++;
+        lastShownNanos = System.nanoTime();
+        if (factory != null)
+            factory.accept(this);
+        if (sizeToContent)
+            applyAutoSize(true);
+        register();
+    }
+
+    /** 立即释放子树（不论是否可见）；下次可见时重新构建。 */
+    public void release() {
+        if (!materialized)
+            return;
+        materialized = false;
+        if (sizeToContent)
+            applyAutoSize(false);
+        for (ControlObject c : getChildren().toArray(new ControlObject[0]))
+            removeChild(c);
+        // keep the last real size so showing it again does not shift the layout
+        setEstimate(getWidth(), getHeight());
+    }
+
+    private void applyAutoSize(boolean v) {
+        PanelComponent p = getComponent(PanelComponent.class);
+        if (p == null) {
+            if (!v)
+                return;
+            p = (PanelComponent) addComponent(new PanelComponent());
+        }
+        p.setAutoSizeWidth(v);
+        p.setAutoSizeHeight(v);
+    }
+
+    private void register() {
+        if (registered || !materialized || (releaseAfterNanos == 0 && !releaseOnMemoryPressure))
+            return;
+        registered = true;
+        RELEASABLE.add(new WeakReference<>(this));
+    }
+
+    @Override
+    public void update(float tickDelta) {
+        if (isSkipped())
+            return;
+        // reaching update means this control and all its ancestors are shown
+        lastShownNanos = System.nanoTime();
+        if (!materialized)
+            materialize();
+        super.update(tickDelta);
+    }
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped() || !materialized)
+            return;
+        // also counts as shown when an ancestor throttles its updates
+        lastShownNanos = System.nanoTime();
+        super.render(context, tickDelta);
+    }
+
+    /** 已用堆占最大堆的比例超过 ratio 时视为内存紧张（默认 0.85）。 */
+    public static void setMemoryPressureThreshold(float ratio) {
+        memoryPressure = Math.max(0.1f, Math.min(1f, ratio));
+    }
+
+    /**
+     * 检查设置了释放策略的实例，释放隐藏超时的子树；内存紧张时释放所有允许的隐藏子树。
+     * 每 250ms 最多执行一次。由 {@code UIManager} 在每帧更新之后调用。
+     */
+    public static void sweep() {
+        if (RELEASABLE.isEmpty())
+            return;
+        long now = System.nanoTime();
+        if (now - lastSweepNanos < SWEEP_INTERVAL_NANOS)
+            return;
+        lastSweepNanos = now;
+        Runtime rt = Runtime.getRuntime();
+        boolean pressure = (rt.totalMemory() - rt.freeMemory()) > rt.maxMemory() * (double) memoryPressure;
+        sweep(now, pressure);
+    }
+
+    /** 以给定时刻与内存状态执行一次释放检查（不节流）；返回释放的实例数。 */
+    public static int sweep(long nowNanos, boolean memoryPressure) {
+        int released = 0;
+        for (int i = RELEASABLE.size() - 1; i >= 0; i--) {
+            LazyControl c = RELEASABLE.get(i).get();
+            if (c == null || !c.materialized) {
+                if (c != null)
+                    c.registered = false;
+                RELEASABLE.remove(i);
+                continue;
+            }
+            // "hidden" means neither update nor render reached the control within the last sweep interval
+            long hidden = nowNanos - c.lastShownNanos;
+            if (hidden < SWEEP_INTERVAL_NANOS)
+                continue;
+            if ((c.releaseAfterNanos > 0 && hidden >= c.releaseAfterNanos) || (memoryPressure && c.releaseOnMemoryPressure)) {
+                c.release();
+                c.registered = false;
+                RELEASABLE.remove(i);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /** 立即释放所有允许在内存紧张时释放、且当前隐藏的子树（例如收到低内存通知时调用）。 */
+    public static int releaseHidden() {
+        return sweep(System.nanoTime(), true);
+    }
+}
@@ -0,0 +1,446 @@
+package org.fish.uitoolkit.v2.controls;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.input.InputComponent;
+import org.fish.uitoolkit.v2.input.UIEvent;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+
+/**
+ * 只追加的日志 / 控制台视图，内存有界。
+ * <p>
+ * {@link #append} 可在任意线程高频调用：行先进入无锁的待处理队列（超过行数上限时丢弃最旧的待处理行），
+ * 由渲染线程在 update 中取出，按当前宽度测量并换行一次，然后存入有界的环形缓冲区（行数上限与字符字节上限）。
+ * 每行记录它在全部显示行中的起始行号，因此绘制时只需二分查找第一条可见行，并且只绘制可见窗口；
+ * 滚动到底部是 O(1)。只有控件宽度改变时才会重新换行全部保留的行。
+ * <p>
+ * 与把多行文本放进 {@link Label} 不同，已有的行在之后的帧中不会被重新拆分或测量。
+ */
+public class LogView extends ControlObject {
+    private static final int DEFAULT_COLOR = -1;
+
+    // producer side (any thread)
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // ring of entries (render thread only)
+    private volatile int maxLines; // also read by producers to bound the pending queue
+    private long maxChars;
+    private String[] lines;
+    private int[] colors;
+    private String[][] rows;
+    // index of the first display row of each entry, counted since the view was created/cleared
+    private long[] rowStart;
+    private int head = 0;
+    private int count = 0;
+    private long totalRows = 0; // display rows ever added; rows before rowStart[head] were evicted
+    private long retainedChars = 0;
+
+    private int wrapWidth = -1;
+    private int lineSpacing = 1;
+    private int padding = 2;
+    private boolean wrap = true;
+    // absolute first visible display row; ignored while following the tail
+    private long scrollRow = 0;
+    private boolean following = true;
+    private int scrollStepRows = 3;
+
+    private int lastDrawnRows = 0;
+
+    private static final class Pending {
+        final String text;
+        final int color;
+
+        Pending(String text, int color) {
+            this.text = text;
+            this.color = color;
+        }
+    }
+
+    /** 默认最多保留 1000 行、约 1 MiB 文本。 */
+    public LogView() {
+        this(1000, 1L << 20);
+    }
+
+    /**
+     * @param maxLines 保留的最大行数（逻辑行，换行前）
+     * @param maxBytes 保留文本的最大字节数（按每字符 2 字节估算）
+     */
+    public LogView(int maxLines, long maxBytes) {
+        this.maxLines = Math.max(1, maxLines);
+        this.maxChars = Math.max(1L, maxBytes / 2);
+        allocate(this.maxLines);
+        InputComponent input = (InputComponent) addComponent(new InputComponent());
+        input.on(UIEvent.Type.MOUSE_SCROLL, e -> {
+            scrollByRows((int) Math.round(-e.getScrollAmount() * scrollStepRows));
+            e.consume();
+            e.stopPropagation();
+        });
+    }
+
+    private void allocate(int n) {
+        lines = new String[n];
+        colors = new int[n];
+        rows = new String[n][];
+        rowStart = new long[n];
+    }
+
+    // --- producer API (thread-safe) ---
+
+    /** 追加一行（可在任意线程调用）；包含换行符的文本会被拆成多行。使用样式的文本颜色。 */
+    public void append(String text) {
+        append(text, DEFAULT_COLOR);
+    }
+
+    /** 追加一行并指定颜色（RGB）；可在任意线程调用。 */
+    public void append(String text, int rgb) {
+        if (text == null)
+            return;
+        int color = rgb == DEFAULT_COLOR ? DEFAULT_COLOR : rgb & 0xFFFFFF;
+        int start = 0;
+        int nl;
+        while ((nl = text.indexOf('\n', start)) >= 0) {
+            enqueue(text.substring(start, nl), color);
+            start = nl + 1;
+        }
+        enqueue(start == 0 ? text : text.substring(start), color);
+    }
+
+    private void enqueue(String line, int color) {
+        pending.add(new Pending(line, color));
+        // bound the pending queue: older pending lines would be evicted right after ingestion anyway
+        if (pendingCount.incrementAndGet() > maxLines && pending.poll() != null) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+    }
+
+    /** 因超出上限而丢弃的行数（包括从缓冲区中淘汰的行）。 */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // --- configuration (render thread) ---
+
+    /** 修改上限；会立即淘汰超出的旧行。 */
+    public LogView setLimits(int maxLines, long maxBytes) {
+        ingest();
+        int newMax = Math.max(1, maxLines);
+        this.maxChars = Math.max(1L, maxBytes / 2);
+        if (newMax != this.maxLines) {
+            // copy the newest entries into a ring of the new size
+            int keep = Math.min(count, newMax);
+            while (count > keep)
+                evictOldest();
+            String[] l = lines;
+            int[] c = colors;
+            String[][] r = rows;
+            long[] s = rowStart;
+            int h = head, oldMax = this.maxLines;
+            allocate(newMax);
+            for (int i = 0; i < count; i++) {
+                int from = (h + i) % oldMax;
+                lines[i] = l[from];
+                colors[i] = c[from];
+                rows[i] = r[from];
+                rowStart[i] = s[from];
+            }
+            head = 0;
+            this.maxLines = newMax;
+        }
+        while (count > 1 && retainedChars > maxChars)
+            evictOldest();
+        return this;
+    }
+
+    /** 是否按控件宽度自动换行（默认开启）。 */
+    public LogView setWrap(boolean wrap) {
+        if (wrap != this.wrap) {
+            this.wrap = wrap;
+            wrapWidth = -1;
+        }
+        return this;
+    }
+
+    public LogView setLineSpacing(int spacing) {
+        if (spacing >= 0)
+            this.lineSpacing = spacing;
+        return this;
+    }
+
+    public LogView setPadding(int padding) {
+        if (padding >= 0 && padding != this.padding) {
+            this.padding = padding;
+            wrapWidth = -1;
+        }
+        return this;
+    }
+
+    /** 每格滚轮滚动的行数。 */
+    public LogView setScrollStepRows(int rows) {
+        if (rows > 0)
+            this.scrollStepRows = rows;
+        return this;
+    }
+
+    /** 删除全部行（渲染线程调用）。 */
+    public void clear() {
+        int drained = 0;
+        while (pending.poll() != null)
+            drained++;
+        pendingCount.addAndGet(-drained);
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) % maxLines;
+            lines[slot] = null;
+            rows[slot] = null;
+        }
+        head = 0;
+        count = 0;
+        totalRows = 0;
+        retainedChars = 0;
+        scrollRow = 0;
+        following = true;
+    }
+
+    // --- queries ---
+
+    /** 保留的逻辑行数。 */
+    public int getLineCount() {
+        return count;
+    }
+
+    /** 保留的第 i 行（0 为最旧）。 */
+    public String getLine(int i) {
+        if (i < 0 || i >= count)
+            throw new IndexOutOfBoundsException(i);
+        return lines[(head + i) % maxLines];
+    }
+
+    /** 换行后保留的显示行数。 */
+    public long getRowCount() {
+        return count == 0 ? 0 : totalRows - rowStart[head];
+    }
+
+    /** 保留文本的字符数。 */
+    public long getRetainedChars() {
+        return retainedChars;
+    }
+
+    public int getLastDrawnRowCount() {
+        return lastDrawnRows;
+    }
+
+    // --- scrolling ---
+
+    /** 是否跟随最新的行（在底部时为 true）。 */
+    public boolean isFollowing() {
+        return following;
+    }
+
+    /** 滚动到底部并跟随新行，O(1)。 */
+    public void scrollToBottom() {
+        following = true;
+    }
+
+    public void scrollToTop() {
+        following = false;
+        scrollRow = firstRetainedRow();
+        clampScroll();
+    }
+
+    /** 按显示行滚动，正数向下。 */
+    public void scrollByRows(int delta) {
+        scrollRow = topRow() + delta;
+        following = false;
+        clampScroll();
+    }
+
+    private long firstRetainedRow() {
+        return count == 0 ? totalRows : rowStart[head];
+    }
+
+    private int visibleRows() {
+        var client = MinecraftClient.getInstance();
+        int lineHeight = (client != null && client.textRenderer != null ? client.textRenderer.fontHeight : 9) + lineSpacing;
+        return Math.max(1, (getHeight() - 2 * padding) / lineHeight);
+    }
+
+    /** 当前第一条可见显示行的绝对行号。 */
+    private long topRow() {
+        long bottomTop = Math.max(firstRetainedRow(), totalRows - visibleRows());
+        return following ? bottomTop : scrollRow;
+    }
+
+    private void clampScroll() {
+        long bottomTop = Math.max(firstRetainedRow(), totalRows - visibleRows());
+        if (scrollRow >= bottomTop) {
+            scrollRow = bottomTop;
+            following = true;
+        } else if (scrollRow < firstRetainedRow()) {
+            scrollRow = firstRetainedRow();
+        }
+    }
+
+    // --- ingestion (render thread) ---
+
+    @Override
+    public void update(float tickDelta) {
+        if (isSkipped())
+            return;
+        super.update(tickDelta);
+        ingest();
+    }
+
+    /** 把待处理的行换行并存入缓冲区。通常由 update 调用。 */
+    public void ingest() {
+        TextRenderer tr = textRenderer();
+        int width = wrap && tr != null ? Math.max(1, getWidth() - 2 * padding) : 0;
+        if (width != wrapWidth) {
+            wrapWidth = width;
+            rewrapAll(tr);
+        }
+        Pending p;
+        while ((p = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            push(p.text, p.color, tr);
+        }
+        if (!following)
+            clampScroll();
+    }
+
+    private static TextRenderer textRenderer() {
+        var client = MinecraftClient.getInstance();
+        return client != null ? client.textRenderer : null;
+    }
+
+    private void push(String text, int color, TextRenderer tr) {
+        if (count == maxLines)
+            evictOldest();
+        int slot = (head + count) % maxLines;
+        lines[slot] = text;
+        colors[slot] = color;
+        rows[slot] = wrapLine(text, tr);
+        rowStart[slot] = totalRows;
+        totalRows += rows[slot].length;
+        retainedChars += text.length();
+        count++;
+        while (count > 1 && retainedChars > maxChars)
+            evictOldest();
+    }
+
+    private void evictOldest() {
+        retainedChars -= lines[head].length();
+        lines[head] = null;
+        rows[head] = null;
+        head = (head + 1) % maxLines;
+        count--;
+        dropped.incrementAndGet();
+    }
+
+    private void rewrapAll(TextRenderer tr) {
+        long firstVisible = following ? -1 : scrollRow;
+        long rowsSoFar = 0;
+        long newScroll = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) % maxLines;
+            // keep the entry that was at the top of the view at the top after rewrapping
+            if (firstVisible >= rowStart[slot] && firstVisible < rowStart[slot] + rows[slot].length)
+                newScroll = rowsSoFar;
+            rows[slot] = wrapLine(lines[slot], tr);
+            rowStart[slot] = rowsSoFar;
+            rowsSoFar += rows[slot].length;
+        }
+        totalRows = rowsSoFar;
+        scrollRow = newScroll;
+    }
+
+    /** 把一行按 wrapWidth 拆成若干显示行，尽量在空格处断开。 */
+    private String[] wrapLine(String text, TextRenderer tr) {
+        if (wrapWidth <= 0 || tr == null || tr.getWidth(text) <= wrapWidth)
+            return new String[] { text };
+        ArrayList<String> out = new ArrayList<>(4);
+        String rest = text;
+        while (!rest.isEmpty()) {
+            String part = tr.trimToWidth(rest, wrapWidth);
+            int len = part.length();
+            if (len >= rest.length()) {
+                out.add(rest);
+                break;
+            }
+            int space = part.lastIndexOf(' ');
+            if (space > 0)
+                len = space;
+            // always make progress, even if a single character is wider than the view
+            len = Math.max(1, len);
+            out.add(rest.substring(0, len));
+            rest = rest.substring(len);
+            if (space > 0 && rest.startsWith(" "))
+                rest = rest.substring(1);
+        }
+        return out.toArray(new String[0]);
+    }
+
+    /** 包含绝对显示行 row 的条目在环中的序号（0 为最旧）。 */
+    private int entryAt(long row) {
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (rowStart[(head + mid) % maxLines] <= row)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
+        super.render(context, tickDelta);
+        lastDrawnRows = 0;
+        TextRenderer tr = textRenderer();
+        int w = getWidth();
+        int h = getHeight();
+        if (tr == null || count == 0 || w <= 0 || h <= 0)
+            return;
+        int alpha = Math.round(getEffectiveOpacity() * 255f);
+        if (alpha < 4)
+            return;
+        int styleColor = getStyleValue(StyleProperty.TEXT_COLOR) & 0xFFFFFF;
+        int lineHeight = tr.fontHeight + lineSpacing;
+        int visible = visibleRows();
+        long top = topRow();
+        int x = getX() + padding;
+        int y = getY() + padding;
+
+        int sx = (int) Math.floor(getX() - ScrollView.renderOffsetX());
+        int sy = (int) Math.floor(getY() - ScrollView.renderOffsetY());
+        context.enableScissor(sx, sy, sx + w, sy + h);
+        try {
+            int e = entryAt(top);
+            int r = (int) (top - rowStart[(head + e) % maxLines]);
+            int drawn = 0;
+            while (drawn < visible && e < count) {
+                int slot = (head + e) % maxLines;
+                String[] entryRows = rows[slot];
+                int rgb = colors[slot] == DEFAULT_COLOR ? styleColor : colors[slot];
+                int color = (alpha << 24) | rgb;
+                for (; r < entryRows.length && drawn < visible; r++, drawn++)
+                    context.drawText(tr, entryRows[r], x, y + drawn * lineHeight, color, false);
+                r = 0;
+                e++;
+            }
+            lastDrawnRows = drawn;
+        } finally {
+            context.disableScissor();
+        }
+    }
+}
@@ -1,13 +1,28 @@
 package org.fish.uitoolkit.v2.controls;
 
 import org.fish.uitoolkit.utils.Regions;
+import org.fish.uitoolkit.utils.TextureRegion;
 import org.fish.uitoolkit.v2.RenderType;
 import org.fish.uitoolkit.v2.components.BackgroundComponent;
 import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
 
 import net.minecraft.client.gui.DrawContext;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class ProgressBar extends ControlObject {
+    // tile styles shared by every progress bar; a bar only derives its own copies once it is tinted
+    private static final Style BORDER_LEFT = tileStyle("progress_border_left", Regions.WIDGET_PROGRESS_BORDER_TILE_LEFT);
+    private static final Style BORDER = tileStyle("progress_border", Regions.WIDGET_PROGRESS_BORDER_TILE);
+    private static final Style BORDER_RIGHT = tileStyle("progress_border_right", Regions.WIDGET_PROGRESS_BORDER_TILE_RIGHT);
+    private static final Style FILL_LEFT = tileStyle("progress_fill_left", Regions.WIDGET_PROGRESS_FILL_TILE_LEFT);
+    private static final Style FILL = tileStyle("progress_fill", Regions.WIDGET_PROGRESS_FILL_TILE);
+    private static final Style FILL_RIGHT = tileStyle("progress_fill_right", Regions.WIDGET_PROGRESS_FILL_TILE_RIGHT);
+
     private float progress;
     // animated displayed progress (for smooth transitions)
     private float animatedProgress = 0f;
@@ -16,14 +31,21 @@ public class ProgressBar extends ControlObject {
     private boolean animateEnabled = true;
     private final PanelComponent background_panel;
     private final PanelComponent fill_panel;
+    // both panels' children; fill_panel replaces background_panel in the component map
+    private final List<ControlObject> allChildren;
 
     /**
      * @param tileCount tile数量
      */
     public ProgressBar(int tileCount) {
         this.progress = 0;
-        background_panel = (PanelComponent) this.addComponent(new PanelComponent());
-        fill_panel = (PanelComponent) this.addComponent(new PanelComponent());
+        // the two panels are driven explicitly from update/render below instead of being
+        // registered as components: the component map is keyed by class, so registering
+        // both would replace one of them and dispatch the other twice per frame
+        background_panel = new PanelComponent();
+        background_panel.setOwner(this);
+        fill_panel = new PanelComponent();
+        fill_panel.setOwner(this);
 
         // arrange children horizontally with no extra spacing; they will be placed
         // left-to-right
@@ -37,68 +59,74 @@ public class ProgressBar extends ControlObject {
         fill_panel.setSpacing(0);
         fill_panel.setPadding(0, 0, 0, 0);
 
-        ControlObject left_bg = new ControlObject();
-        left_bg.addComponent(new BackgroundComponent(left_bg)
-                .setTexture(Regions.WIDGET_PROGRESS_BORDER_TILE_LEFT, RenderType.STRETCH));
-        left_bg.getComponent(BackgroundComponent.class).updateOwnerSize();
-
-        ControlObject left_fill = new ControlObject();
-        left_fill.addComponent(new BackgroundComponent(left_fill)
-                .setTexture(Regions.WIDGET_PROGRESS_FILL_TILE_LEFT, RenderType.STRETCH));
-        left_fill.getComponent(BackgroundComponent.class).updateOwnerSize();
-
-        ControlObject right_bg = new ControlObject();
-        right_bg.addComponent(new BackgroundComponent(right_bg)
-                .setTexture(Regions.WIDGET_PROGRESS_BORDER_TILE_RIGHT, RenderType.STRETCH));
-        right_bg.getComponent(BackgroundComponent.class).updateOwnerSize();
+        background_panel.addChild(tile(BORDER_LEFT));
+        fill_panel.addChild(tile(FILL_LEFT));
+        for (int i = 0; i < tileCount; i++) {
+            background_panel.addChild(tile(BORDER));
+            fill_panel.addChild(tile(FILL));
+        }
+        background_panel.addChild(tile(BORDER_RIGHT));
+        fill_panel.addChild(tile(FILL_RIGHT));
 
-        ControlObject right_fill = new ControlObject();
-        right_fill.addComponent(new BackgroundComponent(right_fill)
-                .setTexture(Regions.WIDGET_PROGRESS_FILL_TILE_RIGHT, RenderType.STRETCH));
-        right_fill.getComponent(BackgroundComponent.class).updateOwnerSize();
+        List<ControlObject> all = new ArrayList<>(background_panel.getChildren());
+        all.addAll(fill_panel.getChildren());
+        allChildren = Collections.unmodifiableList(all);
+    }
 
-        background_panel.addChild(left_bg);
-        fill_panel.addChild(left_fill);
+    /** 返回背景与填充两组片段（两个 PanelComponent 的子控件）。 */
+    @Override
+    public List<ControlObject> getChildren() {
+        return allChildren;
+    }
 
-        for (int i = 0; i < tileCount; i++) {
-            ControlObject center_bg = new ControlObject();
-            center_bg.addComponent(new BackgroundComponent(center_bg)
-                    .setTexture(Regions.WIDGET_PROGRESS_BORDER_TILE, RenderType.STRETCH));
-            center_bg.getComponent(BackgroundComponent.class).updateOwnerSize();
-
-            ControlObject center_fill = new ControlObject();
-            center_fill.addComponent(new BackgroundComponent(center_fill)
-                    .setTexture(Regions.WIDGET_PROGRESS_FILL_TILE, RenderType.STRETCH));
-            center_fill.getComponent(BackgroundComponent.class).updateOwnerSize();
-
-            background_panel.addChild(center_bg);
-            fill_panel.addChild(center_fill);
-        }
+    private static Style tileStyle(String name, TextureRegion region) {
+        return new Style(name).set(StyleProperty.BACKGROUND, region).set(StyleProperty.BACKGROUND_MODE,
+                RenderType.STRETCH);
+    }
 
-        background_panel.addChild(right_bg);
-        fill_panel.addChild(right_fill);
+    private static ControlObject tile(Style style) {
+        ControlObject tile = new ControlObject();
+        tile.setStyle(style);
+        BackgroundComponent bg = new BackgroundComponent(tile);
+        tile.addComponent(bg);
+        bg.updateOwnerSize();
+        return tile;
     }
 
+    /**
+     * 设置片段着色。首次调用时为本进度条派生各片段样式（同一种片段共享一个派生样式），之后只修改派生样式。
+     */
     public void setColor(int color) {
-        for (ControlObject child : background_panel.getChildren()) {
-            if (child == null)
-                continue;
-            BackgroundComponent bg = child.getComponent(BackgroundComponent.class);
-            if (bg != null)
-                bg.setColor(color);
-        }
+        tint(background_panel.getChildren(), color);
+        tint(fill_panel.getChildren(), color);
+    }
 
-        for (ControlObject child : fill_panel.getChildren()) {
+    private static void tint(List<ControlObject> tiles, int color) {
+        Style last = null;
+        Style derived = null;
+        for (ControlObject child : tiles) {
             if (child == null)
                 continue;
-            BackgroundComponent bg = child.getComponent(BackgroundComponent.class);
-            if (bg != null)
-                bg.setColor(color);
+            Style s = child.getStyle();
+            if (s == null)
+                continue;
+            if (s.getName() != null) {
+                // still on a shared tile style: switch to a per-bar copy (consecutive tiles share it)
+                if (s != last) {
+                    last = s;
+                    derived = Style.derive(s);
+                }
+                child.setStyle(derived);
+                s = derived;
+            }
+            s.set(StyleProperty.BACKGROUND_TINT, color & 0xFFFFFF);
         }
     }
 
     @Override
     public void update(float tickDelta) {
+        if (isSkipped())
+            return;
         super.update(tickDelta);
         background_panel.update(this, tickDelta);
         fill_panel.update(this, tickDelta);
@@ -118,14 +146,16 @@ public class ProgressBar extends ControlObject {
                 animatedProgress = 1f;
         }
         float p = animatedProgress;
+        List<ControlObject> fills = fill_panel.getChildren();
         int totalW = 0;
-        for (ControlObject child : fill_panel.getChildren())
-            totalW += child.getWidth();
+        for (int i = 0, n = fills.size(); i < n; i++)
+            totalW += fills.get(i).getWidth();
         int filled = Math.round(totalW * p);
         int remaining = filled;
-        for (ControlObject child : fill_panel.getChildren()) {
-            if (child == null)
-                continue;
+        // fill tiles are HIDDEN (not collapsed) so they keep their slot in the row;
+        // setVisible is a no-op when the state does not change
+        for (int i = 0, n = fills.size(); i < n; i++) {
+            ControlObject child = fills.get(i);
             int cw = child.getWidth();
             BackgroundComponent bg = child.getComponent(BackgroundComponent.class);
             if (bg == null)
@@ -149,6 +179,16 @@ public class ProgressBar extends ControlObject {
         }
     }
 
+    @Override
+    public void updateLayout(float tickDelta) {
+        if (isSkipped())
+            return;
+        super.updateLayout(tickDelta);
+        // the tile panels are not registered components, so the layout pass has to reach them explicitly
+        background_panel.updateLayout(this, tickDelta);
+        fill_panel.updateLayout(this, tickDelta);
+    }
+
     public void setProgress(float p) {
         this.progress = Math.max(0f, Math.min(1f, p));
     }
@@ -179,6 +219,8 @@ public class ProgressBar extends ControlObject {
 
     @Override
     public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
         super.render(context, tickDelta);
         background_panel.render(this, context, tickDelta);
         fill_panel.render(this, context, tickDelta);
@@ -0,0 +1,331 @@
+package org.fish.uitoolkit.v2.controls;
+
+import java.util.List;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.util.math.MatrixStack;
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.input.HitTestIndex;
+import org.fish.uitoolkit.v2.input.InputComponent;
+import org.fish.uitoolkit.v2.input.UIEvent;
+import org.fish.uitoolkit.v2.interfaces.IHitTestDelegate;
+
+/**
+ * 滚动容器。
+ * <p>
+ * 子控件被添加到内部的 content 控件中，并且只按内容空间布局一次（与滚动位置无关）。
+ * 滚动只改变绘制时施加的一个平移量：渲染时通过矩阵栈平移并用 scissor 裁剪到视口，
+ * 命中测试时把鼠标坐标反向平移后交给内容自己的 {@link HitTestIndex}。滚动过程中不会修改任何子控件的位置。
+ * <p>
+ * 支持滚轮、拖拽（松开后带惯性）与程序化滚动，滚动位置以指数平滑动画逼近目标。
+ */
+public class ScrollView extends ControlObject implements IHitTestDelegate {
+    // accumulated render translation of enclosing scroll views, used to place nested scissor rects
+    private static double renderOffsetX = 0, renderOffsetY = 0;
+
+    private final ControlObject content = new ControlObject();
+    private final PanelComponent contentPanel;
+    private final List<ControlObject> contentList;
+    private final HitTestIndex contentIndex = new HitTestIndex();
+
+    // current (rendered) offset, animation target and inertial velocity (pixels / second)
+    private double scrollX = 0, scrollY = 0;
+    private double targetX = 0, targetY = 0;
+    private double velocityX = 0, velocityY = 0;
+    private boolean dragging = false;
+    private long lastDragNanos = 0;
+    private long lastFrameNanos = 0;
+
+    private float scrollStep = 20f;
+    private float smoothing = 18f;
+    private float friction = 5f;
+    private boolean scrollbarVisible = true;
+    private int scrollbarColor = 0xA0FFFFFF;
+
+    public ScrollView() {
+        content.setParent(this);
+        contentPanel = (PanelComponent) content.addComponent(new PanelComponent());
+        contentPanel.setOrientation(PanelComponent.Orientation.VERTICAL);
+        contentPanel.setAutoSizeHeight(true);
+        contentList = List.of(content);
+
+        InputComponent input = (InputComponent) addComponent(new InputComponent());
+        input.on(UIEvent.Type.MOUSE_SCROLL, e -> {
+            if (getMaxScrollY() <= 0)
+                return;
+            scrollBy(0, -e.getScrollAmount() * scrollStep);
+            e.consume();
+            e.stopPropagation();
+        });
+        input.on(UIEvent.Type.MOUSE_DOWN, e -> {
+            dragging = true;
+            velocityX = velocityY = 0;
+            lastDragNanos = System.nanoTime();
+        });
+        input.on(UIEvent.Type.MOUSE_DRAG, e -> {
+            if (!dragging)
+                return;
+            long now = System.nanoTime();
+            double dt = Math.max(1e-3, (now - lastDragNanos) / 1e9);
+            lastDragNanos = now;
+            double dx = getMaxScrollX() > 0 ? -e.getDeltaX() : 0;
+            double dy = -e.getDeltaY();
+            targetX = clamp(targetX + dx, getMaxScrollX());
+            targetY = clamp(targetY + dy, getMaxScrollY());
+            scrollX = targetX;
+            scrollY = targetY;
+            // smoothed release velocity
+            velocityX = velocityX * 0.2 + (dx / dt) * 0.8;
+            velocityY = velocityY * 0.2 + (dy / dt) * 0.8;
+            e.consume();
+        });
+        input.on(UIEvent.Type.MOUSE_UP, e -> {
+            dragging = false;
+            // a pause before releasing means no fling
+            if (System.nanoTime() - lastDragNanos > 100_000_000L)
+                velocityX = velocityY = 0;
+        });
+    }
+
+    /** 外层滚动视图在当前绘制中累计的平移量（供需要自行设置 scissor 的控件换算屏幕坐标）。 */
+    static double renderOffsetX() {
+        return renderOffsetX;
+    }
+
+    static double renderOffsetY() {
+        return renderOffsetY;
+    }
+
+    /** 内部内容控件：子控件以它为父控件，按内容空间布局。 */
+    public ControlObject getContent() {
+        return content;
+    }
+
+    /** 内容的布局面板（默认纵向排列、自动高度）。 */
+    public PanelComponent getContentPanel() {
+        return contentPanel;
+    }
+
+    /** 子控件被添加到内容控件中。 */
+    @Override
+    public ControlObject addChild(ControlObject child) {
+        content.addChild(child);
+        return this;
+    }
+
+    @Override
+    public void insertChild(int index, ControlObject child) {
+        content.insertChild(index, child);
+    }
+
+    @Override
+    public void moveChild(ControlObject child, int index) {
+        content.moveChild(child, index);
+    }
+
+    @Override
+    public void removeChild(ControlObject child) {
+        content.removeChild(child);
+    }
+
+    @Override
+    public List<ControlObject> getChildren() {
+        return contentList;
+    }
+
+    public double getScrollX() {
+        return scrollX;
+    }
+
+    public double getScrollY() {
+        return scrollY;
+    }
+
+    public int getMaxScrollX() {
+        return Math.max(0, content.getWidth() - getWidth());
+    }
+
+    public int getMaxScrollY() {
+        return Math.max(0, content.getHeight() - getHeight());
+    }
+
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    /** 平滑滚动到指定位置。 */
+    public void scrollTo(double x, double y) {
+        scrollTo(x, y, true);
+    }
+
+    public void scrollTo(double x, double y, boolean animate) {
+        velocityX = velocityY = 0;
+        targetX = clamp(x, getMaxScrollX());
+        targetY = clamp(y, getMaxScrollY());
+        if (!animate) {
+            scrollX = targetX;
+            scrollY = targetY;
+        }
+    }
+
+    public void scrollBy(double dx, double dy) {
+        velocityX = velocityY = 0;
+        targetX = clamp(targetX + dx, getMaxScrollX());
+        targetY = clamp(targetY + dy, getMaxScrollY());
+    }
+
+    public void scrollToBottom() {
+        scrollTo(targetX, getMaxScrollY());
+    }
+
+    /** 每格滚轮滚动的像素数。 */
+    public void setScrollStep(float px) {
+        if (px > 0f)
+            this.scrollStep = px;
+    }
+
+    /** 平滑系数（1/秒），越大越快逼近目标；0 表示立即跳到目标。 */
+    public void setSmoothing(float s) {
+        this.smoothing = Math.max(0f, s);
+    }
+
+    /** 惯性衰减系数（1/秒），越大惯性停得越快。 */
+    public void setFriction(float f) {
+        this.friction = Math.max(0f, f);
+    }
+
+    public void setScrollbarVisible(boolean v) {
+        this.scrollbarVisible = v;
+    }
+
+    /** 滚动条颜色（ARGB）。 */
+    public void setScrollbarColor(int argb) {
+        this.scrollbarColor = argb;
+    }
+
+    private static double clamp(double v, int max) {
+        return v < 0 ? 0 : (v > max ? max : v);
+    }
+
+    private void animate() {
+        long now = System.nanoTime();
+        // real elapsed time keeps inertia frame-rate independent
+        double dt = lastFrameNanos == 0 ? 0 : Math.min(0.1, (now - lastFrameNanos) / 1e9);
+        lastFrameNanos = now;
+        int maxX = getMaxScrollX();
+        int maxY = getMaxScrollY();
+        if (!dragging && (velocityX != 0 || velocityY != 0)) {
+            targetX += velocityX * dt;
+            targetY += velocityY * dt;
+            double decay = Math.exp(-friction * dt);
+            velocityX *= decay;
+            velocityY *= decay;
+            if (Math.abs(velocityX) < 1 || targetX <= 0 || targetX >= maxX)
+                velocityX = 0;
+            if (Math.abs(velocityY) < 1 || targetY <= 0 || targetY >= maxY)
+                velocityY = 0;
+        }
+        // content may have shrunk since the target was set
+        targetX = clamp(targetX, maxX);
+        targetY = clamp(targetY, maxY);
+        if (dragging || smoothing <= 0f) {
+            scrollX = targetX;
+            scrollY = targetY;
+        } else {
+            double a = 1 - Math.exp(-smoothing * dt);
+            scrollX += (targetX - scrollX) * a;
+            scrollY += (targetY - scrollY) * a;
+            if (Math.abs(targetX - scrollX) < 0.01)
+                scrollX = targetX;
+            if (Math.abs(targetY - scrollY) < 0.01)
+                scrollY = targetY;
+        }
+    }
+
+    @Override
+    public void update(float tickDelta) {
+        if (isSkipped())
+            return;
+        super.update(tickDelta);
+        // content spans the viewport width unless it sizes itself horizontally
+        if (!contentPanel.isAutoSizeWidth())
+            content.setSize(getWidth(), content.getHeight());
+        content.dispatchUpdate(tickDelta);
+        animate();
+    }
+
+    @Override
+    public void updateLayout(float tickDelta) {
+        if (isSkipped())
+            return;
+        super.updateLayout(tickDelta);
+        // the content is not a panel child, so the layout pass has to reach it explicitly
+        if (!contentPanel.isAutoSizeWidth())
+            content.setSize(getWidth(), content.getHeight());
+        content.updateLayout(tickDelta);
+    }
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
+        super.render(context, tickDelta);
+        int x = getX();
+        int y = getY();
+        int w = getWidth();
+        int h = getHeight();
+        if (w <= 0 || h <= 0)
+            return;
+
+        // scissor rects are in screen space, so undo the translation of enclosing scroll views
+        int sx = (int) Math.floor(x - renderOffsetX);
+        int sy = (int) Math.floor(y - renderOffsetY);
+        context.enableScissor(sx, sy, sx + w, sy + h);
+        MatrixStack matrices = context.getMatrices();
+        matrices.push();
+        matrices.translate((float) -scrollX, (float) -scrollY, 0f);
+        double prevOffsetX = renderOffsetX;
+        double prevOffsetY = renderOffsetY;
+        renderOffsetX += scrollX;
+        renderOffsetY += scrollY;
+        // only children intersecting the visible content rect are drawn
+        contentPanel.setCullRect((int) Math.floor(x + scrollX), (int) Math.floor(y + scrollY), w + 1, h + 1);
+        contentIndex.beginFrame(content.getX(), content.getY(), Math.max(w, content.getWidth()),
+                Math.max(h, content.getHeight()));
+        HitTestIndex.push(contentIndex);
+        try {
+            content.render(context, tickDelta);
+        } finally {
+            HitTestIndex.pop();
+            renderOffsetX = prevOffsetX;
+            renderOffsetY = prevOffsetY;
+            matrices.pop();
+            context.disableScissor();
+        }
+
+        if (scrollbarVisible)
+            renderScrollbar(context, x, y, w, h);
+    }
+
+    private void renderScrollbar(DrawContext context, int x, int y, int w, int h) {
+        int maxY = getMaxScrollY();
+        if (maxY <= 0)
+            return;
+        int alpha = Math.round(((scrollbarColor >>> 24) & 0xFF) * getEffectiveOpacity());
+        if (alpha <= 0)
+            return;
+        int contentH = content.getHeight();
+        int thumbH = Math.max(8, Math.round(h * (h / (float) contentH)));
+        int thumbY = y + (int) Math.round((h - thumbH) * (scrollY / maxY));
+        context.fill(x + w - 2, thumbY, x + w, thumbY + thumbH, (alpha << 24) | (scrollbarColor & 0xFFFFFF));
+    }
+
+    @Override
+    public InputComponent hitTestChildren(double x, double y) {
+        int vx = getX();
+        int vy = getY();
+        if (x < vx || y < vy || x >= vx + getWidth() || y >= vy + getHeight())
+            return null;
+        return contentIndex.hitTest(x + scrollX, y + scrollY);
+    }
+}
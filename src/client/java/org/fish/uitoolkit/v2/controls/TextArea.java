@@ -0,0 +1,547 @@
+package org.fish.uitoolkit.v2.controls;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.input.InputComponent;
+import org.fish.uitoolkit.v2.input.UIEvent;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+import org.fish.uitoolkit.v2.text.GapBuffer;
+import org.fish.uitoolkit.v2.text.GlyphWidthCache;
+import org.fish.uitoolkit.v2.text.TextLayout;
+import org.lwjgl.glfw.GLFW;
+
+/**
+ * 可编辑的多行文本框（{@link #setMultiline(boolean) setMultiline(false)} 时为单行输入框）。
+ * <p>
+ * 文本存放在 {@link GapBuffer} 中，行索引与每行的字符 x 坐标由 {@link TextLayout} 增量维护：
+ * 打字只重新测量当前行，字符宽度来自 {@link GlyphWidthCache}。光标 / 选区的命中测试在缓存的 x 坐标上二分查找，
+ * 只绘制可见的行。不自动换行，过长的行水平滚动。
+ * <p>
+ * 支持光标移动（Ctrl 按词、Home/End、PageUp/PageDown）、Shift 选择、鼠标点击与拖拽选择、Ctrl+A/C/X/V。
+ * 控件在被点击时获得焦点并接收键盘输入。
+ */
+public class TextArea extends ControlObject {
+    private final GapBuffer buffer = new GapBuffer();
+    private final GlyphWidthCache glyphs;
+    private final TextLayout layout;
+    private TextRenderer measuredWith;
+
+    private int caret = 0;
+    private int anchor = 0;
+    // x the caret tries to keep when moving up/down; -1 = use the current x
+    private int preferredX = -1;
+
+    private boolean multiline = true;
+    private boolean editable = true;
+    private int maxLength = Integer.MAX_VALUE;
+    private int padding = 3;
+    private int lineSpacing = 1;
+    private int selectionColor = 0x805078C8;
+    private int caretColor = 0xFFE0E0E0;
+    private int scrollX = 0, scrollY = 0;
+    private long caretMovedAt = 0;
+    private Runnable onChange;
+
+    private int lastDrawnLines = 0;
+
+    public TextArea() {
+        this.glyphs = new GlyphWidthCache(s -> {
+            TextRenderer tr = textRenderer();
+            return tr != null ? tr.getWidth(s) : 0;
+        });
+        this.layout = new TextLayout(buffer, glyphs);
+        InputComponent input = (InputComponent) addComponent(new InputComponent());
+        input.setFocusable(true);
+        input.on(UIEvent.Type.CHAR_TYPED, e -> {
+            if (charTyped(e.getChar()))
+                e.consume();
+        });
+        input.on(UIEvent.Type.KEY_DOWN, e -> {
+            if (keyPressed(e.getKeyCode(), e.getModifiers()))
+                e.consume();
+        });
+        input.on(UIEvent.Type.MOUSE_DOWN, e -> {
+            moveCaret(offsetAtPoint(e.getX(), e.getY()), false);
+            e.consume();
+        });
+        input.on(UIEvent.Type.MOUSE_DRAG, e -> {
+            moveCaret(offsetAtPoint(e.getX(), e.getY()), true);
+            e.consume();
+        });
+        input.on(UIEvent.Type.MOUSE_SCROLL, e -> {
+            scrollY = clampScrollY(scrollY - (int) Math.round(e.getScrollAmount() * 3 * lineHeight()));
+            e.consume();
+            e.stopPropagation();
+        });
+    }
+
+    // --- content ---
+
+    /** 完整文本（会分配新字符串，不要每帧调用）。 */
+    public String getText() {
+        return buffer.toString();
+    }
+
+    /** 替换全部文本，光标移到开头。 */
+    public TextArea setText(String text) {
+        buffer.setText(filter(text != null ? text : "", maxLength));
+        layout.rebuild();
+        caret = anchor = 0;
+        preferredX = -1;
+        scrollX = scrollY = 0;
+        changed();
+        return this;
+    }
+
+    public int length() {
+        return buffer.length();
+    }
+
+    public int getLineCount() {
+        return layout.getLineCount();
+    }
+
+    /** 第 i 行的文本（带缓存）。 */
+    public String getLine(int line) {
+        return layout.lineText(line);
+    }
+
+    /** 行索引与排版缓存（统计 / 高级用途）。 */
+    public TextLayout getLayout() {
+        return layout;
+    }
+
+    /** 文本改变时回调。 */
+    public TextArea onChange(Runnable listener) {
+        this.onChange = listener;
+        return this;
+    }
+
+    // --- options ---
+
+    /** 关闭后为单行输入框：回车不插入换行，粘贴的换行被替换为空格。 */
+    public TextArea setMultiline(boolean multiline) {
+        this.multiline = multiline;
+        return this;
+    }
+
+    public boolean isMultiline() {
+        return multiline;
+    }
+
+    public TextArea setEditable(boolean editable) {
+        this.editable = editable;
+        return this;
+    }
+
+    public boolean isEditable() {
+        return editable;
+    }
+
+    /** 最大字符数（不截断已有文本）。 */
+    public TextArea setMaxLength(int maxLength) {
+        if (maxLength > 0)
+            this.maxLength = maxLength;
+        return this;
+    }
+
+    public TextArea setPadding(int padding) {
+        if (padding >= 0)
+            this.padding = padding;
+        return this;
+    }
+
+    public TextArea setLineSpacing(int spacing) {
+        if (spacing >= 0)
+            this.lineSpacing = spacing;
+        return this;
+    }
+
+    /** 选区与光标颜色（ARGB）。 */
+    public TextArea setColors(int selection, int caret) {
+        this.selectionColor = selection;
+        this.caretColor = caret;
+        return this;
+    }
+
+    // --- caret and selection ---
+
+    public int getCaret() {
+        return caret;
+    }
+
+    public int getSelectionStart() {
+        return Math.min(caret, anchor);
+    }
+
+    public int getSelectionEnd() {
+        return Math.max(caret, anchor);
+    }
+
+    public boolean hasSelection() {
+        return caret != anchor;
+    }
+
+    public String getSelectedText() {
+        return buffer.substring(getSelectionStart(), getSelectionEnd());
+    }
+
+    /** 设置光标位置并清除选区。 */
+    public TextArea setCaret(int offset) {
+        moveCaret(offset, false);
+        return this;
+    }
+
+    /** 选中 [from, to)，光标位于 to。 */
+    public TextArea select(int from, int to) {
+        anchor = clampOffset(from);
+        moveCaret(to, true);
+        return this;
+    }
+
+    public TextArea selectAll() {
+        return select(0, buffer.length());
+    }
+
+    // --- editing ---
+
+    /** 用 s 替换选区（没有选区时在光标处插入）。 */
+    public void insert(String s) {
+        if (!editable || s == null)
+            return;
+        int from = getSelectionStart();
+        int to = getSelectionEnd();
+        String text = filter(s, maxLength - (buffer.length() - (to - from)));
+        if (text.isEmpty() && from == to)
+            return;
+        if (to > from) {
+            buffer.delete(from, to);
+            layout.deleted(from, to);
+        }
+        buffer.insert(from, text);
+        layout.inserted(from, text);
+        anchor = caret = from + text.length();
+        preferredX = -1;
+        caretMoved();
+        changed();
+    }
+
+    /** 删除 [from, to)。 */
+    public void delete(int from, int to) {
+        from = clampOffset(from);
+        to = clampOffset(to);
+        if (!editable || to <= from)
+            return;
+        buffer.delete(from, to);
+        layout.deleted(from, to);
+        anchor = caret = from;
+        preferredX = -1;
+        caretMoved();
+        changed();
+    }
+
+    private String filter(String s, int room) {
+        if (room <= 0)
+            return "";
+        StringBuilder sb = null;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            char r = c;
+            if (c == '\n')
+                r = multiline ? '\n' : ' ';
+            else if (c == '\t')
+                r = ' ';
+            else if (c < 0x20 || c == 0x7F)
+                r = 0;
+            if (r != c && sb == null) {
+                sb = new StringBuilder(n);
+                sb.append(s, 0, i);
+            }
+            if (sb != null && r != 0)
+                sb.append(r);
+        }
+        String out = sb != null ? sb.toString() : s;
+        return out.length() > room ? out.substring(0, room) : out;
+    }
+
+    private void changed() {
+        if (onChange != null)
+            onChange.run();
+    }
+
+    // --- input handling ---
+
+    private boolean charTyped(char c) {
+        if (!editable || c < 0x20 || c == 0x7F)
+            return false;
+        insert(String.valueOf(c));
+        return true;
+    }
+
+    private boolean keyPressed(int key, int mods) {
+        boolean shift = (mods & GLFW.GLFW_MOD_SHIFT) != 0;
+        boolean ctrl = (mods & (GLFW.GLFW_MOD_CONTROL | GLFW.GLFW_MOD_SUPER)) != 0;
+        int line = layout.lineOf(caret);
+        switch (key) {
+            case GLFW.GLFW_KEY_LEFT:
+                if (hasSelection() && !shift)
+                    moveCaret(getSelectionStart(), false);
+                else
+                    moveCaret(ctrl ? wordLeft(caret) : caret - 1, shift);
+                return true;
+            case GLFW.GLFW_KEY_RIGHT:
+                if (hasSelection() && !shift)
+                    moveCaret(getSelectionEnd(), false);
+                else
+                    moveCaret(ctrl ? wordRight(caret) : caret + 1, shift);
+                return true;
+            case GLFW.GLFW_KEY_UP:
+                moveVertical(line - 1, shift);
+                return true;
+            case GLFW.GLFW_KEY_DOWN:
+                moveVertical(line + 1, shift);
+                return true;
+            case GLFW.GLFW_KEY_PAGE_UP:
+                moveVertical(line - visibleLines(), shift);
+                return true;
+            case GLFW.GLFW_KEY_PAGE_DOWN:
+                moveVertical(line + visibleLines(), shift);
+                return true;
+            case GLFW.GLFW_KEY_HOME:
+                moveCaret(ctrl ? 0 : layout.lineStart(line), shift);
+                return true;
+            case GLFW.GLFW_KEY_END:
+                moveCaret(ctrl ? buffer.length() : layout.lineEnd(line), shift);
+                return true;
+            case GLFW.GLFW_KEY_BACKSPACE:
+                if (hasSelection())
+                    insert("");
+                else
+                    delete(ctrl ? wordLeft(caret) : caret - 1, caret);
+                return true;
+            case GLFW.GLFW_KEY_DELETE:
+                if (hasSelection())
+                    insert("");
+                else
+                    delete(caret, ctrl ? wordRight(caret) : caret + 1);
+                return true;
+            case GLFW.GLFW_KEY_ENTER:
+            case GLFW.GLFW_KEY_KP_ENTER:
+                if (!multiline)
+                    return false;
+                insert("\n");
+                return true;
+            default:
+                break;
+        }
+        if (!ctrl)
+            return false;
+        switch (key) {
+            case GLFW.GLFW_KEY_A:
+                selectAll();
+                return true;
+            case GLFW.GLFW_KEY_C:
+                if (hasSelection())
+                    setClipboard(getSelectedText());
+                return true;
+            case GLFW.GLFW_KEY_X:
+                if (hasSelection() && editable) {
+                    setClipboard(getSelectedText());
+                    insert("");
+                }
+                return true;
+            case GLFW.GLFW_KEY_V:
+                String clip = getClipboard();
+                if (clip != null && !clip.isEmpty())
+                    insert(clip.replace("\r\n", "\n").replace('\r', '\n'));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void moveVertical(int targetLine, boolean extend) {
+        int line = Math.max(0, Math.min(layout.getLineCount() - 1, targetLine));
+        int x = preferredX >= 0 ? preferredX : layout.xOf(caret);
+        moveCaret(layout.offsetAt(line, x), extend);
+        preferredX = x;
+    }
+
+    private void moveCaret(int offset, boolean extend) {
+        caret = clampOffset(offset);
+        if (!extend)
+            anchor = caret;
+        preferredX = -1;
+        caretMoved();
+    }
+
+    private void caretMoved() {
+        caretMovedAt = System.currentTimeMillis();
+        ensureCaretVisible();
+    }
+
+    private int clampOffset(int offset) {
+        return Math.max(0, Math.min(buffer.length(), offset));
+    }
+
+    private int wordLeft(int from) {
+        int i = from;
+        while (i > 0 && !Character.isLetterOrDigit(buffer.charAt(i - 1)))
+            i--;
+        while (i > 0 && Character.isLetterOrDigit(buffer.charAt(i - 1)))
+            i--;
+        return i;
+    }
+
+    private int wordRight(int from) {
+        int n = buffer.length();
+        int i = from;
+        while (i < n && !Character.isLetterOrDigit(buffer.charAt(i)))
+            i++;
+        while (i < n && Character.isLetterOrDigit(buffer.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static String getClipboard() {
+        var client = MinecraftClient.getInstance();
+        return client != null && client.keyboard != null ? client.keyboard.getClipboard() : null;
+    }
+
+    private static void setClipboard(String s) {
+        var client = MinecraftClient.getInstance();
+        if (client != null && client.keyboard != null)
+            client.keyboard.setClipboard(s);
+    }
+
+    // --- geometry ---
+
+    private static TextRenderer textRenderer() {
+        var client = MinecraftClient.getInstance();
+        return client != null ? client.textRenderer : null;
+    }
+
+    private int lineHeight() {
+        TextRenderer tr = textRenderer();
+        return (tr != null ? tr.fontHeight : 9) + lineSpacing;
+    }
+
+    private int visibleLines() {
+        return Math.max(1, (getHeight() - 2 * padding) / lineHeight());
+    }
+
+    private int clampScrollY(int y) {
+        int max = Math.max(0, layout.getLineCount() * lineHeight() - (getHeight() - 2 * padding));
+        return Math.max(0, Math.min(max, y));
+    }
+
+    /** 控件坐标（事件坐标）对应的文本偏移。 */
+    private int offsetAtPoint(double px, double py) {
+        int lh = lineHeight();
+        int line = (int) Math.floor((py - getY() - padding + scrollY) / lh);
+        line = Math.max(0, Math.min(layout.getLineCount() - 1, line));
+        return layout.offsetAt(line, (int) Math.round(px - getX() - padding + scrollX));
+    }
+
+    private void ensureCaretVisible() {
+        int lh = lineHeight();
+        int innerW = getWidth() - 2 * padding;
+        int innerH = getHeight() - 2 * padding;
+        if (innerW <= 0 || innerH <= 0)
+            return;
+        int top = layout.lineOf(caret) * lh;
+        if (top < scrollY)
+            scrollY = top;
+        else if (top + lh > scrollY + innerH)
+            scrollY = top + lh - innerH;
+        int x = layout.xOf(caret);
+        if (x < scrollX)
+            scrollX = Math.max(0, x - innerW / 4);
+        else if (x + 1 > scrollX + innerW)
+            scrollX = x + 1 - innerW + innerW / 4;
+    }
+
+    public int getLastDrawnLineCount() {
+        return lastDrawnLines;
+    }
+
+    // --- rendering ---
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
+        super.render(context, tickDelta);
+        lastDrawnLines = 0;
+        TextRenderer tr = textRenderer();
+        int w = getWidth();
+        int h = getHeight();
+        if (tr == null || w <= 2 * padding || h <= 2 * padding)
+            return;
+        if (tr != measuredWith) {
+            // a different renderer (e.g. after a resource reload) may have different glyph widths
+            measuredWith = tr;
+            glyphs.invalidate();
+            layout.setGlyphs(glyphs);
+        }
+        float opacity = getEffectiveOpacity();
+        int alpha = Math.round(opacity * 255f);
+        if (alpha < 4)
+            return;
+        int textColor = (alpha << 24) | (getStyleValue(StyleProperty.TEXT_COLOR) & 0xFFFFFF);
+        int lh = lineHeight();
+        int innerX = getX() + padding;
+        int innerY = getY() + padding;
+        int innerW = w - 2 * padding;
+        int innerH = h - 2 * padding;
+        scrollY = clampScrollY(scrollY);
+
+        int sx = (int) Math.floor(innerX - ScrollView.renderOffsetX());
+        int sy = (int) Math.floor(innerY - ScrollView.renderOffsetY());
+        context.enableScissor(sx, sy, sx + innerW, sy + innerH);
+        try {
+            int first = scrollY / lh;
+            int last = Math.min(layout.getLineCount() - 1, (scrollY + innerH) / lh);
+            int selStart = getSelectionStart();
+            int selEnd = getSelectionEnd();
+            int baseX = innerX - scrollX;
+            for (int line = first; line <= last; line++) {
+                int y = innerY + line * lh - scrollY;
+                int start = layout.lineStart(line);
+                int end = layout.lineEnd(line);
+                if (selEnd > selStart && selStart <= end && selEnd >= start) {
+                    int[] xs = layout.lineX(line);
+                    int a = Math.max(selStart, start) - start;
+                    int b = Math.min(selEnd, end) - start;
+                    // a selected line break is shown as a narrow block after the line
+                    int extra = selEnd > end ? 4 : 0;
+                    context.fill(baseX + xs[a], y, baseX + xs[b] + extra, y + lh, fade(selectionColor, opacity));
+                }
+                String s = layout.lineText(line);
+                if (!s.isEmpty())
+                    context.drawText(tr, s, baseX, y + 1, textColor, false);
+            }
+            lastDrawnLines = Math.max(0, last - first + 1);
+
+            InputComponent input = getComponent(InputComponent.class);
+            boolean blinkOn = ((System.currentTimeMillis() - caretMovedAt) / 500) % 2 == 0;
+            if (input != null && input.isFocused() && blinkOn) {
+                int line = layout.lineOf(caret);
+                if (line >= first && line <= last) {
+                    int cx = baseX + layout.xOf(caret);
+                    int cy = innerY + line * lh - scrollY;
+                    context.fill(cx, cy, cx + 1, cy + lh, fade(caretColor, opacity));
+                }
+            }
+        } finally {
+            context.disableScissor();
+        }
+    }
+
+    private static int fade(int argb, float opacity) {
+        int a = Math.round(((argb >>> 24) & 0xFF) * opacity);
+        return (a << 24) | (argb & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,55 @@
+package org.fish.uitoolkit.v2.grid;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/** double 列，显示时保留固定的小数位数。 */
+public class DoubleColumn extends GridColumn {
+    private double[] values = new double[0];
+    private String pattern = "%.2f";
+
+    public DoubleColumn(String name, int width) {
+        super(name, width);
+        setRightAligned(true);
+    }
+
+    /** 显示的小数位数（默认 2）。 */
+    public DoubleColumn setDecimals(int decimals) {
+        this.pattern = "%." + Math.max(0, decimals) + "f";
+        invalidateTexts();
+        return this;
+    }
+
+    public double get(int row) {
+        return values[row];
+    }
+
+    public void set(int row, double v) {
+        checkRow(row);
+        if (Double.compare(values[row], v) == 0)
+            return;
+        values[row] = v;
+        changed(row);
+    }
+
+    @Override
+    public int compare(int rowA, int rowB) {
+        return Double.compare(values[rowA], values[rowB]);
+    }
+
+    @Override
+    protected String format(int row) {
+        return String.format(Locale.ROOT, pattern, values[row]);
+    }
+
+    @Override
+    protected void grow(int n) {
+        if (values.length < n)
+            values = Arrays.copyOf(values, n);
+    }
+
+    @Override
+    protected void reset(int row) {
+        values[row] = 0d;
+    }
+}
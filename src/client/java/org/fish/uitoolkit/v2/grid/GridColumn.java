@@ -0,0 +1,106 @@
+package org.fish.uitoolkit.v2.grid;
+
+import java.util.Arrays;
+
+/**
+ * 表格列：按行 id 存放一列数据（列式存储），提供比较与显示文本。
+ * <p>
+ * 数值列使用基本类型数组；显示文本按行缓存，只在该行的值改变后重新格式化，因此绘制可见单元格时不分配对象。
+ * 修改值的 setter 会通知所属的 {@link GridModel}，由它增量更新各个 {@link GridView} 的排序与过滤索引。
+ */
+public abstract class GridColumn {
+    private final String name;
+    private int width;
+    private boolean rightAligned = false;
+    GridModel model;
+    // cached display strings by row id; null = format on demand
+    private String[] texts = new String[0];
+
+    protected GridColumn(String name, int width) {
+        this.name = name;
+        this.width = Math.max(1, width);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /** 列宽（像素）。 */
+    public GridColumn setWidth(int w) {
+        if (w > 0 && w != width) {
+            width = w;
+            if (model != null)
+                model.columnsChanged();
+        }
+        return this;
+    }
+
+    /** 单元格文本是否右对齐（数值列默认右对齐）。 */
+    public boolean isRightAligned() {
+        return rightAligned;
+    }
+
+    public GridColumn setRightAligned(boolean v) {
+        this.rightAligned = v;
+        return this;
+    }
+
+    public GridModel getModel() {
+        return model;
+    }
+
+    /** 比较两行在本列上的值（升序）。 */
+    public abstract int compare(int rowA, int rowB);
+
+    /** 格式化一行的显示文本（仅在缓存失效时调用）。 */
+    protected abstract String format(int row);
+
+    /** 一行的显示文本（带缓存）。 */
+    public final String getText(int row) {
+        String t = texts[row];
+        if (t == null) {
+            t = format(row);
+            texts[row] = t != null ? t : "";
+        }
+        return texts[row];
+    }
+
+    /** 丢弃所有缓存的显示文本（格式改变时调用）。 */
+    protected final void invalidateTexts() {
+        Arrays.fill(texts, null);
+    }
+
+    /** 扩容到至少 n 行（由 GridModel 调用）。 */
+    void ensureCapacity(int n) {
+        if (texts.length < n)
+            texts = Arrays.copyOf(texts, n);
+        grow(n);
+    }
+
+    /** 子类扩容自己的值数组。 */
+    protected abstract void grow(int n);
+
+    /** 把一行重置为默认值（行被删除时调用）。 */
+    protected abstract void reset(int row);
+
+    void clearRow(int row) {
+        reset(row);
+        texts[row] = null;
+    }
+
+    /** 子类在写入值之后调用：使文本缓存失效并通知模型。 */
+    protected final void changed(int row) {
+        texts[row] = null;
+        if (model != null)
+            model.rowChanged(row, this);
+    }
+
+    protected final void checkRow(int row) {
+        if (model == null || !model.isAlive(row))
+            throw new IllegalArgumentException("no such row: " + row);
+    }
+}
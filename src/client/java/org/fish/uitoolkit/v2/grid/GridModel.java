@@ -0,0 +1,204 @@
+package org.fish.uitoolkit.v2.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式行模型：每列一个数组，行以稳定的整数 id 标识（删除的 id 会被复用）。
+ * <p>
+ * 值的修改通过列的 setter 完成，模型把变化转发给所有 {@link GridView}，由它们增量更新排序与过滤索引。
+ * 批量修改可放在 {@link #beginUpdate()} / {@link #endUpdate()} 之间：变化的行被合并，
+ * 结束时变化较少则把变化的行排序后归并进索引，较多则整体重建一次。
+ * <p>
+ * 只应在渲染线程上修改。
+ */
+public final class GridModel {
+    private final List<GridColumn> columns = new ArrayList<>();
+    private final List<GridColumn> columnsView = Collections.unmodifiableList(columns);
+    private final List<GridView> views = new ArrayList<>();
+    private boolean[] alive = new boolean[0];
+    private int rowLimit = 0;
+    private int rowCount = 0;
+    private int[] free = new int[0];
+    private int freeCount = 0;
+    private int columnsVersion = 0;
+
+    // batching: rows changed while batching, deduplicated by the dirty flags
+    private int batchDepth = 0;
+    private boolean[] dirty = new boolean[0];
+    private int[] dirtyRows = new int[0];
+    private int dirtyCount = 0;
+    private boolean batchStructural = false;
+
+    public GridModel addColumn(GridColumn c) {
+        if (c == null || c.model != null)
+            throw new IllegalArgumentException("column already belongs to a model");
+        c.model = this;
+        c.ensureCapacity(alive.length);
+        columns.add(c);
+        columnsChanged();
+        return this;
+    }
+
+    public List<GridColumn> getColumns() {
+        return columnsView;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public GridColumn getColumn(int i) {
+        return columns.get(i);
+    }
+
+    /** 列集合或列宽的版本号（变化时递增）。 */
+    public int getColumnsVersion() {
+        return columnsVersion;
+    }
+
+    void columnsChanged() {
+        columnsVersion++;
+    }
+
+    /** 新增一行并返回其 id；各列取默认值。 */
+    public int addRow() {
+        int id;
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        } else {
+            id = rowLimit++;
+            if (id >= alive.length)
+                grow(Math.max(64, alive.length * 2));
+        }
+        alive[id] = true;
+        rowCount++;
+        if (batchDepth > 0) {
+            markDirty(id);
+        } else {
+            for (int i = 0, n = views.size(); i < n; i++)
+                views.get(i).rowAdded(id);
+        }
+        return id;
+    }
+
+    /** 删除一行（id 之后可能被复用）。 */
+    public void removeRow(int row) {
+        if (!isAlive(row))
+            return;
+        if (batchDepth > 0) {
+            // removals change the id space; the batch ends with a rebuild
+            batchStructural = true;
+        } else {
+            for (int i = 0, n = views.size(); i < n; i++)
+                views.get(i).rowRemoved(row);
+        }
+        alive[row] = false;
+        rowCount--;
+        for (int i = 0, n = columns.size(); i < n; i++)
+            columns.get(i).clearRow(row);
+        if (freeCount == free.length)
+            free = Arrays.copyOf(free, Math.max(16, free.length * 2));
+        free[freeCount++] = row;
+    }
+
+    /** 删除所有行。 */
+    public void clear() {
+        for (int row = 0; row < rowLimit; row++) {
+            if (!alive[row])
+                continue;
+            alive[row] = false;
+            for (int i = 0, n = columns.size(); i < n; i++)
+                columns.get(i).clearRow(row);
+        }
+        rowLimit = 0;
+        rowCount = 0;
+        freeCount = 0;
+        for (int i = 0, n = views.size(); i < n; i++)
+            views.get(i).rebuild();
+    }
+
+    public boolean isAlive(int row) {
+        return row >= 0 && row < rowLimit && alive[row];
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** 行 id 的上界（不含），遍历所有行时使用。 */
+    public int getRowLimit() {
+        return rowLimit;
+    }
+
+    // --- batching ---
+
+    public void beginUpdate() {
+        batchDepth++;
+    }
+
+    public void endUpdate() {
+        if (batchDepth == 0 || --batchDepth > 0)
+            return;
+        int n = dirtyCount;
+        boolean rebuild = batchStructural || n > Math.max(64, rowCount / 8);
+        for (int v = 0, vn = views.size(); v < vn; v++) {
+            if (rebuild)
+                views.get(v).rebuild();
+            else
+                views.get(v).rowsChanged(dirtyRows, n);
+        }
+        for (int i = 0; i < n; i++)
+            dirty[dirtyRows[i]] = false;
+        dirtyCount = 0;
+        batchStructural = false;
+    }
+
+    public boolean isUpdating() {
+        return batchDepth > 0;
+    }
+
+    // --- views ---
+
+    /** 创建一个新的排序 / 过滤视图（初始为全部行、按 id 排序）。 */
+    public GridView createView() {
+        GridView v = new GridView(this);
+        views.add(v);
+        v.rebuild();
+        return v;
+    }
+
+    /** 不再使用的视图应移除，以免每次修改都更新它。 */
+    public void removeView(GridView v) {
+        views.remove(v);
+    }
+
+    void rowChanged(int row, GridColumn column) {
+        if (batchDepth > 0) {
+            markDirty(row);
+            return;
+        }
+        for (int i = 0, n = views.size(); i < n; i++)
+            views.get(i).rowChanged(row, column);
+    }
+
+    private void markDirty(int row) {
+        if (dirty[row])
+            return;
+        dirty[row] = true;
+        if (dirtyCount == dirtyRows.length)
+            dirtyRows = Arrays.copyOf(dirtyRows, Math.max(64, dirtyRows.length * 2));
+        dirtyRows[dirtyCount++] = row;
+    }
+
+    private void grow(int n) {
+        alive = Arrays.copyOf(alive, n);
+        dirty = Arrays.copyOf(dirty, n);
+        for (int i = 0, c = columns.size(); i < c; i++)
+            columns.get(i).ensureCapacity(n);
+        for (int i = 0, c = views.size(); i < c; i++)
+            views.get(i).ensureCapacity(n);
+    }
+}
@@ -0,0 +1,288 @@
+package org.fish.uitoolkit.v2.grid;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * 模型上的排序 / 过滤视图：维护一个按排序列有序、只包含通过过滤的行 id 的排列，以及行 id 到显示位置的反向索引。
+ * <p>
+ * 单行变化时增量维护：若该行仍在原位置的两个邻居之间则不动；否则二分查找新位置，
+ * 只平移旧位置与新位置之间的元素。修改非排序列且过滤结果不变时什么也不做。
+ * 只有切换排序列、方向或过滤条件（以及大批量修改）时才整体重新排序。
+ * <p>
+ * 相等的值按行 id 排序，因此排列总是确定的。
+ */
+public final class GridView {
+    private final GridModel model;
+    private GridColumn sortColumn = null;
+    private boolean descending = false;
+    private IntPredicate filter = null;
+    private int[] order = new int[0];
+    private int size = 0;
+    // row id -> index in order, -1 when filtered out or removed
+    private int[] position = new int[0];
+    private int[] scratch = new int[0];
+
+    private int fullSorts = 0;
+    private int incrementalUpdates = 0;
+    private long shiftedEntries = 0;
+
+    GridView(GridModel model) {
+        this.model = model;
+        ensureCapacity(model.getRowLimit());
+    }
+
+    public GridModel getModel() {
+        return model;
+    }
+
+    /** 按 column 排序（null 表示按行 id）。 */
+    public GridView setSort(GridColumn column, boolean descending) {
+        if (column == sortColumn && descending == this.descending)
+            return this;
+        this.sortColumn = column;
+        this.descending = descending;
+        rebuild();
+        return this;
+    }
+
+    public GridColumn getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /** 设置过滤条件（参数为行 id；null 表示不过滤）。条件依赖外部状态变化时调用 {@link #refilter()}。 */
+    public GridView setFilter(IntPredicate filter) {
+        this.filter = filter;
+        rebuild();
+        return this;
+    }
+
+    public GridView refilter() {
+        rebuild();
+        return this;
+    }
+
+    /** 可见（通过过滤的）行数。 */
+    public int size() {
+        return size;
+    }
+
+    /** 第 index 个显示位置上的行 id。 */
+    public int rowAt(int index) {
+        return order[index];
+    }
+
+    /** 行的显示位置；被过滤或不存在时返回 -1。 */
+    public int indexOf(int row) {
+        return row >= 0 && row < position.length ? position[row] : -1;
+    }
+
+    // --- stats ---
+
+    public int getFullSortCount() {
+        return fullSorts;
+    }
+
+    public int getIncrementalUpdateCount() {
+        return incrementalUpdates;
+    }
+
+    /** 增量更新累计平移的索引项数。 */
+    public long getShiftedEntries() {
+        return shiftedEntries;
+    }
+
+    // --- maintenance (called by GridModel) ---
+
+    void ensureCapacity(int n) {
+        if (position.length < n) {
+            int old = position.length;
+            int len = Math.max(n, old * 2);
+            position = Arrays.copyOf(position, len);
+            Arrays.fill(position, old, len, -1);
+            order = Arrays.copyOf(order, len);
+        }
+    }
+
+    /** 整体重建：收集通过过滤的行并做一次稳定的归并排序。 */
+    void rebuild() {
+        ensureCapacity(model.getRowLimit());
+        Arrays.fill(position, -1);
+        int n = 0;
+        for (int row = 0, limit = model.getRowLimit(); row < limit; row++) {
+            if (model.isAlive(row) && accepts(row))
+                order[n++] = row;
+        }
+        size = n;
+        sort(order, n);
+        for (int i = 0; i < n; i++)
+            position[order[i]] = i;
+        fullSorts++;
+    }
+
+    void rowAdded(int row) {
+        ensureCapacity(row + 1);
+        position[row] = -1;
+        rowChanged(row, null);
+    }
+
+    void rowRemoved(int row) {
+        int p = position[row];
+        if (p >= 0)
+            removeAt(p);
+        position[row] = -1;
+    }
+
+    /**
+     * 批量变化：先在一次遍历中移出所有变化的行，把仍通过过滤的行单独排序后与其余部分归并。
+     * 成本为 O(n + k log k)；逐行处理不可行，因为多行同时失序时邻居检查与二分查找的前提不成立。
+     */
+    void rowsChanged(int[] rows, int count) {
+        incrementalUpdates += count;
+        // rows added during the batch were not announced one by one, so the index may not cover their ids yet
+        ensureCapacity(model.getRowLimit());
+        int k = 0;
+        int[] batch = new int[count];
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            int p = position[row];
+            if (p >= 0) {
+                order[p] = -1;
+                position[row] = -1;
+            }
+            if (model.isAlive(row) && accepts(row))
+                batch[k++] = row;
+        }
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (order[i] >= 0)
+                order[n++] = order[i];
+        }
+        sort(batch, k);
+        // merge from the back so that order can be filled in place
+        int i = n - 1, j = k - 1, w = n + k - 1;
+        while (j >= 0) {
+            if (i >= 0 && compare(order[i], batch[j]) > 0)
+                order[w--] = order[i--];
+            else
+                order[w--] = batch[j--];
+        }
+        size = n + k;
+        for (int q = 0; q < size; q++)
+            position[order[q]] = q;
+        shiftedEntries += size;
+    }
+
+    /** 单行变化；column 为 null 表示未知（总是检查位置）。 */
+    void rowChanged(int row, GridColumn column) {
+        incrementalUpdates++;
+        int p = position[row];
+        boolean keep = accepts(row);
+        if (p < 0) {
+            if (keep)
+                insert(row);
+            return;
+        }
+        if (!keep) {
+            removeAt(p);
+            position[row] = -1;
+            return;
+        }
+        if (column != null && column != sortColumn)
+            return;
+        boolean leftOk = p == 0 || compare(order[p - 1], row) < 0;
+        boolean rightOk = p == size - 1 || compare(row, order[p + 1]) < 0;
+        if (leftOk && rightOk)
+            return;
+        if (!leftOk) {
+            // move left: insertion point within [0, p)
+            int q = lowerBound(row, 0, p);
+            System.arraycopy(order, q, order, q + 1, p - q);
+            order[q] = row;
+            for (int i = q; i <= p; i++)
+                position[order[i]] = i;
+            shiftedEntries += p - q;
+        } else {
+            // move right: insertion point within (p, size)
+            int q = lowerBound(row, p + 1, size) - 1;
+            System.arraycopy(order, p + 1, order, p, q - p);
+            order[q] = row;
+            for (int i = p; i <= q; i++)
+                position[order[i]] = i;
+            shiftedEntries += q - p;
+        }
+    }
+
+    private boolean accepts(int row) {
+        return filter == null || filter.test(row);
+    }
+
+    private void insert(int row) {
+        int q = lowerBound(row, 0, size);
+        System.arraycopy(order, q, order, q + 1, size - q);
+        order[q] = row;
+        size++;
+        for (int i = q; i < size; i++)
+            position[order[i]] = i;
+        shiftedEntries += size - 1 - q;
+    }
+
+    private void removeAt(int p) {
+        System.arraycopy(order, p + 1, order, p, size - p - 1);
+        size--;
+        for (int i = p; i < size; i++)
+            position[order[i]] = i;
+        shiftedEntries += size - p;
+    }
+
+    /** [from, to) 中第一个排在 row 之后的位置。 */
+    private int lowerBound(int row, int from, int to) {
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(order[mid], row) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int compare(int a, int b) {
+        if (sortColumn != null) {
+            int c = sortColumn.compare(a, b);
+            if (c != 0)
+                return descending ? -c : c;
+        }
+        return Integer.compare(a, b);
+    }
+
+    // bottom-up merge sort of a[0, n) on the primitive index array (no boxing)
+    private void sort(int[] a, int n) {
+        if (scratch.length < n)
+            scratch = new int[Math.max(n, order.length)];
+        int[] src = a, dst = scratch;
+        int to = n;
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < to; lo += 2 * width) {
+                int mid = Math.min(lo + width, to), hi = Math.min(lo + 2 * width, to);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi)
+                    dst[k++] = compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+                while (i < mid)
+                    dst[k++] = src[i++];
+                while (j < hi)
+                    dst[k++] = src[j++];
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if (src != a)
+            System.arraycopy(src, 0, a, 0, n);
+    }
+}
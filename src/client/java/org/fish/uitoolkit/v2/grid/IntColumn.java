@@ -0,0 +1,46 @@
+package org.fish.uitoolkit.v2.grid;
+
+import java.util.Arrays;
+
+/** int 列。 */
+public class IntColumn extends GridColumn {
+    private int[] values = new int[0];
+
+    public IntColumn(String name, int width) {
+        super(name, width);
+        setRightAligned(true);
+    }
+
+    public int get(int row) {
+        return values[row];
+    }
+
+    public void set(int row, int v) {
+        checkRow(row);
+        if (values[row] == v)
+            return;
+        values[row] = v;
+        changed(row);
+    }
+
+    @Override
+    public int compare(int rowA, int rowB) {
+        return Integer.compare(values[rowA], values[rowB]);
+    }
+
+    @Override
+    protected String format(int row) {
+        return Integer.toString(values[row]);
+    }
+
+    @Override
+    protected void grow(int n) {
+        if (values.length < n)
+            values = Arrays.copyOf(values, n);
+    }
+
+    @Override
+    protected void reset(int row) {
+        values[row] = 0;
+    }
+}
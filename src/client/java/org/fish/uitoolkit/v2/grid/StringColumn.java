@@ -0,0 +1,60 @@
+package org.fish.uitoolkit.v2.grid;
+
+import java.util.Arrays;
+
+/** 字符串列（null 视为空字符串，排在最前）。 */
+public class StringColumn extends GridColumn {
+    private String[] values = new String[0];
+    private boolean ignoreCase = false;
+
+    public StringColumn(String name, int width) {
+        super(name, width);
+    }
+
+    /** 排序时忽略大小写。 */
+    public StringColumn setIgnoreCase(boolean v) {
+        this.ignoreCase = v;
+        return this;
+    }
+
+    public String get(int row) {
+        return values[row];
+    }
+
+    public void set(int row, String v) {
+        checkRow(row);
+        String old = values[row];
+        if (old == v || (old != null && old.equals(v)))
+            return;
+        values[row] = v;
+        changed(row);
+    }
+
+    @Override
+    public int compare(int rowA, int rowB) {
+        String a = values[rowA], b = values[rowB];
+        if (a == b)
+            return 0;
+        if (a == null)
+            return -1;
+        if (b == null)
+            return 1;
+        return ignoreCase ? a.compareToIgnoreCase(b) : a.compareTo(b);
+    }
+
+    @Override
+    protected String format(int row) {
+        return values[row];
+    }
+
+    @Override
+    protected void grow(int n) {
+        if (values.length < n)
+            values = Arrays.copyOf(values, n);
+    }
+
+    @Override
+    protected void reset(int row) {
+        values[row] = null;
+    }
+}
@@ -0,0 +1,229 @@
+package org.fish.uitoolkit.v2.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fish.uitoolkit.v2.interfaces.IHitTestDelegate;
+
+/**
+ * 命中测试用的均匀网格空间索引。
+ * <p>
+ * 每个 {@link InputComponent} 按其缓存的绝对边界登记到覆盖的网格单元中；边界不变时不做任何工作，
+ * 边界变化时只移动该组件自身的登记。命中测试只检查鼠标所在单元中的候选，而不是遍历整棵控件树。
+ * <p>
+ * 索引通过 {@link #push}/{@link #pop} 成为"当前索引"，在其作用期间绘制的 InputComponent 会登记到它。
+ */
+public final class HitTestIndex {
+    public static final int DEFAULT_CELL_SIZE = 32;
+    // entries not drawn for this many frames are dropped from the grid
+    private static final int PRUNE_AFTER_FRAMES = 120;
+    private static final int PRUNE_INTERVAL = 256;
+
+    private static final HitTestIndex[] STACK = new HitTestIndex[16];
+    private static int depth = 0;
+
+    private final int cellSize;
+    // grid origin and extent in the coordinate space of the registered bounds
+    private int originX = 0, originY = 0;
+    private int width = 0, height = 0;
+    private int cols = 0, rows = 0;
+    private ArrayList<InputComponent>[] cells = newCells(0);
+    private final List<InputComponent> tracked = new ArrayList<>();
+    private long frame = 0;
+    private int order = 0;
+    private int modCount = 0;
+
+    public HitTestIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public HitTestIndex(int cellSize) {
+        this.cellSize = Math.max(4, cellSize);
+    }
+
+    /** 返回当前作用中的索引（可能为 null）。 */
+    public static HitTestIndex current() {
+        return depth > 0 ? STACK[depth - 1] : null;
+    }
+
+    public static void push(HitTestIndex index) {
+        if (depth < STACK.length)
+            STACK[depth] = index;
+        depth++;
+    }
+
+    public static void pop() {
+        if (depth <= 0)
+            return;
+        depth--;
+        if (depth < STACK.length)
+            STACK[depth] = null;
+    }
+
+    /**
+     * 开始新的一帧：推进帧号并在覆盖区域尺寸变化时重建网格。
+     */
+    public void beginFrame(int width, int height) {
+        beginFrame(0, 0, width, height);
+    }
+
+    /**
+     * 开始新的一帧，网格覆盖 [x, x + width) × [y, y + height)。用于坐标不从 0 开始的索引
+     * （例如滚动容器内容空间中的索引）。
+     */
+    public void beginFrame(int x, int y, int width, int height) {
+        frame++;
+        order = 0;
+        if (x != this.originX || y != this.originY || width != this.width || height != this.height)
+            resize(x, y, width, height);
+        if ((frame % PRUNE_INTERVAL) == 0)
+            pruneStale();
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    /** 每次登记发生变化时递增，可用于判断悬停状态是否需要重新计算。 */
+    public int getModCount() {
+        return modCount;
+    }
+
+    public int getTrackedCount() {
+        return tracked.size();
+    }
+
+    /** 由 InputComponent 在绘制时调用：记录绘制顺序，并在边界变化时更新登记。 */
+    void track(InputComponent c, int x, int y, int w, int h) {
+        c.renderedFrame = frame;
+        c.renderOrder = ++order;
+        if (c.index == this && c.boundsX == x && c.boundsY == y && c.boundsW == w && c.boundsH == h)
+            return;
+        if (c.index != null)
+            c.index.remove(c);
+        c.boundsX = x;
+        c.boundsY = y;
+        c.boundsW = w;
+        c.boundsH = h;
+        c.index = this;
+        c.trackedSlot = tracked.size();
+        tracked.add(c);
+        insertCells(c);
+        modCount++;
+    }
+
+    /** 从索引中移除组件。 */
+    void remove(InputComponent c) {
+        if (c.index != this)
+            return;
+        removeCells(c);
+        int slot = c.trackedSlot;
+        int last = tracked.size() - 1;
+        if (slot >= 0 && slot <= last && tracked.get(slot) == c) {
+            InputComponent moved = tracked.get(last);
+            tracked.set(slot, moved);
+            moved.trackedSlot = slot;
+            tracked.remove(last);
+        }
+        c.index = null;
+        c.trackedSlot = -1;
+        modCount++;
+    }
+
+    /**
+     * 返回覆盖 (x, y) 且在最近一帧中被绘制的最上层组件；没有时返回 null。
+     */
+    public InputComponent hitTest(double x, double y) {
+        double gx = x - originX;
+        double gy = y - originY;
+        if (gx < 0 || gy < 0 || gx >= width || gy >= height)
+            return null;
+        int cx = Math.min(cols - 1, (int) gx / cellSize);
+        int cy = Math.min(rows - 1, (int) gy / cellSize);
+        ArrayList<InputComponent> cell = cells[cy * cols + cx];
+        if (cell == null)
+            return null;
+        InputComponent best = null;
+        for (int i = 0, n = cell.size(); i < n; i++) {
+            InputComponent c = cell.get(i);
+            if (!c.wasRenderedIn(frame) || !c.isHitTestVisible() || !c.contains(x, y))
+                continue;
+            if (best == null || c.renderOrder > best.renderOrder)
+                best = c;
+        }
+        // containers that render their children in another coordinate space resolve them
+        // through their own index
+        if (best != null && best.getOwner() instanceof IHitTestDelegate delegate) {
+            InputComponent inner = delegate.hitTestChildren(x, y);
+            if (inner != null)
+                return inner;
+        }
+        return best;
+    }
+
+    private void resize(int x, int y, int width, int height) {
+        this.originX = x;
+        this.originY = y;
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        this.cols = (this.width + cellSize - 1) / cellSize;
+        this.rows = (this.height + cellSize - 1) / cellSize;
+        this.cells = newCells(cols * rows);
+        for (int i = 0, n = tracked.size(); i < n; i++)
+            insertCells(tracked.get(i));
+        modCount++;
+    }
+
+    private void pruneStale() {
+        for (int i = tracked.size() - 1; i >= 0; i--) {
+            InputComponent c = tracked.get(i);
+            if (frame - c.renderedFrame > PRUNE_AFTER_FRAMES)
+                remove(c);
+        }
+    }
+
+    private void insertCells(InputComponent c) {
+        // clamp to the grid; entries entirely outside can never be hit and occupy no cells
+        int x0 = Math.max(0, c.boundsX - originX);
+        int y0 = Math.max(0, c.boundsY - originY);
+        int x1 = Math.min(width, c.boundsX - originX + c.boundsW) - 1;
+        int y1 = Math.min(height, c.boundsY - originY + c.boundsH) - 1;
+        if (x1 < x0 || y1 < y0 || cols == 0 || rows == 0) {
+            c.cellX0 = c.cellY0 = 0;
+            c.cellX1 = c.cellY1 = -1;
+            return;
+        }
+        c.cellX0 = x0 / cellSize;
+        c.cellY0 = y0 / cellSize;
+        c.cellX1 = x1 / cellSize;
+        c.cellY1 = y1 / cellSize;
+        for (int cy = c.cellY0; cy <= c.cellY1; cy++) {
+            for (int cx = c.cellX0; cx <= c.cellX1; cx++) {
+                int k = cy * cols + cx;
+                ArrayList<InputComponent> cell = cells[k];
+                if (cell == null)
+                    cells[k] = cell = new ArrayList<>(4);
+                cell.add(c);
+            }
+        }
+    }
+
+    private void removeCells(InputComponent c) {
+        for (int cy = c.cellY0; cy <= c.cellY1; cy++) {
+            for (int cx = c.cellX0; cx <= c.cellX1; cx++) {
+                int k = cy * cols + cx;
+                if (k < 0 || k >= cells.length)
+                    continue;
+                ArrayList<InputComponent> cell = cells[k];
+                if (cell != null)
+                    cell.remove(c);
+            }
+        }
+        c.cellX1 = c.cellY1 = -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayList<InputComponent>[] newCells(int n) {
+        return (ArrayList<InputComponent>[]) new ArrayList[n];
+    }
+}
@@ -0,0 +1,182 @@
+package org.fish.uitoolkit.v2.input;
+
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.interfaces.IComponent;
+import org.fish.uitoolkit.v2.interfaces.IEventListener;
+
+/**
+ * 使控件可以接收输入事件的组件。
+ * <p>
+ * 组件在 render 阶段把 owner 的绝对边界登记到当前的 {@link HitTestIndex}（仅在边界变化时更新索引），
+ * 并记录本帧的绘制顺序，命中测试据此选出最上层的控件。未被绘制的控件（隐藏、折叠、透明度为 0 或已脱离树）
+ * 不会被命中。
+ */
+public class InputComponent extends IComponent {
+    private static final int TYPE_COUNT = UIEvent.Type.values().length;
+
+    private final IEventListener[][] bubbleListeners = new IEventListener[TYPE_COUNT][];
+    private final IEventListener[][] captureListeners = new IEventListener[TYPE_COUNT][];
+    private boolean hitTestVisible = true;
+    private boolean focusable = false;
+    private boolean hovered = false;
+    private boolean focused = false;
+    private boolean pressed = false;
+
+    // index bookkeeping (owned by HitTestIndex)
+    HitTestIndex index;
+    int trackedSlot = -1;
+    int boundsX, boundsY, boundsW, boundsH;
+    int cellX0, cellY0, cellX1, cellY1;
+    long renderedFrame = -1;
+    int renderOrder;
+
+    public InputComponent() {
+    }
+
+    /** 注册冒泡（及目标）阶段的监听器。 */
+    public InputComponent on(UIEvent.Type type, IEventListener listener) {
+        add(bubbleListeners, type, listener);
+        return this;
+    }
+
+    /** 注册捕获阶段的监听器（自根向目标方向，先于冒泡执行）。 */
+    public InputComponent onCapture(UIEvent.Type type, IEventListener listener) {
+        add(captureListeners, type, listener);
+        return this;
+    }
+
+    public InputComponent onClick(IEventListener listener) {
+        return on(UIEvent.Type.CLICK, listener);
+    }
+
+    public void removeListener(UIEvent.Type type, IEventListener listener) {
+        remove(bubbleListeners, type, listener);
+        remove(captureListeners, type, listener);
+    }
+
+    private static void add(IEventListener[][] table, UIEvent.Type type, IEventListener listener) {
+        if (type == null || listener == null)
+            return;
+        int t = type.ordinal();
+        IEventListener[] cur = table[t];
+        if (cur == null) {
+            table[t] = new IEventListener[] { listener };
+            return;
+        }
+        IEventListener[] grown = new IEventListener[cur.length + 1];
+        System.arraycopy(cur, 0, grown, 0, cur.length);
+        grown[cur.length] = listener;
+        table[t] = grown;
+    }
+
+    private static void remove(IEventListener[][] table, UIEvent.Type type, IEventListener listener) {
+        if (type == null)
+            return;
+        int t = type.ordinal();
+        IEventListener[] cur = table[t];
+        if (cur == null)
+            return;
+        for (int i = 0; i < cur.length; i++) {
+            if (cur[i] == listener) {
+                if (cur.length == 1) {
+                    table[t] = null;
+                } else {
+                    IEventListener[] shrunk = new IEventListener[cur.length - 1];
+                    System.arraycopy(cur, 0, shrunk, 0, i);
+                    System.arraycopy(cur, i + 1, shrunk, i, cur.length - i - 1);
+                    table[t] = shrunk;
+                }
+                return;
+            }
+        }
+    }
+
+    boolean hasListeners(UIEvent.Type type, boolean capture) {
+        return (capture ? captureListeners : bubbleListeners)[type.ordinal()] != null;
+    }
+
+    /** 调用指定阶段的监听器；返回是否有监听器执行。 */
+    boolean fire(UIEvent event, boolean capture) {
+        IEventListener[] ls = (capture ? captureListeners : bubbleListeners)[event.getType().ordinal()];
+        if (ls == null)
+            return false;
+        for (IEventListener l : ls)
+            l.handle(event);
+        return true;
+    }
+
+    /** 是否参与命中测试（false 时事件会穿透到下层控件）。 */
+    public InputComponent setHitTestVisible(boolean v) {
+        this.hitTestVisible = v;
+        return this;
+    }
+
+    public boolean isHitTestVisible() {
+        return hitTestVisible;
+    }
+
+    /** 可获得焦点的控件在被按下时成为焦点，并接收键盘 / 字符事件。 */
+    public InputComponent setFocusable(boolean v) {
+        this.focusable = v;
+        return this;
+    }
+
+    public boolean isFocusable() {
+        return focusable;
+    }
+
+    public boolean isHovered() {
+        return hovered;
+    }
+
+    void setHovered(boolean v) {
+        this.hovered = v;
+    }
+
+    /** 鼠标在该控件上按下且尚未松开。 */
+    public boolean isPressed() {
+        return pressed;
+    }
+
+    void setPressed(boolean v) {
+        this.pressed = v;
+    }
+
+    public boolean isFocused() {
+        return focused;
+    }
+
+    void setFocused(boolean v) {
+        this.focused = v;
+    }
+
+    /** 本帧是否被绘制（即可被命中）。 */
+    boolean wasRenderedIn(long frame) {
+        return renderedFrame == frame;
+    }
+
+    boolean contains(double x, double y) {
+        return x >= boundsX && y >= boundsY && x < boundsX + boundsW && y < boundsY + boundsH;
+    }
+
+    @Override
+    public void render(ControlObject owner, DrawContext context, float tickDelta) {
+        HitTestIndex idx = HitTestIndex.current();
+        if (idx == null)
+            return;
+        idx.track(this, owner.getX(), owner.getY(), owner.getWidth(), owner.getHeight());
+    }
+
+    @Override
+    public int getPhases() {
+        // bounds are captured at render time, after layout of this frame is final; no update work
+        return PHASE_RENDER | PHASE_INPUT;
+    }
+
+    @Override
+    public int getPriority() {
+        // after Position/Scale, before Background and Panel so that parents are ordered below children
+        return 15;
+    }
+}
@@ -0,0 +1,249 @@
+package org.fish.uitoolkit.v2.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 将鼠标 / 键盘输入分发到控件树。
+ * <p>
+ * 鼠标事件的目标由 {@link HitTestIndex} 命中测试得到；键盘与字符事件发送给当前焦点控件。
+ * 事件沿目标的祖先链传播：先自根向目标捕获，再自目标向根冒泡；路径上只有带 {@link InputComponent}
+ * 的控件参与。
+ */
+public class InputDispatcher {
+    private final HitTestIndex index = new HitTestIndex();
+    private final UIEvent sharedEvent = new UIEvent();
+    private final List<InputComponent> path = new ArrayList<>();
+    private boolean dispatching = false;
+
+    private InputComponent hovered;
+    private InputComponent pressed;
+    private InputComponent focused;
+    private double lastMouseX = -1, lastMouseY = -1;
+
+    public HitTestIndex getIndex() {
+        return index;
+    }
+
+    /** 开始一帧的绘制：推进索引帧号并使其成为当前索引。 */
+    public void beginFrame(int width, int height) {
+        index.beginFrame(width, height);
+        HitTestIndex.push(index);
+    }
+
+    /**
+     * 结束一帧的绘制；若布局变化或滚动导致鼠标下的控件改变，则补发进入 / 离开事件
+     * （每帧一次单元格查找）。
+     */
+    public void endFrame() {
+        HitTestIndex.pop();
+        if (lastMouseX >= 0)
+            updateHover(lastMouseX, lastMouseY);
+    }
+
+    public ControlObject getHovered() {
+        return hovered != null ? hovered.getOwner() : null;
+    }
+
+    public ControlObject getFocused() {
+        return focused != null ? focused.getOwner() : null;
+    }
+
+    /** 命中测试：返回 (x, y) 处最上层的可交互控件。 */
+    public InputComponent hitTest(double x, double y) {
+        return index.hitTest(x, y);
+    }
+
+    public boolean mouseMoved(double x, double y) {
+        lastMouseX = x;
+        lastMouseY = y;
+        InputComponent target = updateHover(x, y);
+        if (target == null)
+            return false;
+        return dispatch(target, event(UIEvent.Type.MOUSE_MOVE, target).mouse(x, y, -1));
+    }
+
+    public boolean mouseClicked(double x, double y, int button) {
+        lastMouseX = x;
+        lastMouseY = y;
+        InputComponent target = updateHover(x, y);
+        if (pressed != null)
+            pressed.setPressed(false);
+        pressed = target;
+        if (target != null)
+            target.setPressed(true);
+        setFocus(findFocusable(target));
+        if (target == null)
+            return false;
+        return dispatch(target, event(UIEvent.Type.MOUSE_DOWN, target).mouse(x, y, button));
+    }
+
+    public boolean mouseReleased(double x, double y, int button) {
+        lastMouseX = x;
+        lastMouseY = y;
+        InputComponent target = updateHover(x, y);
+        InputComponent down = pressed;
+        pressed = null;
+        if (down != null)
+            down.setPressed(false);
+        boolean handled = false;
+        if (down != null)
+            handled = dispatch(down, event(UIEvent.Type.MOUSE_UP, down).mouse(x, y, button));
+        if (down != null && down == target)
+            handled |= dispatch(target, event(UIEvent.Type.CLICK, target).mouse(x, y, button));
+        return handled;
+    }
+
+    /** 拖拽事件发送给按下时命中的控件（指针捕获），与当前鼠标下的控件无关。 */
+    public boolean mouseDragged(double x, double y, int button, double dx, double dy) {
+        lastMouseX = x;
+        lastMouseY = y;
+        if (pressed == null)
+            return false;
+        return dispatch(pressed, event(UIEvent.Type.MOUSE_DRAG, pressed).mouse(x, y, button).delta(dx, dy));
+    }
+
+    public boolean mouseScrolled(double x, double y, double amount) {
+        lastMouseX = x;
+        lastMouseY = y;
+        InputComponent target = updateHover(x, y);
+        if (target == null)
+            return false;
+        return dispatch(target, event(UIEvent.Type.MOUSE_SCROLL, target).mouse(x, y, -1).scroll(amount));
+    }
+
+    public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+        if (focused == null)
+            return false;
+        return dispatch(focused, event(UIEvent.Type.KEY_DOWN, focused).key(keyCode, scanCode, modifiers));
+    }
+
+    public boolean keyReleased(int keyCode, int scanCode, int modifiers) {
+        if (focused == null)
+            return false;
+        return dispatch(focused, event(UIEvent.Type.KEY_UP, focused).key(keyCode, scanCode, modifiers));
+    }
+
+    public boolean charTyped(char chr, int modifiers) {
+        if (focused == null)
+            return false;
+        return dispatch(focused, event(UIEvent.Type.CHAR_TYPED, focused).character(chr, modifiers));
+    }
+
+    /** 清除悬停、按下与焦点状态（例如承载界面被隐藏时），并补发离开 / 失去焦点事件。 */
+    public void reset() {
+        if (pressed != null) {
+            pressed.setPressed(false);
+            pressed = null;
+        }
+        if (hovered != null) {
+            InputComponent prev = hovered;
+            hovered = null;
+            prev.setHovered(false);
+            dispatchDirect(prev, UIEvent.Type.MOUSE_LEAVE);
+        }
+        setFocus((InputComponent) null);
+        lastMouseX = lastMouseY = -1;
+    }
+
+    /** 显式设置焦点控件（必须带有 InputComponent）；传入 null 清除焦点。 */
+    public void setFocus(ControlObject control) {
+        setFocus(control != null ? control.getComponent(InputComponent.class) : null);
+    }
+
+    private void setFocus(InputComponent next) {
+        if (next == focused)
+            return;
+        InputComponent prev = focused;
+        focused = next;
+        if (prev != null) {
+            prev.setFocused(false);
+            dispatchDirect(prev, UIEvent.Type.FOCUS_LOST);
+        }
+        if (next != null) {
+            next.setFocused(true);
+            dispatchDirect(next, UIEvent.Type.FOCUS_GAINED);
+        }
+    }
+
+    private InputComponent updateHover(double x, double y) {
+        InputComponent target = index.hitTest(x, y);
+        if (target != hovered) {
+            InputComponent prev = hovered;
+            hovered = target;
+            if (prev != null) {
+                prev.setHovered(false);
+                dispatchDirect(prev, UIEvent.Type.MOUSE_LEAVE);
+            }
+            if (target != null) {
+                target.setHovered(true);
+                dispatchDirect(target, UIEvent.Type.MOUSE_ENTER);
+            }
+        }
+        return target;
+    }
+
+    private static InputComponent findFocusable(InputComponent from) {
+        for (ControlObject c = from != null ? from.getOwner() : null; c != null; c = c.getParent()) {
+            InputComponent ic = c.getComponent(InputComponent.class);
+            if (ic != null && ic.isFocusable())
+                return ic;
+        }
+        return null;
+    }
+
+    private UIEvent event(UIEvent.Type type, InputComponent target) {
+        // reuse the shared event unless a listener re-enters the dispatcher
+        UIEvent e = dispatching ? new UIEvent() : sharedEvent;
+        return e.reset(type, target.getOwner());
+    }
+
+    /** 非冒泡事件（进入 / 离开 / 焦点）只在目标自身上触发。 */
+    private void dispatchDirect(InputComponent target, UIEvent.Type type) {
+        if (!target.hasListeners(type, false))
+            return;
+        UIEvent e = event(type, target).mouse(lastMouseX, lastMouseY, -1);
+        e.setPhase(UIEvent.Phase.TARGET, target.getOwner());
+        boolean outer = dispatching;
+        dispatching = true;
+        try {
+            target.fire(e, false);
+        } finally {
+            dispatching = outer;
+        }
+    }
+
+    private boolean dispatch(InputComponent target, UIEvent e) {
+        boolean outer = dispatching;
+        List<InputComponent> p = outer ? new ArrayList<>() : path;
+        p.clear();
+        for (ControlObject c = target.getOwner(); c != null; c = c.getParent()) {
+            InputComponent ic = c.getComponent(InputComponent.class);
+            if (ic != null)
+                p.add(ic);
+        }
+        dispatching = true;
+        boolean handled = false;
+        try {
+            // capture: root -> target
+            for (int i = p.size() - 1; i >= 0 && !e.isPropagationStopped(); i--) {
+                InputComponent ic = p.get(i);
+                e.setPhase(i == 0 ? UIEvent.Phase.TARGET : UIEvent.Phase.CAPTURE, ic.getOwner());
+                handled |= ic.fire(e, true);
+            }
+            // target + bubble: target -> root
+            for (int i = 0, n = p.size(); i < n && !e.isPropagationStopped(); i++) {
+                InputComponent ic = p.get(i);
+                e.setPhase(i == 0 ? UIEvent.Phase.TARGET : UIEvent.Phase.BUBBLE, ic.getOwner());
+                handled |= ic.fire(e, false);
+            }
+        } finally {
+            dispatching = outer;
+            if (!outer)
+                p.clear();
+        }
+        return handled || e.isConsumed();
+    }
+}
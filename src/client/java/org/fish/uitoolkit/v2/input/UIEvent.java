@@ -0,0 +1,163 @@
+package org.fish.uitoolkit.v2.input;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 输入事件。事件先自根向目标进行捕获（CAPTURE），再在目标上触发（TARGET），最后自目标向根冒泡（BUBBLE）。
+ * <p>
+ * 事件对象由 {@link InputDispatcher} 复用，监听器不应在回调之外保留引用。
+ */
+public final class UIEvent {
+    public enum Type {
+        MOUSE_MOVE, MOUSE_DOWN, MOUSE_UP, CLICK, MOUSE_DRAG, MOUSE_SCROLL,
+        MOUSE_ENTER, MOUSE_LEAVE,
+        KEY_DOWN, KEY_UP, CHAR_TYPED,
+        FOCUS_GAINED, FOCUS_LOST
+    }
+
+    public enum Phase {
+        CAPTURE, TARGET, BUBBLE
+    }
+
+    private Type type;
+    private Phase phase;
+    private ControlObject target;
+    private ControlObject currentTarget;
+    private boolean propagationStopped;
+    private boolean consumed;
+
+    private double x, y;
+    private double deltaX, deltaY;
+    private double scrollAmount;
+    private int button;
+    private int keyCode, scanCode, modifiers;
+    private char chr;
+
+    UIEvent() {
+    }
+
+    UIEvent reset(Type type, ControlObject target) {
+        this.type = type;
+        this.target = target;
+        this.currentTarget = null;
+        this.phase = Phase.TARGET;
+        this.propagationStopped = false;
+        this.consumed = false;
+        this.x = this.y = this.deltaX = this.deltaY = this.scrollAmount = 0;
+        this.button = this.keyCode = this.scanCode = this.modifiers = 0;
+        this.chr = 0;
+        return this;
+    }
+
+    UIEvent mouse(double x, double y, int button) {
+        this.x = x;
+        this.y = y;
+        this.button = button;
+        return this;
+    }
+
+    UIEvent delta(double dx, double dy) {
+        this.deltaX = dx;
+        this.deltaY = dy;
+        return this;
+    }
+
+    UIEvent scroll(double amount) {
+        this.scrollAmount = amount;
+        return this;
+    }
+
+    UIEvent key(int keyCode, int scanCode, int modifiers) {
+        this.keyCode = keyCode;
+        this.scanCode = scanCode;
+        this.modifiers = modifiers;
+        return this;
+    }
+
+    UIEvent character(char chr, int modifiers) {
+        this.chr = chr;
+        this.modifiers = modifiers;
+        return this;
+    }
+
+    void setPhase(Phase phase, ControlObject currentTarget) {
+        this.phase = phase;
+        this.currentTarget = currentTarget;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /** 命中（或获得焦点）的控件。 */
+    public ControlObject getTarget() {
+        return target;
+    }
+
+    /** 当前正在处理事件的控件（捕获 / 冒泡路径上的某个祖先或目标自身）。 */
+    public ControlObject getCurrentTarget() {
+        return currentTarget;
+    }
+
+    /** 停止继续向后续控件传播（当前控件上的其它监听器仍会执行）。 */
+    public void stopPropagation() {
+        this.propagationStopped = true;
+    }
+
+    public boolean isPropagationStopped() {
+        return propagationStopped;
+    }
+
+    /** 标记事件已被处理。只要路径上有监听器执行或事件被标记，UIManager 的输入方法即返回 true。 */
+    public void consume() {
+        this.consumed = true;
+    }
+
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getDeltaX() {
+        return deltaX;
+    }
+
+    public double getDeltaY() {
+        return deltaY;
+    }
+
+    public double getScrollAmount() {
+        return scrollAmount;
+    }
+
+    public int getButton() {
+        return button;
+    }
+
+    public int getKeyCode() {
+        return keyCode;
+    }
+
+    public int getScanCode() {
+        return scanCode;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public char getChar() {
+        return chr;
+    }
+}
@@ -1,5 +1,6 @@
 package org.fish.uitoolkit.v2.interfaces;
 
+import org.fish.uitoolkit.v2.UpdatePolicy;
 import org.fish.uitoolkit.v2.controls.ControlObject;
 import net.minecraft.client.gui.DrawContext;
 
@@ -9,19 +10,130 @@ import net.minecraft.client.gui.DrawContext;
  * store a reference to their owner control.
  */
 public abstract class IComponent {
+    /** Phase flag: has per-frame work in {@link #update}. */
+    public static final int PHASE_UPDATE = 1;
+    /** Phase flag: sizes or positions controls; layout runs in the update pass, so it is dispatched with update. */
+    public static final int PHASE_LAYOUT = 2;
+    /** Phase flag: draws (or registers hit boxes) in {@link #render}. */
+    public static final int PHASE_RENDER = 4;
+    /** Phase flag: receives input events (routed through hit boxes, not by dispatch lists). */
+    public static final int PHASE_INPUT = 8;
+
+    // phases detected once per class from which of update/render the class overrides
+    private static final ClassValue<Integer> DETECTED_PHASES = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int phases = 0;
+            if (declares(type, "update", ControlObject.class, float.class))
+                phases |= PHASE_UPDATE;
+            if (declares(type, "render", ControlObject.class, DrawContext.class, float.class))
+                phases |= PHASE_RENDER;
+            return phases;
+        }
+    };
+
     // optional owner reference (set when the component is added to a ControlObject)
     private ControlObject owner;
+    // optional per-component update policy; null runs whenever the owner updates
+    private UpdatePolicy updatePolicy;
+    private long nextUpdateFrame;
+    private long nextUpdateNanos;
+    private boolean updateRequested;
 
     public ControlObject getOwner() { return owner; }
 
     public void setOwner(ControlObject owner) { this.owner = owner; }
 
-    /** Called every frame to update component state. */
-    public abstract void update(ControlObject owner, float tickDelta);
+    /** Called every frame to update component state (only if the component declares {@link #PHASE_UPDATE}). */
+    public void update(ControlObject owner, float tickDelta) {}
+
+    /**
+     * Layout-only step for components that declare {@link #PHASE_LAYOUT}. The owner calls it instead of
+     * {@link #update} on frames where its own update is throttled, so positions still follow the parent.
+     * The default runs {@link #update}; components that also do non-layout work should override it.
+     */
+    public void updateLayout(ControlObject owner, float tickDelta) {
+        update(owner, tickDelta);
+    }
 
     /** Optional render step for components that need to draw. */
     public void render(ControlObject owner, DrawContext context, float tickDelta) {}
 
+    /**
+     * Throttle this component's update independently of its owner (null = every owner update).
+     * The owner's own policy still applies first.
+     */
+    public IComponent setUpdatePolicy(UpdatePolicy policy) {
+        this.updatePolicy = policy;
+        this.nextUpdateFrame = 0;
+        this.nextUpdateNanos = 0;
+        return this;
+    }
+
+    public UpdatePolicy getUpdatePolicy() { return updatePolicy; }
+
+    /** Run update on the next owner update regardless of the policy. */
+    public void requestUpdate() {
+        this.updateRequested = true;
+        if (owner != null)
+            owner.requestUpdate();
+    }
+
+    /**
+     * Called by the owner with the scheduler's frame clock; returns whether update should run
+     * now and, if so, advances the next due point.
+     */
+    public final boolean isUpdateDue(long frame, long nanos) {
+        UpdatePolicy p = updatePolicy;
+        if (p == null || p.isEveryFrame())
+            return true;
+        boolean due = updateRequested;
+        switch (p.getMode()) {
+            case FRAMES:
+                due |= frame >= nextUpdateFrame;
+                break;
+            case FIXED_RATE:
+                due |= nanos >= nextUpdateNanos;
+                break;
+            default:
+                // on demand: once initially, then only when requested
+                due |= nextUpdateFrame == 0;
+                break;
+        }
+        if (!due)
+            return false;
+        updateRequested = false;
+        nextUpdateFrame = frame + Math.max(1, p.getFrames());
+        nextUpdateNanos = Math.max(nanos, nextUpdateNanos) + p.getIntervalNanos();
+        return true;
+    }
+
     /** Priority number: smaller values run earlier. Default 0. */
     public int getPriority() { return 0; }
+
+    /**
+     * Phases this component takes part in (PHASE_* flags). The owner reads them when it rebuilds its
+     * per-phase dispatch lists, so a component is never called in a phase it does not declare.
+     * The default is detected from whether the class overrides update/render (cached per class).
+     * Components whose phases depend on state must call {@link #phasesChanged()} when they change.
+     */
+    public int getPhases() { return DETECTED_PHASES.get(getClass()); }
+
+    /** Ask the owner to rebuild its dispatch lists because {@link #getPhases()} changed. */
+    protected final void phasesChanged() {
+        if (owner != null)
+            owner.componentsChanged();
+    }
+
+    /** Whether type (or a superclass below IComponent) declares the given method. */
+    static boolean declares(Class<?> type, String name, Class<?>... params) {
+        for (Class<?> c = type; c != null && c != IComponent.class && c != Object.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, params);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
 }
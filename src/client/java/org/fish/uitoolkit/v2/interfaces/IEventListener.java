@@ -0,0 +1,9 @@
+package org.fish.uitoolkit.v2.interfaces;
+
+import org.fish.uitoolkit.v2.input.UIEvent;
+
+/** 输入事件监听器。 */
+@FunctionalInterface
+public interface IEventListener {
+    void handle(UIEvent event);
+}
@@ -0,0 +1,12 @@
+package org.fish.uitoolkit.v2.interfaces;
+
+import org.fish.uitoolkit.v2.input.InputComponent;
+
+/**
+ * 由以不同坐标空间绘制子控件的容器（例如滚动容器）实现：命中测试落在该容器上时，
+ * 由容器自己在其子控件中继续查找。
+ */
+public interface IHitTestDelegate {
+    /** 在容器的子控件中查找 (x, y)（屏幕坐标）处的最上层组件；没有时返回 null。 */
+    InputComponent hitTestChildren(double x, double y);
+}
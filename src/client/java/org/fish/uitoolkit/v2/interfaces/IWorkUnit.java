@@ -0,0 +1,16 @@
+package org.fish.uitoolkit.v2.interfaces;
+
+/**
+ * 可分片执行的工作单元。{@link org.fish.uitoolkit.v2.WorkQueue} 在每帧的时间预算内反复调用 {@link #step()}，
+ * 因此每一步应当足够小（例如构建一个子控件、测量一行文本）。
+ */
+@FunctionalInterface
+public interface IWorkUnit {
+    /** 执行一小步工作；全部完成时返回 true。 */
+    boolean step();
+
+    /** 当前进度（0..1），未知时返回负数。 */
+    default float getProgress() {
+        return -1f;
+    }
+}
@@ -0,0 +1,340 @@
+package org.fish.uitoolkit.v2.layout;
+
+import java.io.Reader;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import org.fish.uitoolkit.utils.TextureRegion;
+import org.fish.uitoolkit.v2.RenderType;
+import org.fish.uitoolkit.v2.UpdatePolicy;
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.components.PositionComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.style.Styles;
+import org.fish.uitoolkit.v2.vtree.Node;
+import org.fish.uitoolkit.v2.vtree.NodeType;
+import org.fish.uitoolkit.v2.vtree.Props;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * 把 JSON 布局编译为 {@link LayoutTemplate}。
+ * <p>
+ * 格式（所有字段可选，除 type 外均有默认值）：
+ * <pre>
+ * {
+ *   "type": "control",            // control | label | scroll_view | 已注册的类型
+ *   "key": "title",
+ *   "size": [200, 20], "position": [0, 0], "offset": [0, -12],
+ *   "anchor": "bottom_center", "pivot": "bottom_center",   // PositionComponent.Anchor
+ *   "visibility": "visible", "opacity": 1.0, "updateHz": 4,
+ *   "style": "button",            // Styles.get 中的共享样式（主题切换时自动生效）
+ *   "layout": { "orientation": "vertical", "spacing": 2, "padding": [4, 4, 4, 4],   // 面板内边距
+ *               "align": "center", "autoSize": "both" },
+ *   "padding": 4,                 // Label 的文本内边距（其它控件忽略）
+ *   "background": "widget_panel" | { "region": "widget_panel" | "texture": "ns:path", "u":0, "v":0, "w":16, "h":16,
+ *                  "textureWidth":256, "textureHeight":256, "insets": 4, "mode": "nineslice", "color": "#FFFFFF" },
+ *   "text": "...", "textColor": "#FFFFFF", "textScale": 1.0, "hAlign": "center", "vAlign": "center",
+ *   "children": [ ... ]
+ * }
+ * </pre>
+ * 未知字段与非法值会抛出带 JSON 路径的 {@link IllegalArgumentException}。编译可在任意线程进行。
+ */
+public final class LayoutCompiler {
+    private LayoutCompiler() {
+    }
+
+    public static LayoutTemplate compile(Identifier id, Reader reader) {
+        return compile(id, JsonParser.parseReader(reader));
+    }
+
+    public static LayoutTemplate compile(Identifier id, String json) {
+        return compile(id, JsonParser.parseString(json));
+    }
+
+    public static LayoutTemplate compile(Identifier id, JsonElement json) {
+        return new LayoutTemplate(id, compileNode(json, "$"));
+    }
+
+    private static Node compileNode(JsonElement el, String path) {
+        if (el == null || !el.isJsonObject())
+            throw error(path, "expected an object");
+        JsonObject o = el.getAsJsonObject();
+        String typeName = o.has("type") ? string(o.get("type"), path + ".type") : "control";
+        NodeType<?> type = LayoutRegistry.getType(typeName);
+        if (type == null)
+            throw error(path + ".type", "unknown type '" + typeName + "'");
+        Node.Builder b = Node.create(type);
+
+        for (Map.Entry<String, JsonElement> e : o.entrySet()) {
+            String k = e.getKey();
+            JsonElement v = e.getValue();
+            String p = path + "." + k;
+            switch (k) {
+                case "type":
+                    break;
+                case "key":
+                    b.key(v.isJsonPrimitive() && v.getAsJsonPrimitive().isNumber() ? (Object) v.getAsInt()
+                            : string(v, p));
+                    break;
+                case "size": {
+                    int[] a = ints(v, p, 2);
+                    b.size(a[0], a[1]);
+                    break;
+                }
+                case "position": {
+                    int[] a = ints(v, p, 2);
+                    b.position(a[0], a[1]);
+                    break;
+                }
+                case "offset": {
+                    int[] a = ints(v, p, 2);
+                    b.set(Props.OFFSET, Props.pack(a[0], a[1]));
+                    break;
+                }
+                case "anchor":
+                    b.set(Props.PARENT_ANCHOR, enumValue(PositionComponent.Anchor.class, v, p));
+                    break;
+                case "pivot":
+                    b.set(Props.PIVOT, enumValue(PositionComponent.Anchor.class, v, p));
+                    break;
+                case "visibility":
+                    b.set(Props.VISIBILITY, enumValue(ControlObject.Visibility.class, v, p));
+                    break;
+                case "opacity":
+                    b.set(Props.OPACITY, number(v, p).floatValue());
+                    break;
+                case "updateHz":
+                    b.set(Props.UPDATE_POLICY, UpdatePolicy.hz(number(v, p).floatValue()));
+                    break;
+                case "style":
+                    b.set(Props.STYLE, Styles.get(string(v, p)));
+                    break;
+                case "layout":
+                    compileLayout(b, v, p);
+                    break;
+                case "padding":
+                    b.set(Props.TEXT_PADDING, padding(v, p));
+                    break;
+                case "background":
+                    b.set(Props.BACKGROUND, background(v, p));
+                    break;
+                case "text":
+                    b.set(Props.TEXT, string(v, p));
+                    break;
+                case "textColor":
+                    b.set(Props.TEXT_COLOR, color(v, p));
+                    break;
+                case "textScale":
+                    b.set(Props.TEXT_SCALE, number(v, p).floatValue());
+                    break;
+                case "hAlign":
+                    b.set(Props.H_ALIGN, enumValue(Label.HAlign.class, v, p));
+                    break;
+                case "vAlign":
+                    b.set(Props.V_ALIGN, enumValue(Label.VAlign.class, v, p));
+                    break;
+                case "children": {
+                    if (!v.isJsonArray())
+                        throw error(p, "expected an array");
+                    JsonArray arr = v.getAsJsonArray();
+                    for (int i = 0; i < arr.size(); i++)
+                        b.child(compileNode(arr.get(i), p + "[" + i + "]"));
+                    break;
+                }
+                default:
+                    throw error(p, "unknown field");
+            }
+        }
+        return b.build();
+    }
+
+    private static void compileLayout(Node.Builder b, JsonElement el, String path) {
+        if (!el.isJsonObject())
+            throw error(path, "expected an object");
+        for (Map.Entry<String, JsonElement> e : el.getAsJsonObject().entrySet()) {
+            JsonElement v = e.getValue();
+            String p = path + "." + e.getKey();
+            switch (e.getKey()) {
+                case "orientation":
+                    b.set(Props.ORIENTATION, enumValue(PanelComponent.Orientation.class, v, p));
+                    break;
+                case "spacing":
+                    b.set(Props.SPACING, number(v, p).intValue());
+                    break;
+                case "padding":
+                    b.set(Props.PADDING, padding(v, p));
+                    break;
+                case "align":
+                    b.set(Props.CROSS_ALIGN, enumValue(PanelComponent.Align.class, v, p));
+                    break;
+                case "autoSize":
+                    b.set(Props.AUTO_SIZE, autoSize(v, p));
+                    break;
+                default:
+                    throw error(p, "unknown field");
+            }
+        }
+    }
+
+    private static int autoSize(JsonElement v, String path) {
+        if (v.isJsonPrimitive() && v.getAsJsonPrimitive().isBoolean())
+            return v.getAsBoolean() ? Props.AUTO_WIDTH | Props.AUTO_HEIGHT : 0;
+        switch (string(v, path).toLowerCase(Locale.ROOT)) {
+            case "width":
+                return Props.AUTO_WIDTH;
+            case "height":
+                return Props.AUTO_HEIGHT;
+            case "both":
+                return Props.AUTO_WIDTH | Props.AUTO_HEIGHT;
+            case "none":
+                return 0;
+            default:
+                throw error(path, "expected width, height, both or none");
+        }
+    }
+
+    /** 数字 = 四边相同；[h, v]；[left, top, right, bottom]。 */
+    private static long padding(JsonElement v, String path) {
+        if (v.isJsonPrimitive()) {
+            int p = number(v, path).intValue();
+            return Props.pack4(p, p, p, p);
+        }
+        if (v.isJsonArray() && v.getAsJsonArray().size() == 2) {
+            int[] a = ints(v, path, 2);
+            return Props.pack4(a[0], a[1], a[0], a[1]);
+        }
+        int[] a = ints(v, path, 4);
+        return Props.pack4(a[0], a[1], a[2], a[3]);
+    }
+
+    private static Props.Background background(JsonElement v, String path) {
+        if (v.isJsonNull())
+            return null;
+        if (v.isJsonPrimitive())
+            return new Props.Background(namedRegion(string(v, path), path), RenderType.STRETCH);
+        if (!v.isJsonObject())
+            throw error(path, "expected a region name or an object");
+        JsonObject o = v.getAsJsonObject();
+        TextureRegion region;
+        if (o.has("region")) {
+            region = namedRegion(string(o.get("region"), path + ".region"), path + ".region");
+        } else if (o.has("texture")) {
+            int[] insets = o.has("insets") ? insets(o.get("insets"), path + ".insets") : new int[4];
+            region = LayoutRegistry.inlineRegion(string(o.get("texture"), path + ".texture"),
+                    intField(o, "u", 0, path), intField(o, "v", 0, path),
+                    intField(o, "w", 16, path), intField(o, "h", 16, path),
+                    intField(o, "textureWidth", 256, path), intField(o, "textureHeight", 256, path),
+                    insets[0], insets[1], insets[2], insets[3]);
+        } else {
+            throw error(path, "expected 'region' or 'texture'");
+        }
+        int flags = o.has("mode") ? mode(o.get("mode"), path + ".mode")
+                : (region.hasInsets() ? RenderType.NINESLICE : RenderType.STRETCH);
+        int color = o.has("color") ? color(o.get("color"), path + ".color") : 0xFFFFFF;
+        return new Props.Background(region, flags, color);
+    }
+
+    private static int[] insets(JsonElement v, String path) {
+        long p = padding(v, path);
+        int[] a = { Props.unpack4(p, 0), Props.unpack4(p, 1), Props.unpack4(p, 2), Props.unpack4(p, 3) };
+        for (int i : a) {
+            if (i < 0)
+                throw error(path, "insets must not be negative");
+        }
+        return a;
+    }
+
+    private static TextureRegion namedRegion(String name, String path) {
+        TextureRegion r = LayoutRegistry.getRegion(name);
+        if (r == null)
+            throw error(path, "unknown region '" + name + "'");
+        return r;
+    }
+
+    /** "nineslice" 或 ["stretch", "repeat"] 之类的组合。 */
+    private static int mode(JsonElement v, String path) {
+        if (v.isJsonArray()) {
+            int flags = 0;
+            JsonArray arr = v.getAsJsonArray();
+            for (int i = 0; i < arr.size(); i++)
+                flags |= mode(arr.get(i), path + "[" + i + "]");
+            return flags;
+        }
+        switch (string(v, path).toLowerCase(Locale.ROOT)) {
+            case "stretch":
+                return RenderType.STRETCH;
+            case "repeat":
+                return RenderType.REPEAT;
+            case "clamp":
+                return RenderType.CLAMP;
+            case "nineslice":
+                return RenderType.NINESLICE;
+            default:
+                throw error(path, "expected stretch, repeat, clamp or nineslice");
+        }
+    }
+
+    private static int intField(JsonObject o, String name, int def, String path) {
+        return o.has(name) ? number(o.get(name), path + "." + name).intValue() : def;
+    }
+
+    private static int[] ints(JsonElement v, String path, int n) {
+        if (!v.isJsonArray() || v.getAsJsonArray().size() != n)
+            throw error(path, "expected an array of " + n + " numbers");
+        JsonArray arr = v.getAsJsonArray();
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++)
+            out[i] = number(arr.get(i), path + "[" + i + "]").intValue();
+        return out;
+    }
+
+    private static Number number(JsonElement v, String path) {
+        if (v.isJsonPrimitive() && v.getAsJsonPrimitive().isNumber())
+            return v.getAsNumber();
+        throw error(path, "expected a number");
+    }
+
+    private static String string(JsonElement v, String path) {
+        if (v.isJsonPrimitive() && v.getAsJsonPrimitive().isString())
+            return v.getAsString();
+        throw error(path, "expected a string");
+    }
+
+    /** "#RRGGBB"、"0xRRGGBB" 或数字。 */
+    private static int color(JsonElement v, String path) {
+        JsonPrimitive p = v.isJsonPrimitive() ? v.getAsJsonPrimitive() : null;
+        if (p != null && p.isNumber())
+            return p.getAsInt() & 0xFFFFFF;
+        String s = string(v, path).trim();
+        if (s.startsWith("#"))
+            s = s.substring(1);
+        else if (s.startsWith("0x") || s.startsWith("0X"))
+            s = s.substring(2);
+        try {
+            return Integer.parseUnsignedInt(s, 16) & 0xFFFFFF;
+        } catch (NumberFormatException ex) {
+            throw error(path, "invalid color '" + v.getAsString() + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> cls, JsonElement v, String path) {
+        String s = string(v, path);
+        try {
+            return Enum.valueOf(cls, s.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw error(path, "unknown " + cls.getSimpleName() + " '" + s + "'");
+        }
+    }
+
+    private static IllegalArgumentException error(String path, String message) {
+        return new IllegalArgumentException(path + ": " + message);
+    }
+}
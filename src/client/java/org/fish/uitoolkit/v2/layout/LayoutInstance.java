@@ -0,0 +1,65 @@
+package org.fish.uitoolkit.v2.layout;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.vtree.Reconciler;
+
+/**
+ * 模板的一个实例。实例通过 {@link Reconciler} 挂到父控件下，因此模板更新（例如资源热重载）时
+ * 只把差异应用到现有控件，控件上的状态与缓存得以保留。
+ */
+public final class LayoutInstance {
+    private final ControlObject parent;
+    private final Reconciler reconciler;
+    private LayoutTemplate template;
+    private boolean disposed = false;
+
+    LayoutInstance(ControlObject parent, LayoutTemplate template) {
+        this.parent = parent;
+        this.reconciler = new Reconciler(parent);
+        this.template = template;
+        reconciler.render(template.getRoot());
+    }
+
+    public ControlObject getParent() {
+        return parent;
+    }
+
+    public LayoutTemplate getTemplate() {
+        return template;
+    }
+
+    /** 模板根节点对应的控件。 */
+    public ControlObject getRoot() {
+        return reconciler.getControl(0);
+    }
+
+    /** 按 key 路径查找控件，路径从模板根节点的 key 开始。 */
+    public ControlObject find(Object... keyPath) {
+        return reconciler.find(keyPath);
+    }
+
+    /** 把实例更新为另一个模板，只应用差异。 */
+    public void apply(LayoutTemplate t) {
+        if (disposed || t == null || t == template)
+            return;
+        this.template = t;
+        reconciler.render(t.getRoot());
+    }
+
+    /** 最近一次更新的协调统计。 */
+    public Reconciler getReconciler() {
+        return reconciler;
+    }
+
+    /** 从父控件中移除实例的控件，之后不再接收热重载。 */
+    public void dispose() {
+        if (disposed)
+            return;
+        disposed = true;
+        reconciler.clear();
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
@@ -0,0 +1,140 @@
+package org.fish.uitoolkit.v2.layout;
+
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+import net.fabricmc.fabric.api.resource.SimpleResourceReloadListener;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.profiler.Profiler;
+
+/**
+ * 从资源包加载布局：assets/&lt;namespace&gt;/layouts/**.json。
+ * <p>
+ * 解析与编译在资源重载的后台线程上进行；应用阶段（主线程）替换模板，并把变化的模板协调到所有存活的实例上，
+ * 实例中未变化的控件保持不动。编译失败的文件保留上一次成功的模板，错误信息可通过 {@link #getErrors()} 查看。
+ */
+public final class LayoutLoader implements SimpleResourceReloadListener<LayoutLoader.Result> {
+    public static final String FOLDER = "layouts";
+    private static final Identifier ID = new Identifier("uitoolkit", "layouts");
+    private static final LayoutLoader INSTANCE = new LayoutLoader();
+
+    private volatile Map<Identifier, LayoutTemplate> templates = Collections.emptyMap();
+    private volatile Map<Identifier, String> errors = Collections.emptyMap();
+    // templates registered from code survive reloads
+    private final Map<Identifier, LayoutTemplate> registered = new HashMap<>();
+    private final List<WeakReference<LayoutInstance>> instances = new ArrayList<>();
+
+    public static LayoutLoader getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Identifier getFabricId() {
+        return ID;
+    }
+
+    /** 按 id 获取模板（例如资源 assets/uitoolkit/layouts/menu/main.json 的 id 为 uitoolkit:menu/main）。 */
+    public LayoutTemplate get(Identifier id) {
+        LayoutTemplate t = templates.get(id);
+        return t != null ? t : registered.get(id);
+    }
+
+    /** 注册一个由代码提供的模板（资源包中同 id 的文件优先）。 */
+    public void register(LayoutTemplate template) {
+        if (template != null && template.getId() != null)
+            registered.put(template.getId(), template);
+    }
+
+    /**
+     * 在 parent 下实例化模板。实例会在模板热重载时自动更新，直到被 dispose。找不到模板时返回 null。
+     */
+    public LayoutInstance instantiate(Identifier id, ControlObject parent) {
+        LayoutTemplate t = get(id);
+        if (t == null)
+            return null;
+        LayoutInstance inst = t.instantiate(parent);
+        instances.add(new WeakReference<>(inst));
+        return inst;
+    }
+
+    /** 上一次重载中编译失败的文件及错误信息。 */
+    public Map<Identifier, String> getErrors() {
+        return errors;
+    }
+
+    public int getTemplateCount() {
+        return templates.size();
+    }
+
+    @Override
+    public CompletableFuture<Result> load(ResourceManager manager, Profiler profiler, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<Identifier, LayoutTemplate> previous = templates;
+            Result result = new Result();
+            Map<Identifier, Resource> found = manager.findResources(FOLDER, id -> id.getPath().endsWith(".json"));
+            for (Map.Entry<Identifier, Resource> e : found.entrySet()) {
+                Identifier file = e.getKey();
+                Identifier id = templateId(file);
+                try (Reader reader = e.getValue().getReader()) {
+                    result.templates.put(id, LayoutCompiler.compile(id, reader));
+                } catch (Exception ex) {
+                    result.errors.put(id, file + ": " + ex.getMessage());
+                    LayoutTemplate old = previous.get(id);
+                    if (old != null)
+                        result.templates.put(id, old);
+                }
+            }
+            return result;
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> apply(Result data, ResourceManager manager, Profiler profiler, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            templates = Collections.unmodifiableMap(data.templates);
+            errors = Collections.unmodifiableMap(data.errors);
+            refreshInstances();
+        }, executor);
+    }
+
+    /** 把当前模板应用到所有存活的实例（只协调模板发生变化的实例），并清理已回收或已 dispose 的实例。 */
+    private void refreshInstances() {
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            LayoutInstance inst = instances.get(i).get();
+            if (inst == null || inst.isDisposed()) {
+                instances.remove(i);
+                continue;
+            }
+            LayoutTemplate current = get(inst.getTemplate().getId());
+            if (current != null)
+                inst.apply(current);
+        }
+    }
+
+    /** layouts/menu/main.json -> namespace:menu/main */
+    private static Identifier templateId(Identifier file) {
+        String path = file.getPath();
+        if (path.startsWith(FOLDER + "/"))
+            path = path.substring(FOLDER.length() + 1);
+        if (path.endsWith(".json"))
+            path = path.substring(0, path.length() - ".json".length());
+        return new Identifier(file.getNamespace(), path);
+    }
+
+    /** 后台加载的结果（仅在 load 与 apply 之间传递）。 */
+    public static final class Result {
+        final Map<Identifier, LayoutTemplate> templates = new HashMap<>();
+        final Map<Identifier, String> errors = new HashMap<>();
+    }
+}
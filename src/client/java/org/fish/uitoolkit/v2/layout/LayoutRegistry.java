@@ -0,0 +1,63 @@
+package org.fish.uitoolkit.v2.layout;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.fish.uitoolkit.utils.Regions;
+import org.fish.uitoolkit.utils.TextureRegion;
+import org.fish.uitoolkit.v2.vtree.NodeType;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * 布局文件中可按名称引用的节点类型与纹理区域。
+ * <p>
+ * 名称不区分大小写。注册表可以在资源加载线程上被读取，因此使用并发映射。
+ */
+public final class LayoutRegistry {
+    private static final Map<String, NodeType<?>> TYPES = new ConcurrentHashMap<>();
+    private static final Map<String, TextureRegion> REGIONS = new ConcurrentHashMap<>();
+    // inline regions are interned by their description so a reload yields the same instance
+    private static final Map<String, TextureRegion> INLINE = new ConcurrentHashMap<>();
+
+    static {
+        registerType("control", NodeType.CONTROL);
+        registerType("label", NodeType.LABEL);
+        registerType("scroll_view", NodeType.SCROLL_VIEW);
+
+        registerRegion("widget_panel", Regions.WIDGET_PANEL);
+        registerRegion("widget_progress_border", Regions.WIDGET_PROGRESS_BORDER);
+        registerRegion("widget_progress_fill", Regions.WIDGET_PROGRESS_FILL);
+    }
+
+    private LayoutRegistry() {
+    }
+
+    public static void registerType(String name, NodeType<?> type) {
+        if (name != null && type != null)
+            TYPES.put(name.toLowerCase(Locale.ROOT), type);
+    }
+
+    public static NodeType<?> getType(String name) {
+        return name == null ? null : TYPES.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public static void registerRegion(String name, TextureRegion region) {
+        if (name != null && region != null)
+            REGIONS.put(name.toLowerCase(Locale.ROOT), region);
+    }
+
+    public static TextureRegion getRegion(String name) {
+        return name == null ? null : REGIONS.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /** 返回内联描述的纹理区域；相同描述总是返回同一实例。 */
+    static TextureRegion inlineRegion(String texture, int u, int v, int w, int h, int texW, int texH,
+            int left, int top, int right, int bottom) {
+        String key = texture + '|' + u + ',' + v + ',' + w + ',' + h + '|' + texW + 'x' + texH + '|' + left + ','
+                + top + ',' + right + ',' + bottom;
+        return INLINE.computeIfAbsent(key, k -> new TextureRegion(new Identifier(texture), u, v, w, h, texW, texH)
+                .withInsets(left, top, right, bottom));
+    }
+}
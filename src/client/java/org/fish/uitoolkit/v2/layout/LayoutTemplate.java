@@ -0,0 +1,36 @@
+package org.fish.uitoolkit.v2.layout;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.vtree.Node;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * 编译后的布局模板：一棵不可变的 {@link Node} 树，可被任意多次实例化，也可在线程间共享。
+ * 实例化只调用节点类型的工厂与属性 setter，不解析 JSON、不使用反射。
+ */
+public final class LayoutTemplate {
+    private final Identifier id;
+    private final Node root;
+
+    public LayoutTemplate(Identifier id, Node root) {
+        if (root == null)
+            throw new IllegalArgumentException("root must not be null");
+        this.id = id;
+        this.root = root;
+    }
+
+    /** 模板 id（来自资源文件时为 namespace:path，不含 layouts/ 前缀与 .json 后缀）。 */
+    public Identifier getId() {
+        return id;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    /** 在 parent 下创建模板的一个实例。 */
+    public LayoutInstance instantiate(ControlObject parent) {
+        return new LayoutInstance(parent, this);
+    }
+}
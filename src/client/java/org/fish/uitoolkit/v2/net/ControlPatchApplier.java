@@ -0,0 +1,151 @@
+package org.fish.uitoolkit.v2.net;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.fish.uitoolkit.net.UiDecoder;
+import org.fish.uitoolkit.net.UiNodeType;
+import org.fish.uitoolkit.net.UiPatchHandler;
+import org.fish.uitoolkit.net.UiProp;
+import org.fish.uitoolkit.net.UiTree;
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.components.PositionComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.controls.ProgressBar;
+
+/**
+ * 把服务端界面的改动直接写入控件：节点 id 映射到 {@link ControlObject}，属性改动调用对应的设置方法，
+ * 控件树只在节点创建或移除时变化，从不整体重建。
+ * <p>
+ * 节点挂在构造时给定的容器下；二维属性（位置、尺寸、偏移）的另一分量从解码器的当前值读取。
+ * 与控件类型不符的属性被忽略。只应在渲染线程上使用。
+ */
+public final class ControlPatchApplier implements UiPatchHandler {
+    private static final PositionComponent.Anchor[] ANCHORS = PositionComponent.Anchor.values();
+    private static final PanelComponent.Orientation[] ORIENTATIONS = PanelComponent.Orientation.values();
+
+    private final ControlObject container;
+    private final UiDecoder decoder;
+    private ControlObject[] controls = new ControlObject[16];
+
+    public ControlPatchApplier(ControlObject container, UiDecoder decoder) {
+        this.container = container;
+        this.decoder = decoder;
+    }
+
+    public ControlObject getContainer() {
+        return container;
+    }
+
+    /** 节点 id 对应的控件；不存在时返回 null。 */
+    public ControlObject get(int id) {
+        return id > UiTree.ROOT && id < controls.length ? controls[id] : null;
+    }
+
+    @Override
+    public void reset() {
+        List<ControlObject> children = container.getChildren();
+        for (ControlObject c : children.toArray(new ControlObject[0]))
+            container.removeChild(c);
+        Arrays.fill(controls, null);
+    }
+
+    @Override
+    public void create(int id, int parentId, UiNodeType type, int arg) {
+        ControlObject parent = parentId == UiTree.ROOT ? container : get(parentId);
+        if (parent == null)
+            throw new IllegalArgumentException("unknown parent " + parentId);
+        ControlObject c = switch (type) {
+            case PANEL -> new ControlObject();
+            case LABEL -> new Label("");
+            case PROGRESS_BAR -> new ProgressBar(arg > 0 ? arg : 10);
+        };
+        if (id >= controls.length)
+            controls = Arrays.copyOf(controls, Math.max(id + 1, controls.length * 2));
+        ControlObject old = controls[id];
+        if (old != null && old.getParent() != null)
+            old.getParent().removeChild(old);
+        controls[id] = c;
+        parent.addChild(c);
+    }
+
+    @Override
+    public void remove(int id) {
+        ControlObject c = get(id);
+        if (c == null)
+            return;
+        controls[id] = null;
+        if (c.getParent() != null)
+            c.getParent().removeChild(c);
+    }
+
+    @Override
+    public void setInt(int id, UiProp prop, int value) {
+        ControlObject c = get(id);
+        if (c == null)
+            return;
+        switch (prop) {
+            case X, Y -> c.setLocalPosition(decoder.getInt(id, UiProp.X), decoder.getInt(id, UiProp.Y));
+            case WIDTH, HEIGHT -> c.setSize(decoder.getInt(id, UiProp.WIDTH), decoder.getInt(id, UiProp.HEIGHT));
+            case OFFSET_X, OFFSET_Y -> c.setOffset(decoder.getInt(id, UiProp.OFFSET_X),
+                    decoder.getInt(id, UiProp.OFFSET_Y));
+            case VISIBLE -> c.setVisible(value != 0);
+            case ALIGN -> {
+                PositionComponent.Anchor a = ANCHORS[Math.floorMod(value, ANCHORS.length)];
+                c.setAlignment(a, a);
+            }
+            case ORIENTATION -> panel(c).setOrientation(ORIENTATIONS[Math.floorMod(value, ORIENTATIONS.length)]);
+            case SPACING -> panel(c).setSpacing(value);
+            case PADDING -> {
+                if (c instanceof Label l)
+                    l.setPadding(value);
+                else
+                    panel(c).setPadding(value, value, value, value);
+            }
+            case TEXT_COLOR -> {
+                if (c instanceof Label l)
+                    l.setTextColor(value);
+            }
+            case BAR_COLOR -> {
+                if (c instanceof ProgressBar b)
+                    b.setColor(value);
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void setFloat(int id, UiProp prop, float value) {
+        ControlObject c = get(id);
+        if (c == null)
+            return;
+        switch (prop) {
+            case OPACITY -> c.setOpacity(value);
+            case TEXT_SCALE -> {
+                if (c instanceof Label l)
+                    l.setTextScale(value);
+            }
+            case PROGRESS -> {
+                if (c instanceof ProgressBar b)
+                    b.setProgress(value);
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void setText(int id, UiProp prop, String value) {
+        if (prop == UiProp.TEXT && get(id) instanceof Label l)
+            l.setText(value);
+    }
+
+    private static PanelComponent panel(ControlObject c) {
+        PanelComponent p = c.getComponent(PanelComponent.class);
+        if (p == null)
+            p = (PanelComponent) c.addComponent(new PanelComponent());
+        return p;
+    }
+}
@@ -0,0 +1,140 @@
+package org.fish.uitoolkit.v2.net;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.fish.uitoolkit.net.UiBuffer;
+import org.fish.uitoolkit.net.UiDecoder;
+import org.fish.uitoolkit.net.UiProtocol;
+import org.fish.uitoolkit.v2.HudCompositor;
+import org.fish.uitoolkit.v2.UIManager;
+
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.Identifier;
+
+/**
+ * 客户端接收服务端界面：每个界面编号对应一个 {@link UIManager}，作为图层注册到 {@link HudCompositor}，
+ * 收到的帧在渲染线程上解码并直接修改该图层的控件。断开连接时移除全部图层。
+ */
+public final class ServerUiReceiver {
+    public static final Identifier CHANNEL = new Identifier(UiProtocol.CHANNEL_NAMESPACE, UiProtocol.CHANNEL_PATH);
+    private static final ServerUiReceiver INSTANCE = new ServerUiReceiver();
+
+    private final Map<Integer, RemoteHud> huds = new HashMap<>();
+    private boolean installed = false;
+    private int baseZ = 100;
+
+    public static ServerUiReceiver getInstance() {
+        return INSTANCE;
+    }
+
+    private ServerUiReceiver() {
+    }
+
+    /** 注册网络接收与断开连接回调（只注册一次）。 */
+    public synchronized void install() {
+        if (installed)
+            return;
+        installed = true;
+        ClientPlayNetworking.registerGlobalReceiver(CHANNEL, (client, handler, buf, responseSender) -> {
+            // the buffer is released after this call returns, so copy the frame before leaving the network thread
+            int hudId = buf.readVarInt();
+            byte[] frame = new byte[buf.readableBytes()];
+            buf.readBytes(frame);
+            client.execute(() -> receive(hudId, frame));
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(this::clear));
+    }
+
+    /** 服务端界面图层的 z 值为 baseZ + 界面编号（默认 100，位于普通图层之上）。 */
+    public ServerUiReceiver setBaseZ(int z) {
+        this.baseZ = z;
+        return this;
+    }
+
+    /** 应用一帧（渲染线程）。也可用于回放录制的帧。 */
+    public void receive(int hudId, byte[] frame) {
+        RemoteHud hud = huds.get(hudId);
+        if (hud == null) {
+            hud = new RemoteHud(hudId);
+            hud.layer = HudCompositor.getInstance().register("uitoolkit:server/" + hudId, hud.ui, baseZ + hudId);
+            huds.put(hudId, hud);
+        }
+        hud.apply(frame);
+    }
+
+    public RemoteHud getHud(int hudId) {
+        return huds.get(hudId);
+    }
+
+    /** 移除全部服务端界面。 */
+    public void clear() {
+        for (RemoteHud hud : huds.values())
+            hud.layer.unregister();
+        huds.clear();
+    }
+
+    /** 一个服务端界面在客户端上的状态。 */
+    public static final class RemoteHud {
+        private final int id;
+        private final UIManager ui = new UIManager();
+        private final UiDecoder decoder = new UiDecoder();
+        private final ControlPatchApplier applier = new ControlPatchApplier(ui.getRoot(), decoder);
+        private HudCompositor.Layer layer;
+        private long frames = 0;
+        private long bytes = 0;
+        private int errors = 0;
+        private long lastApplyNanos = 0;
+
+        private RemoteHud(int id) {
+            this.id = id;
+        }
+
+        private void apply(byte[] frame) {
+            long t0 = System.nanoTime();
+            try {
+                decoder.apply(UiBuffer.wrap(frame), applier);
+            } catch (IllegalArgumentException e) {
+                // out of sync with the server: drop everything and wait for the next snapshot
+                errors++;
+                decoder.reset();
+                applier.reset();
+            }
+            lastApplyNanos = System.nanoTime() - t0;
+            frames++;
+            bytes += frame.length;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public UIManager getManager() {
+            return ui;
+        }
+
+        public ControlPatchApplier getApplier() {
+            return applier;
+        }
+
+        public long getFrameCount() {
+            return frames;
+        }
+
+        public long getByteCount() {
+            return bytes;
+        }
+
+        /** 无法解码而被丢弃的帧数。 */
+        public int getErrorCount() {
+            return errors;
+        }
+
+        /** 上一帧的解码与应用耗时（纳秒）。 */
+        public long getLastApplyNanos() {
+            return lastApplyNanos;
+        }
+    }
+}
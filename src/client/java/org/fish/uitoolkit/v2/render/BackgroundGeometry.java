@@ -0,0 +1,178 @@
+package org.fish.uitoolkit.v2.render;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fish.uitoolkit.utils.TextureRegion;
+import org.fish.uitoolkit.v2.RenderType;
+
+/**
+ * 背景几何（九宫格 / 平铺 / 拉伸）的预计算与共享缓存。
+ * <p>
+ * 几何按 (region, width, height, flags) 缓存，相同纹理与尺寸的控件共享同一个 {@link QuadList}。
+ * 返回的 QuadList 为只读共享对象，调用方不能修改。
+ */
+public final class BackgroundGeometry {
+    private static final int MAX_ENTRIES = 512;
+
+    private static final Map<Key, QuadList> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, QuadList> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private BackgroundGeometry() {
+    }
+
+    /**
+     * 获取（或构建并缓存）指定区域在目标尺寸下的几何。
+     */
+    public static QuadList obtain(TextureRegion region, int w, int h, int flags) {
+        Key key = new Key(region, w, h, mode(region, flags));
+        QuadList cached = CACHE.get(key);
+        if (cached == null) {
+            cached = new QuadList();
+            build(cached, region, w, h, flags);
+            CACHE.put(key, cached);
+        }
+        return cached;
+    }
+
+    /** 清空共享缓存（例如资源重载后纹理区域发生变化时）。 */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    public static int cacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * 将实际使用的渲染模式归一化：九宫格仅在区域有 insets 时生效，否则回退到平铺 / 拉伸。
+     */
+    public static int mode(TextureRegion region, int flags) {
+        if ((flags & RenderType.NINESLICE) != 0 && region.hasInsets())
+            return RenderType.NINESLICE;
+        if ((flags & RenderType.REPEAT) != 0)
+            return RenderType.REPEAT;
+        return RenderType.STRETCH;
+    }
+
+    /** 将几何写入 out（先清空）。 */
+    public static void build(QuadList out, TextureRegion region, int w, int h, int flags) {
+        out.clear();
+        if (w <= 0 || h <= 0)
+            return;
+        switch (mode(region, flags)) {
+            case RenderType.NINESLICE:
+                buildNineSlice(out, region, w, h);
+                break;
+            case RenderType.REPEAT:
+                buildRepeat(out, region, w, h);
+                break;
+            default:
+                out.add(0, 0, w, h, region.getU(), region.getV(), region.getW(), region.getH());
+                break;
+        }
+    }
+
+    private static void buildNineSlice(QuadList out, TextureRegion region, int w, int h) {
+        int left = region.getInsetLeft();
+        int top = region.getInsetTop();
+        int right = region.getInsetRight();
+        int bottom = region.getInsetBottom();
+        int srcW = region.getW();
+        int srcH = region.getH();
+        int srcCenterW = srcW - left - right;
+        int srcCenterH = srcH - top - bottom;
+
+        // destination (on-screen) sizes for corners/edges, clamp to available size
+        int dstLeft = Math.min(left, w);
+        int dstTop = Math.min(top, h);
+        int dstRight = Math.min(right, Math.max(0, w - dstLeft));
+        int dstBottom = Math.min(bottom, Math.max(0, h - dstTop));
+        int dstCenterW = Math.max(0, w - dstLeft - dstRight);
+        int dstCenterH = Math.max(0, h - dstTop - dstBottom);
+
+        int sx0 = region.getU();
+        int sy0 = region.getV();
+        int sx1 = sx0 + left;
+        int sx2 = sx0 + srcW - right;
+        int sy1 = sy0 + top;
+        int sy2 = sy0 + srcH - bottom;
+
+        int dx2 = dstLeft + dstCenterW;
+        int dy2 = dstTop + dstCenterH;
+
+        // corners
+        out.add(0, 0, dstLeft, dstTop, sx0, sy0, left, top);
+        out.add(dx2, 0, dstRight, dstTop, sx2, sy0, right, top);
+        out.add(0, dy2, dstLeft, dstBottom, sx0, sy2, left, bottom);
+        out.add(dx2, dy2, dstRight, dstBottom, sx2, sy2, right, bottom);
+        // edges and center
+        out.add(dstLeft, 0, dstCenterW, dstTop, sx1, sy0, srcCenterW, top);
+        out.add(dstLeft, dy2, dstCenterW, dstBottom, sx1, sy2, srcCenterW, bottom);
+        out.add(0, dstTop, dstLeft, dstCenterH, sx0, sy1, left, srcCenterH);
+        out.add(dx2, dstTop, dstRight, dstCenterH, sx2, sy1, right, srcCenterH);
+        out.add(dstLeft, dstTop, dstCenterW, dstCenterH, sx1, sy1, srcCenterW, srcCenterH);
+    }
+
+    private static void buildRepeat(QuadList out, TextureRegion region, int w, int h) {
+        int tileW = region.getW();
+        int tileH = region.getH();
+        if (tileW <= 0 || tileH <= 0)
+            return;
+        // tile 1:1 from the top-left corner; the last row/column samples a cropped tile
+        for (int ty = 0; ty < h; ty += tileH) {
+            int th = Math.min(tileH, h - ty);
+            for (int tx = 0; tx < w; tx += tileW) {
+                int tw = Math.min(tileW, w - tx);
+                out.add(tx, ty, tw, th, region.getU(), region.getV(), tw, th);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final TextureRegion region;
+        private final int w;
+        private final int h;
+        private final int mode;
+        private final int insetL, insetT, insetR, insetB;
+
+        Key(TextureRegion region, int w, int h, int mode) {
+            this.region = region;
+            this.w = w;
+            this.h = h;
+            this.mode = mode;
+            this.insetL = region.getInsetLeft();
+            this.insetT = region.getInsetTop();
+            this.insetR = region.getInsetRight();
+            this.insetB = region.getInsetBottom();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return region == k.region && w == k.w && h == k.h && mode == k.mode
+                    && insetL == k.insetL && insetT == k.insetT && insetR == k.insetR && insetB == k.insetB;
+        }
+
+        @Override
+        public int hashCode() {
+            int r = System.identityHashCode(region);
+            r = 31 * r + w;
+            r = 31 * r + h;
+            r = 31 * r + mode;
+            r = 31 * r + insetL;
+            r = 31 * r + insetT;
+            r = 31 * r + insetR;
+            r = 31 * r + insetB;
+            return r;
+        }
+    }
+}
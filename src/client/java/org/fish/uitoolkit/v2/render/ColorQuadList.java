@@ -0,0 +1,102 @@
+package org.fish.uitoolkit.v2.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import org.joml.Matrix4f;
+
+/**
+ * 纯色四边形列表：每个 quad 以 4 个 float（x1, y1, x2, y2，相对控件原点）和一个 ARGB 颜色存放。
+ * <p>
+ * 与 {@link QuadList} 相同，全部 quad 在同一个 buffer 中提交，只产生一次 draw call，
+ * 而不是每个 quad 调用一次 {@link DrawContext#fill}。clear 之后复用已有数组，容量足够时不分配内存。
+ */
+public final class ColorQuadList {
+    public static final int STRIDE = 4;
+
+    private float[] coords;
+    private int[] colors;
+    private int count = 0;
+
+    public ColorQuadList() {
+        this(16);
+    }
+
+    public ColorQuadList(int initialQuads) {
+        int n = Math.max(1, initialQuads);
+        this.coords = new float[n * STRIDE];
+        this.colors = new int[n];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** 预留至少 quads 个 quad 的容量。 */
+    public void ensureCapacity(int quads) {
+        if (colors.length < quads) {
+            int n = Math.max(quads, colors.length * 2);
+            float[] c = new float[n * STRIDE];
+            System.arraycopy(coords, 0, c, 0, count * STRIDE);
+            coords = c;
+            int[] k = new int[n];
+            System.arraycopy(colors, 0, k, 0, count);
+            colors = k;
+        }
+    }
+
+    /** 追加一个 quad；空矩形或完全透明的 quad 会被忽略。 */
+    public void add(float x1, float y1, float x2, float y2, int argb) {
+        if (x2 <= x1 || y2 <= y1 || (argb >>> 24) == 0)
+            return;
+        ensureCapacity(count + 1);
+        int base = count * STRIDE;
+        coords[base] = x1;
+        coords[base + 1] = y1;
+        coords[base + 2] = x2;
+        coords[base + 3] = y2;
+        colors[count] = argb;
+        count++;
+    }
+
+    /**
+     * 以 (x, y) 为原点绘制全部 quad（一次 draw call）。
+     * 整体透明度沿用调用方通过 setShaderColor 设置的 shader color。
+     */
+    public void draw(DrawContext context, int x, int y) {
+        if (count == 0)
+            return;
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+        RenderSystem.setShader(GameRenderer::getPositionColorProgram);
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+        buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR);
+        for (int i = 0, base = 0; i < count; i++, base += STRIDE) {
+            float x1 = x + coords[base];
+            float y1 = y + coords[base + 1];
+            float x2 = x + coords[base + 2];
+            float y2 = y + coords[base + 3];
+            int c = colors[i];
+            int a = c >>> 24, r = (c >> 16) & 0xFF, g = (c >> 8) & 0xFF, b = c & 0xFF;
+            buffer.vertex(matrix, x1, y1, 0f).color(r, g, b, a).next();
+            buffer.vertex(matrix, x1, y2, 0f).color(r, g, b, a).next();
+            buffer.vertex(matrix, x2, y2, 0f).color(r, g, b, a).next();
+            buffer.vertex(matrix, x2, y1, 0f).color(r, g, b, a).next();
+        }
+        BufferRenderer.drawWithGlobalProgram(buffer.end());
+    }
+}
@@ -0,0 +1,103 @@
+package org.fish.uitoolkit.v2.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
+
+/**
+ * 紧凑的纹理四边形列表：每个 quad 以 8 个 int 连续存放
+ * (dx, dy, dw, dh, u, v, regionW, regionH)，目标坐标相对于控件原点。
+ * <p>
+ * 由于坐标是相对的，控件移动时几何数据无需重建，只有尺寸或纹理区域变化时才需要重新计算。
+ */
+public final class QuadList {
+    public static final int STRIDE = 8;
+
+    private int[] data;
+    private int count = 0;
+
+    public QuadList() {
+        this(9);
+    }
+
+    public QuadList(int initialQuads) {
+        this.data = new int[Math.max(1, initialQuads) * STRIDE];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** 追加一个 quad；宽或高为 0 的 quad 会被忽略。 */
+    public void add(int dx, int dy, int dw, int dh, int u, int v, int rw, int rh) {
+        if (dw <= 0 || dh <= 0 || rw <= 0 || rh <= 0)
+            return;
+        int base = count * STRIDE;
+        if (base + STRIDE > data.length) {
+            int[] grown = new int[data.length * 2];
+            System.arraycopy(data, 0, grown, 0, base);
+            data = grown;
+        }
+        data[base] = dx;
+        data[base + 1] = dy;
+        data[base + 2] = dw;
+        data[base + 3] = dh;
+        data[base + 4] = u;
+        data[base + 5] = v;
+        data[base + 6] = rw;
+        data[base + 7] = rh;
+        count++;
+    }
+
+    /** 返回第 index 个 quad 的第 field 个分量（0..STRIDE-1）。 */
+    public int get(int index, int field) {
+        return data[index * STRIDE + field];
+    }
+
+    /**
+     * 以 (x, y) 为原点绘制全部 quad。所有 quad 在同一个 buffer 中提交，只产生一次 draw call，
+     * 而不是每个 quad 调用一次 {@link DrawContext#drawTexture}。
+     * 着色（tint/alpha）沿用调用方通过 setShaderColor 设置的 shader color。
+     */
+    public void draw(DrawContext context, Identifier texture, int x, int y, int textureW, int textureH) {
+        if (count == 0 || textureW <= 0 || textureH <= 0)
+            return;
+        float invW = 1f / textureW;
+        float invH = 1f / textureH;
+        RenderSystem.setShaderTexture(0, texture);
+        RenderSystem.setShader(GameRenderer::getPositionTexProgram);
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+        buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE);
+        for (int i = 0, base = 0; i < count; i++, base += STRIDE) {
+            float x1 = x + data[base];
+            float y1 = y + data[base + 1];
+            float x2 = x1 + data[base + 2];
+            float y2 = y1 + data[base + 3];
+            float u1 = data[base + 4] * invW;
+            float v1 = data[base + 5] * invH;
+            float u2 = (data[base + 4] + data[base + 6]) * invW;
+            float v2 = (data[base + 5] + data[base + 7]) * invH;
+            buffer.vertex(matrix, x1, y1, 0f).texture(u1, v1).next();
+            buffer.vertex(matrix, x1, y2, 0f).texture(u1, v2).next();
+            buffer.vertex(matrix, x2, y2, 0f).texture(u2, v2).next();
+            buffer.vertex(matrix, x2, y1, 0f).texture(u2, v1).next();
+        }
+        BufferRenderer.drawWithGlobalProgram(buffer.end());
+    }
+}
@@ -0,0 +1,137 @@
+package org.fish.uitoolkit.v2.screen;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import net.minecraft.client.MinecraftClient;
+import org.fish.uitoolkit.v2.WorkQueue;
+import org.fish.uitoolkit.v2.interfaces.IWorkUnit;
+
+/**
+ * 按键缓存已构建的 {@link UIScreen}，最多保留 capacity 个（最近最少使用的先被淘汰）。
+ * <p>
+ * 池中的界面关闭后保留控件树，再次 {@link #open} 时直接显示，不重新构建。被淘汰的界面释放控件树；
+ * 若淘汰时它仍在显示，则在关闭时释放。只应在渲染线程上使用。
+ */
+public final class ScreenPool {
+    private final int capacity;
+    private final LinkedHashMap<Object, UIScreen> screens = new LinkedHashMap<>(16, 0.75f, true);
+    private int hits = 0;
+    private int misses = 0;
+
+    public ScreenPool(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return screens.size();
+    }
+
+    /** 打开时命中池（无需构建）的次数。 */
+    public int getHitCount() {
+        return hits;
+    }
+
+    public int getMissCount() {
+        return misses;
+    }
+
+    /** 取出（必要时创建并放入池中）key 对应的界面，不打开。 */
+    public UIScreen get(Object key, Supplier<? extends UIScreen> factory) {
+        UIScreen screen = screens.get(key);
+        if (screen == null) {
+            screen = factory.get();
+            screen.setRetained(true);
+            screens.put(key, screen);
+            trim();
+        }
+        return screen;
+    }
+
+    /** 打开 key 对应的界面；池中已有且已构建时立即显示。 */
+    public UIScreen open(Object key, Supplier<? extends UIScreen> factory) {
+        UIScreen screen = get(key, factory);
+        if (screen.isBuilt())
+            hits++;
+        else
+            misses++;
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client != null)
+            client.setScreen(screen);
+        return screen;
+    }
+
+    /**
+     * 预构建界面：向 queue 提交一个低优先级任务，按 {@link UIScreen#buildSteps} 的步骤构建控件树，
+     * 再用单独的一步按当前窗口尺寸布局一次，使第一次打开也无需等待。queue 通常为 HUD 所用 {@code UIManager} 的 {@code getWork()}。
+     * <p>
+     * 队列只在步骤之间检查每帧预算，因此单个步骤的耗时不受预算限制：默认的构建回调是一整步，
+     * 会在某一帧内一次性执行（适合在加载界面等不在意卡顿的时机调用）；大型界面应重写 {@code buildSteps} 把构建拆小，
+     * 构建才会分散到多帧中。最后的布局一步是对整棵树的一次 update。
+     */
+    public WorkQueue.Task prebuild(Object key, Supplier<? extends UIScreen> factory, WorkQueue queue) {
+        return queue.submit(new IWorkUnit() {
+            private IWorkUnit steps;
+
+            @Override
+            public boolean step() {
+                if (steps == null) {
+                    UIScreen screen = get(key, factory);
+                    if (screen.isBuilt())
+                        return true;
+                    MinecraftClient client = MinecraftClient.getInstance();
+                    int w = 0, h = 0;
+                    if (client != null && client.getWindow() != null) {
+                        w = client.getWindow().getScaledWidth();
+                        h = client.getWindow().getScaledHeight();
+                    }
+                    steps = screen.prebuildSteps(w, h);
+                }
+                return steps.step();
+            }
+
+            @Override
+            public float getProgress() {
+                return steps != null ? steps.getProgress() : 0f;
+            }
+        }, WorkQueue.PRIORITY_LOW);
+    }
+
+    public boolean contains(Object key) {
+        return screens.containsKey(key);
+    }
+
+    /** 从池中移除并释放一个界面。 */
+    public void remove(Object key) {
+        UIScreen screen = screens.remove(key);
+        if (screen != null)
+            release(screen);
+    }
+
+    /** 释放池中全部界面。 */
+    public void clear() {
+        for (UIScreen screen : screens.values())
+            release(screen);
+        screens.clear();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Object, UIScreen>> it = screens.entrySet().iterator();
+        while (screens.size() > capacity && it.hasNext()) {
+            UIScreen eldest = it.next().getValue();
+            it.remove();
+            release(eldest);
+        }
+    }
+
+    private static void release(UIScreen screen) {
+        // an open screen keeps its tree until it is closed
+        screen.setRetained(false);
+    }
+}
@@ -0,0 +1,256 @@
+package org.fish.uitoolkit.v2.screen;
+
+import java.util.function.Consumer;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.text.Text;
+import org.fish.uitoolkit.v2.UIManager;
+import org.fish.uitoolkit.v2.interfaces.IWorkUnit;
+
+/**
+ * 承载一棵 {@link UIManager} 控件树的 {@link Screen}：转发绘制与输入事件。
+ * <p>
+ * 控件树在第一次显示（或 {@link #prebuild}）时构建一次。{@link #setRetained(boolean) 保留} 的界面关闭后不销毁控件树，
+ * 布局与文本缓存也随之保留，再次打开时无需重建；{@link ScreenPool} 以 LRU 方式管理这类界面。
+ * 不保留的界面在关闭时释放控件树。
+ * <p>
+ * 可以传入构建回调，也可以在子类中重写 {@link #build(UIManager)}；需要分多帧预构建的大型界面重写 {@link #buildSteps(UIManager)}。
+ */
+public class UIScreen extends Screen {
+    private final Consumer<UIManager> builder;
+    private UIManager manager;
+    // tree being pre-built step by step; becomes the manager once complete
+    private UIManager building;
+    private IWorkUnit pendingSteps;
+    private boolean retained = false;
+    private boolean pauses = false;
+    private boolean open = false;
+    private int buildCount = 0;
+
+    /** 由子类重写 {@link #build(UIManager)} 构建控件树。 */
+    protected UIScreen(Text title) {
+        this(title, null);
+    }
+
+    public UIScreen(Text title, Consumer<UIManager> builder) {
+        super(title);
+        this.builder = builder;
+    }
+
+    /** 构建控件树；默认调用构造时传入的回调。 */
+    protected void build(UIManager ui) {
+        if (builder != null)
+            builder.accept(ui);
+    }
+
+    /**
+     * 把构建拆成工作步骤，供 {@link #prebuildSteps} 在多帧中执行（每步应当很小，例如添加一行控件）。
+     * 默认整个 {@link #build(UIManager)} 是一步，即一次性的成本。直接打开时所有步骤在同一帧内执行完。
+     */
+    protected IWorkUnit buildSteps(UIManager ui) {
+        return () -> {
+            build(ui);
+            return true;
+        };
+    }
+
+    /** 控件树（尚未构建时构建）。 */
+    public UIManager getManager() {
+        ensureBuilt();
+        return manager;
+    }
+
+    public boolean isBuilt() {
+        return manager != null;
+    }
+
+    /** 控件树被构建的次数（保留的界面重复打开时保持为 1）。 */
+    public int getBuildCount() {
+        return buildCount;
+    }
+
+    /** 关闭后是否保留控件树。 */
+    public UIScreen setRetained(boolean retained) {
+        this.retained = retained;
+        if (!retained && !open)
+            dispose();
+        return this;
+    }
+
+    public boolean isRetained() {
+        return retained;
+    }
+
+    /** 单人游戏中打开时是否暂停游戏（默认否）。 */
+    public UIScreen setPauses(boolean pauses) {
+        this.pauses = pauses;
+        return this;
+    }
+
+    /** 当前是否显示中。 */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * 在首次显示之前立即构建控件树，并按给定尺寸执行一次布局以预热缓存。应在渲染线程上调用；
+     * 要分散到多帧中执行时使用 {@link #prebuildSteps}。
+     */
+    public void prebuild(int width, int height) {
+        ensureBuilt();
+        if (width > 0 && height > 0)
+            manager.prepare(width, height);
+    }
+
+    /**
+     * 预构建的工作单元：依次执行 {@link #buildSteps} 的各步，完成后再用单独的一步按给定尺寸布局一次。
+     * 由 {@code WorkQueue} 在每帧预算内执行（见 {@link ScreenPool#prebuild}）。构建完成前打开界面时，剩余的步骤在打开时执行完。
+     */
+    public IWorkUnit prebuildSteps(int width, int height) {
+        return new IWorkUnit() {
+            private boolean started = false;
+
+            @Override
+            public boolean step() {
+                if (manager != null) {
+                    // the build finished (or the screen was opened); one layout pass remains
+                    if (width > 0 && height > 0 && !open)
+                        manager.prepare(width, height);
+                    return true;
+                }
+                if (building == null) {
+                    // disposed (e.g. evicted from the pool) before the build completed
+                    if (started)
+                        return true;
+                    started = true;
+                    startBuild();
+                }
+                if (pendingSteps.step())
+                    finishBuild();
+                return false;
+            }
+
+            @Override
+            public float getProgress() {
+                if (manager != null)
+                    return 1f;
+                return pendingSteps != null ? pendingSteps.getProgress() : 0f;
+            }
+        };
+    }
+
+    /** 释放控件树；下次显示时重新构建。 */
+    public void dispose() {
+        if (manager != null) {
+            manager.getWork().clear();
+            manager = null;
+        }
+        building = null;
+        pendingSteps = null;
+    }
+
+    private void ensureBuilt() {
+        if (manager != null)
+            return;
+        if (building == null)
+            startBuild();
+        // opened before a staged pre-build finished: run the remaining steps now
+        while (!pendingSteps.step()) {
+        }
+        finishBuild();
+    }
+
+    private void startBuild() {
+        building = new UIManager();
+        pendingSteps = buildSteps(building);
+    }
+
+    private void finishBuild() {
+        manager = building;
+        building = null;
+        pendingSteps = null;
+        buildCount++;
+    }
+
+    // --- Screen lifecycle ---
+
+    @Override
+    protected void init() {
+        // called on open and on every resize; the tree itself is only built once
+        open = true;
+        ensureBuilt();
+        manager.prepare(width, height);
+    }
+
+    @Override
+    public void removed() {
+        open = false;
+        if (manager == null)
+            return;
+        // hover, press and focus must not leak into the next time the screen is shown
+        manager.getInput().reset();
+        if (!retained)
+            dispose();
+    }
+
+    @Override
+    public boolean shouldPause() {
+        return pauses;
+    }
+
+    @Override
+    public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        renderBackground(context);
+        if (manager != null)
+            manager.render(context, delta);
+        super.render(context, mouseX, mouseY, delta);
+    }
+
+    // --- input forwarding ---
+
+    @Override
+    public void mouseMoved(double x, double y) {
+        if (manager != null)
+            manager.mouseMoved(x, y);
+    }
+
+    @Override
+    public boolean mouseClicked(double x, double y, int button) {
+        return (manager != null && manager.mouseClicked(x, y, button)) || super.mouseClicked(x, y, button);
+    }
+
+    @Override
+    public boolean mouseReleased(double x, double y, int button) {
+        return (manager != null && manager.mouseReleased(x, y, button)) || super.mouseReleased(x, y, button);
+    }
+
+    @Override
+    public boolean mouseDragged(double x, double y, int button, double dx, double dy) {
+        return (manager != null && manager.mouseDragged(x, y, button, dx, dy))
+                || super.mouseDragged(x, y, button, dx, dy);
+    }
+
+    @Override
+    public boolean mouseScrolled(double x, double y, double amount) {
+        return (manager != null && manager.mouseScrolled(x, y, amount)) || super.mouseScrolled(x, y, amount);
+    }
+
+    @Override
+    public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+        // unhandled keys (e.g. Escape) fall through to the vanilla behavior
+        return (manager != null && manager.keyPressed(keyCode, scanCode, modifiers))
+                || super.keyPressed(keyCode, scanCode, modifiers);
+    }
+
+    @Override
+    public boolean keyReleased(int keyCode, int scanCode, int modifiers) {
+        return (manager != null && manager.keyReleased(keyCode, scanCode, modifiers))
+                || super.keyReleased(keyCode, scanCode, modifiers);
+    }
+
+    @Override
+    public boolean charTyped(char chr, int modifiers) {
+        return (manager != null && manager.charTyped(chr, modifiers)) || super.charTyped(chr, modifiers);
+    }
+}
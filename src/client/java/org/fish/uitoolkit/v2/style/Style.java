@@ -0,0 +1,263 @@
+package org.fish.uitoolkit.v2.style;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 共享（享元）样式对象。
+ * <p>
+ * 样式只保存显式设置过的属性（稀疏存储），其余属性沿父样式链继承，最后取属性的默认值。
+ * 每个样式可以有按 {@link StyleState} 区分的变体（例如悬停时的文本颜色），变体只包含与基础样式不同的属性。
+ * <p>
+ * 解析结果按状态组合缓存在样式自身上，因此引用同一样式的所有控件共享同一份解析结果。
+ * 样式、其变体或任一祖先被修改时，解析缓存通过版本戳失效（下次访问时重新解析），无需遍历控件树。
+ */
+public final class Style {
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final int[] NO_KEYS = new int[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final String name;
+    // base style for variants: edits to a variant invalidate the base style's caches
+    private final Style base;
+    private Style parent;
+    private int[] keys = NO_KEYS;
+    private Object[] values = NO_VALUES;
+    private int size = 0;
+    private Style[] variants;
+    private long version;
+    private Resolved[] cache;
+
+    public Style(String name) {
+        this(name, null);
+    }
+
+    public Style(String name, Style parent) {
+        this(name, parent, null);
+    }
+
+    private Style(String name, Style parent, Style base) {
+        this.name = name;
+        this.parent = parent;
+        this.base = base;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /** 创建一个匿名的派生样式（用于单个控件的局部覆盖）。 */
+    public static Style derive(Style parent) {
+        return new Style(null, parent);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Style getParent() {
+        return parent;
+    }
+
+    /** 设置父样式（继承来源）。形成环时抛出 IllegalArgumentException。 */
+    public Style setParent(Style p) {
+        if (p == this.parent)
+            return this;
+        for (Style s = p; s != null; s = s.parent)
+            if (s == this)
+                throw new IllegalArgumentException("style inheritance cycle: " + this);
+        this.parent = p;
+        touch();
+        return this;
+    }
+
+    public <V> Style set(StyleProperty<V> prop, V value) {
+        if (prop == null)
+            return this;
+        int i = find(prop.index);
+        if (i >= 0) {
+            if (values[i] == value || (values[i] != null && values[i].equals(value)))
+                return this;
+            values[i] = value;
+        } else {
+            if (size == keys.length) {
+                int n = Math.max(4, size * 2);
+                keys = Arrays.copyOf(keys, n);
+                values = Arrays.copyOf(values, n);
+            }
+            keys[size] = prop.index;
+            values[size] = value;
+            size++;
+        }
+        touch();
+        return this;
+    }
+
+    /** 移除属性（之后从父样式继承）。 */
+    public Style unset(StyleProperty<?> prop) {
+        int i = prop != null ? find(prop.index) : -1;
+        if (i < 0)
+            return this;
+        size--;
+        keys[i] = keys[size];
+        values[i] = values[size];
+        values[size] = null;
+        touch();
+        return this;
+    }
+
+    /** 是否在本样式上显式设置了该属性（不含继承）。 */
+    public boolean has(StyleProperty<?> prop) {
+        return prop != null && find(prop.index) >= 0;
+    }
+
+    /** 本样式上显式设置的值（不含继承）；未设置时返回 null。 */
+    @SuppressWarnings("unchecked")
+    public <V> V getOwn(StyleProperty<V> prop) {
+        int i = prop != null ? find(prop.index) : -1;
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    /** 返回（必要时创建）指定状态下的变体。变体不能再有变体。 */
+    public Style variant(StyleState state) {
+        if (base != null)
+            throw new IllegalStateException("variants cannot have variants");
+        if (variants == null)
+            variants = new Style[StyleState.VALUES.length];
+        Style v = variants[state.ordinal()];
+        if (v == null) {
+            v = new Style(name == null ? null : name + ":" + state.name().toLowerCase(), null, this);
+            variants[state.ordinal()] = v;
+        }
+        return v;
+    }
+
+    /** 用另一个样式的属性、变体与父样式替换本样式的内容（保持本对象的身份，用于切换主题）。 */
+    public Style copyFrom(Style other) {
+        if (other == null || other == this)
+            return this;
+        this.keys = Arrays.copyOf(other.keys, other.keys.length);
+        this.values = Arrays.copyOf(other.values, other.values.length);
+        this.size = other.size;
+        if (other.variants != null) {
+            variants = new Style[other.variants.length];
+            for (int i = 0; i < variants.length; i++) {
+                if (other.variants[i] != null)
+                    variants[i] = new Style(null, null, this).copyFrom(other.variants[i]);
+            }
+        } else {
+            variants = null;
+        }
+        setParent(other.parent);
+        touch();
+        return this;
+    }
+
+    /**
+     * 版本戳：本样式、其变体以及所有祖先的最大版本号。任何相关修改都会使其严格增大。
+     */
+    public long getStamp() {
+        long s = version;
+        for (Style p = parent; p != null; p = p.parent)
+            if (p.version > s)
+                s = p.version;
+        return s;
+    }
+
+    /** 按状态组合（{@link StyleState#bit()} 的按位或）解析所有属性，结果被缓存直到版本戳变化。 */
+    public Resolved resolve(int stateMask) {
+        int mask = stateMask & (StyleState.MASK_COUNT - 1);
+        long stamp = getStamp();
+        if (cache == null)
+            cache = new Resolved[StyleState.MASK_COUNT];
+        Resolved r = cache[mask];
+        if (r != null && r.stamp == stamp && r.values.length == StyleProperty.count())
+            return r;
+        Object[] out = new Object[StyleProperty.count()];
+        Arrays.fill(out, Resolved.UNSET);
+        fill(out, mask);
+        r = new Resolved(out, stamp);
+        cache[mask] = r;
+        return r;
+    }
+
+    /** 从最远的祖先开始写入，后代覆盖祖先；同一样式内变体覆盖基础值。 */
+    private void fill(Object[] out, int mask) {
+        if (parent != null)
+            parent.fill(out, mask);
+        copyInto(out);
+        if (variants != null && mask != 0) {
+            for (int s = 0; s < variants.length; s++) {
+                if ((mask & (1 << s)) != 0 && variants[s] != null)
+                    variants[s].copyInto(out);
+            }
+        }
+    }
+
+    private void copyInto(Object[] out) {
+        for (int i = 0; i < size; i++)
+            if (keys[i] < out.length)
+                out[keys[i]] = values[i];
+    }
+
+    private int find(int key) {
+        final int[] keys = this.keys;
+        for (int i = 0; i < size; i++)
+            if (keys[i] == key)
+                return i;
+        return -1;
+    }
+
+    private void touch() {
+        version = VERSIONS.incrementAndGet();
+        if (base != null)
+            base.version = VERSIONS.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "Style(" + (name != null ? name : "anonymous") + ")";
+    }
+
+    /** 某个状态组合下的解析结果（不可变，可被多个控件共享）。 */
+    public static final class Resolved {
+        static final Object UNSET = new Object();
+        /** 没有样式时使用：所有属性取默认值。 */
+        public static final Resolved DEFAULTS = new Resolved(new Object[0], 0L);
+
+        private final Object[] values;
+        private final long stamp;
+
+        private Resolved(Object[] values, long stamp) {
+            this.values = values;
+            this.stamp = stamp;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <V> V get(StyleProperty<V> prop) {
+            int i = prop.index;
+            if (i < values.length) {
+                Object v = values[i];
+                if (v != UNSET)
+                    return (V) v;
+            }
+            return prop.getDefault();
+        }
+
+        public int getInt(StyleProperty<Integer> prop) {
+            Integer v = get(prop);
+            return v != null ? v : 0;
+        }
+
+        public float getFloat(StyleProperty<Float> prop) {
+            Float v = get(prop);
+            return v != null ? v : 0f;
+        }
+
+        public long getLong(StyleProperty<Long> prop) {
+            Long v = get(prop);
+            return v != null ? v : 0L;
+        }
+
+        public long getStamp() {
+            return stamp;
+        }
+    }
+}
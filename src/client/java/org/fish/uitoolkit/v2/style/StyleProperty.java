@@ -0,0 +1,67 @@
+package org.fish.uitoolkit.v2.style;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fish.uitoolkit.utils.TextureRegion;
+import org.fish.uitoolkit.v2.RenderType;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.vtree.Props;
+
+/**
+ * 样式属性：名称、默认值与在样式数组中的下标。属性按实例比较。
+ * <p>
+ * 四边值（内边距）使用 {@link Props#pack4} 打包为 long。
+ */
+public final class StyleProperty<V> {
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    // --- Label ---
+    public static final StyleProperty<Integer> TEXT_COLOR = of("text_color", 0xFFFFFF);
+    public static final StyleProperty<Float> TEXT_SCALE = of("text_scale", 1f);
+    /** 像素字体高度，0 表示使用默认字体高度乘以 TEXT_SCALE。 */
+    public static final StyleProperty<Integer> FONT_SIZE = of("font_size", 0);
+    public static final StyleProperty<Label.HAlign> H_ALIGN = of("h_align", Label.HAlign.LEFT);
+    public static final StyleProperty<Label.VAlign> V_ALIGN = of("v_align", Label.VAlign.TOP);
+    public static final StyleProperty<Long> TEXT_PADDING = of("text_padding", Props.pack4(2, 2, 2, 2));
+
+    // --- PanelComponent ---
+    public static final StyleProperty<Long> PANEL_PADDING = of("panel_padding", 0L);
+    public static final StyleProperty<Integer> SPACING = of("spacing", 2);
+
+    // --- BackgroundComponent ---
+    public static final StyleProperty<TextureRegion> BACKGROUND = of("background", null);
+    public static final StyleProperty<Integer> BACKGROUND_MODE = of("background_mode", RenderType.STRETCH);
+    public static final StyleProperty<Integer> BACKGROUND_TINT = of("background_tint", 0xFFFFFF);
+
+    private final String name;
+    private final V defaultValue;
+    final int index;
+
+    private StyleProperty(String name, V defaultValue) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.index = COUNT.getAndIncrement();
+    }
+
+    /** 定义新的样式属性（应保存为常量，每次调用都会分配一个新的下标）。 */
+    public static <V> StyleProperty<V> of(String name, V defaultValue) {
+        return new StyleProperty<>(name, defaultValue);
+    }
+
+    static int count() {
+        return COUNT.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V getDefault() {
+        return defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return "StyleProperty(" + name + ")";
+    }
+}
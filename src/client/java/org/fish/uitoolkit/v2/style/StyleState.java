@@ -0,0 +1,15 @@
+package org.fish.uitoolkit.v2.style;
+
+/**
+ * 控件交互状态。多个状态同时成立时，按声明顺序靠后的变体优先（DISABLED 最高）。
+ */
+public enum StyleState {
+    HOVER, FOCUSED, PRESSED, DISABLED;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    static final StyleState[] VALUES = values();
+    static final int MASK_COUNT = 1 << VALUES.length;
+}
@@ -0,0 +1,41 @@
+package org.fish.uitoolkit.v2.style;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称（类似 CSS 类名）注册的共享样式。
+ * <p>
+ * {@link #get(String)} 对同一名称总是返回同一实例，因此控件与布局可以在主题加载之前引用样式；
+ * {@link #applyTheme(Theme)} 只替换这些实例的内容，已解析的结果随版本戳失效，不需要遍历控件树。
+ */
+public final class Styles {
+    private static final Map<String, Style> NAMED = new ConcurrentHashMap<>();
+
+    private Styles() {
+    }
+
+    /** 返回（必要时创建）指定名称的样式。 */
+    public static Style get(String name) {
+        return NAMED.computeIfAbsent(name, Style::new);
+    }
+
+    /** 返回已存在的样式，不存在时返回 null。 */
+    public static Style find(String name) {
+        return name == null ? null : NAMED.get(name);
+    }
+
+    /** 把主题中的定义复制到同名的共享样式上。主题中的父样式按名称映射到共享样式。 */
+    public static void applyTheme(Theme theme) {
+        if (theme == null)
+            return;
+        for (Map.Entry<String, Style> e : theme.entries().entrySet()) {
+            Style def = e.getValue();
+            Style target = get(e.getKey());
+            target.copyFrom(def);
+            Style p = def.getParent();
+            if (p != null && p.getName() != null && theme.entries().get(p.getName()) == p)
+                target.setParent(get(p.getName()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.fish.uitoolkit.v2.style;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一组按名称定义的样式。通过 {@link Styles#applyTheme(Theme)} 应用到共享样式上。
+ * <pre>
+ * Theme dark = new Theme();
+ * dark.style("text").set(StyleProperty.TEXT_COLOR, 0xDDDDDD);
+ * dark.style("button", "text").variant(StyleState.HOVER).set(StyleProperty.TEXT_COLOR, 0xFFFF55);
+ * Styles.applyTheme(dark);
+ * </pre>
+ */
+public final class Theme {
+    private final Map<String, Style> styles = new LinkedHashMap<>();
+
+    /** 返回（必要时创建）主题中的样式定义。 */
+    public Style style(String name) {
+        return styles.computeIfAbsent(name, Style::new);
+    }
+
+    /** 返回（必要时创建）继承自 parentName 的样式定义。 */
+    public Style style(String name, String parentName) {
+        Style s = style(name);
+        s.setParent(parentName != null ? style(parentName) : null);
+        return s;
+    }
+
+    Map<String, Style> entries() {
+        return Collections.unmodifiableMap(styles);
+    }
+}
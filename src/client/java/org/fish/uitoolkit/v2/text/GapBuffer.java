@@ -0,0 +1,141 @@
+package org.fish.uitoolkit.v2.text;
+
+/**
+ * 间隙缓冲区：文本存放在一个 char 数组中，光标处保留一段空隙。
+ * <p>
+ * 在同一位置连续插入 / 删除（打字、退格）是 O(1) 摊还；移动编辑位置的成本与移动距离成正比，而不是与文本总长度成正比。
+ */
+public final class GapBuffer implements CharSequence {
+    private char[] buf;
+    private int gapStart;
+    private int gapEnd;
+
+    public GapBuffer() {
+        this(64);
+    }
+
+    public GapBuffer(int capacity) {
+        this.buf = new char[Math.max(16, capacity)];
+        this.gapStart = 0;
+        this.gapEnd = buf.length;
+    }
+
+    @Override
+    public int length() {
+        return buf.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length())
+            throw new IndexOutOfBoundsException(index);
+        return index < gapStart ? buf[index] : buf[index + (gapEnd - gapStart)];
+    }
+
+    /** 在 pos 处插入文本。 */
+    public void insert(int pos, CharSequence s) {
+        checkPosition(pos);
+        int n = s.length();
+        if (n == 0)
+            return;
+        moveGap(pos);
+        ensureGap(n);
+        for (int i = 0; i < n; i++)
+            buf[gapStart++] = s.charAt(i);
+    }
+
+    /** 删除 [from, to)。 */
+    public void delete(int from, int to) {
+        checkPosition(from);
+        checkPosition(to);
+        if (to <= from)
+            return;
+        moveGap(from);
+        gapEnd += to - from;
+    }
+
+    /** 替换全部内容。 */
+    public void setText(CharSequence s) {
+        int n = s.length();
+        if (buf.length < n + 16)
+            buf = new char[n + Math.max(16, n / 2)];
+        for (int i = 0; i < n; i++)
+            buf[i] = s.charAt(i);
+        gapStart = n;
+        gapEnd = buf.length;
+    }
+
+    /** [from, to) 中第一个 c 的位置；没有时返回 -1。 */
+    public int indexOf(char c, int from, int to) {
+        for (int i = Math.max(0, from); i < to; i++) {
+            if (charAt(i) == c)
+                return i;
+        }
+        return -1;
+    }
+
+    /** 把 [from, to) 复制到 dst 的 dstPos 处。 */
+    public void getChars(int from, int to, char[] dst, int dstPos) {
+        int gap = gapEnd - gapStart;
+        int a = Math.min(to, gapStart);
+        if (from < a) {
+            System.arraycopy(buf, from, dst, dstPos, a - from);
+            dstPos += a - from;
+        }
+        int b = Math.max(from, gapStart);
+        if (b < to)
+            System.arraycopy(buf, b + gap, dst, dstPos, to - b);
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    public String substring(int from, int to) {
+        checkPosition(from);
+        checkPosition(to);
+        if (to <= from)
+            return "";
+        char[] out = new char[to - from];
+        getChars(from, to, out, 0);
+        return new String(out);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length());
+    }
+
+    private void checkPosition(int pos) {
+        if (pos < 0 || pos > length())
+            throw new IndexOutOfBoundsException(pos);
+    }
+
+    private void moveGap(int pos) {
+        if (pos < gapStart) {
+            int n = gapStart - pos;
+            System.arraycopy(buf, pos, buf, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (pos > gapStart) {
+            int n = pos - gapStart;
+            System.arraycopy(buf, gapEnd, buf, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+    }
+
+    private void ensureGap(int n) {
+        if (gapEnd - gapStart >= n)
+            return;
+        int len = length();
+        int cap = Math.max(buf.length * 2, len + n + 16);
+        char[] grown = new char[cap];
+        System.arraycopy(buf, 0, grown, 0, gapStart);
+        int tail = buf.length - gapEnd;
+        System.arraycopy(buf, gapEnd, grown, cap - tail, tail);
+        gapEnd = cap - tail;
+        buf = grown;
+    }
+}
@@ -0,0 +1,38 @@
+package org.fish.uitoolkit.v2.text;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * 字符宽度缓存：每个字符只测量一次。按 256 个字符分页，只有用到的页才分配。
+ * <p>
+ * 字体重新加载后应调用 {@link #invalidate()}（或创建新的缓存）。
+ */
+public final class GlyphWidthCache {
+    private final ToIntFunction<String> measure;
+    private final int[][] pages = new int[256][];
+
+    /** @param measure 测量单个字符组成的字符串的宽度，例如 {@code textRenderer::getWidth} */
+    public GlyphWidthCache(ToIntFunction<String> measure) {
+        this.measure = measure;
+    }
+
+    public int width(char c) {
+        int[] page = pages[c >>> 8];
+        if (page == null) {
+            page = new int[256];
+            Arrays.fill(page, -1);
+            pages[c >>> 8] = page;
+        }
+        int w = page[c & 0xFF];
+        if (w < 0) {
+            w = Math.max(0, measure.applyAsInt(String.valueOf(c)));
+            page[c & 0xFF] = w;
+        }
+        return w;
+    }
+
+    public void invalidate() {
+        Arrays.fill(pages, null);
+    }
+}
@@ -0,0 +1,216 @@
+package org.fish.uitoolkit.v2.text;
+
+import java.util.Arrays;
+
+/**
+ * {@link GapBuffer} 上的行索引与按行缓存的排版信息。
+ * <p>
+ * 行起始位置保存在有序数组中，定位某个偏移所在的行用二分查找。每一行按需缓存其字符串与每个字符边界的 x 坐标（前缀和），
+ * 编辑只使受影响的行的缓存失效：在一行内打字只重新测量这一行，插入 / 删除换行只增删对应的行项。
+ * 坐标与偏移之间的命中测试在缓存的 x 坐标上二分查找。
+ */
+public final class TextLayout {
+    private final GapBuffer text;
+    private int[] lineStart = new int[16];
+    private int lineCount = 1;
+    // per-line caches; null = stale
+    private String[] lineText = new String[16];
+    private int[][] lineX = new int[16][];
+
+    private GlyphWidthCache glyphs;
+    private int remeasuredLines = 0;
+
+    public TextLayout(GapBuffer text, GlyphWidthCache glyphs) {
+        this.text = text;
+        this.glyphs = glyphs;
+        rebuild();
+    }
+
+    public GapBuffer getText() {
+        return text;
+    }
+
+    /** 更换字形宽度缓存（例如字体重新加载后），所有行的 x 坐标缓存失效。 */
+    public void setGlyphs(GlyphWidthCache glyphs) {
+        this.glyphs = glyphs;
+        Arrays.fill(lineX, 0, lineCount, null);
+    }
+
+    /** 从缓冲区重建整个行索引（替换全部文本后调用）。 */
+    public void rebuild() {
+        int n = 1;
+        int len = text.length();
+        for (int i = 0; i < len; i++) {
+            if (text.charAt(i) == '\n')
+                n++;
+        }
+        ensureLines(n);
+        lineStart[0] = 0;
+        int line = 1;
+        for (int i = 0; i < len; i++) {
+            if (text.charAt(i) == '\n')
+                lineStart[line++] = i + 1;
+        }
+        lineCount = n;
+        Arrays.fill(lineText, null);
+        Arrays.fill(lineX, null);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /** 重新测量过的行数（调试 / 统计用）。 */
+    public int getRemeasuredLineCount() {
+        return remeasuredLines;
+    }
+
+    public int lineStart(int line) {
+        return lineStart[line];
+    }
+
+    /** 行尾偏移（不含换行符）。 */
+    public int lineEnd(int line) {
+        return line + 1 < lineCount ? lineStart[line + 1] - 1 : text.length();
+    }
+
+    /** 偏移所在的行。 */
+    public int lineOf(int offset) {
+        int lo = 0, hi = lineCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (lineStart[mid] <= offset)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /** 一行的文本（不含换行符，带缓存）。 */
+    public String lineText(int line) {
+        String s = lineText[line];
+        if (s == null) {
+            s = text.substring(lineStart[line], lineEnd(line));
+            lineText[line] = s;
+        }
+        return s;
+    }
+
+    /** 一行中每个字符边界的 x 坐标，长度为行长 + 1（带缓存）。 */
+    public int[] lineX(int line) {
+        int[] xs = lineX[line];
+        if (xs == null) {
+            String s = lineText(line);
+            xs = new int[s.length() + 1];
+            int x = 0;
+            for (int i = 0; i < s.length(); i++) {
+                x += glyphs.width(s.charAt(i));
+                xs[i + 1] = x;
+            }
+            lineX[line] = xs;
+            remeasuredLines++;
+        }
+        return xs;
+    }
+
+    /** 一行的像素宽度。 */
+    public int lineWidth(int line) {
+        int[] xs = lineX(line);
+        return xs[xs.length - 1];
+    }
+
+    /** 偏移处的 x 坐标（相对行首）。 */
+    public int xOf(int offset) {
+        int line = lineOf(offset);
+        return lineX(line)[offset - lineStart[line]];
+    }
+
+    /** 行内距离 x 最近的字符边界的偏移。 */
+    public int offsetAt(int line, int x) {
+        int[] xs = lineX(line);
+        int i = Arrays.binarySearch(xs, x);
+        if (i < 0) {
+            int hi = -i - 1;
+            if (hi >= xs.length) {
+                i = xs.length - 1;
+            } else if (hi == 0) {
+                i = 0;
+            } else {
+                // pick the nearer boundary
+                i = x - xs[hi - 1] <= xs[hi] - x ? hi - 1 : hi;
+            }
+        } else {
+            // zero-width glyphs create equal entries; use the first one
+            while (i > 0 && xs[i - 1] == x)
+                i--;
+        }
+        return lineStart[line] + i;
+    }
+
+    /** 在 pos 处插入 s 之后调用（缓冲区已修改）。 */
+    public void inserted(int pos, CharSequence s) {
+        int n = s.length();
+        if (n == 0)
+            return;
+        int line = lineOf(pos);
+        int breaks = 0;
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(i) == '\n')
+                breaks++;
+        }
+        for (int i = line + 1; i < lineCount; i++)
+            lineStart[i] += n;
+        if (breaks > 0) {
+            ensureLines(lineCount + breaks);
+            int tail = lineCount - line - 1;
+            System.arraycopy(lineStart, line + 1, lineStart, line + 1 + breaks, tail);
+            System.arraycopy(lineText, line + 1, lineText, line + 1 + breaks, tail);
+            System.arraycopy(lineX, line + 1, lineX, line + 1 + breaks, tail);
+            int k = line + 1;
+            for (int i = 0; i < n; i++) {
+                if (s.charAt(i) == '\n') {
+                    lineStart[k] = pos + i + 1;
+                    lineText[k] = null;
+                    lineX[k] = null;
+                    k++;
+                }
+            }
+            lineCount += breaks;
+        }
+        lineText[line] = null;
+        lineX[line] = null;
+    }
+
+    /** 删除 [from, to) 之后调用；from/to 为删除前的偏移。 */
+    public void deleted(int from, int to) {
+        if (to <= from)
+            return;
+        int first = lineOf(from);
+        int last = lineOf(to);
+        int removed = last - first;
+        int n = to - from;
+        if (removed > 0) {
+            int tail = lineCount - last - 1;
+            System.arraycopy(lineStart, last + 1, lineStart, first + 1, tail);
+            System.arraycopy(lineText, last + 1, lineText, first + 1, tail);
+            System.arraycopy(lineX, last + 1, lineX, first + 1, tail);
+            lineCount -= removed;
+            Arrays.fill(lineText, lineCount, lineCount + removed, null);
+            Arrays.fill(lineX, lineCount, lineCount + removed, null);
+        }
+        for (int i = first + 1; i < lineCount; i++)
+            lineStart[i] -= n;
+        lineText[first] = null;
+        lineX[first] = null;
+    }
+
+    private void ensureLines(int n) {
+        if (lineStart.length < n) {
+            int cap = Math.max(n, lineStart.length * 2);
+            lineStart = Arrays.copyOf(lineStart, cap);
+            lineText = Arrays.copyOf(lineText, cap);
+            lineX = Arrays.copyOf(lineX, cap);
+        }
+    }
+}
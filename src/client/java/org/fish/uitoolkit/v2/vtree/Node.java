@@ -0,0 +1,161 @@
+package org.fish.uitoolkit.v2.vtree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 不可变的轻量节点描述：类型、可选 key、属性值与子节点。
+ * <p>
+ * 渲染函数每次状态变化时返回新的节点树，由 {@link Reconciler} 与现有控件树比较后只应用差异。
+ * 被重复使用的同一个 Node 实例会被视为整棵子树未变化而直接跳过，可用于缓存不变的部分。
+ */
+public final class Node {
+    private static final Prop<?, ?>[] NO_PROPS = new Prop<?, ?>[0];
+    private static final Object[] NO_VALUES = new Object[0];
+    static final Node[] NO_CHILDREN = new Node[0];
+
+    final NodeType<?> type;
+    final Object key;
+    final Prop<?, ?>[] props;
+    final Object[] values;
+    final Node[] children;
+    final Consumer<ControlObject> ref;
+
+    private Node(Builder b) {
+        this.type = b.type;
+        this.key = b.key;
+        int n = b.props.size();
+        this.props = n == 0 ? NO_PROPS : b.props.toArray(new Prop<?, ?>[n]);
+        this.values = n == 0 ? NO_VALUES : b.values.toArray();
+        this.children = b.children.isEmpty() ? NO_CHILDREN : b.children.toArray(new Node[0]);
+        this.ref = b.ref;
+    }
+
+    public static Builder create(NodeType<?> type) {
+        return new Builder(type);
+    }
+
+    public static Builder control() {
+        return new Builder(NodeType.CONTROL);
+    }
+
+    public static Builder label(String text) {
+        return new Builder(NodeType.LABEL).set(Props.TEXT, text);
+    }
+
+    public NodeType<?> getType() {
+        return type;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public int getChildCount() {
+        return children.length;
+    }
+
+    public Node getChild(int i) {
+        return children[i];
+    }
+
+    /** 返回属性值（未设置时返回 null）。 */
+    @SuppressWarnings("unchecked")
+    public <V> V get(Prop<?, V> prop) {
+        int i = indexOf(prop);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    public boolean has(Prop<?, ?> prop) {
+        return indexOf(prop) >= 0;
+    }
+
+    int indexOf(Prop<?, ?> prop) {
+        final Prop<?, ?>[] props = this.props;
+        for (int i = 0; i < props.length; i++)
+            if (props[i] == prop)
+                return i;
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return type.getName() + (key != null ? "#" + key : "") + "(" + props.length + " props, "
+                + children.length + " children)";
+    }
+
+    /** 节点构建器。build() 之后构建器不应再被修改。 */
+    public static final class Builder {
+        private final NodeType<?> type;
+        private Object key;
+        private final List<Prop<?, ?>> props = new ArrayList<>(4);
+        private final List<Object> values = new ArrayList<>(4);
+        private final List<Node> children = new ArrayList<>();
+        private Consumer<ControlObject> ref;
+
+        private Builder(NodeType<?> type) {
+            if (type == null)
+                throw new IllegalArgumentException("type must not be null");
+            this.type = type;
+        }
+
+        /** 同级节点之间的唯一标识；列表重排时按 key 复用控件。未设置时按位置匹配。 */
+        public Builder key(Object key) {
+            this.key = key;
+            return this;
+        }
+
+        public <V> Builder set(Prop<?, V> prop, V value) {
+            if (prop == null)
+                return this;
+            int i = props.indexOf(prop);
+            if (i >= 0) {
+                values.set(i, value);
+            } else {
+                props.add(prop);
+                values.add(value);
+            }
+            return this;
+        }
+
+        public Builder size(int w, int h) {
+            return set(Props.SIZE, Props.pack(w, h));
+        }
+
+        public Builder position(int x, int y) {
+            return set(Props.POSITION, Props.pack(x, y));
+        }
+
+        public Builder child(Node child) {
+            if (child != null)
+                children.add(child);
+            return this;
+        }
+
+        public Builder child(Builder child) {
+            if (child != null)
+                children.add(child.build());
+            return this;
+        }
+
+        public Builder children(List<Node> list) {
+            if (list != null)
+                for (int i = 0, n = list.size(); i < n; i++)
+                    child(list.get(i));
+            return this;
+        }
+
+        /** 控件首次创建时回调（用于添加监听器等一次性设置）。 */
+        public Builder ref(Consumer<ControlObject> ref) {
+            this.ref = ref;
+            return this;
+        }
+
+        public Node build() {
+            return new Node(this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.fish.uitoolkit.v2.vtree;
+
+import java.util.function.Supplier;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.controls.ScrollView;
+
+/**
+ * 节点类型：决定节点对应的控件类以及如何创建它。类型按实例比较，
+ * 同一位置（或同一 key）上类型不同的节点总是重新创建控件。
+ */
+public final class NodeType<T extends ControlObject> {
+    public static final NodeType<ControlObject> CONTROL = of("control", ControlObject::new);
+    public static final NodeType<Label> LABEL = of("label", () -> new Label(""));
+    public static final NodeType<ScrollView> SCROLL_VIEW = of("scroll_view", ScrollView::new);
+
+    private final String name;
+    private final Supplier<? extends T> factory;
+
+    private NodeType(String name, Supplier<? extends T> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public static <T extends ControlObject> NodeType<T> of(String name, Supplier<? extends T> factory) {
+        if (factory == null)
+            throw new IllegalArgumentException("factory must not be null");
+        return new NodeType<>(name == null ? "node" : name, factory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** 创建该类型的新控件。 */
+    public T create() {
+        return factory.get();
+    }
+
+    @Override
+    public String toString() {
+        return "NodeType(" + name + ")";
+    }
+}
@@ -0,0 +1,66 @@
+package org.fish.uitoolkit.v2.vtree;
+
+import java.util.function.BiConsumer;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 节点属性：名称、适用的控件类以及把值写入控件的 setter。
+ * <p>
+ * 协调时只有值发生变化（{@code Objects.equals} 为 false）的属性才会调用 setter；
+ * 节点不再声明某个属性时，若属性带有默认值则写回默认值，否则保持控件上的当前值。
+ * 对不适用的控件类型设置的属性会被忽略。
+ */
+public final class Prop<T extends ControlObject, V> {
+    private final String name;
+    private final Class<T> target;
+    private final BiConsumer<? super T, ? super V> setter;
+    private final V defaultValue;
+    private final boolean hasDefault;
+
+    private Prop(String name, Class<T> target, BiConsumer<? super T, ? super V> setter, V defaultValue,
+            boolean hasDefault) {
+        this.name = name;
+        this.target = target;
+        this.setter = setter;
+        this.defaultValue = defaultValue;
+        this.hasDefault = hasDefault;
+    }
+
+    public static <T extends ControlObject, V> Prop<T, V> of(String name, Class<T> target,
+            BiConsumer<? super T, ? super V> setter) {
+        return new Prop<>(name, target, setter, null, false);
+    }
+
+    public static <T extends ControlObject, V> Prop<T, V> of(String name, Class<T> target,
+            BiConsumer<? super T, ? super V> setter, V defaultValue) {
+        return new Prop<>(name, target, setter, defaultValue, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean hasDefault() {
+        return hasDefault;
+    }
+
+    @SuppressWarnings("unchecked")
+    void apply(ControlObject c, Object value) {
+        if (target.isInstance(c))
+            setter.accept((T) c, (V) value);
+    }
+
+    /** 写回默认值；没有默认值时返回 false。 */
+    boolean reset(ControlObject c) {
+        if (!hasDefault)
+            return false;
+        apply(c, defaultValue);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Prop(" + name + ")";
+    }
+}
@@ -0,0 +1,148 @@
+package org.fish.uitoolkit.v2.vtree;
+
+import org.fish.uitoolkit.utils.TextureRegion;
+import org.fish.uitoolkit.v2.UpdatePolicy;
+import org.fish.uitoolkit.v2.components.BackgroundComponent;
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.components.PositionComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.controls.ScrollView;
+import org.fish.uitoolkit.v2.style.Style;
+
+/**
+ * 常用的节点属性。二维值（尺寸、位置、偏移）与四边值（内边距）被打包为一个 long，以便按值比较而不分配数组。
+ */
+public final class Props {
+    public static final Prop<ControlObject, Long> SIZE = Prop.of("size", ControlObject.class,
+            (c, v) -> c.setSize(unpackX(v), unpackY(v)));
+    public static final Prop<ControlObject, Long> POSITION = Prop.of("position", ControlObject.class,
+            (c, v) -> c.setLocalPosition(unpackX(v), unpackY(v)), pack(0, 0));
+    public static final Prop<ControlObject, ControlObject.Visibility> VISIBILITY = Prop.of("visibility",
+            ControlObject.class, ControlObject::setVisibility, ControlObject.Visibility.VISIBLE);
+    public static final Prop<ControlObject, Float> OPACITY = Prop.of("opacity", ControlObject.class,
+            ControlObject::setOpacity, 1f);
+    public static final Prop<ControlObject, UpdatePolicy> UPDATE_POLICY = Prop.of("update_policy",
+            ControlObject.class, ControlObject::setUpdatePolicy, UpdatePolicy.EVERY_FRAME);
+    public static final Prop<ControlObject, PanelComponent.Orientation> ORIENTATION = Prop.of("orientation",
+            ControlObject.class, (c, v) -> panel(c).setOrientation(v), PanelComponent.Orientation.NONE);
+    public static final Prop<ControlObject, Integer> SPACING = Prop.of("spacing", ControlObject.class,
+            (c, v) -> panel(c).setSpacing(v), 2);
+
+    /** 共享样式（按实例比较，通常来自 {@link org.fish.uitoolkit.v2.style.Styles#get}）。 */
+    public static final Prop<ControlObject, Style> STYLE = Prop.of("style", ControlObject.class,
+            ControlObject::setStyle, null);
+
+    public static final Prop<ControlObject, Long> OFFSET = Prop.of("offset", ControlObject.class,
+            (c, v) -> c.setOffset(unpackX(v), unpackY(v)), pack(0, 0));
+    public static final Prop<ControlObject, PositionComponent.Anchor> PARENT_ANCHOR = Prop.of("anchor",
+            ControlObject.class, ControlObject::setParentAnchorPreset, PositionComponent.Anchor.TOP_LEFT);
+    public static final Prop<ControlObject, PositionComponent.Anchor> PIVOT = Prop.of("pivot", ControlObject.class,
+            ControlObject::setPivotPreset, PositionComponent.Anchor.TOP_LEFT);
+    /** 面板内边距（{@link #pack4} 打包），对所有控件（包括 Label）都作用于面板。 */
+    public static final Prop<ControlObject, Long> PADDING = Prop.of("padding", ControlObject.class,
+            (c, v) -> panel(c).setPadding(unpack4(v, 0), unpack4(v, 1), unpack4(v, 2), unpack4(v, 3)));
+    /** Label 的文本内边距（{@link #pack4} 打包），与面板内边距 {@link #PADDING} 分开保存。 */
+    public static final Prop<Label, Long> TEXT_PADDING = Prop.of("text_padding", Label.class,
+            (l, v) -> l.setPadding(unpack4(v, 0), unpack4(v, 1), unpack4(v, 2), unpack4(v, 3)));
+    public static final Prop<ControlObject, PanelComponent.Align> CROSS_ALIGN = Prop.of("cross_align",
+            ControlObject.class, (c, v) -> panel(c).setCrossAlign(v), PanelComponent.Align.START);
+    public static final int AUTO_WIDTH = 1;
+    public static final int AUTO_HEIGHT = 2;
+    /** 自动尺寸标志：{@link #AUTO_WIDTH} | {@link #AUTO_HEIGHT}。 */
+    public static final Prop<ControlObject, Integer> AUTO_SIZE = Prop.of("auto_size", ControlObject.class, (c, v) -> {
+        PanelComponent p = panel(c);
+        p.setAutoSizeWidth((v & AUTO_WIDTH) != 0);
+        p.setAutoSizeHeight((v & AUTO_HEIGHT) != 0);
+    }, 0);
+    /** 背景；null 移除 BackgroundComponent。 */
+    public static final Prop<ControlObject, Background> BACKGROUND = Prop.of("background", ControlObject.class,
+            (c, v) -> {
+                if (v == null || v.region == null) {
+                    c.removeComponent(BackgroundComponent.class);
+                    return;
+                }
+                BackgroundComponent bg = c.getComponent(BackgroundComponent.class);
+                if (bg == null)
+                    bg = (BackgroundComponent) c.addComponent(new BackgroundComponent(c));
+                bg.setTexture(v.region, v.flags);
+                bg.setColor(v.color);
+            }, null);
+
+    public static final Prop<Label, String> TEXT = Prop.of("text", Label.class, Label::setText, "");
+    public static final Prop<Label, Integer> TEXT_COLOR = Prop.of("text_color", Label.class,
+            Label::setTextColor, 0xFFFFFF);
+    public static final Prop<Label, Float> TEXT_SCALE = Prop.of("text_scale", Label.class,
+            Label::setTextScale, 1f);
+    public static final Prop<Label, Label.HAlign> H_ALIGN = Prop.of("h_align", Label.class,
+            Label::setHorizontalAlign, Label.HAlign.LEFT);
+    public static final Prop<Label, Label.VAlign> V_ALIGN = Prop.of("v_align", Label.class,
+            Label::setVerticalAlign, Label.VAlign.TOP);
+
+    private Props() {
+    }
+
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long v) {
+        return (int) (v >> 32);
+    }
+
+    public static int unpackY(long v) {
+        return (int) v;
+    }
+
+    /**
+     * 把四个值（左、上、右、下）各按 16 位有符号数打包为一个 long。面板内边距可以为负，
+     * 超出 -32768..32767 的值被截断到边界而不是回绕。
+     */
+    public static long pack4(int left, int top, int right, int bottom) {
+        return side(left) | side(top) << 16 | side(right) << 32 | side(bottom) << 48;
+    }
+
+    public static int unpack4(long v, int i) {
+        return (short) (v >>> (16 * i));
+    }
+
+    private static long side(int v) {
+        return Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v)) & 0xFFFFL;
+    }
+
+    /** 背景描述：纹理区域（按实例比较）、渲染标志与着色。 */
+    public static final class Background {
+        final TextureRegion region;
+        final int flags;
+        final int color;
+
+        public Background(TextureRegion region, int flags, int color) {
+            this.region = region;
+            this.flags = flags;
+            this.color = color & 0xFFFFFF;
+        }
+
+        public Background(TextureRegion region, int flags) {
+            this(region, flags, 0xFFFFFF);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Background b && b.region == region && b.flags == flags && b.color == color;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(region) * 31 * 31 + flags * 31 + color;
+        }
+    }
+
+    private static PanelComponent panel(ControlObject c) {
+        if (c instanceof ScrollView sv)
+            return sv.getContentPanel();
+        PanelComponent p = c.getComponent(PanelComponent.class);
+        if (p == null)
+            p = (PanelComponent) c.addComponent(new PanelComponent());
+        return p;
+    }
+}
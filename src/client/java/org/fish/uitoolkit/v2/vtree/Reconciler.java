@@ -0,0 +1,317 @@
+package org.fish.uitoolkit.v2.vtree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.ScrollView;
+
+/**
+ * 把节点描述协调到宿主控件的子控件上。
+ * <p>
+ * 每次 {@link #render} 把新的节点列表与上一次的结果比较：
+ * <ul>
+ * <li>同一 key（未设置 key 时为同一位置）且同一类型的节点复用原控件及其组件，只调用值发生变化的属性 setter；</li>
+ * <li>先匹配公共前缀与后缀，剩余部分按 key 查找，原位置序列的最长递增子序列保持不动，其余控件才被移动；</li>
+ * <li>未匹配的旧控件被移除，新节点创建新控件。</li>
+ * </ul>
+ * 由节点创建的容器的子控件应全部由协调器管理；宿主可以有其它子控件，协调器不会触碰它们，
+ * 但新建的控件可能被追加到它们之后。ScrollView 的子控件指其内容控件的子控件。
+ */
+public final class Reconciler {
+    private static final Instance[] NO_INSTANCES = new Instance[0];
+
+    private final ControlObject host;
+    private Instance[] roots = NO_INSTANCES;
+
+    // stats of the last render
+    private int created, removed, moved, propsApplied, patched, skipped;
+
+    public Reconciler(ControlObject host) {
+        if (host == null)
+            throw new IllegalArgumentException("host must not be null");
+        this.host = host;
+    }
+
+    public ControlObject getHost() {
+        return host;
+    }
+
+    public void render(Node... nodes) {
+        apply(nodes == null ? Node.NO_CHILDREN : nodes);
+    }
+
+    public void render(List<Node> nodes) {
+        apply(nodes == null ? Node.NO_CHILDREN : nodes.toArray(new Node[0]));
+    }
+
+    private void apply(Node[] nodes) {
+        created = removed = moved = propsApplied = patched = skipped = 0;
+        roots = reconcileChildren(container(host), roots, nodes);
+    }
+
+    /** 移除所有由协调器创建的控件。 */
+    public void clear() {
+        apply(Node.NO_CHILDREN);
+    }
+
+    /** 第 i 个根节点对应的控件。 */
+    public ControlObject getControl(int i) {
+        return i >= 0 && i < roots.length ? roots[i].control : null;
+    }
+
+    public int getRootCount() {
+        return roots.length;
+    }
+
+    /** 按 key 路径（从根节点开始逐层）查找控件；找不到时返回 null。 */
+    public ControlObject find(Object... keyPath) {
+        Instance[] level = roots;
+        Instance hit = null;
+        for (Object k : keyPath) {
+            hit = null;
+            for (Instance inst : level) {
+                if (Objects.equals(inst.node.key, k)) {
+                    hit = inst;
+                    break;
+                }
+            }
+            if (hit == null)
+                return null;
+            level = hit.children;
+        }
+        return hit != null ? hit.control : null;
+    }
+
+    // --- stats (last render) ---
+
+    public int getCreatedCount() {
+        return created;
+    }
+
+    public int getRemovedCount() {
+        return removed;
+    }
+
+    public int getMovedCount() {
+        return moved;
+    }
+
+    /** 调用属性 setter（含写回默认值）的次数。 */
+    public int getPropsAppliedCount() {
+        return propsApplied;
+    }
+
+    /** 比较过属性的复用节点数量。 */
+    public int getPatchedCount() {
+        return patched;
+    }
+
+    /** 因节点实例未变而整棵跳过的子树数量。 */
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    private static ControlObject container(ControlObject c) {
+        return c instanceof ScrollView sv ? sv.getContent() : c;
+    }
+
+    private Instance[] reconcileChildren(ControlObject parent, Instance[] old, Node[] next) {
+        final int oldLen = old.length;
+        final int newLen = next.length;
+        if (oldLen == 0 && newLen == 0)
+            return NO_INSTANCES;
+        Instance[] result = newLen == 0 ? NO_INSTANCES : new Instance[newLen];
+
+        // common prefix
+        int start = 0;
+        while (start < oldLen && start < newLen && sameSlot(old[start], start, next[start], start)) {
+            result[start] = patch(old[start], next[start]);
+            start++;
+        }
+        // common suffix
+        int oldEnd = oldLen - 1;
+        int newEnd = newLen - 1;
+        while (oldEnd >= start && newEnd >= start && sameSlot(old[oldEnd], oldEnd, next[newEnd], newEnd)) {
+            result[newEnd] = patch(old[oldEnd], next[newEnd]);
+            oldEnd--;
+            newEnd--;
+        }
+        if (start > oldEnd && start > newEnd)
+            return result;
+
+        // middle: match old instances to new nodes by key, remove the rest
+        int span = newEnd - start + 1;
+        int[] sources = new int[Math.max(0, span)];
+        Arrays.fill(sources, -1);
+        Map<Object, Integer> keyed = null;
+        if (span > 0 && oldEnd >= start) {
+            keyed = new HashMap<>(span * 2);
+            for (int j = start; j <= newEnd; j++)
+                keyed.put(keyOf(next[j], j), j);
+        }
+        for (int i = start; i <= oldEnd; i++) {
+            Instance inst = old[i];
+            Integer j = keyed != null ? keyed.get(keyOf(inst.node, i)) : null;
+            if (j != null && sources[j - start] < 0 && next[j].type == inst.node.type) {
+                sources[j - start] = i;
+                result[j] = patch(inst, next[j]);
+            } else {
+                parent.removeChild(inst.control);
+                removed++;
+            }
+        }
+
+        // controls on the longest increasing run of old positions keep their place
+        boolean[] stable = longestIncreasing(sources);
+        for (int j = newEnd; j >= start; j--) {
+            ControlObject anchor = j + 1 < newLen ? result[j + 1].control : null;
+            int s = sources[j - start];
+            if (s < 0) {
+                Instance inst = mount(next[j]);
+                result[j] = inst;
+                parent.insertChild(indexOf(parent, anchor), inst.control);
+            } else if (!stable[j - start]) {
+                ControlObject c = result[j].control;
+                List<ControlObject> list = parent.getChildren();
+                int from = list.indexOf(c);
+                int to = anchor != null ? list.indexOf(anchor) : list.size();
+                if (to < 0)
+                    to = list.size();
+                parent.moveChild(c, from < to ? to - 1 : to);
+                moved++;
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf(ControlObject parent, ControlObject anchor) {
+        List<ControlObject> list = parent.getChildren();
+        int i = anchor != null ? list.indexOf(anchor) : -1;
+        return i >= 0 ? i : list.size();
+    }
+
+    private static boolean sameSlot(Instance inst, int oldIndex, Node node, int newIndex) {
+        if (inst.node.type != node.type)
+            return false;
+        if (inst.node.key == null && node.key == null)
+            return oldIndex == newIndex;
+        return Objects.equals(inst.node.key, node.key);
+    }
+
+    private static Object keyOf(Node node, int index) {
+        return node.key != null ? node.key : new ImplicitKey(index);
+    }
+
+    private Instance patch(Instance inst, Node next) {
+        Node prev = inst.node;
+        if (prev == next) {
+            skipped++;
+            return inst;
+        }
+        patched++;
+        ControlObject c = inst.control;
+        final Prop<?, ?>[] props = next.props;
+        for (int i = 0; i < props.length; i++) {
+            int k = prev.indexOf(props[i]);
+            if (k < 0 || !Objects.equals(prev.values[k], next.values[i])) {
+                props[i].apply(c, next.values[i]);
+                propsApplied++;
+            }
+        }
+        for (int i = 0; i < prev.props.length; i++) {
+            if (next.indexOf(prev.props[i]) < 0 && prev.props[i].reset(c))
+                propsApplied++;
+        }
+        if (prev.children.length != 0 || next.children.length != 0)
+            inst.children = reconcileChildren(container(c), inst.children, next.children);
+        inst.node = next;
+        return inst;
+    }
+
+    private Instance mount(Node node) {
+        ControlObject c = node.type.create();
+        for (int i = 0; i < node.props.length; i++) {
+            node.props[i].apply(c, node.values[i]);
+            propsApplied++;
+        }
+        Instance inst = new Instance(node, c);
+        if (node.children.length > 0) {
+            ControlObject target = container(c);
+            inst.children = new Instance[node.children.length];
+            for (int i = 0; i < node.children.length; i++) {
+                Instance child = mount(node.children[i]);
+                inst.children[i] = child;
+                target.addChild(child.control);
+            }
+        }
+        created++;
+        if (node.ref != null)
+            node.ref.accept(c);
+        return inst;
+    }
+
+    /**
+     * 对 sources 中的非负项求最长严格递增子序列（O(n log n)），返回每个位置是否在其中。
+     */
+    static boolean[] longestIncreasing(int[] sources) {
+        int n = sources.length;
+        boolean[] in = new boolean[n];
+        int[] tails = new int[n]; // index into sources of the smallest tail for each length
+        int[] prev = new int[n];
+        int len = 0;
+        for (int i = 0; i < n; i++) {
+            int v = sources[i];
+            if (v < 0)
+                continue;
+            int lo = 0, hi = len;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sources[tails[mid]] < v)
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            prev[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == len)
+                len++;
+        }
+        for (int i = len > 0 ? tails[len - 1] : -1; i >= 0; i = prev[i])
+            in[i] = true;
+        return in;
+    }
+
+    private static final class Instance {
+        Node node;
+        final ControlObject control;
+        Instance[] children = NO_INSTANCES;
+
+        Instance(Node node, ControlObject control) {
+            this.node = node;
+            this.control = control;
+        }
+    }
+
+    /** 未设置 key 的节点按其在同级中的位置匹配。 */
+    private static final class ImplicitKey {
+        private final int index;
+
+        ImplicitKey(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ImplicitKey k && k.index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(index) * 31 + 7;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.fish.uitoolkit.v2.world;
+
+/** 世界面板的细节级别。 */
+public enum Lod {
+    /** 完整的控件树。 */
+    FULL,
+    /** 简化显示：只绘制一条进度条（不遍历控件树）。 */
+    SIMPLE,
+    /** 不绘制。 */
+    HIDDEN
+}
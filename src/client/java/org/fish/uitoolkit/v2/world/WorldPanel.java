@@ -0,0 +1,151 @@
+package org.fish.uitoolkit.v2.world;
+
+import net.minecraft.entity.Entity;
+
+/**
+ * 一个世界面板实例：只保存实例数据（锚点坐标、进度、文本、颜色），控件树由所属的 {@link WorldPanelTemplate} 共享。
+ * <p>
+ * 锚点可以直接设置，也可以跟随一个实体（锚点位于实体头顶之上 yOffset 处）。
+ */
+public final class WorldPanel {
+    private final WorldPanelTemplate template;
+    private double x, y, z;
+    private double yOffset = 0.5;
+    private Entity entity;
+    private float progress = 1f;
+    private String text = "";
+    private int color = 0xFF55FF55;
+    private Object data;
+    private boolean visible = true;
+    WorldPanelLayer layer;
+
+    // per-frame results, written by WorldPanelLayer.prepare
+    Lod lod = Lod.HIDDEN;
+    double screenX, screenY, pixelsPerBlock, distanceSq;
+    long mark;
+
+    WorldPanel(WorldPanelTemplate template) {
+        this.template = template;
+    }
+
+    public WorldPanelTemplate getTemplate() {
+        return template;
+    }
+
+    /** 固定的锚点坐标（停止跟随实体）。 */
+    public WorldPanel setPosition(double x, double y, double z) {
+        this.entity = null;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /** 跟随实体；实体被移除后面板自动从图层中移除。 */
+    public WorldPanel follow(Entity entity) {
+        this.entity = entity;
+        return this;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    /** 锚点在实体头顶之上的高度（方块）。 */
+    public WorldPanel setYOffset(double offset) {
+        this.yOffset = offset;
+        return this;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public float getProgress() {
+        return progress;
+    }
+
+    /** 进度（0..1），例如血量比例。 */
+    public WorldPanel setProgress(float progress) {
+        this.progress = Math.max(0f, Math.min(1f, progress));
+        return this;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public WorldPanel setText(String text) {
+        this.text = text != null ? text : "";
+        return this;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    /** 主色（ARGB），简化显示时用作进度条颜色。 */
+    public WorldPanel setColor(int argb) {
+        this.color = argb;
+        return this;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    /** 附加的自定义数据，供模板的绑定回调使用。 */
+    public WorldPanel setData(Object data) {
+        this.data = data;
+        return this;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public WorldPanel setVisible(boolean visible) {
+        this.visible = visible;
+        return this;
+    }
+
+    /** 本帧选择的细节级别。 */
+    public Lod getLod() {
+        return lod;
+    }
+
+    public double getScreenX() {
+        return screenX;
+    }
+
+    public double getScreenY() {
+        return screenY;
+    }
+
+    /** 从所属图层中移除。 */
+    public void remove() {
+        if (layer != null)
+            layer.remove(this);
+    }
+
+    /** 跟随实体时按插值位置更新锚点；实体已移除时返回 false。 */
+    boolean updateAnchor(float tickDelta) {
+        if (entity == null)
+            return true;
+        if (entity.isRemoved())
+            return false;
+        var pos = entity.getLerpedPos(tickDelta);
+        x = pos.x;
+        y = pos.y + entity.getHeight() + yOffset;
+        z = pos.z;
+        return true;
+    }
+}
@@ -0,0 +1,233 @@
+package org.fish.uitoolkit.v2.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Camera;
+import net.minecraft.client.gui.DrawContext;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 在 HUD 中绘制世界面板的控件：每帧把所有实例的锚点投影到屏幕，经过距离与视锥剔除、细节级别选择后由远到近绘制。
+ * <p>
+ * 把它加入某个 HUD {@code UIManager}（例如注册到 {@code HudCompositor} 的图层）的根控件即可；相机取自客户端。
+ * 剔除与细节级别的选择在 {@link #prepare(WorldView, float)} 中完成，只依赖 {@link WorldView} 的普通坐标，可以单独测试。
+ * <p>
+ * 绘制顺序数组跨帧保留并用插入排序维护：相机连续移动时顺序几乎不变，排序接近 O(n)，且稳态不分配内存。
+ */
+public class WorldPanelLayer extends ControlObject {
+    private final List<WorldPanel> panels = new ArrayList<>();
+    private final WorldView view = new WorldView();
+    private final double[] projected = new double[3];
+    // indices into panels of the panels drawn this frame, far to near
+    private int[] order = new int[16];
+    private int drawCount = 0;
+    private long frames = 0;
+    private int maxFullPanels = 32;
+    private double fovOverride = 0;
+
+    private int lastCulled = 0;
+    private int lastFull = 0;
+    private int lastSimple = 0;
+
+    /** 加入一个实例。 */
+    public WorldPanel add(WorldPanel panel) {
+        if (panel.layer != null)
+            panel.layer.remove(panel);
+        panel.layer = this;
+        panels.add(panel);
+        return panel;
+    }
+
+    /** 用模板创建并加入一个实例。 */
+    public WorldPanel add(WorldPanelTemplate template) {
+        return add(template.create());
+    }
+
+    public void remove(WorldPanel panel) {
+        if (panel.layer != this)
+            return;
+        panel.layer = null;
+        panels.remove(panel);
+        // indices in the draw order are stale now
+        drawCount = 0;
+    }
+
+    public void clear() {
+        for (WorldPanel p : panels)
+            p.layer = null;
+        panels.clear();
+        drawCount = 0;
+    }
+
+    public int getPanelCount() {
+        return panels.size();
+    }
+
+    /** 同时以完整级别绘制的实例数上限（最近的优先，其余降为简化级别）。 */
+    public WorldPanelLayer setMaxFullPanels(int n) {
+        this.maxFullPanels = Math.max(0, n);
+        return this;
+    }
+
+    /** 覆盖视角（度）；0 表示使用游戏设置。 */
+    public WorldPanelLayer setFovOverride(double fovDegrees) {
+        this.fovOverride = fovDegrees;
+        return this;
+    }
+
+    /** 当前使用的相机（由 render 从客户端更新）。 */
+    public WorldView getView() {
+        return view;
+    }
+
+    // --- stats ---
+
+    public int getLastCulledCount() {
+        return lastCulled;
+    }
+
+    public int getLastFullCount() {
+        return lastFull;
+    }
+
+    public int getLastSimpleCount() {
+        return lastSimple;
+    }
+
+    /** 本帧绘制的实例数。 */
+    public int getDrawCount() {
+        return drawCount;
+    }
+
+    /** 本帧由远到近的第 i 个绘制实例。 */
+    public WorldPanel getDrawn(int i) {
+        return panels.get(order[i]);
+    }
+
+    /**
+     * 按给定相机为所有实例更新锚点、剔除、选择细节级别并投影，生成由远到近的绘制顺序。
+     * 跟随的实体已被移除的实例会被移除。
+     */
+    public void prepare(WorldView camera, float tickDelta) {
+        // drop panels whose entity is gone
+        for (int i = panels.size() - 1; i >= 0; i--) {
+            WorldPanel p = panels.get(i);
+            if (!p.updateAnchor(tickDelta)) {
+                p.layer = null;
+                panels.remove(i);
+                drawCount = 0;
+            }
+        }
+        int n = panels.size();
+        if (order.length < n)
+            order = Arrays.copyOf(order, Math.max(n, order.length * 2));
+
+        // keep last frame's order (it is nearly sorted), then append panels that were not drawn
+        long frame = ++frames;
+        int count = 0, culled = 0;
+        for (int i = 0; i < drawCount; i++) {
+            int idx = order[i];
+            if (idx >= n)
+                continue;
+            WorldPanel p = panels.get(idx);
+            p.mark = frame;
+            if (accept(p, camera))
+                order[count++] = idx;
+            else
+                culled++;
+        }
+        for (int idx = 0; idx < n; idx++) {
+            WorldPanel p = panels.get(idx);
+            if (p.mark == frame)
+                continue;
+            p.mark = frame;
+            if (accept(p, camera))
+                order[count++] = idx;
+            else
+                culled++;
+        }
+        // insertion sort, far to near
+        for (int i = 1; i < count; i++) {
+            int idx = order[i];
+            double d = panels.get(idx).distanceSq;
+            int j = i - 1;
+            while (j >= 0 && panels.get(order[j]).distanceSq < d) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = idx;
+        }
+        // LOD budget: only the nearest maxFullPanels keep the full tree
+        int full = 0, simple = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            WorldPanel p = panels.get(order[i]);
+            if (p.lod == Lod.FULL && ++full > maxFullPanels) {
+                p.lod = Lod.SIMPLE;
+                full--;
+            }
+            if (p.lod == Lod.SIMPLE)
+                simple++;
+        }
+        drawCount = count;
+        lastCulled = culled;
+        lastFull = full;
+        lastSimple = simple;
+    }
+
+    /** 剔除并计算一个实例的细节级别与屏幕位置；返回是否需要绘制。 */
+    private boolean accept(WorldPanel p, WorldView camera) {
+        p.lod = Lod.HIDDEN;
+        if (!p.isVisible())
+            return false;
+        WorldPanelTemplate t = p.getTemplate();
+        double dsq = camera.distanceSq(p.getX(), p.getY(), p.getZ());
+        Lod lod = t.selectLod(dsq);
+        if (lod == Lod.HIDDEN || !camera.isVisible(p.getX(), p.getY(), p.getZ(), t.getCullRadius()))
+            return false;
+        if (!camera.project(p.getX(), p.getY(), p.getZ(), projected))
+            return false;
+        p.distanceSq = dsq;
+        p.screenX = projected[0];
+        p.screenY = projected[1];
+        p.pixelsPerBlock = projected[2];
+        p.lod = lod;
+        return true;
+    }
+
+    @Override
+    public void render(DrawContext context, float tickDelta) {
+        if (isSkipped())
+            return;
+        super.render(context, tickDelta);
+        if (panels.isEmpty() || !updateViewFromCamera(context))
+            return;
+        prepare(view, tickDelta);
+        for (int i = 0; i < drawCount; i++) {
+            WorldPanel p = panels.get(order[i]);
+            WorldPanelTemplate t = p.getTemplate();
+            float scale = t.scaleFor(p.pixelsPerBlock);
+            if (p.lod == Lod.FULL)
+                t.drawFull(context, p, p.screenX, p.screenY, scale, tickDelta);
+            else if (p.lod == Lod.SIMPLE)
+                t.drawSimple(context, p, p.screenX, p.screenY, scale);
+        }
+    }
+
+    private boolean updateViewFromCamera(DrawContext context) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.gameRenderer == null)
+            return false;
+        Camera camera = client.gameRenderer.getCamera();
+        if (camera == null || !camera.isReady())
+            return false;
+        double fov = fovOverride > 0 ? fovOverride
+                : (client.options != null ? client.options.getFov().getValue() : 70);
+        var pos = camera.getPos();
+        view.set(pos.x, pos.y, pos.z, camera.getYaw(), camera.getPitch(), fov,
+                context.getScaledWindowWidth(), context.getScaledWindowHeight());
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package org.fish.uitoolkit.v2.world;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.util.math.MatrixStack;
+import org.fish.uitoolkit.v2.UIManager;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.input.HitTestIndex;
+
+/**
+ * 世界面板模板：一棵由所有实例共享的控件树，加上把实例数据写入控件树的绑定回调，以及细节级别的距离阈值。
+ * <p>
+ * 绘制完整级别的实例时，先用绑定回调把该实例的数据（进度、文本等）写入共享的控件树，布局一次后在投影位置绘制；
+ * 因此每个实例只保存数据，而不是一棵完整的控件树。简化级别只绘制一条进度条，不遍历控件树。
+ */
+public final class WorldPanelTemplate {
+    private final UIManager ui = new UIManager();
+    private final int width;
+    private final int height;
+    private final BiConsumer<ControlObject, WorldPanel> binder;
+
+    private double fullDistanceSq = 16 * 16;
+    private double simpleDistanceSq = 48 * 48;
+    private double radius = 1.0;
+    private double blocksPerPixel = 1.0 / 40;
+    private float minScale = 0.25f, maxScale = 1.5f;
+    private int simpleWidth = 24, simpleHeight = 3;
+    private int simpleBackground = 0xA0000000;
+
+    /**
+     * @param width  控件树的宽度（GUI 像素）
+     * @param height 控件树的高度（GUI 像素）
+     * @param build  构建共享控件树（参数为树根）
+     * @param binder 把实例数据写入控件树（参数为树根与实例），每次绘制完整级别的实例前调用
+     */
+    public WorldPanelTemplate(int width, int height, Consumer<ControlObject> build,
+            BiConsumer<ControlObject, WorldPanel> binder) {
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+        this.binder = binder;
+        if (build != null)
+            build.accept(ui.getRoot());
+        ui.prepare(this.width, this.height);
+    }
+
+    /** 创建一个使用本模板的实例（还需加入 {@link WorldPanelLayer} 才会显示）。 */
+    public WorldPanel create() {
+        return new WorldPanel(this);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** 共享的控件树根。 */
+    public ControlObject getRoot() {
+        return ui.getRoot();
+    }
+
+    /** 距离不超过 full 时为完整级别，不超过 simple 时为简化级别，更远则隐藏（单位：方块）。 */
+    public WorldPanelTemplate setLodDistances(double full, double simple) {
+        this.fullDistanceSq = full * full;
+        this.simpleDistanceSq = Math.max(full, simple) * Math.max(full, simple);
+        return this;
+    }
+
+    /** 视锥剔除时使用的包围球半径（方块）。 */
+    public WorldPanelTemplate setCullRadius(double radius) {
+        this.radius = Math.max(0, radius);
+        return this;
+    }
+
+    public double getCullRadius() {
+        return radius;
+    }
+
+    /**
+     * 世界中的尺寸：每个 GUI 像素对应的方块数（默认 1/40，即 40 像素宽为 1 个方块）。
+     * 屏幕上的缩放随距离变化，并限制在 [minScale, maxScale] 之间以保持可读。
+     */
+    public WorldPanelTemplate setWorldScale(double blocksPerPixel, float minScale, float maxScale) {
+        this.blocksPerPixel = Math.max(1e-6, blocksPerPixel);
+        this.minScale = Math.max(0.01f, minScale);
+        this.maxScale = Math.max(this.minScale, maxScale);
+        return this;
+    }
+
+    /** 简化级别的进度条尺寸与背景色。 */
+    public WorldPanelTemplate setSimpleBar(int width, int height, int backgroundArgb) {
+        this.simpleWidth = Math.max(1, width);
+        this.simpleHeight = Math.max(1, height);
+        this.simpleBackground = backgroundArgb;
+        return this;
+    }
+
+    /** 按到相机距离的平方选择细节级别。 */
+    public Lod selectLod(double distanceSq) {
+        if (distanceSq <= fullDistanceSq)
+            return Lod.FULL;
+        if (distanceSq <= simpleDistanceSq)
+            return Lod.SIMPLE;
+        return Lod.HIDDEN;
+    }
+
+    /** 投影后每方块的像素数对应的屏幕缩放。 */
+    public float scaleFor(double pixelsPerBlock) {
+        float s = (float) (pixelsPerBlock * blocksPerPixel);
+        return s < minScale ? minScale : (s > maxScale ? maxScale : s);
+    }
+
+    /** 以 (sx, sy) 为底边中点绘制完整级别的实例。 */
+    void drawFull(DrawContext context, WorldPanel panel, double sx, double sy, float scale, float tickDelta) {
+        ControlObject root = ui.getRoot();
+        if (binder != null)
+            binder.accept(root, panel);
+        ui.prepare(width, height);
+        MatrixStack matrices = context.getMatrices();
+        matrices.push();
+        matrices.translate((float) (sx - width * scale / 2), (float) (sy - height * scale), 0f);
+        matrices.scale(scale, scale, 1f);
+        // the shared tree is drawn many times per frame at transformed positions, so it must not register hit boxes
+        HitTestIndex.push(null);
+        try {
+            root.render(context, tickDelta);
+        } finally {
+            HitTestIndex.pop();
+            matrices.pop();
+        }
+    }
+
+    /** 以 (sx, sy) 为底边中点绘制简化级别的进度条。 */
+    void drawSimple(DrawContext context, WorldPanel panel, double sx, double sy, float scale) {
+        int w = Math.max(2, Math.round(simpleWidth * scale));
+        int h = Math.max(1, Math.round(simpleHeight * scale));
+        int x1 = (int) Math.round(sx - w / 2.0);
+        int y1 = (int) Math.round(sy - h);
+        context.fill(x1 - 1, y1 - 1, x1 + w + 1, y1 + h + 1, simpleBackground);
+        int filled = Math.round(w * panel.getProgress());
+        if (filled > 0)
+            context.fill(x1, y1, x1 + filled, y1 + h, panel.getColor());
+    }
+}
@@ -0,0 +1,133 @@
+package org.fish.uitoolkit.v2.world;
+
+/**
+ * 相机视锥：由相机位置、朝向（Minecraft 约定的 yaw / pitch，单位为度）、垂直视角与屏幕尺寸定义，
+ * 提供球体的视锥剔除、距离计算与世界坐标到屏幕坐标的投影。
+ * <p>
+ * 只使用普通的 double 坐标，不依赖游戏状态，可以脱离客户端单独测试。
+ */
+public final class WorldView {
+    private double camX, camY, camZ;
+    // camera basis: forward, right, up
+    private double fx, fy, fz;
+    private double rx, ry, rz;
+    private double ux, uy, uz;
+    private double tanHalfY, tanHalfX;
+    // side plane normals in camera space (x/y against depth)
+    private double cosX, sinX, cosY, sinY;
+    private double near = 0.05, far = 256;
+    private int screenW = 1, screenH = 1;
+
+    /**
+     * 设置相机。
+     *
+     * @param yaw    水平朝向（度），0 为 +Z，90 为 -X
+     * @param pitch  俯仰（度），正值向下看
+     * @param fovY   垂直视角（度）
+     */
+    public WorldView set(double x, double y, double z, double yaw, double pitch, double fovY, int screenW, int screenH) {
+        this.camX = x;
+        this.camY = y;
+        this.camZ = z;
+        double yr = Math.toRadians(yaw);
+        double pr = Math.toRadians(pitch);
+        double cp = Math.cos(pr);
+        fx = -Math.sin(yr) * cp;
+        fy = -Math.sin(pr);
+        fz = Math.cos(yr) * cp;
+        // right = forward x worldUp, up = right x forward
+        double len = Math.sqrt(fz * fz + fx * fx);
+        if (len < 1e-9) {
+            // looking straight up or down: derive right from yaw alone
+            rx = -Math.cos(yr);
+            rz = -Math.sin(yr);
+        } else {
+            rx = -fz / len;
+            rz = fx / len;
+        }
+        ry = 0;
+        ux = ry * fz - rz * fy;
+        uy = rz * fx - rx * fz;
+        uz = rx * fy - ry * fx;
+        this.screenW = Math.max(1, screenW);
+        this.screenH = Math.max(1, screenH);
+        tanHalfY = Math.tan(Math.toRadians(Math.max(1, Math.min(179, fovY))) / 2);
+        tanHalfX = tanHalfY * this.screenW / this.screenH;
+        double ax = Math.atan(tanHalfX), ay = Math.atan(tanHalfY);
+        cosX = Math.cos(ax);
+        sinX = Math.sin(ax);
+        cosY = Math.cos(ay);
+        sinY = Math.sin(ay);
+        return this;
+    }
+
+    /** 近 / 远裁剪距离。 */
+    public WorldView setClip(double near, double far) {
+        this.near = Math.max(1e-3, near);
+        this.far = Math.max(this.near, far);
+        return this;
+    }
+
+    public double getX() {
+        return camX;
+    }
+
+    public double getY() {
+        return camY;
+    }
+
+    public double getZ() {
+        return camZ;
+    }
+
+    public int getScreenWidth() {
+        return screenW;
+    }
+
+    public int getScreenHeight() {
+        return screenH;
+    }
+
+    public double distanceSq(double x, double y, double z) {
+        double dx = x - camX, dy = y - camY, dz = z - camZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /** 沿视线方向的深度（相机空间 z）；在相机后方时为负。 */
+    public double depth(double x, double y, double z) {
+        return (x - camX) * fx + (y - camY) * fy + (z - camZ) * fz;
+    }
+
+    /** 以 (x, y, z) 为中心、半径为 radius 的球是否与视锥相交。 */
+    public boolean isVisible(double x, double y, double z, double radius) {
+        double dx = x - camX, dy = y - camY, dz = z - camZ;
+        double cz = dx * fx + dy * fy + dz * fz;
+        if (cz < near - radius || cz > far + radius)
+            return false;
+        double cx = dx * rx + dy * ry + dz * rz;
+        double cy = dx * ux + dy * uy + dz * uz;
+        // signed distances to the four side planes (positive = outside)
+        if (Math.abs(cx) * cosX - cz * sinX > radius)
+            return false;
+        return Math.abs(cy) * cosY - cz * sinY <= radius;
+    }
+
+    /**
+     * 把世界坐标投影到屏幕坐标（GUI 缩放后的像素，原点在左上角），结果写入 out[0], out[1]；
+     * out 长度至少为 3，out[2] 为该深度处每个方块对应的像素数。点在近裁剪面之前时返回 false。
+     */
+    public boolean project(double x, double y, double z, double[] out) {
+        double dx = x - camX, dy = y - camY, dz = z - camZ;
+        double cz = dx * fx + dy * fy + dz * fz;
+        if (cz < near)
+            return false;
+        double cx = dx * rx + dy * ry + dz * rz;
+        double cy = dx * ux + dy * uy + dz * uz;
+        double ndcX = cx / (cz * tanHalfX);
+        double ndcY = cy / (cz * tanHalfY);
+        out[0] = (ndcX + 1) * 0.5 * screenW;
+        out[1] = (1 - ndcY) * 0.5 * screenH;
+        out[2] = screenH / (2 * cz * tanHalfY);
+        return true;
+    }
+}
@@ -1,10 +1,14 @@
 package org.examplea.uitoolkit;
 
+import org.fish.uitoolkit.net.ServerUi;
+
 import net.fabricmc.api.ModInitializer;
 
 public class Uitoolkit implements ModInitializer {
 
     @Override
     public void onInitialize() {
+        // 服务端驱动的界面：每个 tick 结束时把界面树的改动发送给观看的玩家
+        ServerUi.init();
     }
 }
@@ -0,0 +1,54 @@
+package org.fish.uitoolkit.net;
+
+import java.util.ArrayDeque;
+
+/**
+ * 内存中的通道：发送的帧排队，{@link #deliver()} 时按顺序交给解码器与处理器，相当于一个不经过网络的客户端。
+ * 用于测试与基准，也可以让单人游戏中的同一进程直接驱动界面。
+ */
+public final class LoopbackChannel implements UiChannel {
+    private final UiDecoder decoder;
+    private final UiPatchHandler handler;
+    private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+    private long frames = 0;
+    private long bytes = 0;
+
+    public LoopbackChannel(UiDecoder decoder, UiPatchHandler handler) {
+        this.decoder = decoder;
+        this.handler = handler;
+    }
+
+    @Override
+    public void send(int hudId, UiBuffer frame) {
+        queue.add(frame.toByteArray());
+        frames++;
+        bytes += frame.size();
+    }
+
+    /** 应用全部排队的帧，返回应用的帧数。 */
+    public int deliver() {
+        int n = 0;
+        byte[] f;
+        while ((f = queue.poll()) != null) {
+            decoder.apply(UiBuffer.wrap(f), handler);
+            n++;
+        }
+        return n;
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    public long getByteCount() {
+        return bytes;
+    }
+
+    public UiDecoder getDecoder() {
+        return decoder;
+    }
+}
@@ -0,0 +1,113 @@
+package org.fish.uitoolkit.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+/**
+ * 服务端界面的 Fabric 接入：在每个服务端 tick 结束时为所有打开的 {@link UiSession} 发送一帧，
+ * 并在玩家断开连接时把他们从所有界面中移除。
+ * <p>
+ * 数据包内容为 varint 界面编号加一个帧。{@link #init()} 由模组的通用入口调用；其余方法只应在服务端主线程上调用。
+ */
+public final class ServerUi {
+    public static final Identifier CHANNEL = new Identifier(UiProtocol.CHANNEL_NAMESPACE, UiProtocol.CHANNEL_PATH);
+
+    private static final List<UiSession> SESSIONS = new ArrayList<>();
+    private static boolean initialized = false;
+
+    private ServerUi() {
+    }
+
+    /** 注册 tick 与断开连接回调（只注册一次）。 */
+    public static synchronized void init() {
+        if (initialized)
+            return;
+        initialized = true;
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> removePlayer(handler.player));
+    }
+
+    /** 打开一个界面；同一编号的旧界面会先被关闭。 */
+    public static UiSession open(int hudId) {
+        UiSession old = get(hudId);
+        if (old != null)
+            close(old);
+        UiSession s = new UiSession(hudId);
+        SESSIONS.add(s);
+        return s;
+    }
+
+    public static UiSession get(int hudId) {
+        for (UiSession s : SESSIONS) {
+            if (s.getHudId() == hudId)
+                return s;
+        }
+        return null;
+    }
+
+    /** 关闭界面：客户端清空它，之后不再发送。 */
+    public static void close(UiSession session) {
+        if (SESSIONS.remove(session))
+            session.close();
+    }
+
+    /** 让玩家观看界面（下一个 tick 收到完整快照）。 */
+    public static void addPlayer(UiSession session, ServerPlayerEntity player) {
+        session.addViewer(new PlayerChannel(player));
+    }
+
+    public static void removePlayer(UiSession session, ServerPlayerEntity player) {
+        session.removeViewers(c -> c instanceof PlayerChannel pc && pc.player == player);
+    }
+
+    /** 把玩家从所有界面中移除。 */
+    public static void removePlayer(ServerPlayerEntity player) {
+        for (UiSession s : SESSIONS)
+            removePlayer(s, player);
+    }
+
+    /** 为所有界面发送本 tick 的改动（由 tick 回调调用）。 */
+    public static void tick() {
+        for (int i = 0; i < SESSIONS.size(); i++)
+            SESSIONS.get(i).tick();
+    }
+
+    /** 通过 Fabric 网络发送给一名玩家的通道。 */
+    public static final class PlayerChannel implements UiChannel {
+        private final ServerPlayerEntity player;
+
+        public PlayerChannel(ServerPlayerEntity player) {
+            this.player = player;
+        }
+
+        public ServerPlayerEntity getPlayer() {
+            return player;
+        }
+
+        @Override
+        public void send(int hudId, UiBuffer frame) {
+            PacketByteBuf buf = PacketByteBufs.create();
+            buf.writeVarInt(hudId);
+            buf.writeBytes(frame.array(), 0, frame.size());
+            ServerPlayNetworking.send(player, CHANNEL, buf);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PlayerChannel pc && pc.player == player;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(player);
+        }
+    }
+}
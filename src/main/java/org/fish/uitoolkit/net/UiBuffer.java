@@ -0,0 +1,164 @@
+package org.fish.uitoolkit.net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 协议使用的可增长字节缓冲：写入端追加，读取端按位置顺序读取。
+ * <p>
+ * 整数使用 varint（每字节 7 位，低位在前）编码；有符号整数先做 zigzag 变换，使绝对值小的负数也只占一两个字节。
+ * 与 Netty 的缓冲无关，因此协议可以在没有网络连接的情况下测试。
+ */
+public final class UiBuffer {
+    private byte[] data;
+    private int size;
+    private int position;
+
+    public UiBuffer() {
+        this(64);
+    }
+
+    public UiBuffer(int capacity) {
+        this.data = new byte[Math.max(16, capacity)];
+    }
+
+    /** 以 bytes 的 [0, length) 作为内容创建只读缓冲（不复制）。 */
+    public static UiBuffer wrap(byte[] bytes, int length) {
+        UiBuffer b = new UiBuffer(0);
+        b.data = bytes;
+        b.size = Math.min(length, bytes.length);
+        return b;
+    }
+
+    public static UiBuffer wrap(byte[] bytes) {
+        return wrap(bytes, bytes.length);
+    }
+
+    /** 已写入的字节数。 */
+    public int size() {
+        return size;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int remaining() {
+        return size - position;
+    }
+
+    /** 清空内容与读取位置（保留容量）。 */
+    public void clear() {
+        size = 0;
+        position = 0;
+    }
+
+    /** 内容的副本。 */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /** 底层数组（有效内容为前 {@link #size()} 个字节）。 */
+    public byte[] array() {
+        return data;
+    }
+
+    // --- write ---
+
+    private void ensure(int extra) {
+        if (size + extra > data.length)
+            data = Arrays.copyOf(data, Math.max(size + extra, data.length * 2));
+    }
+
+    public void writeByte(int b) {
+        ensure(1);
+        data[size++] = (byte) b;
+    }
+
+    public void writeBytes(byte[] b, int off, int len) {
+        ensure(len);
+        System.arraycopy(b, off, data, size, len);
+        size += len;
+    }
+
+    public void writeVarInt(int v) {
+        ensure(5);
+        while ((v & ~0x7F) != 0) {
+            data[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[size++] = (byte) v;
+    }
+
+    public void writeSignedVarInt(int v) {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    /** 固定 4 字节（小端）。 */
+    public void writeInt(int v) {
+        ensure(4);
+        data[size++] = (byte) v;
+        data[size++] = (byte) (v >>> 8);
+        data[size++] = (byte) (v >>> 16);
+        data[size++] = (byte) (v >>> 24);
+    }
+
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    /** UTF-8 字符串，前缀为字节长度的 varint；null 按空串写入。 */
+    public void writeString(String s) {
+        byte[] b = s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(b.length);
+        writeBytes(b, 0, b.length);
+    }
+
+    // --- read ---
+
+    private void require(int n) {
+        if (n < 0 || position + n > size)
+            throw new IllegalArgumentException("ui frame truncated at " + position);
+    }
+
+    public int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return v;
+        }
+        throw new IllegalArgumentException("varint too long at " + position);
+    }
+
+    public int readSignedVarInt() {
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public int readInt() {
+        require(4);
+        int v = (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8
+                | (data[position + 2] & 0xFF) << 16 | (data[position + 3] & 0xFF) << 24;
+        position += 4;
+        return v;
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    public String readString() {
+        int len = readVarInt();
+        require(len);
+        String s = new String(data, position, len, StandardCharsets.UTF_8);
+        position += len;
+        return s;
+    }
+}
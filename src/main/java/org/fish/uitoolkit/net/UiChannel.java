@@ -0,0 +1,12 @@
+package org.fish.uitoolkit.net;
+
+/**
+ * 向一个客户端发送帧的通道。实现应在返回前复制 frame 的内容（调用方会复用缓冲）。
+ */
+public interface UiChannel {
+    /**
+     * @param hudId 目标界面的编号（同一客户端可以同时显示多个服务端界面）
+     * @param frame 一个完整的帧，内容为前 {@link UiBuffer#size()} 个字节
+     */
+    void send(int hudId, UiBuffer frame);
+}
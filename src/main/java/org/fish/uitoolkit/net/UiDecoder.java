@@ -0,0 +1,160 @@
+package org.fish.uitoolkit.net;
+
+import java.util.Arrays;
+
+/**
+ * 客户端的帧解码器：保存每个节点整数属性的当前值以还原差编码，并把改动交给 {@link UiPatchHandler}。
+ * <p>
+ * 解码器同时记录节点的父子关系：移除一个节点时整棵子树都不再存在，之后针对其中任何 id 的修改或以其为父节点的创建都被视为无效帧。
+ * <p>
+ * 解码器的状态必须与服务端逐帧一致：帧损坏时 {@link #apply} 抛出 IllegalArgumentException，
+ * 此时应清空该界面，等待服务端重新发送快照。
+ */
+public final class UiDecoder {
+    private int[][] values = new int[16][];
+    // tree links by id; 0 (the root id) doubles as "none" since the root is never a child or sibling
+    private int[] parents = new int[16];
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private int[] prevSibling = new int[16];
+
+    /** 解码一帧并应用。 */
+    public void apply(UiBuffer in, UiPatchHandler handler) {
+        int ops = in.readVarInt();
+        for (int i = 0; i < ops; i++) {
+            int header = in.readVarInt();
+            int id = header >>> UiProtocol.OP_BITS;
+            switch (header & UiProtocol.OP_MASK) {
+                case UiProtocol.OP_CREATE -> {
+                    int parent = in.readVarInt();
+                    UiNodeType type = UiNodeType.byId(in.readVarInt());
+                    int arg = in.readVarInt();
+                    if (id == UiTree.ROOT || id == parent || slot(id) != null
+                            || (parent != UiTree.ROOT && slot(parent) == null))
+                        throw new IllegalArgumentException("bad create of node " + id + " under " + parent);
+                    if (id >= values.length)
+                        grow(id + 1);
+                    values[id] = new int[UiProp.COUNT];
+                    link(id, parent);
+                    handler.create(id, parent, type, arg);
+                    readProps(in, id, handler);
+                }
+                case UiProtocol.OP_PATCH -> {
+                    if (slot(id) == null)
+                        throw new IllegalArgumentException("patch of unknown node " + id);
+                    readProps(in, id, handler);
+                }
+                case UiProtocol.OP_REMOVE -> {
+                    if (id == UiTree.ROOT || slot(id) == null)
+                        throw new IllegalArgumentException("remove of unknown node " + id);
+                    unlink(id);
+                    removeSubtree(id, handler);
+                }
+                default -> {
+                    reset();
+                    handler.reset();
+                }
+            }
+        }
+        if (in.remaining() != 0)
+            throw new IllegalArgumentException("trailing bytes in ui frame");
+    }
+
+    private void readProps(UiBuffer in, int id, UiPatchHandler handler) {
+        int[] v = values[id];
+        int n = in.readVarInt();
+        for (int i = 0; i < n; i++) {
+            UiProp p = UiProp.byId(in.readVarInt());
+            switch (p.kind) {
+                case INT -> {
+                    v[p.id] += in.readSignedVarInt();
+                    handler.setInt(id, p, v[p.id]);
+                }
+                case COLOR -> {
+                    v[p.id] = in.readInt();
+                    handler.setInt(id, p, v[p.id]);
+                }
+                case FLOAT -> {
+                    v[p.id] = in.readInt();
+                    handler.setFloat(id, p, Float.intBitsToFloat(v[p.id]));
+                }
+                case BOOL -> {
+                    v[p.id] = in.readByte() != 0 ? 1 : 0;
+                    handler.setInt(id, p, v[p.id]);
+                }
+                case STRING -> handler.setText(id, p, in.readString());
+            }
+        }
+    }
+
+    private void grow(int min) {
+        int n = Math.max(min, values.length * 2);
+        values = Arrays.copyOf(values, n);
+        parents = Arrays.copyOf(parents, n);
+        firstChild = Arrays.copyOf(firstChild, n);
+        nextSibling = Arrays.copyOf(nextSibling, n);
+        prevSibling = Arrays.copyOf(prevSibling, n);
+    }
+
+    private void link(int id, int parent) {
+        int head = firstChild[parent];
+        parents[id] = parent;
+        firstChild[id] = 0;
+        prevSibling[id] = 0;
+        nextSibling[id] = head;
+        if (head != 0)
+            prevSibling[head] = id;
+        firstChild[parent] = id;
+    }
+
+    private void unlink(int id) {
+        int prev = prevSibling[id];
+        int next = nextSibling[id];
+        if (prev != 0)
+            nextSibling[prev] = next;
+        else
+            firstChild[parents[id]] = next;
+        if (next != 0)
+            prevSibling[next] = prev;
+    }
+
+    /** 清除 id 及其全部后代（子先父后，每个节点通知一次 handler）。 */
+    private void removeSubtree(int id, UiPatchHandler handler) {
+        for (int c = firstChild[id]; c != 0;) {
+            int next = nextSibling[c];
+            removeSubtree(c, handler);
+            c = next;
+        }
+        values[id] = null;
+        parents[id] = firstChild[id] = nextSibling[id] = prevSibling[id] = 0;
+        handler.remove(id);
+    }
+
+    private int[] slot(int id) {
+        return id >= 0 && id < values.length ? values[id] : null;
+    }
+
+    /** 节点 id 的整数（或颜色、布尔）属性的当前值；未知节点返回 0。 */
+    public int getInt(int id, UiProp prop) {
+        int[] v = slot(id);
+        return v == null ? 0 : v[prop.id];
+    }
+
+    public float getFloat(int id, UiProp prop) {
+        return Float.intBitsToFloat(getInt(id, prop));
+    }
+
+    /** 是否存在节点 id。 */
+    public boolean contains(int id) {
+        return id != UiTree.ROOT && slot(id) != null;
+    }
+
+    /** 清空全部状态。 */
+    public void reset() {
+        Arrays.fill(values, null);
+        Arrays.fill(parents, 0);
+        Arrays.fill(firstChild, 0);
+        Arrays.fill(nextSibling, 0);
+        Arrays.fill(prevSibling, 0);
+    }
+}
@@ -0,0 +1,21 @@
+package org.fish.uitoolkit.net;
+
+/**
+ * 服务端可以创建的节点类型。创建时附带一个整数参数，其含义由类型决定。
+ */
+public enum UiNodeType {
+    /** 容器面板，参数未使用。 */
+    PANEL,
+    /** 文本标签，参数未使用。 */
+    LABEL,
+    /** 进度条，参数为片段数。 */
+    PROGRESS_BAR;
+
+    private static final UiNodeType[] VALUES = values();
+
+    public static UiNodeType byId(int id) {
+        if (id < 0 || id >= VALUES.length)
+            throw new IllegalArgumentException("unknown ui node type " + id);
+        return VALUES[id];
+    }
+}
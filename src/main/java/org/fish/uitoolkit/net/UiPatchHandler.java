@@ -0,0 +1,21 @@
+package org.fish.uitoolkit.net;
+
+/**
+ * 接收 {@link UiDecoder} 解码出的改动。整数值已还原为绝对值；布尔属性以 0/1、颜色以 ARGB 通过 {@link #setInt} 传递。
+ */
+public interface UiPatchHandler {
+    /** 清空整棵树。 */
+    void reset();
+
+    /** 在 parentId（0 为容器）下追加一个节点（解码器保证 id 未被占用、parentId 存在）。 */
+    void create(int id, int parentId, UiNodeType type, int arg);
+
+    /** 移除节点。移除子树时解码器按子先父后的顺序为其中每个节点各调用一次。 */
+    void remove(int id);
+
+    void setInt(int id, UiProp prop, int value);
+
+    void setFloat(int id, UiProp prop, float value);
+
+    void setText(int id, UiProp prop, String value);
+}
@@ -0,0 +1,63 @@
+package org.fish.uitoolkit.net;
+
+/**
+ * 协议中可同步的节点属性。每个属性有固定的线上编号与值类型，服务端与客户端必须使用同一版本的表。
+ * <p>
+ * 整数属性按与上一次发送值的差编码（zigzag varint），计数、血量等小幅变化的值通常只占一两个字节；
+ * 颜色固定 4 字节，浮点固定 4 字节，字符串为长度前缀的 UTF-8。
+ */
+public enum UiProp {
+    /** 相对父节点的位置。 */
+    X(0, Kind.INT),
+    Y(1, Kind.INT),
+    WIDTH(2, Kind.INT),
+    HEIGHT(3, Kind.INT),
+    OFFSET_X(4, Kind.INT),
+    OFFSET_Y(5, Kind.INT),
+    VISIBLE(6, Kind.BOOL),
+    OPACITY(7, Kind.FLOAT),
+    /** 对齐方式（九宫格序号，同时作为父锚点与自身枢轴）：0 左上 … 8 右下。 */
+    ALIGN(8, Kind.INT),
+    /** 面板排列方向：0 纵向，1 横向，2 无。 */
+    ORIENTATION(9, Kind.INT),
+    SPACING(10, Kind.INT),
+    PADDING(11, Kind.INT),
+    TEXT(12, Kind.STRING),
+    TEXT_COLOR(13, Kind.COLOR),
+    TEXT_SCALE(14, Kind.FLOAT),
+    /** 进度条的进度 [0, 1]。 */
+    PROGRESS(15, Kind.FLOAT),
+    BAR_COLOR(16, Kind.COLOR);
+
+    /** 属性值的类型，决定线上编码。 */
+    public enum Kind {
+        INT, COLOR, FLOAT, BOOL, STRING
+    }
+
+    private static final UiProp[] BY_ID;
+
+    static {
+        UiProp[] values = values();
+        BY_ID = new UiProp[values.length];
+        for (UiProp p : values)
+            BY_ID[p.id] = p;
+    }
+
+    /** 属性数（按编号索引的数组长度）。 */
+    public static final int COUNT = BY_ID.length;
+
+    public final int id;
+    public final Kind kind;
+
+    UiProp(int id, Kind kind) {
+        this.id = id;
+        this.kind = kind;
+    }
+
+    /** 按线上编号查找；未知编号抛出 IllegalArgumentException。 */
+    public static UiProp byId(int id) {
+        if (id < 0 || id >= BY_ID.length || BY_ID[id] == null)
+            throw new IllegalArgumentException("unknown ui property " + id);
+        return BY_ID[id];
+    }
+}
@@ -0,0 +1,38 @@
+package org.fish.uitoolkit.net;
+
+/**
+ * 服务端驱动界面的线上格式。
+ *
+ * <pre>
+ * 帧    := varint 操作数, 操作*
+ * 操作  := varint (节点id &lt;&lt; 2 | 操作码), 载荷
+ *   CREATE: varint 父节点id, varint 类型, varint 参数, 属性表
+ *   PATCH:  属性表
+ *   REMOVE: （无，连同子树移除）
+ *   RESET:  （无，清空整棵树；节点id 为 0）
+ * 属性表 := varint 条数, (varint 属性编号, 值)*
+ * </pre>
+ *
+ * 节点 id 0 表示客户端上承载整棵树的容器。一帧包含服务端一个 tick 内的全部改动：同一属性在一个 tick 内的多次修改只发送最后的值，
+ * 改回原值的属性不发送；整数值按差编码（见 {@link UiProp}）。一个 id 在被 REMOVE 之后可以在同一帧或之后的帧中重新 CREATE。
+ */
+public final class UiProtocol {
+    /** 网络通道名（命名空间与路径）。 */
+    public static final String CHANNEL_NAMESPACE = "uitoolkit";
+    public static final String CHANNEL_PATH = "ui";
+
+    public static final int OP_CREATE = 0;
+    public static final int OP_PATCH = 1;
+    public static final int OP_REMOVE = 2;
+    public static final int OP_RESET = 3;
+
+    static final int OP_BITS = 2;
+    static final int OP_MASK = 3;
+
+    private UiProtocol() {
+    }
+
+    static int header(int id, int op) {
+        return id << OP_BITS | op;
+    }
+}
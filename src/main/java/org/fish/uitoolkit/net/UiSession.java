@@ -0,0 +1,96 @@
+package org.fish.uitoolkit.net;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 一个服务端界面：一棵 {@link UiTree} 与观看它的客户端通道。
+ * <p>
+ * {@link #tick()} 每个服务端 tick 调用一次：把本 tick 的改动编码为一帧发送给已同步的客户端，
+ * 再给本 tick 新加入的客户端发送完整快照。因此一个 tick 内无论修改多少次，每个客户端最多收到一帧。
+ */
+public final class UiSession {
+    private final int hudId;
+    private final UiTree tree = new UiTree();
+    private final List<UiChannel> viewers = new ArrayList<>();
+    private final List<UiChannel> joining = new ArrayList<>();
+    private final UiBuffer frame = new UiBuffer(256);
+
+    private long framesSent = 0;
+    private long bytesSent = 0;
+
+    /** @param hudId 客户端上区分多个服务端界面的编号 */
+    public UiSession(int hudId) {
+        this.hudId = hudId;
+    }
+
+    public int getHudId() {
+        return hudId;
+    }
+
+    public UiTree getTree() {
+        return tree;
+    }
+
+    /** 加入一个客户端；它在下一次 {@link #tick()} 时收到完整快照。 */
+    public void addViewer(UiChannel channel) {
+        if (channel != null && !viewers.contains(channel) && !joining.contains(channel))
+            joining.add(channel);
+    }
+
+    public boolean removeViewer(UiChannel channel) {
+        return viewers.remove(channel) | joining.remove(channel);
+    }
+
+    /** 移除满足条件的客户端（例如断开连接的玩家）。 */
+    public void removeViewers(Predicate<UiChannel> filter) {
+        viewers.removeIf(filter);
+        joining.removeIf(filter);
+    }
+
+    public int getViewerCount() {
+        return viewers.size() + joining.size();
+    }
+
+    /** 发送本 tick 的改动与新客户端的快照。 */
+    public void tick() {
+        if (tree.flush(frame))
+            broadcast(viewers);
+        if (!joining.isEmpty()) {
+            tree.writeSnapshot(frame);
+            broadcast(joining);
+            viewers.addAll(joining);
+            joining.clear();
+        }
+    }
+
+    /** 让所有客户端清空本界面并停止发送。 */
+    public void close() {
+        tree.flush(frame);
+        frame.clear();
+        frame.writeVarInt(1);
+        frame.writeVarInt(UiProtocol.header(UiTree.ROOT, UiProtocol.OP_RESET));
+        broadcast(viewers);
+        viewers.clear();
+        joining.clear();
+    }
+
+    private void broadcast(List<UiChannel> targets) {
+        for (UiChannel c : targets) {
+            c.send(hudId, frame);
+            framesSent++;
+            bytesSent += frame.size();
+        }
+    }
+
+    /** 已发送的帧数（每个客户端各计一次）。 */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /** 已发送的帧字节数（不含网络包头）。 */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+}
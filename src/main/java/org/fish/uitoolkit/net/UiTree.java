@@ -0,0 +1,383 @@
+package org.fish.uitoolkit.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 服务端的界面树：记录节点与属性的当前值，并在每个 tick 把自上次 {@link #flush} 以来的改动编码为一帧。
+ * <p>
+ * 每个节点保存上一次发送的值：一个 tick 内对同一属性的多次修改只发送最后的值，改回原值的属性不发送，
+ * 整数属性按与上次发送值的差编码。新加入的客户端通过 {@link #writeSnapshot} 获得完整状态，之后与其它客户端共享同一串增量帧。
+ * <p>
+ * 不是线程安全的，应只在服务端主线程上使用。
+ */
+public final class UiTree {
+    /** 客户端容器的 id（所有顶层节点的父节点）。 */
+    public static final int ROOT = 0;
+
+    private Node[] nodes = new Node[16];
+    private int[] freeIds = new int[8];
+    private int freeCount = 0;
+    private int nextId = 1;
+    private int liveCount = 0;
+
+    // ids of nodes already known to clients that were removed since the last flush
+    private int[] removed = new int[8];
+    private int removedCount = 0;
+    // nodes created or changed since the last flush, in first-touched order (parents before children)
+    private Node[] dirty = new Node[16];
+    private int dirtyCount = 0;
+
+    public UiTree() {
+        nodes[ROOT] = new Node(this, ROOT, null, UiNodeType.PANEL, 0);
+        nodes[ROOT].sent = true;
+    }
+
+    /** 树根（客户端上的容器，不能设置属性或移除）。 */
+    public Node getRoot() {
+        return nodes[ROOT];
+    }
+
+    /** 当前节点数（不含树根）。 */
+    public int size() {
+        return liveCount;
+    }
+
+    public Node get(int id) {
+        return id > ROOT && id < nodes.length ? nodes[id] : null;
+    }
+
+    /** 在 parent 下追加一个节点。 */
+    public Node create(Node parent, UiNodeType type, int arg) {
+        if (parent == null || parent.tree != this || parent.removed)
+            throw new IllegalArgumentException("parent is not a live node of this tree");
+        if (type == null)
+            throw new IllegalArgumentException("type must not be null");
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id >= nodes.length)
+            nodes = Arrays.copyOf(nodes, Math.max(id + 1, nodes.length * 2));
+        Node n = new Node(this, id, parent, type, arg);
+        nodes[id] = n;
+        parent.children.add(n);
+        liveCount++;
+        touch(n);
+        return n;
+    }
+
+    public Node create(Node parent, UiNodeType type) {
+        return create(parent, type, 0);
+    }
+
+    /** 是否有尚未发送的改动。 */
+    public boolean hasPendingChanges() {
+        if (removedCount > 0)
+            return true;
+        for (int i = 0; i < dirtyCount; i++) {
+            if (!dirty[i].removed)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * 把自上次调用以来的改动写入 out（先清空 out）。没有改动时不写入任何内容并返回 false。
+     * 应每个 tick 调用一次，并把结果发送给所有已同步的客户端。
+     */
+    public boolean flush(UiBuffer out) {
+        out.clear();
+        int ops = removedCount;
+        for (int i = 0; i < dirtyCount; i++) {
+            Node n = dirty[i];
+            if (!n.removed && (!n.sent || n.dirtyMask != 0))
+                ops++;
+        }
+        if (ops == 0) {
+            clearPending();
+            return false;
+        }
+        out.writeVarInt(ops);
+        // removals first: an id freed by a removal may be created again in the same frame
+        for (int i = 0; i < removedCount; i++)
+            out.writeVarInt(UiProtocol.header(removed[i], UiProtocol.OP_REMOVE));
+        for (int i = 0; i < dirtyCount; i++) {
+            Node n = dirty[i];
+            if (n.removed)
+                continue;
+            if (!n.sent) {
+                writeCreate(out, n);
+                n.sent = true;
+            } else if (n.dirtyMask != 0) {
+                out.writeVarInt(UiProtocol.header(n.id, UiProtocol.OP_PATCH));
+                writeProps(out, n, n.dirtyMask, false);
+            }
+            System.arraycopy(n.values, 0, n.sentValues, 0, n.values.length);
+            if (n.texts != null)
+                System.arraycopy(n.texts, 0, n.sentTexts, 0, n.texts.length);
+            n.dirtyMask = 0;
+        }
+        clearPending();
+        return true;
+    }
+
+    /**
+     * 把完整状态写入 out（先清空 out）：一个 RESET 之后按父先子后的顺序创建全部节点。
+     * 用于新加入的客户端；必须在 {@link #flush} 之后、下一次修改之前调用，使快照与已发送的增量一致。
+     *
+     * @throws IllegalStateException 存在尚未 flush 的改动
+     */
+    public void writeSnapshot(UiBuffer out) {
+        if (hasPendingChanges())
+            throw new IllegalStateException("flush pending changes before writing a snapshot");
+        clearPending();
+        out.clear();
+        out.writeVarInt(1 + liveCount);
+        out.writeVarInt(UiProtocol.header(ROOT, UiProtocol.OP_RESET));
+        writeSubtree(out, nodes[ROOT]);
+    }
+
+    private void writeSubtree(UiBuffer out, Node parent) {
+        for (Node c : parent.children) {
+            writeCreate(out, c);
+            writeSubtree(out, c);
+        }
+    }
+
+    private void writeCreate(UiBuffer out, Node n) {
+        out.writeVarInt(UiProtocol.header(n.id, UiProtocol.OP_CREATE));
+        out.writeVarInt(n.parent.id);
+        out.writeVarInt(n.type.ordinal());
+        out.writeVarInt(n.arg);
+        // a created node starts from zero on the client, so every property ever set is sent against zero
+        writeProps(out, n, n.setMask, true);
+    }
+
+    private static void writeProps(UiBuffer out, Node n, long mask, boolean fromZero) {
+        out.writeVarInt(Long.bitCount(mask));
+        for (long m = mask; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            UiProp p = UiProp.byId(i);
+            out.writeVarInt(i);
+            switch (p.kind) {
+                case INT -> out.writeSignedVarInt(n.values[i] - (fromZero ? 0 : n.sentValues[i]));
+                case COLOR, FLOAT -> out.writeInt(n.values[i]);
+                case BOOL -> out.writeByte(n.values[i]);
+                case STRING -> out.writeString(n.texts[i]);
+            }
+        }
+    }
+
+    private void clearPending() {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[i].queued = false;
+            dirty[i] = null;
+        }
+        dirtyCount = 0;
+        removedCount = 0;
+    }
+
+    private void touch(Node n) {
+        if (n.queued)
+            return;
+        n.queued = true;
+        if (dirtyCount == dirty.length)
+            dirty = Arrays.copyOf(dirty, dirty.length * 2);
+        dirty[dirtyCount++] = n;
+    }
+
+    private void remove(Node n) {
+        if (n.removed || n.id == ROOT)
+            return;
+        n.parent.children.remove(n);
+        if (n.sent) {
+            // the client drops the whole subtree with its root
+            if (removedCount == removed.length)
+                removed = Arrays.copyOf(removed, removed.length * 2);
+            removed[removedCount++] = n.id;
+        }
+        release(n);
+    }
+
+    private void release(Node n) {
+        for (Node c : n.children)
+            release(c);
+        n.children.clear();
+        n.removed = true;
+        nodes[n.id] = null;
+        liveCount--;
+        if (freeCount == freeIds.length)
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        freeIds[freeCount++] = n.id;
+    }
+
+    /** 树中的一个节点。设置方法返回自身以便链式调用；节点被移除后的修改被忽略。 */
+    public static final class Node {
+        private final UiTree tree;
+        private final int id;
+        private final Node parent;
+        private final UiNodeType type;
+        private final int arg;
+        private final List<Node> children = new ArrayList<>();
+        // numeric values (int, ARGB, float bits, 0/1) by property id
+        private final int[] values = new int[UiProp.COUNT];
+        private final int[] sentValues = new int[UiProp.COUNT];
+        private String[] texts;
+        private String[] sentTexts;
+        private long setMask = 0;
+        private long dirtyMask = 0;
+        private boolean sent = false;
+        private boolean queued = false;
+        private boolean removed = false;
+
+        private Node(UiTree tree, int id, Node parent, UiNodeType type, int arg) {
+            this.tree = tree;
+            this.id = id;
+            this.parent = parent;
+            this.type = type;
+            this.arg = arg;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public UiNodeType getType() {
+            return type;
+        }
+
+        /** 创建时的参数（含义由类型决定，见 {@link UiNodeType}）。 */
+        public int getArg() {
+            return arg;
+        }
+
+        public Node getParent() {
+            return parent;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+
+        /** 在本节点下追加子节点。 */
+        public Node add(UiNodeType type, int arg) {
+            return tree.create(this, type, arg);
+        }
+
+        public Node add(UiNodeType type) {
+            return tree.create(this, type, 0);
+        }
+
+        /** 移除本节点及其子树。 */
+        public void remove() {
+            tree.remove(this);
+        }
+
+        private void check(UiProp p, UiProp.Kind kind) {
+            if (id == ROOT)
+                throw new IllegalStateException("the root has no properties");
+            if (p.kind != kind && !(kind == UiProp.Kind.INT && p.kind == UiProp.Kind.COLOR))
+                throw new IllegalArgumentException(p + " is not a " + kind + " property");
+        }
+
+        private void changed(UiProp p, boolean differsFromSent) {
+            long bit = 1L << p.id;
+            setMask |= bit;
+            if (differsFromSent)
+                dirtyMask |= bit;
+            else
+                dirtyMask &= ~bit;
+            tree.touch(this);
+        }
+
+        public Node setInt(UiProp p, int v) {
+            check(p, UiProp.Kind.INT);
+            if (removed || ((setMask >>> p.id & 1) != 0 && values[p.id] == v))
+                return this;
+            values[p.id] = v;
+            changed(p, !sent || sentValues[p.id] != v);
+            return this;
+        }
+
+        public Node setFloat(UiProp p, float v) {
+            check(p, UiProp.Kind.FLOAT);
+            int bits = Float.floatToIntBits(v);
+            if (removed || ((setMask >>> p.id & 1) != 0 && values[p.id] == bits))
+                return this;
+            values[p.id] = bits;
+            changed(p, !sent || sentValues[p.id] != bits);
+            return this;
+        }
+
+        public Node setBool(UiProp p, boolean v) {
+            check(p, UiProp.Kind.BOOL);
+            int b = v ? 1 : 0;
+            if (removed || ((setMask >>> p.id & 1) != 0 && values[p.id] == b))
+                return this;
+            values[p.id] = b;
+            changed(p, !sent || sentValues[p.id] != b);
+            return this;
+        }
+
+        public Node setText(UiProp p, String v) {
+            check(p, UiProp.Kind.STRING);
+            String s = v == null ? "" : v;
+            if (removed)
+                return this;
+            if (texts == null) {
+                texts = new String[UiProp.COUNT];
+                sentTexts = new String[UiProp.COUNT];
+            }
+            if ((setMask >>> p.id & 1) != 0 && s.equals(texts[p.id]))
+                return this;
+            texts[p.id] = s;
+            changed(p, !sent || !s.equals(sentTexts[p.id]));
+            return this;
+        }
+
+        public int getInt(UiProp p) {
+            return values[p.id];
+        }
+
+        public float getFloat(UiProp p) {
+            return Float.intBitsToFloat(values[p.id]);
+        }
+
+        public String getText(UiProp p) {
+            return texts == null || texts[p.id] == null ? "" : texts[p.id];
+        }
+
+        // --- shortcuts ---
+
+        public Node setPosition(int x, int y) {
+            return setInt(UiProp.X, x).setInt(UiProp.Y, y);
+        }
+
+        public Node setSize(int w, int h) {
+            return setInt(UiProp.WIDTH, w).setInt(UiProp.HEIGHT, h);
+        }
+
+        public Node setOffset(int x, int y) {
+            return setInt(UiProp.OFFSET_X, x).setInt(UiProp.OFFSET_Y, y);
+        }
+
+        public Node setVisible(boolean v) {
+            return setBool(UiProp.VISIBLE, v);
+        }
+
+        public Node setText(String text) {
+            return setText(UiProp.TEXT, text);
+        }
+
+        public Node setTextColor(int rgb) {
+            return setInt(UiProp.TEXT_COLOR, rgb);
+        }
+
+        public Node setProgress(float p) {
+            return setFloat(UiProp.PROGRESS, p);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.fish.uitoolkit.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 移除子树后的 id 有效性：后代的 id 随子树一起失效，针对它们的修改、移除或以它们为父节点的创建都被拒绝，
+ * 被释放的 id 可以在之后的帧中重新创建。
+ */
+public class UiDecoderTest {
+    private final UiTree tree = new UiTree();
+    private final UiBuffer frame = new UiBuffer();
+    private final UiDecoder decoder = new UiDecoder();
+    private final Recorder handler = new Recorder();
+
+    private void sync() {
+        tree.flush(frame);
+        decoder.apply(frame, handler);
+    }
+
+    @Test
+    void removeClearsDescendants() {
+        UiTree.Node a = tree.getRoot().add(UiNodeType.PANEL);
+        UiTree.Node b = a.add(UiNodeType.PANEL);
+        UiTree.Node c = b.add(UiNodeType.LABEL);
+        UiTree.Node other = tree.getRoot().add(UiNodeType.PANEL);
+        sync();
+        int aId = a.getId(), bId = b.getId(), cId = c.getId();
+
+        a.remove();
+        sync();
+        assertFalse(decoder.contains(aId));
+        assertFalse(decoder.contains(bId));
+        assertFalse(decoder.contains(cId));
+        assertTrue(decoder.contains(other.getId()));
+        // every removed node is reported once, children before their parent
+        assertEquals(List.of(cId, bId, aId), handler.removed);
+    }
+
+    @Test
+    void opsOnRemovedDescendantsAreRejected() {
+        UiTree.Node a = tree.getRoot().add(UiNodeType.PANEL);
+        UiTree.Node b = a.add(UiNodeType.PANEL);
+        sync();
+        int bId = b.getId();
+        a.remove();
+        sync();
+
+        UiBuffer patch = new UiBuffer();
+        patch.writeVarInt(1);
+        patch.writeVarInt(UiProtocol.header(bId, UiProtocol.OP_PATCH));
+        patch.writeVarInt(0);
+        assertThrows(IllegalArgumentException.class, () -> decoder.apply(patch, handler));
+
+        UiBuffer create = new UiBuffer();
+        create.writeVarInt(1);
+        create.writeVarInt(UiProtocol.header(40, UiProtocol.OP_CREATE));
+        create.writeVarInt(bId);
+        create.writeVarInt(UiNodeType.PANEL.ordinal());
+        create.writeVarInt(0);
+        create.writeVarInt(0);
+        assertThrows(IllegalArgumentException.class, () -> decoder.apply(create, handler));
+
+        UiBuffer remove = new UiBuffer();
+        remove.writeVarInt(1);
+        remove.writeVarInt(UiProtocol.header(bId, UiProtocol.OP_REMOVE));
+        assertThrows(IllegalArgumentException.class, () -> decoder.apply(remove, handler));
+    }
+
+    @Test
+    void freedIdsCanBeCreatedAgain() {
+        UiTree.Node a = tree.getRoot().add(UiNodeType.PANEL);
+        a.add(UiNodeType.PANEL).add(UiNodeType.LABEL);
+        UiTree.Node keep = tree.getRoot().add(UiNodeType.PANEL);
+        sync();
+        a.remove();
+        // the removal and the creations reusing its ids go out in the same frame
+        UiTree.Node x = keep.add(UiNodeType.PANEL);
+        UiTree.Node y = x.add(UiNodeType.LABEL).setText("y");
+        sync();
+        assertTrue(decoder.contains(x.getId()));
+        assertTrue(decoder.contains(y.getId()));
+
+        x.remove();
+        sync();
+        assertFalse(decoder.contains(y.getId()));
+        assertTrue(decoder.contains(keep.getId()));
+    }
+
+    /** 只记录移除顺序的处理器。 */
+    private static final class Recorder implements UiPatchHandler {
+        final List<Integer> removed = new ArrayList<>();
+
+        @Override
+        public void reset() {
+            removed.clear();
+        }
+
+        @Override
+        public void create(int id, int parentId, UiNodeType type, int arg) {
+        }
+
+        @Override
+        public void remove(int id) {
+            removed.add(id);
+        }
+
+        @Override
+        public void setInt(int id, UiProp prop, int value) {
+        }
+
+        @Override
+        public void setFloat(int id, UiProp prop, float value) {
+        }
+
+        @Override
+        public void setText(int id, UiProp prop, String value) {
+        }
+    }
+}
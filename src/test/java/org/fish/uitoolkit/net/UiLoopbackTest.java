@@ -0,0 +1,214 @@
+package org.fish.uitoolkit.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 通过 {@link LoopbackChannel} 的往返测试：服务端树经过随机修改后，每个客户端按收到的帧重建的镜像与服务端树完全相同，
+ * 包括中途加入（只收到快照与之后的增量）的客户端。镜像处理器是严格的：重复创建、未知 id 的修改或移除都直接失败。
+ */
+public class UiLoopbackTest {
+    private static final int SEEDS = 10;
+    private static final int TICKS = 600;
+    private static final UiProp[] PROPS = UiProp.values();
+
+    @Test
+    void randomEditsRoundTripWithLateJoiner() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random r = new Random(seed);
+            UiSession session = new UiSession(1);
+            UiTree tree = session.getTree();
+            Mirror early = new Mirror();
+            Mirror late = new Mirror();
+            LoopbackChannel first = new LoopbackChannel(new UiDecoder(), early);
+            LoopbackChannel joiner = new LoopbackChannel(new UiDecoder(), late);
+            session.addViewer(first);
+            List<UiTree.Node> live = new ArrayList<>();
+            for (int tick = 0; tick < TICKS; tick++) {
+                edit(r, tree, live);
+                if (tick == TICKS / 2)
+                    session.addViewer(joiner);
+                session.tick();
+                first.deliver();
+                joiner.deliver();
+                String where = "seed " + seed + ", tick " + tick;
+                if (tick % 25 == 0 || tick == TICKS - 1) {
+                    compare(tree, early, first.getDecoder(), where + ", first viewer");
+                    if (tick >= TICKS / 2)
+                        compare(tree, late, joiner.getDecoder(), where + ", late joiner");
+                }
+            }
+            assertTrue(joiner.getByteCount() < first.getByteCount(), "the late joiner got a snapshot, not the history");
+        }
+    }
+
+    @Test
+    void quietTickSendsNothing() {
+        UiSession session = new UiSession(1);
+        LoopbackChannel channel = new LoopbackChannel(new UiDecoder(), new Mirror());
+        session.addViewer(channel);
+        UiTree.Node label = session.getTree().getRoot().add(UiNodeType.LABEL).setText("a");
+        session.tick();
+        long frames = channel.getFrameCount();
+        session.tick();
+        // setting a property to the value already sent is not a change either
+        label.setText("a");
+        session.tick();
+        assertEquals(frames, channel.getFrameCount(), "frames after quiet ticks");
+    }
+
+    @Test
+    void closeClearsViewers() {
+        UiSession session = new UiSession(1);
+        Mirror mirror = new Mirror();
+        LoopbackChannel channel = new LoopbackChannel(new UiDecoder(), mirror);
+        session.addViewer(channel);
+        session.getTree().getRoot().add(UiNodeType.PANEL).add(UiNodeType.LABEL).setText("x");
+        session.tick();
+        channel.deliver();
+        assertEquals(2, mirror.types.size());
+        session.close();
+        channel.deliver();
+        assertTrue(mirror.types.isEmpty(), "mirror after close");
+        assertEquals(0, session.getViewerCount());
+    }
+
+    /** 一个 tick 的随机修改：新增（包括在刚创建的节点下）、移除子树、以及各种类型的属性修改。 */
+    private static void edit(Random r, UiTree tree, List<UiTree.Node> live) {
+        for (int o = 0, ops = r.nextInt(20); o < ops; o++) {
+            int k = r.nextInt(10);
+            if (k < 2 || live.isEmpty()) {
+                UiTree.Node parent = live.isEmpty() || r.nextInt(3) == 0 ? tree.getRoot()
+                        : live.get(r.nextInt(live.size()));
+                live.add(parent.add(UiNodeType.byId(r.nextInt(UiNodeType.values().length)), r.nextInt(5)));
+            } else if (k == 2) {
+                live.get(r.nextInt(live.size())).remove();
+                live.removeIf(UiTree.Node::isRemoved);
+            } else {
+                UiTree.Node n = live.get(r.nextInt(live.size()));
+                UiProp p = PROPS[r.nextInt(PROPS.length)];
+                switch (p.kind) {
+                    case INT -> n.setInt(p, r.nextInt(200) - 100);
+                    case COLOR -> n.setInt(p, r.nextInt());
+                    case FLOAT -> n.setFloat(p, r.nextFloat());
+                    case BOOL -> n.setBool(p, r.nextBoolean());
+                    case STRING -> n.setText(p, r.nextInt(8) == 0 ? "" : "t" + r.nextInt(50));
+                }
+            }
+        }
+    }
+
+    private static void compare(UiTree tree, Mirror mirror, UiDecoder decoder, String where) {
+        assertEquals(tree.size(), mirror.types.size(), where + ": node count");
+        compareChildren(tree.getRoot(), mirror, decoder, where);
+    }
+
+    private static void compareChildren(UiTree.Node node, Mirror mirror, UiDecoder decoder, String where) {
+        List<Integer> kids = mirror.children.get(node.getId());
+        assertNotNull(kids, where + ": node " + node.getId() + " missing");
+        List<UiTree.Node> expected = node.getChildren();
+        assertEquals(expected.size(), kids.size(), where + ": children of " + node.getId());
+        for (int i = 0; i < expected.size(); i++) {
+            UiTree.Node c = expected.get(i);
+            int id = c.getId();
+            String at = where + ": node " + id;
+            assertEquals(id, (int) kids.get(i), at + " order");
+            assertEquals(c.getType(), mirror.types.get(id), at + " type");
+            assertEquals(c.getArg(), (int) mirror.args.get(id), at + " arg");
+            assertTrue(decoder.contains(id), at + " not live in the decoder");
+            Map<UiProp, Object> props = mirror.props.get(id);
+            for (UiProp p : PROPS) {
+                Object v = props.get(p);
+                switch (p.kind) {
+                    case STRING -> assertEquals(c.getText(p), v == null ? "" : v, at + " " + p);
+                    case FLOAT -> assertEquals(Float.floatToIntBits(c.getFloat(p)),
+                            Float.floatToIntBits(v == null ? 0f : (Float) v), at + " " + p);
+                    default -> assertEquals(c.getInt(p), v == null ? 0 : (int) (Integer) v, at + " " + p);
+                }
+            }
+            compareChildren(c, mirror, decoder, where);
+        }
+    }
+
+    /** 按收到的操作重建的树；任何与已知状态矛盾的操作都抛出异常。 */
+    private static final class Mirror implements UiPatchHandler {
+        final Map<Integer, List<Integer>> children = new HashMap<>();
+        final Map<Integer, Integer> parents = new HashMap<>();
+        final Map<Integer, UiNodeType> types = new HashMap<>();
+        final Map<Integer, Integer> args = new HashMap<>();
+        final Map<Integer, Map<UiProp, Object>> props = new HashMap<>();
+
+        Mirror() {
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            children.clear();
+            parents.clear();
+            types.clear();
+            args.clear();
+            props.clear();
+            children.put(UiTree.ROOT, new ArrayList<>());
+        }
+
+        @Override
+        public void create(int id, int parentId, UiNodeType type, int arg) {
+            if (types.containsKey(id))
+                throw new IllegalStateException("create of live node " + id);
+            List<Integer> siblings = children.get(parentId);
+            if (siblings == null)
+                throw new IllegalStateException("create under unknown parent " + parentId);
+            siblings.add(id);
+            children.put(id, new ArrayList<>());
+            parents.put(id, parentId);
+            types.put(id, type);
+            args.put(id, arg);
+            props.put(id, new EnumMap<>(UiProp.class));
+        }
+
+        @Override
+        public void remove(int id) {
+            // the decoder reports descendants first, so a removed node has no children left
+            List<Integer> kids = children.remove(id);
+            if (kids == null || !kids.isEmpty())
+                throw new IllegalStateException("remove of unknown node or node with children " + id);
+            children.get(parents.remove(id)).remove((Integer) id);
+            types.remove(id);
+            args.remove(id);
+            props.remove(id);
+        }
+
+        @Override
+        public void setInt(int id, UiProp prop, int value) {
+            node(id).put(prop, value);
+        }
+
+        @Override
+        public void setFloat(int id, UiProp prop, float value) {
+            node(id).put(prop, value);
+        }
+
+        @Override
+        public void setText(int id, UiProp prop, String value) {
+            node(id).put(prop, value);
+        }
+
+        private Map<UiProp, Object> node(int id) {
+            Map<UiProp, Object> p = props.get(id);
+            if (p == null)
+                throw new IllegalStateException("patch of unknown node " + id);
+            return p;
+        }
+    }
+}
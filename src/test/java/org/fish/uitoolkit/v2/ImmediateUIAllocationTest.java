@@ -0,0 +1,80 @@
+package org.fish.uitoolkit.v2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 稳态帧不分配对象：100 个控件（标签、按钮、开关，分布在两个分组中）的 begin()…end() 加上一次 update 遍历，
+ * 预热之后连续多帧的线程分配字节数不变。
+ */
+public class ImmediateUIAllocationTest {
+    private static final int WIDGETS = 100;
+    private static final String[] IDS = new String[WIDGETS];
+    private static final String[] TEXT = new String[WIDGETS];
+
+    static {
+        for (int i = 0; i < WIDGETS; i++) {
+            IDS[i] = "w" + i;
+            TEXT[i] = "text " + i;
+        }
+    }
+
+    private final boolean[] toggles = new boolean[WIDGETS];
+
+    @Test
+    void steadyStateFrameAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported(),
+                "per-thread allocation counters are not available");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ControlObject root = new ControlObject();
+        root.setSize(320, 240);
+        ImmediateUI ui = new ImmediateUI(root);
+        // warm-up: creates the widgets, then lets the JIT compile the steady-state path
+        for (int f = 0; f < 20_000; f++)
+            frame(ui, root);
+        assertEquals(WIDGETS + 2, ui.getWidgetCount(), "widgets (including the two groups)");
+        assertEquals(0, ui.getLastCreatedCount(), "created in a steady-state frame");
+        assertEquals(0, ui.getLastRemovedCount(), "removed in a steady-state frame");
+
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int f = 0; f < 1_000; f++)
+            frame(ui, root);
+        long after = threads.getThreadAllocatedBytes(id);
+        assertEquals(0L, after - before, "bytes allocated over 1000 steady-state frames");
+    }
+
+    private void frame(ImmediateUI ui, ControlObject root) {
+        ui.begin();
+        ui.beginGroup("left", PanelComponent.Orientation.VERTICAL);
+        for (int i = 0; i < WIDGETS / 2; i++)
+            widget(ui, i);
+        ui.endGroup();
+        ui.beginGroup("right", PanelComponent.Orientation.VERTICAL);
+        for (int i = WIDGETS / 2; i < WIDGETS; i++)
+            widget(ui, i);
+        ui.endGroup();
+        ui.end();
+        root.update(0f);
+    }
+
+    private void widget(ImmediateUI ui, int i) {
+        switch (i % 3) {
+            case 0 -> ui.label(IDS[i], TEXT[i]);
+            case 1 -> ui.button(IDS[i], TEXT[i]);
+            default -> toggles[i] = ui.toggle(IDS[i], TEXT[i], toggles[i]);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t ? t : null;
+    }
+}
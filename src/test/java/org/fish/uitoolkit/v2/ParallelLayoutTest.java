@@ -0,0 +1,161 @@
+package org.fish.uitoolkit.v2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.style.Style;
+import org.fish.uitoolkit.v2.style.StyleProperty;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 随机树上的性质测试：并行布局预处理之后的 update 与不做预处理的顺序 update 得到完全相同的尺寸与位置。
+ * <p>
+ * 每个种子生成三棵相同的树：一棵只做顺序 update（基准），一棵先做顺序预处理，一棵先做并行预处理（阈值很低，保证拆分任务）。
+ * 每棵树运行多帧，帧之间做相同的随机修改（尺寸、可见性、折叠、面板参数、共享样式）。
+ */
+public class ParallelLayoutTest {
+    private static final int SEEDS = 150;
+    private static final int FRAMES = 4;
+    private static final PanelComponent.Orientation[] ORIENTATIONS = PanelComponent.Orientation.values();
+    private static final PanelComponent.Align[] ALIGNS = PanelComponent.Align.values();
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void parallelLayoutMatchesSequentialOnRandomTrees() {
+        long forks = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            int n = 50 + (int) (seed * 7919 % 1500);
+            Tree plain = new Tree(seed, n);
+            Tree sequential = new Tree(seed, n);
+            Tree parallel = new Tree(seed, n);
+            ParallelLayout seq = new ParallelLayout(pool, 8).setParallel(false);
+            ParallelLayout par = new ParallelLayout(pool, 8);
+            for (int f = 0; f < FRAMES; f++) {
+                seq.run(sequential.root);
+                par.run(parallel.root);
+                forks += par.getLastForkCount();
+                plain.root.update(0f);
+                sequential.root.update(0f);
+                parallel.root.update(0f);
+                assertSame(plain, sequential, seed, f, "sequential pre-pass");
+                assertSame(plain, parallel, seed, f, "parallel pre-pass");
+                long mutation = seed * 31 + f;
+                plain.mutate(mutation);
+                sequential.mutate(mutation);
+                parallel.mutate(mutation);
+            }
+        }
+        assertTrue(forks > 0, "the parallel pre-pass never split a subtree");
+    }
+
+    @Test
+    void parallelLayoutIsDeterministic() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Tree a = new Tree(seed, 2000);
+            Tree b = new Tree(seed, 2000);
+            new ParallelLayout(pool, 4).run(a.root);
+            new ParallelLayout(pool, 64).run(b.root);
+            a.root.update(0f);
+            b.root.update(0f);
+            assertSame(a, b, seed, 0, "different split thresholds");
+        }
+    }
+
+    private static void assertSame(Tree expected, Tree actual, long seed, int frame, String what) {
+        assertEquals(expected.nodes.size(), actual.nodes.size());
+        for (int i = 0; i < expected.nodes.size(); i++) {
+            ControlObject e = expected.nodes.get(i);
+            ControlObject a = actual.nodes.get(i);
+            String where = what + ": seed " + seed + ", frame " + frame + ", node " + i;
+            assertEquals(e.getWidth(), a.getWidth(), where + " width");
+            assertEquals(e.getHeight(), a.getHeight(), where + " height");
+            assertEquals(e.getX(), a.getX(), where + " x");
+            assertEquals(e.getY(), a.getY(), where + " y");
+        }
+    }
+
+    /** 由种子确定的随机树；节点按创建顺序保存，以便在几棵相同的树之间逐个比较。 */
+    private static final class Tree {
+        final ControlObject root = new ControlObject();
+        final List<ControlObject> nodes = new ArrayList<>();
+        // shared styles resolved concurrently by workers in the parallel pre-pass
+        final Style[] styles = new Style[3];
+
+        Tree(long seed, int n) {
+            Random r = new Random(seed);
+            for (int i = 0; i < styles.length; i++)
+                styles[i] = new Style("s" + i).set(StyleProperty.SPACING, i * 2);
+            root.setSize(800, 600);
+            PanelComponent rootPanel = (PanelComponent) root.addComponent(new PanelComponent());
+            rootPanel.setOrientation(PanelComponent.Orientation.VERTICAL);
+            nodes.add(root);
+            for (int i = 1; i < n; i++) {
+                // parents are biased towards early nodes, which gives a few large sibling subtrees
+                ControlObject parent = nodes.get(r.nextInt(Math.min(nodes.size(), 1 + i / 4)));
+                ControlObject c = new ControlObject();
+                c.setSize(r.nextInt(50), r.nextInt(30));
+                if (r.nextInt(3) == 0)
+                    configurePanel(c, (PanelComponent) c.addComponent(new PanelComponent()), r);
+                if (r.nextInt(40) == 0)
+                    c.setVisibility(ControlObject.Visibility.COLLAPSED);
+                if (r.nextInt(40) == 0)
+                    c.setVisible(false);
+                if (r.nextInt(60) == 0)
+                    c.setUpdatePolicy(UpdatePolicy.everyFrames(2));
+                parent.addChild(c);
+                nodes.add(c);
+            }
+        }
+
+        private void configurePanel(ControlObject c, PanelComponent p, Random r) {
+            p.setOrientation(ORIENTATIONS[r.nextInt(ORIENTATIONS.length)]);
+            p.setAutoSizeWidth(r.nextBoolean());
+            p.setAutoSizeHeight(r.nextBoolean());
+            p.setCrossAlign(ALIGNS[r.nextInt(ALIGNS.length)]);
+            p.setPadding(r.nextInt(3), r.nextInt(3), r.nextInt(3), r.nextInt(3));
+            if (r.nextBoolean())
+                p.setSpacing(r.nextInt(4));
+            else
+                c.setStyle(styles[r.nextInt(styles.length)]);
+        }
+
+        void mutate(long seed) {
+            Random r = new Random(seed);
+            for (int k = 0; k < nodes.size() / 10; k++) {
+                ControlObject c = nodes.get(1 + r.nextInt(nodes.size() - 1));
+                switch (r.nextInt(6)) {
+                    case 0 -> c.setVisibility(c.isCollapsed() ? ControlObject.Visibility.VISIBLE
+                            : ControlObject.Visibility.COLLAPSED);
+                    case 1 -> c.setVisible(!c.getVisible());
+                    case 2 -> {
+                        PanelComponent p = c.getComponent(PanelComponent.class);
+                        if (p != null)
+                            configurePanel(c, p, r);
+                    }
+                    default -> c.setSize(r.nextInt(60), r.nextInt(30));
+                }
+            }
+            styles[r.nextInt(styles.length)].set(StyleProperty.SPACING, r.nextInt(5));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.fish.uitoolkit.v2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.ProgressBar;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 被节流的子树在未到期的帧中仍执行布局：窗口每帧移动，2 Hz 更新的子控件及其后代（包括进度条的片段）每帧都跟随移动。
+ */
+public class ThrottledLayoutTest {
+    private static final int FRAMES = 30;
+
+    @Test
+    void throttledChildFollowsMovingWindow() throws InterruptedException {
+        ControlObject root = root();
+        ControlObject window = window(root);
+        int[] updates = new int[1];
+        ControlObject clock = new ControlObject() {
+            @Override
+            public void update(float tickDelta) {
+                super.update(tickDelta);
+                updates[0]++;
+            }
+        };
+        clock.setSize(50, 10);
+        clock.setLocalPosition(5, 5);
+        clock.setUpdatePolicy(UpdatePolicy.hz(2));
+        window.addChild(clock);
+        ControlObject inner = new ControlObject();
+        inner.setSize(5, 5);
+        inner.setLocalPosition(1, 1);
+        clock.addChild(inner);
+
+        UpdateScheduler s = new UpdateScheduler();
+        for (int f = 0; f < FRAMES; f++) {
+            frame(root, window, s, f);
+            String where = "frame " + f;
+            assertEquals(window.getX() + 5, clock.getX(), where);
+            assertEquals(window.getY() + 5, clock.getY(), where);
+            assertEquals(clock.getX() + 1, inner.getX(), where);
+            assertEquals(clock.getY() + 1, inner.getY(), where);
+        }
+        // the refresh itself stayed throttled
+        assertTrue(updates[0] < FRAMES / 2, "throttled control updated " + updates[0] + " times");
+    }
+
+    @Test
+    void throttledProgressBarTilesFollowMovingWindow() throws InterruptedException {
+        ControlObject root = root();
+        ControlObject window = window(root);
+        ProgressBar bar = new ProgressBar(4);
+        bar.setLocalPosition(5, 5);
+        // full bar, so the fill tiles are visible (hidden tiles are skipped like any hidden control)
+        bar.setAnimateEnabled(false);
+        bar.setProgress(1f);
+        bar.setUpdatePolicy(UpdatePolicy.hz(2));
+        window.addChild(bar);
+
+        UpdateScheduler s = new UpdateScheduler();
+        for (int f = 0; f < FRAMES; f++) {
+            frame(root, window, s, f);
+            String where = "frame " + f;
+            assertEquals(window.getX() + 5, bar.getX(), where);
+            // the first border tile and the first fill tile sit at the bar's origin
+            for (ControlObject tile : new ControlObject[] { bar.getChildren().get(0), bar.getChildren().get(6) }) {
+                assertEquals(bar.getX(), tile.getX(), where);
+                assertEquals(bar.getY(), tile.getY(), where);
+            }
+        }
+    }
+
+    private static ControlObject root() {
+        ControlObject root = new ControlObject();
+        root.setSize(800, 600);
+        return root;
+    }
+
+    private static ControlObject window(ControlObject root) {
+        ControlObject window = new ControlObject();
+        window.setSize(200, 100);
+        root.addChild(window);
+        return window;
+    }
+
+    private static void frame(ControlObject root, ControlObject window, UpdateScheduler s, int f)
+            throws InterruptedException {
+        window.setPosition(10 + f * 3, 20 + f);
+        UpdateScheduler.push(s);
+        try {
+            s.beginFrame();
+            root.dispatchUpdate(0f);
+            s.runDue(root, 0f);
+        } finally {
+            UpdateScheduler.pop();
+        }
+        Thread.sleep(5);
+    }
+}
@@ -0,0 +1,114 @@
+package org.fish.uitoolkit.v2.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import org.fish.uitoolkit.v2.grid.GridModel;
+import org.fish.uitoolkit.v2.grid.GridView;
+import org.fish.uitoolkit.v2.grid.IntColumn;
+import org.fish.uitoolkit.v2.grid.StringColumn;
+
+/**
+ * 表格排序索引的维护成本（默认 10k 行）：两个视图（一个按数值升序，一个按数值降序并过滤）上的
+ * 单行修改（排序列 / 非排序列）、小批量修改（归并）与整体重新排序。
+ * <p>
+ * 计时结束后把两个视图与重新过滤并用 {@link Arrays#sort} 排序的结果比较，不一致时以非零状态退出。
+ * <p>
+ * 运行：{@code ./gradlew bench -Pbench=GridViewBench}，或以行数作为参数运行 main。
+ */
+public final class GridViewBench {
+    private static final int VALUES = 100_000;
+
+    private GridViewBench() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] { 10_000 } : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i]);
+        boolean ok = true;
+        for (int n : sizes)
+            ok &= run(n);
+        if (!ok)
+            System.exit(1);
+    }
+
+    private static boolean run(int rows) {
+        Random r = new Random(42);
+        GridModel model = new GridModel();
+        IntColumn value = new IntColumn("value", 60);
+        StringColumn name = new StringColumn("name", 80);
+        model.addColumn(value).addColumn(name);
+        for (int i = 0; i < rows; i++) {
+            int row = model.addRow();
+            value.set(row, r.nextInt(VALUES));
+            name.set(row, "row " + i);
+        }
+        IntPredicate filter = row -> value.get(row) % 3 == 0;
+        GridView sorted = model.createView().setSort(value, false);
+        GridView filtered = model.createView().setSort(value, true).setFilter(filter);
+        // pre-built names: the non-sort column updates should not time string concatenation
+        String[] names = new String[64];
+        for (int i = 0; i < names.length; i++)
+            names[i] = "name " + i;
+
+        int updates = 50_000;
+        int batches = 500;
+        int batchSize = 100;
+        int resorts = 200;
+        for (int w = 0; w < 3; w++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < updates; i++)
+                value.set(r.nextInt(rows), r.nextInt(VALUES));
+            long t1 = System.nanoTime();
+            for (int i = 0; i < updates; i++)
+                name.set(r.nextInt(rows), names[i & 63]);
+            long t2 = System.nanoTime();
+            for (int b = 0; b < batches; b++) {
+                model.beginUpdate();
+                for (int i = 0; i < batchSize; i++)
+                    value.set(r.nextInt(rows), r.nextInt(VALUES));
+                model.endUpdate();
+            }
+            long t3 = System.nanoTime();
+            for (int i = 0; i < resorts; i++)
+                sorted.refilter();
+            long t4 = System.nanoTime();
+            if (w == 2) {
+                System.out.printf("rows=%d (filtered view: %d)%n", rows, filtered.size());
+                System.out.printf("  sort-column update:   %.2fus%n", (t1 - t0) / 1e3 / updates);
+                System.out.printf("  other-column update:  %.2fus%n", (t2 - t1) / 1e3 / updates);
+                System.out.printf("  batch of %d updates: %.2fus%n", batchSize, (t3 - t2) / 1e3 / batches);
+                System.out.printf("  full re-sort:         %.2fus%n", (t4 - t3) / 1e3 / resorts);
+            }
+        }
+        int mismatches = compare(model, value, sorted, null, false) + compare(model, value, filtered, filter, true);
+        System.out.printf("  mismatches=%d%n", mismatches);
+        return mismatches == 0;
+    }
+
+    /** 与参考结果比较，返回不一致的位置数（包括长度差）。 */
+    private static int compare(GridModel model, IntColumn value, GridView view, IntPredicate filter,
+            boolean descending) {
+        Integer[] expected = new Integer[model.getRowCount()];
+        int n = 0;
+        for (int row = 0; row < model.getRowLimit(); row++) {
+            if (model.isAlive(row) && (filter == null || filter.test(row)))
+                expected[n++] = row;
+        }
+        expected = Arrays.copyOf(expected, n);
+        Arrays.sort(expected, (a, b) -> {
+            int c = Integer.compare(value.get(a), value.get(b));
+            if (c != 0)
+                return descending ? -c : c;
+            return Integer.compare(a, b);
+        });
+        int mismatches = Math.abs(n - view.size());
+        for (int i = 0, m = Math.min(n, view.size()); i < m; i++) {
+            if (view.rowAt(i) != expected[i] || view.indexOf(expected[i]) != i)
+                mismatches++;
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,147 @@
+package org.fish.uitoolkit.v2.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.fish.uitoolkit.v2.LayoutArena;
+import org.fish.uitoolkit.v2.components.PositionComponent;
+import org.fish.uitoolkit.v2.components.ScaleComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+
+/**
+ * 对比对象模型与 {@link LayoutArena} 计算绝对位置的耗时（默认 10k 与 100k 节点）。
+ * <p>
+ * 对象模型按先序对每个节点调用 {@link PositionComponent#update}（即每帧 update 遍历中定位所做的工作），
+ * 数组后端对同一棵随机树调用一次 {@link LayoutArena#layout()}。计时之前先比较两者算出的绝对坐标（包括一次移动子树之后），
+ * 不一致时以非零状态退出。
+ * <p>
+ * 运行：{@code ./gradlew bench -Pbench=LayoutArenaBench}，或直接以节点数作为参数运行 main。
+ */
+public final class LayoutArenaBench {
+    private static final PositionComponent.Anchor[] ANCHORS = PositionComponent.Anchor.values();
+
+    private LayoutArenaBench() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] { 10_000, 100_000 } : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i]);
+        boolean ok = true;
+        for (int n : sizes)
+            ok &= run(n);
+        if (!ok)
+            System.exit(1);
+    }
+
+    private static boolean run(int n) {
+        // identical trees: one stays on the object model, the other is bound to the arena
+        ControlObject objectRoot = build(n, 42);
+        ControlObject arenaRoot = build(n, 42);
+        LayoutArena arena = new LayoutArena().attach(arenaRoot);
+
+        PositionComponent[] nodes = positions(objectRoot);
+        layoutObjects(nodes);
+        arena.layout();
+        int mismatches = compare(objectRoot, arenaRoot);
+
+        // structural change: move a subtree to the root in both trees
+        moveToRoot(objectRoot);
+        moveToRoot(arenaRoot);
+        nodes = positions(objectRoot);
+        layoutObjects(nodes);
+        arena.layout();
+        mismatches += compare(objectRoot, arenaRoot);
+
+        for (int w = 0; w < 200; w++) {
+            layoutObjects(nodes);
+            arena.layout();
+        }
+        int iterations = Math.max(20, 20_000_000 / n);
+        long t0 = System.nanoTime();
+        for (int k = 0; k < iterations; k++)
+            layoutObjects(nodes);
+        long t1 = System.nanoTime();
+        for (int k = 0; k < iterations; k++)
+            arena.layout();
+        long t2 = System.nanoTime();
+
+        double objectUs = (t1 - t0) / 1e3 / iterations;
+        double arenaUs = (t2 - t1) / 1e3 / iterations;
+        System.out.printf("n=%d  object=%.1fus  arena=%.1fus  speedup=%.2fx  slots=%d live=%d  mismatches=%d%n",
+                n, objectUs, arenaUs, objectUs / arenaUs, arena.getSlotCount(), arena.getLiveCount(), mismatches);
+        return mismatches == 0;
+    }
+
+    /** 随机树：尺寸、局部位置、两套锚点 API、偏移与缩放都随机，父节点偏向较早创建的节点以得到较深的树。 */
+    static ControlObject build(int n, long seed) {
+        Random r = new Random(seed);
+        ControlObject root = new ControlObject();
+        root.setSize(1920, 1080);
+        List<ControlObject> all = new ArrayList<>(n);
+        all.add(root);
+        for (int i = 1; i < n; i++) {
+            ControlObject parent = all.get(r.nextInt(Math.min(all.size(), 1 + i / 8)));
+            ControlObject c = new ControlObject();
+            c.setSize(r.nextInt(101), r.nextInt(51));
+            c.setLocalPosition(r.nextInt(20), r.nextInt(20));
+            if (r.nextBoolean())
+                c.setParentAnchorPreset(ANCHORS[r.nextInt(ANCHORS.length)]);
+            else
+                c.setParentAnchor(ANCHORS[r.nextInt(ANCHORS.length)]);
+            if (r.nextBoolean())
+                c.setPivotNormalized(r.nextFloat(), r.nextFloat());
+            else
+                c.setAnchor(ANCHORS[r.nextInt(ANCHORS.length)]);
+            if (r.nextInt(4) == 0)
+                c.setOffset(r.nextInt(5), r.nextInt(5));
+            if (r.nextInt(5) == 0)
+                c.getComponent(ScaleComponent.class).setScale(1.5f);
+            parent.addChild(c);
+            all.add(c);
+        }
+        return root;
+    }
+
+    private static void moveToRoot(ControlObject root) {
+        List<ControlObject> order = new ArrayList<>();
+        preorder(root, order);
+        ControlObject moved = order.get(order.size() / 2);
+        moved.getParent().removeChild(moved);
+        root.addChild(moved);
+    }
+
+    private static PositionComponent[] positions(ControlObject root) {
+        List<ControlObject> order = new ArrayList<>();
+        preorder(root, order);
+        PositionComponent[] out = new PositionComponent[order.size()];
+        for (int i = 0; i < out.length; i++)
+            out[i] = order.get(i).getComponent(PositionComponent.class);
+        return out;
+    }
+
+    private static void layoutObjects(PositionComponent[] nodes) {
+        for (PositionComponent p : nodes)
+            p.update(p.getOwner(), 0f);
+    }
+
+    private static int compare(ControlObject a, ControlObject b) {
+        List<ControlObject> oa = new ArrayList<>();
+        List<ControlObject> ob = new ArrayList<>();
+        preorder(a, oa);
+        preorder(b, ob);
+        int mismatches = Math.abs(oa.size() - ob.size());
+        for (int i = 0, n = Math.min(oa.size(), ob.size()); i < n; i++) {
+            if (oa.get(i).getX() != ob.get(i).getX() || oa.get(i).getY() != ob.get(i).getY())
+                mismatches++;
+        }
+        return mismatches;
+    }
+
+    private static void preorder(ControlObject c, List<ControlObject> out) {
+        out.add(c);
+        for (ControlObject child : c.getChildren())
+            preorder(child, out);
+    }
+}
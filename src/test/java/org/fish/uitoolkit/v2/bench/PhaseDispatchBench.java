@@ -0,0 +1,147 @@
+package org.fish.uitoolkit.v2.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fish.uitoolkit.v2.components.BackgroundComponent;
+import org.fish.uitoolkit.v2.components.PanelComponent;
+import org.fish.uitoolkit.v2.components.PositionComponent;
+import org.fish.uitoolkit.v2.components.ScaleComponent;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.ProgressBar;
+import org.fish.uitoolkit.v2.input.InputComponent;
+import org.fish.uitoolkit.v2.interfaces.IComponent;
+
+/**
+ * 统计按阶段分发前后每帧的虚调用次数，并测量 update 遍历的耗时。
+ * <p>
+ * 树由若干行组成，每行是一个水平面板：纯色图标（背景）、占位、可点击的徽标（背景 + 输入）、进度条，
+ * 以及一个含两个叶子的嵌套面板。调用次数按分发器自身使用的规则计算（{@link IComponent#getPhases()}、
+ * {@link ControlObject#needsUpdate()} / {@link ControlObject#needsRender()}），与分发前“每个控件在两个阶段都被访问、
+ * 每个组件在两个阶段都被调用”的做法对比。
+ * <p>
+ * 只对 update 遍历计时：render 需要客户端的 {@code DrawContext}。文本标签同样因为测量文字需要运行中的客户端而没有放进树中。
+ * <p>
+ * 运行：{@code ./gradlew bench -Pbench=PhaseDispatchBench}，参数为行数（默认 500）。
+ */
+public final class PhaseDispatchBench {
+    private static final int UPDATE_PHASES = IComponent.PHASE_UPDATE | IComponent.PHASE_LAYOUT;
+    // every component class used in the tree (ControlObject does not expose its component map)
+    private static final List<Class<? extends IComponent>> COMPONENT_TYPES = List.of(PositionComponent.class,
+            ScaleComponent.class, BackgroundComponent.class, PanelComponent.class, InputComponent.class);
+
+    private int controls;
+    private long legacyControlCalls;
+    private long legacyComponentCalls;
+    private long updateControlCalls;
+    private long renderControlCalls;
+    private long updateComponentCalls;
+    private long renderComponentCalls;
+
+    private PhaseDispatchBench() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        new PhaseDispatchBench().run(rows);
+    }
+
+    private void run(int rows) {
+        ControlObject root = new ControlObject();
+        root.setSize(640, rows * 12);
+        PanelComponent rootPanel = panel(root, PanelComponent.Orientation.VERTICAL);
+        rootPanel.setAutoSizeHeight(true);
+        for (int i = 0; i < rows; i++)
+            root.addChild(row(i));
+
+        count(root);
+        long legacy = legacyControlCalls + legacyComponentCalls;
+        long phased = updateControlCalls + renderControlCalls + updateComponentCalls + renderComponentCalls;
+        System.out.printf("rows=%d controls=%d%n", rows, controls);
+        System.out.printf("  every component, both phases: %d calls/frame (%d control + %d component)%n",
+                legacy, legacyControlCalls, legacyComponentCalls);
+        System.out.printf("  per-phase dispatch:           %d calls/frame (update %d + %d, render %d + %d)%n",
+                phased, updateControlCalls, updateComponentCalls, renderControlCalls, renderComponentCalls);
+        System.out.printf("  reduction: %.1f%%%n", 100.0 * (legacy - phased) / legacy);
+
+        for (int w = 0; w < 2000; w++)
+            root.update(0.05f);
+        int frames = 5000;
+        long t0 = System.nanoTime();
+        for (int f = 0; f < frames; f++)
+            root.update(0.05f);
+        long t1 = System.nanoTime();
+        System.out.printf("  update pass: %.1fus/frame%n", (t1 - t0) / 1e3 / frames);
+    }
+
+    private static ControlObject row(int i) {
+        ControlObject row = new ControlObject();
+        row.setSize(640, 12);
+        panel(row, PanelComponent.Orientation.HORIZONTAL).setSpacing(4);
+
+        ControlObject icon = new ControlObject();
+        icon.setSize(10, 10);
+        icon.addComponent(new BackgroundComponent(icon).setColor(0x3366CC));
+        row.addChild(icon);
+
+        ControlObject spacer = new ControlObject();
+        spacer.setSize(8, 10);
+        row.addChild(spacer);
+
+        ControlObject badge = new ControlObject();
+        badge.setSize(24, 10);
+        badge.addComponent(new BackgroundComponent(badge).setColor(0xCC3333));
+        badge.addComponent(new InputComponent());
+        row.addChild(badge);
+
+        ProgressBar bar = new ProgressBar(8);
+        bar.setSize(120, 8);
+        bar.setProgress((i % 10) / 10f);
+        row.addChild(bar);
+
+        ControlObject group = new ControlObject();
+        panel(group, PanelComponent.Orientation.VERTICAL).setAutoSizeWidth(true);
+        for (int k = 0; k < 2; k++) {
+            ControlObject leaf = new ControlObject();
+            leaf.setSize(30, 5);
+            group.addChild(leaf);
+        }
+        row.addChild(group);
+        return row;
+    }
+
+    private static PanelComponent panel(ControlObject c, PanelComponent.Orientation o) {
+        PanelComponent p = (PanelComponent) c.addComponent(new PanelComponent());
+        p.setOrientation(o);
+        return p;
+    }
+
+    /** 按两种分发方式统计 c 及其子树每帧的调用次数（父面板对子控件的调用计入控件调用）。 */
+    private void count(ControlObject c) {
+        List<IComponent> list = new ArrayList<>();
+        for (Class<? extends IComponent> type : COMPONENT_TYPES) {
+            IComponent comp = c.getComponent(type);
+            if (comp != null)
+                list.add(comp);
+        }
+        controls++;
+        legacyControlCalls += 2;
+        legacyComponentCalls += 2L * list.size();
+        if (c.needsUpdate()) {
+            updateControlCalls++;
+            for (IComponent comp : list) {
+                if ((comp.getPhases() & UPDATE_PHASES) != 0)
+                    updateComponentCalls++;
+            }
+        }
+        if (c.needsRender()) {
+            renderControlCalls++;
+            for (IComponent comp : list) {
+                if ((comp.getPhases() & IComponent.PHASE_RENDER) != 0)
+                    renderComponentCalls++;
+            }
+        }
+        for (ControlObject child : c.getChildren())
+            count(child);
+    }
+}
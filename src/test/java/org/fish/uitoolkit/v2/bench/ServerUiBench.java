@@ -0,0 +1,140 @@
+package org.fish.uitoolkit.v2.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.fish.uitoolkit.net.LoopbackChannel;
+import org.fish.uitoolkit.net.UiDecoder;
+import org.fish.uitoolkit.net.UiNodeType;
+import org.fish.uitoolkit.net.UiPatchHandler;
+import org.fish.uitoolkit.net.UiProp;
+import org.fish.uitoolkit.net.UiSession;
+import org.fish.uitoolkit.net.UiTree;
+import org.fish.uitoolkit.v2.controls.ControlObject;
+import org.fish.uitoolkit.v2.controls.Label;
+import org.fish.uitoolkit.v2.controls.ProgressBar;
+import org.fish.uitoolkit.v2.net.ControlPatchApplier;
+
+/**
+ * 服务端界面协议的每 tick 字节数与客户端应用成本。
+ * <p>
+ * 场景是一个小游戏 HUD：8 行计分板、计时器与两个进度条，每 tick 计时器与进度条变化、计分板偶尔变化。
+ * 报告快照大小、增量帧的平均字节数（与每 tick 发送全部文本的做法对比）、只解码的耗时，
+ * 以及解码并应用到 {@link ControlPatchApplier}（真实控件）的耗时。结束时检查控件与服务端树一致，不一致时以非零状态退出。
+ * <p>
+ * 运行：{@code ./gradlew bench -Pbench=ServerUiBench}，参数为 tick 数（默认 20000）。
+ */
+public final class ServerUiBench {
+    private static final UiPatchHandler DISCARD = new UiPatchHandler() {
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void create(int id, int parentId, UiNodeType type, int arg) {
+        }
+
+        @Override
+        public void remove(int id) {
+        }
+
+        @Override
+        public void setInt(int id, UiProp prop, int value) {
+        }
+
+        @Override
+        public void setFloat(int id, UiProp prop, float value) {
+        }
+
+        @Override
+        public void setText(int id, UiProp prop, String value) {
+        }
+    };
+
+    private ServerUiBench() {
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Random r = new Random(1);
+        UiSession hud = new UiSession(1);
+        UiDecoder applyDecoder = new UiDecoder();
+        ControlPatchApplier applier = new ControlPatchApplier(new ControlObject(), applyDecoder);
+        LoopbackChannel applied = new LoopbackChannel(applyDecoder, applier);
+        LoopbackChannel decoded = new LoopbackChannel(new UiDecoder(), DISCARD);
+        hud.addViewer(applied);
+        hud.addViewer(decoded);
+
+        UiTree tree = hud.getTree();
+        UiTree.Node column = tree.getRoot().add(UiNodeType.PANEL).setInt(UiProp.ORIENTATION, 0).setInt(UiProp.ALIGN, 2);
+        UiTree.Node[] rows = new UiTree.Node[8];
+        int[] scores = new int[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = column.add(UiNodeType.LABEL).setText("Player" + i + ": 0").setTextColor(0xFFFFFF);
+        UiTree.Node timer = tree.getRoot().add(UiNodeType.LABEL).setInt(UiProp.ALIGN, 1);
+        UiTree.Node hp = tree.getRoot().add(UiNodeType.PROGRESS_BAR, 10).setInt(UiProp.ALIGN, 7);
+        UiTree.Node xp = tree.getRoot().add(UiNodeType.PROGRESS_BAR, 10).setInt(UiProp.ALIGN, 7).setOffset(0, -10);
+        hud.tick();
+        long snapshot = applied.getByteCount();
+        applied.deliver();
+        decoded.deliver();
+
+        long base = applied.getByteCount();
+        long fullTextBytes = 0;
+        long applyNanos = 0;
+        long decodeNanos = 0;
+        StringBuilder text = new StringBuilder();
+        for (int tick = 0; tick < ticks; tick++) {
+            int sec = tick / 20;
+            timer.setText(String.format("%02d:%02d", sec / 60, sec % 60));
+            hp.setProgress(0.5f + 0.5f * (float) Math.sin(tick * 0.05));
+            xp.setProgress((tick % 400) / 400f);
+            if (tick % 7 == 0) {
+                int i = r.nextInt(rows.length);
+                scores[i] += 1 + r.nextInt(3);
+                rows[i].setText("Player" + i + ": " + scores[i]);
+            }
+            hud.tick();
+            long t0 = System.nanoTime();
+            applied.deliver();
+            long t1 = System.nanoTime();
+            decoded.deliver();
+            long t2 = System.nanoTime();
+            applyNanos += t1 - t0;
+            decodeNanos += t2 - t1;
+
+            // the alternative: every label and bar value as text, every tick
+            text.setLength(0);
+            for (UiTree.Node row : rows)
+                text.append(row.getText(UiProp.TEXT)).append('\n');
+            text.append(timer.getText(UiProp.TEXT)).append('\n').append(hp.getFloat(UiProp.PROGRESS)).append('\n')
+                    .append(xp.getFloat(UiProp.PROGRESS));
+            fullTextBytes += text.toString().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        int mismatches = 0;
+        for (UiTree.Node row : rows)
+            mismatches += textOf(applier, row).equals(row.getText(UiProp.TEXT)) ? 0 : 1;
+        mismatches += textOf(applier, timer).equals(timer.getText(UiProp.TEXT)) ? 0 : 1;
+        mismatches += progressOf(applier, hp) == hp.getFloat(UiProp.PROGRESS) ? 0 : 1;
+        mismatches += progressOf(applier, xp) == xp.getFloat(UiProp.PROGRESS) ? 0 : 1;
+
+        System.out.printf("ticks=%d nodes=%d%n", ticks, tree.size());
+        System.out.printf("  snapshot:            %dB%n", snapshot);
+        System.out.printf("  delta frames:        %.1f B/tick%n", (applied.getByteCount() - base) / (double) ticks);
+        System.out.printf("  full text each tick: %.1f B/tick%n", fullTextBytes / (double) ticks);
+        System.out.printf("  decode only:         %.2fus/frame%n", decodeNanos / 1e3 / ticks);
+        System.out.printf("  decode + apply:      %.2fus/frame%n", applyNanos / 1e3 / ticks);
+        System.out.printf("  mismatches=%d%n", mismatches);
+        if (mismatches != 0)
+            System.exit(1);
+    }
+
+    private static String textOf(ControlPatchApplier applier, UiTree.Node node) {
+        return applier.get(node.getId()) instanceof Label l ? l.getText() : null;
+    }
+
+    private static float progressOf(ControlPatchApplier applier, UiTree.Node node) {
+        return applier.get(node.getId()) instanceof ProgressBar b ? b.getProgress() : Float.NaN;
+    }
+}
@@ -0,0 +1,213 @@
+package org.fish.uitoolkit.v2.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 随机修改下的排序索引性质测试：每个视图的排列与对存活行重新过滤并用 {@link Arrays#sort} 排序的结果逐项相同，
+ * 反向索引一致（被过滤或已删除的行为 -1）。
+ * <p>
+ * 修改包括单行修改（排序列、过滤依赖的列、无关列）、删除与新增（id 复用）、小批量（归并路径）、大批量与含增删的批量（重建路径），
+ * 以及切换排序列、方向与过滤条件。值域很小，保证大量相等值按行 id 排序。
+ */
+public class GridViewTest {
+    private static final int SEEDS = 10;
+    private static final int ROWS = 2000;
+    private static final int OPS = 3000;
+    private static final String[] WORDS = { "alpha", "Beta", "gamma", "delta", "Alpha", "beta", null };
+
+    private GridModel model;
+    private IntColumn ints;
+    private DoubleColumn doubles;
+    private StringColumn strings;
+    // filter parameters read by the predicates; changing them requires refilter()
+    private int modulus = 3;
+
+    @Test
+    void viewsMatchReferenceSortUnderRandomEdits() {
+        long incremental = 0;
+        long fullSorts = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random r = new Random(seed);
+            build(r);
+            IntPredicate byModulus = row -> ints.get(row) % modulus == 0;
+            IntPredicate byWord = row -> strings.get(row) != null && strings.get(row).startsWith("a");
+            GridView[] views = {
+                    model.createView(),
+                    model.createView().setSort(ints, false),
+                    model.createView().setSort(ints, true).setFilter(byModulus),
+                    model.createView().setSort(doubles, false).setFilter(byWord),
+                    model.createView().setSort(strings, true),
+            };
+            IntPredicate[] filters = { null, null, byModulus, byWord, null };
+            verify(views, filters, seed, -1);
+
+            for (int op = 0; op < OPS; op++) {
+                int kind = r.nextInt(100);
+                if (kind < 55)
+                    setRandom(r, randomRow(r));
+                else if (kind < 65)
+                    removeRandom(r);
+                else if (kind < 75)
+                    fill(r, model.addRow());
+                else if (kind < 85)
+                    batch(r, 1 + r.nextInt(40), false);
+                else if (kind < 88)
+                    batch(r, ROWS / 4 + r.nextInt(ROWS / 4), false);
+                else if (kind < 92)
+                    batch(r, 1 + r.nextInt(20), true);
+                else if (kind < 95) {
+                    modulus = 2 + r.nextInt(4);
+                    views[2].refilter();
+                } else if (kind < 98) {
+                    int v = 1 + r.nextInt(views.length - 1);
+                    GridColumn[] columns = { ints, doubles, strings };
+                    views[v].setSort(columns[r.nextInt(columns.length)], r.nextBoolean());
+                } else {
+                    IntPredicate f = r.nextBoolean() ? null : byWord;
+                    views[4].setFilter(f);
+                    filters[4] = f;
+                }
+                if (op % 200 == 0)
+                    verify(views, filters, seed, op);
+            }
+            verify(views, filters, seed, OPS);
+            for (GridView v : views) {
+                incremental += v.getIncrementalUpdateCount();
+                fullSorts += v.getFullSortCount();
+            }
+        }
+        // both maintenance paths were exercised
+        assertTrue(incremental > 0, "no incremental updates");
+        assertTrue(fullSorts > SEEDS * 5L, "no full re-sorts beyond the initial ones");
+    }
+
+    @Test
+    void nestedBatchesApplyOnce() {
+        build(new Random(7));
+        GridView view = model.createView().setSort(ints, false);
+        int sorts = view.getFullSortCount();
+        Random r = new Random(8);
+        model.beginUpdate();
+        model.beginUpdate();
+        for (int i = 0; i < 10; i++)
+            ints.set(randomRow(r), r.nextInt(50));
+        model.endUpdate();
+        // still inside the outer batch: the index is not touched yet
+        assertTrue(model.isUpdating());
+        model.endUpdate();
+        assertEquals(sorts, view.getFullSortCount(), "a small batch is merged, not re-sorted");
+        verify(new GridView[] { view }, new IntPredicate[] { null }, 7, 0);
+    }
+
+    private void build(Random r) {
+        model = new GridModel();
+        ints = new IntColumn("int", 40);
+        doubles = new DoubleColumn("double", 40);
+        strings = new StringColumn("string", 60);
+        model.addColumn(ints).addColumn(doubles).addColumn(strings);
+        modulus = 3;
+        for (int i = 0; i < ROWS; i++)
+            fill(r, model.addRow());
+    }
+
+    private void fill(Random r, int row) {
+        ints.set(row, r.nextInt(50));
+        doubles.set(row, r.nextInt(20) / 4.0);
+        strings.set(row, WORDS[r.nextInt(WORDS.length)]);
+    }
+
+    private void setRandom(Random r, int row) {
+        if (row < 0)
+            return;
+        switch (r.nextInt(3)) {
+            case 0 -> ints.set(row, r.nextInt(50));
+            case 1 -> doubles.set(row, r.nextInt(20) / 4.0);
+            default -> strings.set(row, WORDS[r.nextInt(WORDS.length)]);
+        }
+    }
+
+    private void removeRandom(Random r) {
+        int row = randomRow(r);
+        if (row >= 0)
+            model.removeRow(row);
+    }
+
+    private void batch(Random r, int edits, boolean structural) {
+        model.beginUpdate();
+        for (int i = 0; i < edits; i++) {
+            if (structural && r.nextInt(4) == 0) {
+                if (r.nextBoolean())
+                    removeRandom(r);
+                else
+                    fill(r, model.addRow());
+            } else {
+                setRandom(r, randomRow(r));
+            }
+        }
+        model.endUpdate();
+    }
+
+    /** 随机的存活行（没有存活行时返回 -1）。 */
+    private int randomRow(Random r) {
+        if (model.getRowCount() == 0)
+            return -1;
+        while (true) {
+            int row = r.nextInt(model.getRowLimit());
+            if (model.isAlive(row))
+                return row;
+        }
+    }
+
+    private void verify(GridView[] views, IntPredicate[] filters, long seed, int op) {
+        for (int v = 0; v < views.length; v++) {
+            GridView view = views[v];
+            Integer[] expected = reference(view, filters[v]);
+            String where = "seed " + seed + ", op " + op + ", view " + v;
+            assertEquals(expected.length, view.size(), where + " size");
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals((int) expected[i], view.rowAt(i), where + " row at " + i);
+                assertEquals(i, view.indexOf(expected[i]), where + " index of row " + expected[i]);
+            }
+            int listed = 0;
+            for (int row = 0; row < model.getRowLimit(); row++) {
+                if (view.indexOf(row) >= 0)
+                    listed++;
+            }
+            assertEquals(expected.length, listed, where + " rows with an index");
+        }
+    }
+
+    /** 参考结果：重新过滤所有存活行，按视图的排序列与方向排序，相等时按行 id 升序。 */
+    private Integer[] reference(GridView view, IntPredicate filter) {
+        Integer[] rows = new Integer[model.getRowCount()];
+        int n = 0;
+        for (int row = 0; row < model.getRowLimit(); row++) {
+            if (model.isAlive(row) && (filter == null || filter.test(row)))
+                rows[n++] = row;
+        }
+        rows = Arrays.copyOf(rows, n);
+        Comparator<Integer> byValue = valueOrder(view.getSortColumn());
+        if (view.isDescending())
+            byValue = byValue.reversed();
+        Arrays.sort(rows, byValue.thenComparingInt(Integer::intValue));
+        return rows;
+    }
+
+    private Comparator<Integer> valueOrder(GridColumn column) {
+        if (column == ints)
+            return Comparator.comparingInt(ints::get);
+        if (column == doubles)
+            return Comparator.comparingDouble(doubles::get);
+        if (column == strings)
+            return Comparator.comparing(strings::get, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        return (a, b) -> 0;
+    }
+}